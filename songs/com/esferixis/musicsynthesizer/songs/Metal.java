@@ -43,7 +43,8 @@ import com.esferixis.musicsynthesizer.instrument.signalSynthesizer.SignalSynthes
 import com.esferixis.musicsynthesizer.instrument.string.StringEventData;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
 import com.esferixis.musicsynthesizer.signal.continuous.transformers.DiscreteInputOutputBlockSignalTransformer;
-import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.AntiderivativeAntialiasedInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockComposition;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.AverageLowpassFilterBlock;
 import com.esferixis.musicsynthesizer.signal.valueTransformer.ArctanDistorter;
 import com.esferixis.musicsynthesizer.signal.valueTransformer.SquareWaveDistorter;
@@ -60,7 +61,7 @@ public class Metal {
 	public static ContinuousSignal loadSignal() {
 		final float decayFactor = 0.7f;
 		
-		final Instrument<StringEventData> organ = new KarplusStrongStringGuitar().transform(new TimeInvariantSignalTransformer(new SquareWaveDistorter())).transform(new DiscreteInputOutputBlockSignalTransformer(AverageLowpassFilterBlock.createFactory(30), 44100));
+		final Instrument<StringEventData> organ = new KarplusStrongStringGuitar().transform(new DiscreteInputOutputBlockSignalTransformer(DiscreteInputOutputBlockComposition.createFactory(AntiderivativeAntialiasedInputOutputBlock.createFactory(new SquareWaveDistorter(), AntiderivativeAntialiasedInputOutputBlock.Order.SECOND), AverageLowpassFilterBlock.createFactory(30)), 44100));
 		
 		final SignalSynthesizer<StringEventData> organSignalSynthesizer = organ.createSignalSynthesizer();
 		
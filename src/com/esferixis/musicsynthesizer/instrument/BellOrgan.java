@@ -54,27 +54,15 @@ public final class BellOrgan extends HomogeneousOrgan {
 		final FloatClosedInterval timeInterval = new FloatClosedInterval(0.0f, (float) (-Math.log(0.01f) / canonicalTau));
 		
 		this.setHomogeneousSignal( new ContinuousSignal(timeInterval) {
-			final ContinuousSignal amplitude = new ContinuousSignal(timeInterval) {
-
-				@Override
-				protected float uncheckedGetValue(float t) {
-					return 1.0f * (float) Math.exp(-t * canonicalTau);
-				}
-				
-			};
-			
-			final ContinuousSignal modulationIndex = new ContinuousSignal(timeInterval) {
-
-				@Override
-				protected float uncheckedGetValue(float t) {
-					return 5.0f * (float) Math.exp(-t * canonicalTau);
-				}
-				
-			};
 			
 			@Override
 			protected float uncheckedGetValue(float t) {
-				return this.amplitude.getValue(t) * (float) Math.cos( doublePI * canonicalCarrierFrequency * t + this.modulationIndex.getValue(t) * (float) Math.cos(doublePI * canonicalModulationFrequency * t) );
+				// La amplitud y el índice de modulación comparten la envolvente exponencial
+				final float envelope = (float) Math.exp(-t * canonicalTau);
+				final float amplitude = 1.0f * envelope;
+				final float modulationIndex = 5.0f * envelope;
+				
+				return amplitude * (float) Math.cos( doublePI * canonicalCarrierFrequency * t + modulationIndex * (float) Math.cos(doublePI * canonicalModulationFrequency * t) );
 			}
 			
 		} );
@@ -32,7 +32,9 @@
 package com.esferixis.musicsynthesizer.instrument;
 
 import java.util.Arrays;
+import java.util.List;
 
+import com.esferixis.math.ExtraMath;
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.composition.Event;
 import com.esferixis.musicsynthesizer.composition.note.Note;
@@ -99,23 +101,23 @@ public class HomogeneousOrgan extends Instrument<OrganEventData> {
 				
 				/**
 				 * @post Devuelve la fase para el evento con
-				 * 		 el índice especificado, en el array de eventos
-				 * 		 y en el instante de tiempo especificado
+				 * 		 el índice especificado, con los instantes de tiempo
+				 * 		 y las alturas de los eventos, y en el instante de tiempo especificado
 				 */
-				private float getLocalPhaseByEvent(Event<OrganEventData>[] event, int index, float time) {
+				private float getLocalPhaseByEvent(float[] eventTime, float[] eventPitch, int index, float time) {
 					float phase;
-					final float localT = time - event[index].getTime();
-					if ( ( index <= event.length-2 ) && ( event[index].getData().getPitch() != event[index+1].getData().getPitch() ) ) {
-						final float deltaPitch = event[index+1].getData().getPitch() - event[index].getData().getPitch();
-						final float deltaT = event[index+1].getTime() - event[index].getTime();
+					final float localT = time - eventTime[index];
+					if ( ( index <= eventTime.length-2 ) && ( eventPitch[index] != eventPitch[index+1] ) ) {
+						final float deltaPitch = eventPitch[index+1] - eventPitch[index];
+						final float deltaT = eventTime[index+1] - eventTime[index];
 						
-						final float v0 = (event[index].getData().getPitch() - 49) / 12.0f;
-						final float v1 = ( localT * deltaPitch / deltaT + event[index].getData().getPitch() - 49 ) / 12.0f;
+						final float v0 = (eventPitch[index] - 49) / 12.0f;
+						final float v1 = ( localT * deltaPitch / deltaT + eventPitch[index] - 49 ) / 12.0f;
 						
 						phase = (5280.0f * deltaT / ( ln2 * deltaPitch ) * (float) ( Math.pow(2.0f, v1) - Math.pow(2.0f, v0) ) );
 					}
 					else {
-						phase = Event.getPitchFrequency(event[index].getData().getPitch()) * localT;
+						phase = Event.getPitchFrequency(eventPitch[index]) * localT;
 					}
 					
 					return phase;
@@ -123,19 +125,30 @@ public class HomogeneousOrgan extends Instrument<OrganEventData> {
 				
 				@Override
 				protected ContinuousSignal synthesizeNote(Note<Void, OrganEventData> note) {
-					final Event<OrganEventData>[] events = note.getEvents().toArray(new Event[0]);
-					final float[] eventPhase = new float[events.length];
+					final List<Event<OrganEventData>> events = note.getEvents();
+					final float[] eventTime = new float[events.size()];
+					final float[] eventPitch = new float[events.size()];
+					final float[] eventVolume = new float[events.size()];
+					final float[] eventPhase = new float[events.size()];
+					
+					for ( int i = 0 ; i < events.size() ; i++ ) {
+						final Event<OrganEventData> event = events.get(i);
+						
+						eventTime[i] = event.getTime();
+						eventPitch[i] = event.getData().getPitch();
+						eventVolume[i] = event.getData().getVolume();
+					}
 					
 					final float endPhase;
 					
 					{
 						float phase = 0.0f;
 						
-						for ( int i = 0 ; i < events.length ; i++ ) {
+						for ( int i = 0 ; i < events.size() ; i++ ) {
 							eventPhase[i] = phase;
 							
-							if ( i <= events.length-2 ) {
-								phase += this.getLocalPhaseByEvent(events, i, events[i+1].getTime());
+							if ( i <= events.size()-2 ) {
+								phase += this.getLocalPhaseByEvent(eventTime, eventPitch, i, eventTime[i+1]);
 							}
 						}
 						
@@ -145,17 +158,17 @@ public class HomogeneousOrgan extends Instrument<OrganEventData> {
 					float timeDelta;
 					
 					if ( HomogeneousOrgan.this.homogeneousSignalHasOwnTimeInterval ) {
-						timeDelta = Event.getPitchFrequency((HomogeneousOrgan.this.homogeneousSignal.getTimeInterval().getMax() - endPhase) / events[events.length-1].getData().getPitch());
+						timeDelta = Event.getPitchFrequency((HomogeneousOrgan.this.homogeneousSignal.getTimeInterval().getMax() - endPhase) / events.get(events.size()-1).getData().getPitch());
 					}
 					else {
 						timeDelta = 0.0f;
 					}
 					
-					return HomogeneousOrgan.this.processEmitSignal( new ContinuousSignal(new FloatClosedInterval(events[0].getTime(), note.getEndTime() + timeDelta )) {
+					return HomogeneousOrgan.this.processEmitSignal( new ContinuousSignal(new FloatClosedInterval(eventTime[0], note.getEndTime() + timeDelta )) {
 
 						@Override
 						protected float uncheckedGetValue(float t) {
-							int eventIndex = Arrays.binarySearch(events, new Event<OrganEventData>(t, events[0].getData()));
+							int eventIndex = Arrays.binarySearch(eventTime, t);
 							if ( eventIndex < 0 ) {
 								eventIndex = -(eventIndex + 1)-1;
 							}
@@ -164,14 +177,14 @@ public class HomogeneousOrgan extends Instrument<OrganEventData> {
 							
 							if ( eventIndex >= 0 ) {
 								float volume;
-								if ( eventIndex <= events.length-2 ) {
-									volume = new FloatClosedInterval(events[eventIndex].getData().getVolume(), events[eventIndex+1].getData().getVolume()).linearInterpolation( ( t - events[eventIndex].getTime() ) / ( events[eventIndex+1].getTime() - events[eventIndex].getTime() ) );
+								if ( eventIndex <= eventTime.length-2 ) {
+									volume = ExtraMath.linearInterpolation(eventVolume[eventIndex], eventVolume[eventIndex+1], ( t - eventTime[eventIndex] ) / ( eventTime[eventIndex+1] - eventTime[eventIndex] ) );
 								}
 								else {
-									volume = events[eventIndex].getData().getVolume();
+									volume = eventVolume[eventIndex];
 								}
 								
-								value = HomogeneousOrgan.this.homogeneousSignal.getValue( eventPhase[eventIndex] + getLocalPhaseByEvent(events, eventIndex, t) ) * volume;
+								value = HomogeneousOrgan.this.homogeneousSignal.getValue( eventPhase[eventIndex] + getLocalPhaseByEvent(eventTime, eventPitch, eventIndex, t) ) * volume;
 							}
 							else {
 								value = 0.0f;
@@ -31,7 +31,8 @@
  */
 package com.esferixis.musicsynthesizer.instrument.guitar;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 
 import com.esferixis.math.ExtraMath;
@@ -40,7 +41,9 @@ import com.esferixis.musicsynthesizer.instrument.string.StringInstrument;
 import com.esferixis.musicsynthesizer.signal.KarplusStrongString;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSampledSignal;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.discrete.SampleHistory;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockPool;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.AverageLowpassFilterBlock;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.LowpassRCFilterBlock;
 
@@ -58,20 +61,39 @@ public final class KarplusStrongStringGuitar extends StringInstrument {
 	public KarplusStrongStringGuitar() {
 		super(new KarplusStrongString() {
 
+			/**
+			 * Pools de filtros, por cantidad de muestras
+			 */
+			private final Map<Integer, DiscreteInputOutputBlockPool> filterBlockPools = new HashMap<Integer, DiscreteInputOutputBlockPool>();
+			
 			@Override
 			protected void generateInitialState(float[] initialState, int seed) {
 				Random rng = new Random(seed);
 				
-				DiscreteInputOutputBlock filterBlock = new AverageLowpassFilterBlock((int) ( (float) initialState.length * 0.1f ));
+				final int filterSamples = Math.max(1, (int) ( (float) initialState.length * 0.1f ));
+				DiscreteInputOutputBlockPool filterBlockPool;
+				
+				synchronized ( this.filterBlockPools ) {
+					filterBlockPool = this.filterBlockPools.get(filterSamples);
+					
+					if ( filterBlockPool == null ) {
+						filterBlockPool = new DiscreteInputOutputBlockPool(AverageLowpassFilterBlock.createFactory(filterSamples));
+						this.filterBlockPools.put(filterSamples, filterBlockPool);
+					}
+				}
+				
+				DiscreteInputOutputBlock filterBlock = filterBlockPool.create();
 				
 				for ( int i = 0 ; i < initialState.length ; i++ ) {
-					filterBlock.getInput().write(rng.nextBoolean() ? 1.0f : -1.0f);
-					initialState[i] = filterBlock.getOutput().read();
+					initialState[i] = rng.nextBoolean() ? 1.0f : -1.0f;
 				}
+				
+				filterBlock.process(initialState, initialState, 0, initialState.length);
+				filterBlockPool.release(filterBlock);
 			}
 
 			@Override
-			protected float newSample(List<Float> samples, float decayFactor) {
+			protected float newSample(SampleHistory samples, float decayFactor) {
 				return ExtraMath.linearInterpolation(samples.get(samples.size()-1), samples.get(0), decayFactor);
 			}
 			
@@ -36,6 +36,7 @@ import java.io.BufferedReader;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioSystem;
@@ -46,9 +47,10 @@ import javax.sound.sampled.TargetDataLine;
 
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.SignalCompiler;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.TiledSignalRenderer;
 
 public class ConsolePlayer {
-	
 	public static void main(String[] args) {
 		ContinuousSignal signal;
 		
@@ -81,7 +83,7 @@ public class ConsolePlayer {
 		
 		System.out.println("Intervalo de tiempo de la señal: " + signal.getTimeInterval());
 		
-		playSignal = signal;
+		playSignal = SignalCompiler.compile(signal, SignalCompiler.Backend.BYTECODE);
 		
 		if ( playSignal != null ) {
 			int numberOfSamples = (int) (playSignal.getTimeInterval().length() * audioFormat.getSampleRate());
@@ -95,12 +97,14 @@ public class ConsolePlayer {
 			float[] floatSamples = new float[numberOfSamples];
 			float maxAbsoluteValue = 0.0f;
 			
+			final double sampleRate = audioFormat.getSampleRate();
+			final long firstSample = (long) Math.floor( (double) playSignal.getTimeInterval().getMin() * sampleRate );
+			
+			// Los tramos se sintetizan en paralelo, con los mismos bloques que secuencialmente
+			new TiledSignalRenderer(ForkJoinPool.commonPool()).render(playSignal, floatSamples, 0, numberOfSamples, firstSample, sampleRate);
+			
 			for ( int i = 0 ; i < numberOfSamples ; i++ ) {
-				float t = (float) i * playSignal.getTimeInterval().length() / (float) numberOfSamples + playSignal.getTimeInterval().getMin();
-				float value = playSignal.getValue(t);
-				
-				floatSamples[i] = value;
-				maxAbsoluteValue = Math.max(maxAbsoluteValue, Math.abs(value));
+				maxAbsoluteValue = Math.max(maxAbsoluteValue, Math.abs(floatSamples[i]));
 			}
 			
 			for ( int i = 0 ; i < numberOfSamples ; i++ ) {
@@ -43,6 +43,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.SignalCompiler;
 
 public final class SignalGetter {
 	private SignalGetter() {}
@@ -51,7 +52,8 @@ public final class SignalGetter {
 	 * @pre Ninguno de los dos puede ser nulo.
 	 * 		Y la clase de valor tiene que coincidir con el especificado
 	 * @post Obtiene la clase cargadora de la señal con la clase de valor y el nombre
-	 * 		 de clase especificado
+	 * 		 de clase especificado.
+	 * 		 La señal se devuelve compilada a una clase especializada
 	 */
 	public static <V> ContinuousSignal getSignal(String signalCreatorClassName) {
 		if ( signalCreatorClassName != null ) {
@@ -76,7 +78,7 @@ public final class SignalGetter {
 						throw new RuntimeException(e);
 					}
 					
-					return signal;
+					return SignalCompiler.compile(signal, SignalCompiler.Backend.BYTECODE);
 				}
 				else {
 					throw new IllegalArgumentException("Static run method expected");
@@ -31,16 +31,15 @@
  */
 package com.esferixis.musicsynthesizer.signal;
 
-import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 
 import com.esferixis.math.ExtraMath;
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSampledSignal;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.discrete.SampleHistory;
 
 public abstract class KarplusStrongString {
 	/**
@@ -93,6 +92,8 @@ public abstract class KarplusStrongString {
 			final float[] resultSamples = new float[inputDataPerSample.length];
 			
 			int startIndex = 0;
+			
+			final SampleHistory stringHistory = new SampleHistory();
 				
 			this.generateInitialState(stringSamples, seed);
 			
@@ -114,28 +115,9 @@ public abstract class KarplusStrongString {
 				
 				final float newSampleValue;
 				
-				{
-					final int localStartIndex = startIndex;
-					final float[] localStringSamples = stringSamples;
-					newSampleValue = this.newSample(new AbstractList<Float>() {
-						
-						@Override
-						public Float get(int index) {
-							if ( ( index >= 0 ) && ( index < this.size() ) ) {
-								return localStringSamples[(index+localStartIndex) % this.size()];
-							}
-							else {
-								throw new IndexOutOfBoundsException();
-							}
-						}
-		
-						@Override
-						public int size() {
-							return localStringSamples.length;
-						}
-						
-					}, inputDataPerSample[i].getDecayFactor());
-				}
+				stringHistory.set(stringSamples, startIndex);
+				
+				newSampleValue = this.newSample(stringHistory, inputDataPerSample[i].getDecayFactor());
 				
 				average += newSampleValue;
 				
@@ -179,9 +161,10 @@ public abstract class KarplusStrongString {
 	protected abstract void generateInitialState(float[] initialState, int seed);
 	
 	/**
-	 * @post Calcula una nueva muestra a partir de la lista
-	 * 		 de muestras especificadas, indicando el factor
-	 * 		 de caida
+	 * @post Calcula una nueva muestra a partir del historial
+	 * 		 de muestras especificado, indicando el factor
+	 * 		 de caida.
+	 * 		 El historial empieza por la muestra más antigua, y sólo es válido durante la llamada
 	 */
-	protected abstract float newSample(List<Float> samples, float decayFactor);
+	protected abstract float newSample(SampleHistory samples, float decayFactor);
 }
@@ -0,0 +1,412 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Vista muestreada de una señal, con caché por bloques.
+ * 
+ * La muestra k corresponde al instante de tiempo k / frequencyRate.
+ * Las muestras se agrupan en bloques de longitud fija, que se evalúan con
+ * la señal de origen la primera vez que se piden y se guardan en una caché
+ * acotada, donde se descartan los bloques usados menos recientemente.
+ * Los valores entre muestras se interpolan linealmente.
+ * Se puede usar desde varios hilos. Los bloques se evalúan fuera del bloqueo de
+ * la caché, y los hilos que piden un bloque que se está evaluando esperan a que
+ * termine. Los bloques descartados se reutilizan cuando nadie los está leyendo
+ */
+public final class CachedSampledSignal extends ContinuousSignal {
+	/**
+	 * Cantidad de muestras por bloque de la caché
+	 */
+	private static final int TILELENGTH = 4096;
+	
+	/**
+	 * Índice de bloque, usado como clave de la caché
+	 */
+	private static final class TileKey {
+		private long index;
+		
+		/**
+		 * @post Crea la clave con el índice de bloque especificado
+		 */
+		public TileKey(long index) {
+			this.index = index;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return (int) ( this.index ^ ( this.index >>> 32 ) );
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object other) {
+			return ( other instanceof TileKey ) && ( ((TileKey) other).index == this.index );
+		}
+	}
+	
+	/**
+	 * Bloque de la caché.
+	 * Su estado se lee y se modifica con el bloqueo de la caché
+	 */
+	private static final class Tile {
+		private final TileKey key;
+		private final float[] values;
+		
+		/**
+		 * Indica si los valores ya fueron evaluados
+		 */
+		private boolean ready;
+		
+		/**
+		 * Indica si la evaluación falló
+		 */
+		private boolean failed;
+		
+		/**
+		 * Indica si el bloque fue descartado de la caché
+		 */
+		private boolean evicted;
+		
+		/**
+		 * Cantidad de hilos que leen o evalúan el bloque
+		 */
+		private int readersQuantity;
+		
+		/**
+		 * @post Crea un bloque sin evaluar
+		 */
+		public Tile() {
+			this.key = new TileKey(0);
+			this.values = new float[TILELENGTH];
+		}
+	}
+	
+	private final ContinuousSignal sourceSignal;
+	private final float frequencyRate;
+	private final int maxTilesQuantity;
+	
+	private final Map<TileKey, Tile> tiles;
+	
+	/**
+	 * Clave que se reutiliza para buscar en la caché sin reservar memoria
+	 */
+	private final TileKey searchKey;
+	
+	/**
+	 * Bloque descartado que nadie lee, para reutilizarlo en la próxima
+	 * evaluación, o null
+	 */
+	private Tile spareTile;
+	
+	/**
+	 * @pre La señal de origen no puede ser nula, y la frecuencia de muestreo
+	 * 		y la cantidad máxima de bloques tienen que ser positivas
+	 * @post Crea la vista muestreada de la señal de origen especificada, con la
+	 * 		 frecuencia de muestreo y la cantidad máxima de bloques en caché especificadas
+	 */
+	public CachedSampledSignal(ContinuousSignal sourceSignal, float frequencyRate, final int maxTilesQuantity) {
+		super(sourceSignal.getTimeInterval());
+		
+		if ( frequencyRate > 0.0f ) {
+			if ( maxTilesQuantity > 0 ) {
+				this.sourceSignal = sourceSignal;
+				this.frequencyRate = frequencyRate;
+				this.maxTilesQuantity = maxTilesQuantity;
+				this.searchKey = new TileKey(0);
+				
+				this.tiles = new LinkedHashMap<TileKey, Tile>(16, 0.75f, true) {
+					private static final long serialVersionUID = 1L;
+					
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<TileKey, Tile> eldest) {
+						if ( this.size() > maxTilesQuantity ) {
+							final Tile eldestTile = eldest.getValue();
+							
+							eldestTile.evicted = true;
+							if ( eldestTile.readersQuantity == 0 ) {
+								CachedSampledSignal.this.spareTile = eldestTile;
+							}
+							
+							return true;
+						}
+						else {
+							return false;
+						}
+					}
+					
+				};
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive max tiles quantity");
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Expected positive frequency rate");
+		}
+	}
+	
+	/**
+	 * @post Devuelve la señal de origen
+	 */
+	public ContinuousSignal getSourceSignal() {
+		return this.sourceSignal;
+	}
+	
+	/**
+	 * @post Devuelve la frecuencia de muestreo
+	 */
+	public float getFrequencyRate() {
+		return this.frequencyRate;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad máxima de bloques en caché
+	 */
+	public int getMaxTilesQuantity() {
+		return this.maxTilesQuantity;
+	}
+	
+	/**
+	 * @post Devuelve el bloque con el índice especificado, evaluándolo
+	 * 		 si no está en la caché, y lo reserva para leerlo.
+	 * 		 La evaluación se hace fuera del bloqueo de la caché. Si otro hilo
+	 * 		 está evaluando el bloque, espera a que termine.
+	 * 		 El bloque devuelto no se modifica hasta que se libera con releaseTile
+	 */
+	private Tile acquireTile(long tileIndex) {
+		Tile tile = null;
+		
+		while ( tile == null ) {
+			synchronized ( this.tiles ) {
+				this.searchKey.index = tileIndex;
+				final Tile cachedTile = this.tiles.get(this.searchKey);
+				
+				if ( cachedTile != null ) {
+					cachedTile.readersQuantity++;
+					
+					while ( !cachedTile.ready && !cachedTile.failed ) {
+						try {
+							this.tiles.wait();
+						}
+						catch (InterruptedException e) {
+							this.releaseTile(cachedTile);
+							Thread.currentThread().interrupt();
+							throw new IllegalStateException("Interrupted while waiting for a tile", e);
+						}
+					}
+					
+					if ( cachedTile.ready ) {
+						return cachedTile;
+					}
+					else {
+						// La evaluación falló, se vuelve a intentar
+						this.releaseTile(cachedTile);
+					}
+				}
+				else {
+					if ( this.spareTile != null ) {
+						tile = this.spareTile;
+						this.spareTile = null;
+					}
+					else {
+						tile = new Tile();
+					}
+					
+					tile.key.index = tileIndex;
+					tile.ready = false;
+					tile.failed = false;
+					tile.evicted = false;
+					tile.readersQuantity = 1;
+					this.tiles.put(tile.key, tile);
+				}
+			}
+		}
+		
+		boolean rendered = false;
+		try {
+			this.sourceSignal.getSampledValues(tile.values, 0, TILELENGTH, tileIndex * (long) TILELENGTH, (double) this.frequencyRate);
+			rendered = true;
+		}
+		finally {
+			synchronized ( this.tiles ) {
+				if ( rendered ) {
+					tile.ready = true;
+				}
+				else {
+					tile.failed = true;
+					if ( !tile.evicted ) {
+						this.tiles.remove(tile.key);
+						tile.evicted = true;
+					}
+					this.releaseTile(tile);
+				}
+				
+				this.tiles.notifyAll();
+			}
+		}
+		
+		return tile;
+	}
+	
+	/**
+	 * @pre El bloque tiene que haber sido reservado con acquireTile
+	 * @post Libera el bloque especificado. Si fue descartado y nadie más lo lee,
+	 * 		 queda para reutilizarse
+	 */
+	private void releaseTile(Tile tile) {
+		synchronized ( this.tiles ) {
+			tile.readersQuantity--;
+			
+			if ( tile.evicted && ( tile.readersQuantity == 0 ) ) {
+				this.spareTile = tile;
+			}
+		}
+	}
+	
+	/**
+	 * @post Devuelve la muestra con el índice especificado
+	 */
+	private float getSample(long sampleIndex) {
+		final long tileIndex = Math.floorDiv(sampleIndex, (long) TILELENGTH);
+		final Tile tile = this.acquireTile(tileIndex);
+		
+		try {
+			return tile.values[(int) ( sampleIndex - tileIndex * (long) TILELENGTH )];
+		}
+		finally {
+			this.releaseTile(tile);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+	 */
+	@Override
+	protected float uncheckedGetValue(float t) {
+		final double position = (double) t * (double) this.frequencyRate;
+		final long sampleIndex = (long) Math.floor(position);
+		final float intersamplePosition = (float) ( position - (double) sampleIndex );
+		
+		final float value = this.getSample(sampleIndex);
+		final float nextValue = this.getSample(sampleIndex + 1);
+		
+		return value + ( nextValue - value ) * intersamplePosition;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		this.uncheckedGetPreciseValues(values, offset, length, (double) startTime, (double) timeStep);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final double frequencyRate = this.frequencyRate;
+		
+		long tileIndex = Long.MIN_VALUE;
+		Tile tile = null;
+		long nextTileIndex = Long.MIN_VALUE;
+		Tile nextTile = null;
+		
+		try {
+			for ( int i = 0 ; i < length ; i++ ) {
+				final double position = ( startTime + (double) i * timeStep ) * frequencyRate;
+				final long sampleIndex = (long) Math.floor(position);
+				final float intersamplePosition = (float) ( position - (double) sampleIndex );
+				
+				final long sampleTileIndex = Math.floorDiv(sampleIndex, (long) TILELENGTH);
+				final int sampleOffset = (int) ( sampleIndex - sampleTileIndex * (long) TILELENGTH );
+				
+				if ( sampleTileIndex != tileIndex ) {
+					if ( tile != null ) {
+						this.releaseTile(tile);
+						tile = null;
+					}
+					
+					if ( sampleTileIndex == nextTileIndex ) {
+						tile = nextTile;
+						nextTile = null;
+						nextTileIndex = Long.MIN_VALUE;
+					}
+					else {
+						tile = this.acquireTile(sampleTileIndex);
+					}
+					tileIndex = sampleTileIndex;
+				}
+				
+				final float value = tile.values[sampleOffset];
+				final float nextValue;
+				
+				if ( sampleOffset + 1 < TILELENGTH ) {
+					nextValue = tile.values[sampleOffset + 1];
+				}
+				else {
+					if ( nextTileIndex != tileIndex + 1 ) {
+						if ( nextTile != null ) {
+							this.releaseTile(nextTile);
+							nextTile = null;
+						}
+						
+						nextTile = this.acquireTile(tileIndex + 1);
+						nextTileIndex = tileIndex + 1;
+					}
+					nextValue = nextTile.values[0];
+				}
+				
+				values[offset+i] = value + ( nextValue - value ) * intersamplePosition;
+			}
+		}
+		finally {
+			if ( tile != null ) {
+				this.releaseTile(tile);
+			}
+			
+			if ( nextTile != null ) {
+				this.releaseTile(nextTile);
+			}
+		}
+	}
+}
@@ -31,6 +31,10 @@
  */
 package com.esferixis.musicsynthesizer.signal.continuous;
 
+/**
+ * Interpolación entre dos señales.
+ * La evaluación por bloques evalúa cada señal una sola vez por bloque
+ */
 public final class ContinuousInterpolatedSignal extends ContinuousSignal {
 	private final ContinuousSignal interpolationSignal, maxSignal, minSignal;
 	
@@ -65,4 +69,63 @@ public final class ContinuousInterpolatedSignal extends ContinuousSignal {
 		return value;
 	}
 	
+	
+	/**
+	 * @post Escribe en el bloque especificado, que tiene los valores de la señal
+	 * 		 de interpolación, la interpolación entre los valores máximos y mínimos
+	 * 		 especificados
+	 */
+	private static void interpolate(float[] values, int offset, int length, float[] maxValues, float[] minValues) {
+		for ( int i = 0 ; i < length ; i++ ) {
+			final float multiplier = (values[offset+i] + 1.0f) / 2.0f;
+			
+			values[offset+i] = maxValues[i] * multiplier + minValues[i] * (1.0f - multiplier);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final int firstBuffer = bufferStack.push(2, length);
+		
+		try {
+			final float[] maxValues = bufferStack.getBuffer(firstBuffer);
+			final float[] minValues = bufferStack.getBuffer(firstBuffer+1);
+			
+			this.interpolationSignal.getValues(values, offset, length, startTime, timeStep);
+			this.maxSignal.getValues(maxValues, 0, length, startTime, timeStep);
+			this.minSignal.getValues(minValues, 0, length, startTime, timeStep);
+			
+			interpolate(values, offset, length, maxValues, minValues);
+		}
+		finally {
+			bufferStack.pop(2);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final int firstBuffer = bufferStack.push(2, length);
+		
+		try {
+			final float[] maxValues = bufferStack.getBuffer(firstBuffer);
+			final float[] minValues = bufferStack.getBuffer(firstBuffer+1);
+			
+			this.interpolationSignal.getPreciseValues(values, offset, length, startTime, timeStep);
+			this.maxSignal.getPreciseValues(maxValues, 0, length, startTime, timeStep);
+			this.minSignal.getPreciseValues(minValues, 0, length, startTime, timeStep);
+			
+			interpolate(values, offset, length, maxValues, minValues);
+		}
+		finally {
+			bufferStack.pop(2);
+		}
+	}
 }
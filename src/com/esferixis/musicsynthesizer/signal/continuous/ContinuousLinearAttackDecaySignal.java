@@ -32,6 +32,7 @@
 package com.esferixis.musicsynthesizer.signal.continuous;
 
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.vector.VectorOperations;
 
 public final class ContinuousLinearAttackDecaySignal extends ContinuousSignal {
 	private final float attackTime, decayTime;
@@ -58,6 +59,20 @@ public final class ContinuousLinearAttackDecaySignal extends ContinuousSignal {
 	public ContinuousLinearAttackDecaySignal(FloatClosedInterval timeInterval, float attackDecayTime) {
 		this(timeInterval, attackDecayTime, attackDecayTime);
 	}
+	
+	/**
+	 * @post Devuelve el tiempo de ataque
+	 */
+	public float getAttackTime() {
+		return this.attackTime;
+	}
+	
+	/**
+	 * @post Devuelve el tiempo de desvanecimiento
+	 */
+	public float getDecayTime() {
+		return this.decayTime;
+	}
 
 	/* (non-Javadoc)
 	 * @see com.esferixis.musicsynthesizer.signal.FloatSignal#uncheckedGetValue(float)
@@ -79,4 +94,30 @@ public final class ContinuousLinearAttackDecaySignal extends ContinuousSignal {
 		return factor;
 	}
 	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final VectorOperations vectorOperations = VectorOperations.getInstance();
+		
+		if ( vectorOperations != null ) {
+			vectorOperations.linearAttackDecay(values, offset, length, startTime, timeStep, this.getTimeInterval().getMin(), this.getTimeInterval().getMax(), this.attackTime, this.decayTime);
+		}
+		else {
+			for ( int i = 0 ; i < length ; i++ ) {
+				values[offset+i] = this.uncheckedGetValue(startTime + (float) i * timeStep);
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		for ( int i = 0 ; i < length ; i++ ) {
+			values[offset+i] = this.uncheckedGetValue( (float) ( startTime + (double) i * timeStep ) );
+		}
+	}
 }
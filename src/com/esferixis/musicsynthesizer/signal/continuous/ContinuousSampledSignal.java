@@ -39,6 +39,7 @@ import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
 
 public final class ContinuousSampledSignal extends ContinuousSignal {
 	private float[] samples;
+	private float samplesPerTimeUnit;
 	
 	/**
 	 * @post Crea una señal muestreada con el intervalo de tiempo
@@ -48,6 +49,7 @@ public final class ContinuousSampledSignal extends ContinuousSignal {
 		super(timeInterval);
 		if ( ( timeInterval != null ) && ( samples != null ) ) {
 			this.samples = samples.clone();
+			this.samplesPerTimeUnit = (float) this.samples.length / timeInterval.length();
 		}
 		else {
 			throw new NullPointerException();
@@ -86,6 +88,40 @@ public final class ContinuousSampledSignal extends ContinuousSignal {
 		}
 	}
 	
+	/**
+	 * @pre La señal no puede ser nula, y la cantidad de muestras
+	 * 		y la frecuencia de muestreo tienen que ser positivas.
+	 * @post Crea una señal muestreada con la señal, la cantidad de muestras,
+	 * 		 y la frecuencia de muestreo especificadas.
+	 * 		 Las muestras se toman desde el comienzo del intervalo de tiempo de
+	 * 		 la señal
+	 */
+	public static ContinuousSampledSignal create(ContinuousSignal signal, int samplesQuantity, float frequencyRate) {
+		if ( signal != null ) {
+			if ( samplesQuantity > 0 ) {
+				if ( frequencyRate > 0.0f ) {
+					final float[] samples = new float[samplesQuantity];
+					final float timeStep = 1.0f / frequencyRate;
+					
+					for ( int i = 0 ; i < samples.length ; i += BLOCKLENGTH ) {
+						signal.getValues(samples, i, Math.min(BLOCKLENGTH, samples.length - i), (float) i / frequencyRate + signal.getTimeInterval().getMin(), timeStep);
+					}
+					
+					return new ContinuousSampledSignal(new FloatClosedInterval(0.0f, (float) samplesQuantity / frequencyRate), samples);
+				}
+				else {
+					throw new IllegalArgumentException("Expected positive frequency rate");
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive samples quantity");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
 	/**
 	 * @post Crea una señal muestreada con el intervalo de tiempo
 	 * 		 y la lista de muestras especificada
@@ -100,6 +136,8 @@ public final class ContinuousSampledSignal extends ContinuousSignal {
 			for ( Float eachValue : samples ) {
 				this.samples[i++] = eachValue;
 			}
+			
+			this.samplesPerTimeUnit = (float) this.samples.length / timeInterval.length();
 		}
 		else {
 			throw new NullPointerException();
@@ -111,7 +149,54 @@ public final class ContinuousSampledSignal extends ContinuousSignal {
 	 */
 	@Override
 	protected float uncheckedGetValue(float t) {
-		final float position = ( t - this.getTimeInterval().getMin() ) * this.samples.length / this.getTimeInterval().length();
+		return this.interpolate( ( t - this.getTimeInterval().getMin() ) * this.samplesPerTimeUnit );
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final FloatClosedInterval timeInterval = this.getTimeInterval();
+		final float minTime = timeInterval.getMin();
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			final float t = startTime + (float) i * timeStep;
+			
+			if ( timeInterval.contains(t) ) {
+				values[offset+i] = this.interpolate( ( t - minTime ) * this.samplesPerTimeUnit );
+			}
+			else {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final FloatClosedInterval timeInterval = this.getTimeInterval();
+		final float minTime = timeInterval.getMin();
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			final float t = (float) ( startTime + (double) i * timeStep );
+			
+			if ( timeInterval.contains(t) ) {
+				values[offset+i] = this.interpolate( ( t - minTime ) * this.samplesPerTimeUnit );
+			}
+			else {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
+	/**
+	 * @post Devuelve el valor interpolado en la posición especificada,
+	 * 		 en unidades de muestras
+	 */
+	private float interpolate(float position) {
 		final float value;
 		
 		if ( position >= (float) (samples.length-1) ) {
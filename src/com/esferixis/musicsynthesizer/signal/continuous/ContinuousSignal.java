@@ -31,12 +31,32 @@
  */
 package com.esferixis.musicsynthesizer.signal.continuous;
 
+import java.util.Arrays;
+
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.CanonicalTransformedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.DisplacedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.InverseTimeScaledSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.MorphedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.ProductSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.SumSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.TruncatedSignal;
 import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
 import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueScaleTransformer;
 
 public abstract class ContinuousSignal {
+	/**
+	 * Cantidad de muestras por bloque con la que se evalúa la señal
+	 * cuando se la consume de forma secuencial
+	 */
+	static final int BLOCKLENGTH = 1024;
+	
+	/**
+	 * Cantidad máxima de bloques en caché por omisión de las vistas muestreadas
+	 */
+	private static final int CACHEDTILESQUANTITY = 256;
+	
 	private final FloatClosedInterval timeInterval;
 	
 	/**
@@ -70,7 +90,7 @@ public abstract class ContinuousSignal {
 	 * @param t
 	 * @return
 	 */
-	public final Float getValue(float t) {
+	public final float getValue(float t) {
 		if ( this.getTimeInterval().contains(t) ) {
 			return this.uncheckedGetValue(t);
 		}
@@ -79,20 +99,161 @@ public abstract class ContinuousSignal {
 		}
 	}
 	
+	/**
+	 * @pre El array de valores no puede ser nulo, el rango especificado tiene que
+	 * 		estar contenido en el array, y el paso de tiempo tiene que ser positivo
+	 * @post Escribe en el array de valores, a partir del offset especificado, la cantidad
+	 * 		 de muestras especificada.
+	 * 		 La muestra i corresponde al instante de tiempo startTime + i * timeStep.
+	 * 		 Sólo se evalúa el rango de muestras que está dentro del intervalo de
+	 * 		 tiempo, el resto se anula sin evaluarse
+	 */
+	public final void getValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		if ( values != null ) {
+			if ( ( offset >= 0 ) && ( length >= 0 ) && ( length <= values.length - offset ) ) {
+				if ( timeStep > 0.0f ) {
+					final int startIndex = SampleIndexRange.getStartIndex(this.timeInterval.getMin(), startTime, timeStep, length);
+					final int endIndex = Math.max(startIndex, SampleIndexRange.getEndIndex(this.timeInterval.getMax(), startTime, timeStep, length));
+					
+					Arrays.fill(values, offset, offset + startIndex, 0.0f);
+					
+					if ( startIndex != endIndex ) {
+						this.uncheckedGetValues(values, offset + startIndex, endIndex - startIndex, startTime + (float) startIndex * timeStep, timeStep);
+					}
+					
+					Arrays.fill(values, offset + endIndex, offset + length, 0.0f);
+				}
+				else {
+					throw new IllegalArgumentException("Expected positive time step");
+				}
+			}
+			else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre El array de valores no puede ser nulo, el rango especificado tiene que
+	 * 		estar contenido en el array, y la frecuencia de muestreo tiene que ser positiva
+	 * @post Escribe en el array de valores, a partir del offset especificado, la cantidad
+	 * 		 de muestras especificada, empezando por la muestra con el índice especificado.
+	 * 		 La muestra i corresponde a la muestra startSample + i, cuyo instante de tiempo
+	 * 		 es (startSample + i) / sampleRate.
+	 * 		 Los instantes de tiempo se calculan con precisión doble, así que no se
+	 * 		 pierde precisión en las señales largas
+	 */
+	public final void getSampledValues(float[] values, int offset, int length, long startSample, double sampleRate) {
+		if ( sampleRate > 0.0d ) {
+			this.getPreciseValues(values, offset, length, (double) startSample / sampleRate, 1.0d / sampleRate);
+		}
+		else {
+			throw new IllegalArgumentException("Expected positive sample rate");
+		}
+	}
+	
+	/**
+	 * @pre El array de valores no puede ser nulo, el rango especificado tiene que
+	 * 		estar contenido en el array, y el paso de tiempo tiene que ser positivo
+	 * @post Escribe en el array de valores, a partir del offset especificado, la cantidad
+	 * 		 de muestras especificada, con instantes de tiempo de precisión doble.
+	 * 		 La muestra i corresponde al instante de tiempo startTime + i * timeStep.
+	 * 		 Sólo se evalúa el rango de muestras que está dentro del intervalo de
+	 * 		 tiempo, el resto se anula sin evaluarse
+	 */
+	public final void getPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		if ( values != null ) {
+			if ( ( offset >= 0 ) && ( length >= 0 ) && ( length <= values.length - offset ) ) {
+				if ( timeStep > 0.0d ) {
+					final int startIndex = SampleIndexRange.getStartIndex((double) this.timeInterval.getMin(), startTime, timeStep, length);
+					final int endIndex = Math.max(startIndex, SampleIndexRange.getEndIndex((double) this.timeInterval.getMax(), startTime, timeStep, length));
+					
+					Arrays.fill(values, offset, offset + startIndex, 0.0f);
+					
+					if ( startIndex != endIndex ) {
+						this.uncheckedGetPreciseValues(values, offset + startIndex, endIndex - startIndex, startTime + (double) startIndex * timeStep, timeStep);
+					}
+					
+					Arrays.fill(values, offset + endIndex, offset + length, 0.0f);
+				}
+				else {
+					throw new IllegalArgumentException("Expected positive time step");
+				}
+			}
+			else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Escribe los valores en el array especificado (Implementación interna).
+	 * 		 Sólo se llama con bloques cuyos instantes de tiempo están dentro del
+	 * 		 intervalo de tiempo, salvo por redondeo en los extremos.
+	 * 		 Por defecto evalúa muestra por muestra, las subclases pueden redefinirlo
+	 * 		 para evaluar el bloque completo de forma más eficiente
+	 */
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		for ( int i = 0 ; i < length ; i++ ) {
+			final float t = startTime + (float) i * timeStep;
+			
+			if ( this.timeInterval.contains(t) ) {
+				values[offset+i] = this.uncheckedGetValue(t);
+			}
+			else {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
+	/**
+	 * @post Escribe los valores con instantes de tiempo de precisión doble en el array
+	 * 		 especificado (Implementación interna).
+	 * 		 Sólo se llama con bloques cuyos instantes de tiempo están dentro del
+	 * 		 intervalo de tiempo, salvo por redondeo en los extremos.
+	 * 		 Por defecto evalúa muestra por muestra, calculando cada instante de tiempo
+	 * 		 en precisión doble y redondeándolo a precisión simple, así el resultado
+	 * 		 no depende de cómo se divide el rango en bloques.
+	 * 		 Las subclases pueden redefinirlo para evaluar el bloque completo de forma
+	 * 		 más eficiente, o para no perder precisión con la fase
+	 */
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		for ( int i = 0 ; i < length ; i++ ) {
+			final float t = (float) ( startTime + (double) i * timeStep );
+			
+			if ( this.timeInterval.contains(t) ) {
+				values[offset+i] = this.uncheckedGetValue(t);
+			}
+			else {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
+	/**
+	 * @post Anula los valores del bloque especificado cuyos instantes de tiempo
+	 * 		 están fuera del intervalo de tiempo de la señal
+	 */
+	protected final void clearOutsideTimeInterval(float[] values, int offset, int length, float startTime, float timeStep) {
+		for ( int i = 0 ; i < length ; i++ ) {
+			if ( !this.timeInterval.contains(startTime + (float) i * timeStep) ) {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
 	/**
 	 * @post Multiplica la señal por la señal especificada
 	 */
 	public ContinuousSignal multiplicate(final ContinuousSignal other) {
 		if ( other != null ) {
-			return new ContinuousSignal(this.getTimeInterval().intersection(other.getTimeInterval())) {
-	
-				@Override
-		
-				protected float uncheckedGetValue(float t) {
-					return ContinuousSignal.this.getValue(t) * other.getValue(t);
-				}
-				
-			};
+			return new ProductSignal(this, other);
 		}
 		else {
 			throw new NullPointerException();
@@ -105,14 +266,7 @@ public abstract class ContinuousSignal {
 	 */
 	public ContinuousSignal add(final ContinuousSignal other) {
 		if ( other != null ) {
-			return new ContinuousSignal(this.getTimeInterval().unionBound(other.getTimeInterval())) {
-	
-				@Override
-				protected float uncheckedGetValue(float t) {
-					return ContinuousSignal.this.getValue(t) + other.getValue(t);
-				}
-				
-			};
+			return new SumSignal(this, other);
 		}
 		else {
 			return this;
@@ -123,14 +277,7 @@ public abstract class ContinuousSignal {
 	 * @post Desplaza la señal con el desplazamiento especificado
 	 */
 	public ContinuousSignal displace(final float deltaT) {
-		return new ContinuousSignal(this.getTimeInterval().add(deltaT)) {
-
-			@Override
-			protected float uncheckedGetValue(float t) {
-				return ContinuousSignal.this.getValue(t-deltaT);
-			}
-			
-		};
+		return new DisplacedSignal(this, deltaT);
 	}
 	
 	/**
@@ -144,42 +291,21 @@ public abstract class ContinuousSignal {
 	 * @post Escala la señal en el tiempo
 	 */
 	public ContinuousSignal inverseTimeScale(final float inverseScaleFactor) {
-		return new ContinuousSignal(this.getTimeInterval().mul(1.0f / inverseScaleFactor)) {
-
-			@Override
-			protected float uncheckedGetValue(float t) {
-				return ContinuousSignal.this.getValue(t*inverseScaleFactor);
-			}
-			
-		};
+		return new InverseTimeScaledSignal(this, inverseScaleFactor);
 	}
 	
 	/**
 	 * @post Trunca la señal en el intervalo especificado
 	 */
 	public ContinuousSignal truncate(final FloatClosedInterval timeInterval) {
-		return new ContinuousSignal(this.timeInterval.intersection(timeInterval)) {
-
-			@Override
-			protected float uncheckedGetValue(float t) {
-				return ContinuousSignal.this.getValue(t);
-			}
-			
-		};
+		return new TruncatedSignal(this, timeInterval);
 	}
 	
 	/**
 	 * @post Transforma una señal canónica con el intervalo y la frecuencia especificados
 	 */
 	public ContinuousSignal transformCanonical(final FloatClosedInterval timeInterval, final float frequency) {
-		return new ContinuousSignal(timeInterval) {
-
-			@Override
-			protected float uncheckedGetValue(float t) {
-				return ContinuousSignal.this.getValue(t*frequency-timeInterval.getMin());
-			}
-			
-		};
+		return new CanonicalTransformedSignal(this, timeInterval, frequency);
 	}
 	
 	/**
@@ -188,17 +314,7 @@ public abstract class ContinuousSignal {
 	 */
 	public ContinuousSignal morph(final ContinuousSignal monotonalMorphSignal) {
 		if ( monotonalMorphSignal != null ) {
-			float t1 = monotonalMorphSignal.getValue( this.getTimeInterval().getMin() );
-			float t2 = monotonalMorphSignal.getValue( this.getTimeInterval().getMax() );
-			
-			return new ContinuousSignal(new FloatClosedInterval( (float) Math.min(t1, t2), (float) Math.max(t1, t2))) {
-	
-				@Override
-				protected float uncheckedGetValue(float t) {
-					return ContinuousSignal.this.getValue( monotonalMorphSignal.getValue(t) );
-				}
-				
-			};
+			return new MorphedSignal(this, monotonalMorphSignal);
 		}
 		else {
 			throw new NullPointerException();
@@ -241,10 +357,22 @@ public abstract class ContinuousSignal {
 			int i = 0;
 			final int maxSamples = (int) Math.ceil(ContinuousSignal.this.getTimeInterval().length() * (float) frequencyRate);
 			
+			final float[] buffer = new float[BLOCKLENGTH];
+			int bufferIndex = 0;
+			int bufferLength = 0;
+			
 			@Override
 			public float read() {
 				if ( i != maxSamples ) {
-					return ContinuousSignal.this.getValue((float) (i++) / (float) frequencyRate + ContinuousSignal.this.getTimeInterval().getMin());
+					if ( this.bufferIndex == this.bufferLength ) {
+						this.bufferLength = Math.min(this.buffer.length, this.maxSamples - this.i);
+						this.bufferIndex = 0;
+						
+						ContinuousSignal.this.getPreciseValues(this.buffer, 0, this.bufferLength, (double) this.i / (double) frequencyRate + (double) ContinuousSignal.this.getTimeInterval().getMin(), 1.0d / (double) frequencyRate);
+					}
+					
+					i++;
+					return this.buffer[this.bufferIndex++];
 				}
 				else {
 					return 0.0f;
@@ -275,6 +403,24 @@ public abstract class ContinuousSignal {
 	 * @post Convierte en una señal "sampleada"
 	 */
 	public ContinuousSignal convertToSampled(float frequencyRate) {
-		return ContinuousSampledSignal.create(this.discreteOutput(frequencyRate), (int) Math.ceil(this.getTimeInterval().length() / frequencyRate), frequencyRate);
+		return ContinuousSampledSignal.create(this, (int) Math.ceil(this.getTimeInterval().length() * frequencyRate), frequencyRate);
+	}
+	
+	/**
+	 * @pre La frecuencia de muestreo tiene que ser positiva
+	 * @post Crea una vista muestreada de ésta señal, con la frecuencia de muestreo especificada,
+	 * 		 que evalúa las muestras por bloques bajo demanda y los guarda en una caché acotada
+	 */
+	public ContinuousSignal cached(float frequencyRate) {
+		return this.cached(frequencyRate, CACHEDTILESQUANTITY);
+	}
+	
+	/**
+	 * @pre La frecuencia de muestreo y la cantidad máxima de bloques tienen que ser positivas
+	 * @post Crea una vista muestreada de ésta señal, con la frecuencia de muestreo y la cantidad máxima
+	 * 		 de bloques en caché especificadas
+	 */
+	public ContinuousSignal cached(float frequencyRate, int maxTilesQuantity) {
+		return new CachedSampledSignal(this, frequencyRate, maxTilesQuantity);
 	}
 }
@@ -31,9 +31,7 @@
  */
 package com.esferixis.musicsynthesizer.signal.continuous;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 
@@ -70,7 +68,7 @@ public final class ContinuousSineWaveAddition extends ContinuousSignal {
 		public float getAmplitude(float f, float t);
 	}
 	
-	private final Collection<Wave> waves;
+	private final Wave[] waves;
 	private final FrequencyAmplitudesFunction frequencyAmplitudesFunction;
 	private float amplitudeFactor;
 	
@@ -81,7 +79,7 @@ public final class ContinuousSineWaveAddition extends ContinuousSignal {
 	public ContinuousSineWaveAddition(FloatClosedInterval timeInterval, Collection<Wave> waves, FrequencyAmplitudesFunction frequencyAmplitudesFunction, float amplitudeFactor) {
 		super(timeInterval);
 		if ( ( waves != null ) && ( frequencyAmplitudesFunction != null ) ) {
-			this.waves = Collections.unmodifiableList(new ArrayList<Wave>(waves));
+			this.waves = waves.toArray(new Wave[0]);
 			this.frequencyAmplitudesFunction = frequencyAmplitudesFunction;
 			this.amplitudeFactor = amplitudeFactor;
 		}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous;
+
+/**
+ * Pila de buffers temporales de muestras, uno por hilo.
+ * Permite que la evaluación por bloques obtenga buffers intermedios
+ * sin reservar memoria una vez que la pila alcanzó su profundidad
+ * y tamaño de trabajo
+ */
+public final class SampleBufferStack {
+	private static final ThreadLocal<SampleBufferStack> current = new ThreadLocal<SampleBufferStack>() {
+		@Override
+		protected SampleBufferStack initialValue() {
+			return new SampleBufferStack();
+		}
+	};
+	
+	private float[][] buffers;
+	private int depth;
+	
+	/**
+	 * @post Crea la pila vacía
+	 */
+	private SampleBufferStack() {
+		this.buffers = new float[8][];
+		this.depth = 0;
+	}
+	
+	/**
+	 * @post Devuelve la pila del hilo actual
+	 */
+	public static SampleBufferStack get() {
+		return current.get();
+	}
+	
+	/**
+	 * @pre La longitud no puede ser negativa
+	 * @post Apila y devuelve un buffer con por lo menos la longitud especificada.
+	 * 		 Su contenido es indefinido, y sólo puede usarse hasta que se lo desapile
+	 */
+	public float[] push(int length) {
+		if ( length >= 0 ) {
+			if ( this.depth == this.buffers.length ) {
+				final float[][] newBuffers = new float[this.buffers.length * 2][];
+				System.arraycopy(this.buffers, 0, newBuffers, 0, this.buffers.length);
+				this.buffers = newBuffers;
+			}
+			
+			float[] buffer = this.buffers[this.depth];
+			
+			if ( ( buffer == null ) || ( buffer.length < length ) ) {
+				buffer = new float[length];
+				this.buffers[this.depth] = buffer;
+			}
+			
+			this.depth++;
+			
+			return buffer;
+		}
+		else {
+			throw new IllegalArgumentException("Expected non-negative length");
+		}
+	}
+	
+	/**
+	 * @pre La cantidad de buffers no puede ser negativa, ni tampoco la longitud
+	 * @post Apila la cantidad especificada de buffers con por lo menos la longitud
+	 * 		 especificada, y devuelve el índice del primero de ellos
+	 */
+	public int push(int quantity, int length) {
+		if ( quantity >= 0 ) {
+			final int firstIndex = this.depth;
+			
+			for ( int i = 0 ; i < quantity ; i++ ) {
+				this.push(length);
+			}
+			
+			return firstIndex;
+		}
+		else {
+			throw new IllegalArgumentException("Expected non-negative quantity");
+		}
+	}
+	
+	/**
+	 * @pre El índice tiene que corresponder a un buffer apilado
+	 * @post Devuelve el buffer apilado con el índice especificado
+	 */
+	public float[] getBuffer(int index) {
+		if ( ( index >= 0 ) && ( index < this.depth ) ) {
+			return this.buffers[index];
+		}
+		else {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+	
+	/**
+	 * @pre Tiene que haber un buffer apilado
+	 * @post Desapila el último buffer apilado
+	 */
+	public void pop() {
+		if ( this.depth != 0 ) {
+			this.depth--;
+		}
+		else {
+			throw new IllegalStateException("Expected pushed buffer");
+		}
+	}
+	
+	/**
+	 * @pre Tiene que haber por lo menos la cantidad especificada de buffers apilados
+	 * @post Desapila la cantidad especificada de buffers
+	 */
+	public void pop(int quantity) {
+		if ( ( quantity >= 0 ) && ( quantity <= this.depth ) ) {
+			this.depth -= quantity;
+		}
+		else {
+			throw new IllegalStateException("Expected pushed buffers");
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous;
+
+/**
+ * Cálculo del rango de muestras de un bloque que está dentro de un intervalo de tiempo.
+ * 
+ * La muestra i del bloque corresponde al instante de tiempo startTime + (float) i * timeStep,
+ * que es no decreciente en i, así que las muestras dentro de un intervalo cerrado son contiguas.
+ * Los índices se estiman con aritmética double y se ajustan evaluando la misma expresión
+ * que se usa para evaluar el bloque, de modo que el rango es exacto.
+ * Hay una versión para los bloques con instantes de tiempo de precisión doble,
+ * donde la muestra i corresponde al instante de tiempo startTime + (double) i * timeStep
+ */
+public final class SampleIndexRange {
+	private SampleIndexRange() {}
+	
+	/**
+	 * @post Devuelve el instante de tiempo de la muestra con el índice especificado
+	 */
+	private static float sampleTime(float startTime, float timeStep, int index) {
+		return startTime + (float) index * timeStep;
+	}
+	
+	/**
+	 * @pre El paso de tiempo tiene que ser positivo, y la longitud no puede ser negativa
+	 * @post Devuelve el índice de la primera muestra del bloque con el instante de tiempo inicial,
+	 * 		 el paso y la longitud especificados, cuyo instante de tiempo es mayor o igual que el
+	 * 		 instante de tiempo mínimo especificado.
+	 * 		 Si no hay ninguna devuelve la longitud
+	 */
+	public static int getStartIndex(float minTime, float startTime, float timeStep, int length) {
+		int index = (int) Math.max(0.0d, Math.min((double) length, Math.ceil( ( (double) minTime - (double) startTime ) / (double) timeStep ) ) );
+		
+		while ( ( index > 0 ) && ( sampleTime(startTime, timeStep, index-1) >= minTime ) ) {
+			index--;
+		}
+		
+		while ( ( index < length ) && !( sampleTime(startTime, timeStep, index) >= minTime ) ) {
+			index++;
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @pre El paso de tiempo tiene que ser positivo, y la longitud no puede ser negativa
+	 * @post Devuelve el índice de la primera muestra del bloque con el instante de tiempo inicial,
+	 * 		 el paso y la longitud especificados, cuyo instante de tiempo es mayor que el instante
+	 * 		 de tiempo máximo especificado.
+	 * 		 Si no hay ninguna devuelve la longitud
+	 */
+	public static int getEndIndex(float maxTime, float startTime, float timeStep, int length) {
+		int index = (int) Math.max(0.0d, Math.min((double) length, Math.floor( ( (double) maxTime - (double) startTime ) / (double) timeStep ) + 1.0d ) );
+		
+		while ( ( index > 0 ) && ( sampleTime(startTime, timeStep, index-1) > maxTime ) ) {
+			index--;
+		}
+		
+		while ( ( index < length ) && !( sampleTime(startTime, timeStep, index) > maxTime ) ) {
+			index++;
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el instante de tiempo con precisión doble de la muestra
+	 * 		 con el índice especificado
+	 */
+	private static double sampleTime(double startTime, double timeStep, int index) {
+		return startTime + (double) index * timeStep;
+	}
+	
+	/**
+	 * @pre El paso de tiempo tiene que ser positivo, y la longitud no puede ser negativa
+	 * @post Devuelve el índice de la primera muestra del bloque con instantes de tiempo
+	 * 		 de precisión doble, con el instante de tiempo inicial, el paso y la longitud
+	 * 		 especificados, cuyo instante de tiempo es mayor o igual que el instante
+	 * 		 de tiempo mínimo especificado.
+	 * 		 Si no hay ninguna devuelve la longitud
+	 */
+	public static int getStartIndex(double minTime, double startTime, double timeStep, int length) {
+		int index = (int) Math.max(0.0d, Math.min((double) length, Math.ceil( ( minTime - startTime ) / timeStep ) ) );
+		
+		while ( ( index > 0 ) && ( sampleTime(startTime, timeStep, index-1) >= minTime ) ) {
+			index--;
+		}
+		
+		while ( ( index < length ) && !( sampleTime(startTime, timeStep, index) >= minTime ) ) {
+			index++;
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @pre El paso de tiempo tiene que ser positivo, y la longitud no puede ser negativa
+	 * @post Devuelve el índice de la primera muestra del bloque con instantes de tiempo
+	 * 		 de precisión doble, con el instante de tiempo inicial, el paso y la longitud
+	 * 		 especificados, cuyo instante de tiempo es mayor que el instante de tiempo
+	 * 		 máximo especificado.
+	 * 		 Si no hay ninguna devuelve la longitud
+	 */
+	public static int getEndIndex(double maxTime, double startTime, double timeStep, int length) {
+		int index = (int) Math.max(0.0d, Math.min((double) length, Math.floor( ( maxTime - startTime ) / timeStep ) + 1.0d ) );
+		
+		while ( ( index > 0 ) && ( sampleTime(startTime, timeStep, index-1) > maxTime ) ) {
+			index--;
+		}
+		
+		while ( ( index < length ) && !( sampleTime(startTime, timeStep, index) > maxTime ) ) {
+			index++;
+		}
+		
+		return index;
+	}
+}
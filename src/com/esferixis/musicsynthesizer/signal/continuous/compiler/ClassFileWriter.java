@@ -0,0 +1,393 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor mínimo de archivos de clase.
+ * Genera clases con versión 49 (Java 5), que no requieren
+ * tablas de "stack map" para ser verificadas
+ */
+final class ClassFileWriter {
+	static final int ACC_PUBLIC = 0x0001;
+	static final int ACC_PRIVATE = 0x0002;
+	static final int ACC_FINAL = 0x0010;
+	static final int ACC_SUPER = 0x0020;
+	
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACEMETHODREF = 11;
+	private static final int CONSTANT_NAMEANDTYPE = 12;
+	
+	private final ByteArrayOutputStream constantPoolBytes;
+	private final DataOutputStream constantPool;
+	private final Map<String, Integer> constantIndices;
+	private int constantPoolCount;
+	
+	private final int thisClass, superClass;
+	private final int[] interfaces;
+	
+	private final List<byte[]> fields;
+	private final List<byte[]> methods;
+	
+	/**
+	 * @pre Los nombres no pueden ser nulos, y tienen que estar en forma interna
+	 * @post Crea el escritor de la clase con el nombre, el nombre de la superclase
+	 * 		 y las interfaces especificados
+	 */
+	ClassFileWriter(String className, String superClassName, String... interfaceNames) {
+		this.constantPoolBytes = new ByteArrayOutputStream();
+		this.constantPool = new DataOutputStream(this.constantPoolBytes);
+		this.constantIndices = new HashMap<String, Integer>();
+		this.constantPoolCount = 1;
+		
+		this.fields = new ArrayList<byte[]>();
+		this.methods = new ArrayList<byte[]>();
+		
+		this.thisClass = this.classConstant(className);
+		this.superClass = this.classConstant(superClassName);
+		this.interfaces = new int[interfaceNames.length];
+		
+		for ( int i = 0 ; i < interfaceNames.length ; i++ ) {
+			this.interfaces[i] = this.classConstant(interfaceNames[i]);
+		}
+	}
+	
+	/**
+	 * @post Devuelve el índice de la constante con la clave especificada,
+	 * 		 o null si todavía no fue agregada
+	 */
+	private Integer findConstant(String key) {
+		return this.constantIndices.get(key);
+	}
+	
+	/**
+	 * @post Registra la constante con la clave especificada, que ocupa
+	 * 		 la cantidad de entradas especificada, y devuelve su índice
+	 */
+	private int registerConstant(String key, int entries) {
+		final int index = this.constantPoolCount;
+		
+		this.constantIndices.put(key, index);
+		this.constantPoolCount += entries;
+		
+		if ( this.constantPoolCount > 0xFFFF ) {
+			throw new IllegalStateException("Constant pool overflow");
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la constante UTF8 especificada
+	 */
+	int utf8Constant(String value) {
+		final String key = "U" + value;
+		Integer index = this.findConstant(key);
+		
+		if ( index == null ) {
+			try {
+				this.constantPool.writeByte(CONSTANT_UTF8);
+				this.constantPool.writeUTF(value);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			
+			index = this.registerConstant(key, 1);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la constante de clase especificada
+	 */
+	int classConstant(String internalName) {
+		final String key = "C" + internalName;
+		Integer index = this.findConstant(key);
+		
+		if ( index == null ) {
+			final int nameIndex = this.utf8Constant(internalName);
+			
+			try {
+				this.constantPool.writeByte(CONSTANT_CLASS);
+				this.constantPool.writeShort(nameIndex);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			
+			index = this.registerConstant(key, 1);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la constante entera especificada
+	 */
+	int integerConstant(int value) {
+		final String key = "I" + value;
+		Integer index = this.findConstant(key);
+		
+		if ( index == null ) {
+			try {
+				this.constantPool.writeByte(CONSTANT_INTEGER);
+				this.constantPool.writeInt(value);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			
+			index = this.registerConstant(key, 1);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la constante float especificada
+	 */
+	int floatConstant(float value) {
+		final int bits = Float.floatToRawIntBits(value);
+		final String key = "F" + bits;
+		Integer index = this.findConstant(key);
+		
+		if ( index == null ) {
+			try {
+				this.constantPool.writeByte(CONSTANT_FLOAT);
+				this.constantPool.writeInt(bits);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			
+			index = this.registerConstant(key, 1);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la constante double especificada
+	 */
+	int doubleConstant(double value) {
+		final long bits = Double.doubleToRawLongBits(value);
+		final String key = "D" + bits;
+		Integer index = this.findConstant(key);
+		
+		if ( index == null ) {
+			try {
+				this.constantPool.writeByte(CONSTANT_DOUBLE);
+				this.constantPool.writeLong(bits);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			
+			index = this.registerConstant(key, 2);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la constante de nombre y tipo especificada
+	 */
+	private int nameAndTypeConstant(String name, String descriptor) {
+		final String key = "N" + name + ":" + descriptor;
+		Integer index = this.findConstant(key);
+		
+		if ( index == null ) {
+			final int nameIndex = this.utf8Constant(name);
+			final int descriptorIndex = this.utf8Constant(descriptor);
+			
+			try {
+				this.constantPool.writeByte(CONSTANT_NAMEANDTYPE);
+				this.constantPool.writeShort(nameIndex);
+				this.constantPool.writeShort(descriptorIndex);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			
+			index = this.registerConstant(key, 1);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la referencia de miembro especificada
+	 */
+	private int memberConstant(int tag, String owner, String name, String descriptor) {
+		final String key = "M" + tag + owner + "." + name + ":" + descriptor;
+		Integer index = this.findConstant(key);
+		
+		if ( index == null ) {
+			final int ownerIndex = this.classConstant(owner);
+			final int nameAndTypeIndex = this.nameAndTypeConstant(name, descriptor);
+			
+			try {
+				this.constantPool.writeByte(tag);
+				this.constantPool.writeShort(ownerIndex);
+				this.constantPool.writeShort(nameAndTypeIndex);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			
+			index = this.registerConstant(key, 1);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Devuelve el índice de la referencia al campo especificado
+	 */
+	int fieldConstant(String owner, String name, String descriptor) {
+		return this.memberConstant(CONSTANT_FIELDREF, owner, name, descriptor);
+	}
+	
+	/**
+	 * @post Devuelve el índice de la referencia al método de clase especificado
+	 */
+	int methodConstant(String owner, String name, String descriptor) {
+		return this.memberConstant(CONSTANT_METHODREF, owner, name, descriptor);
+	}
+	
+	/**
+	 * @post Devuelve el índice de la referencia al método de interfaz especificado
+	 */
+	int interfaceMethodConstant(String owner, String name, String descriptor) {
+		return this.memberConstant(CONSTANT_INTERFACEMETHODREF, owner, name, descriptor);
+	}
+	
+	/**
+	 * @post Agrega un campo con los modificadores, el nombre y el descriptor especificados
+	 */
+	void addField(int accessFlags, String name, String descriptor) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		
+		try {
+			out.writeShort(accessFlags);
+			out.writeShort(this.utf8Constant(name));
+			out.writeShort(this.utf8Constant(descriptor));
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		
+		this.fields.add(bytes.toByteArray());
+	}
+	
+	/**
+	 * @pre El código no puede ser nulo
+	 * @post Agrega un método con los modificadores, el nombre, el descriptor
+	 * 		 y el código especificados
+	 */
+	void addMethod(int accessFlags, String name, String descriptor, CodeWriter code) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		final byte[] codeBytes = code.toByteArray();
+		
+		try {
+			out.writeShort(accessFlags);
+			out.writeShort(this.utf8Constant(name));
+			out.writeShort(this.utf8Constant(descriptor));
+			out.writeShort(1);
+			
+			out.writeShort(this.utf8Constant("Code"));
+			out.writeInt(12 + codeBytes.length);
+			out.writeShort(code.getMaxStack());
+			out.writeShort(code.getMaxLocals());
+			out.writeInt(codeBytes.length);
+			out.write(codeBytes);
+			out.writeShort(0);
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		
+		this.methods.add(bytes.toByteArray());
+	}
+	
+	/**
+	 * @post Devuelve los bytes del archivo de clase
+	 */
+	byte[] toByteArray() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		
+		try {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(49);
+			
+			out.writeShort(this.constantPoolCount);
+			this.constantPoolBytes.writeTo(out);
+			
+			out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			out.writeShort(this.thisClass);
+			out.writeShort(this.superClass);
+			
+			out.writeShort(this.interfaces.length);
+			for ( int eachInterface : this.interfaces ) {
+				out.writeShort(eachInterface);
+			}
+			
+			out.writeShort(this.fields.size());
+			for ( byte[] eachField : this.fields ) {
+				out.write(eachField);
+			}
+			
+			out.writeShort(this.methods.size());
+			for ( byte[] eachMethod : this.methods ) {
+				out.write(eachMethod);
+			}
+			
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,341 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Escritor del código de un método.
+ * Lleva la cuenta de la cantidad de variables locales, y resuelve
+ * los saltos a etiquetas
+ */
+final class CodeWriter {
+	static final int ICONST_0 = 0x03;
+	static final int FCONST_0 = 0x0B;
+	static final int FCONST_1 = 0x0C;
+	static final int FCONST_2 = 0x0D;
+	static final int BIPUSH = 0x10;
+	static final int SIPUSH = 0x11;
+	static final int LDC_W = 0x13;
+	static final int LDC2_W = 0x14;
+	static final int ILOAD = 0x15;
+	static final int FLOAD = 0x17;
+	static final int DLOAD = 0x18;
+	static final int ALOAD = 0x19;
+	static final int FALOAD = 0x30;
+	static final int ISTORE = 0x36;
+	static final int FSTORE = 0x38;
+	static final int DSTORE = 0x39;
+	static final int ASTORE = 0x3A;
+	static final int FASTORE = 0x51;
+	static final int DUP2 = 0x5C;
+	static final int IADD = 0x60;
+	static final int ISUB = 0x64;
+	static final int FADD = 0x62;
+	static final int DADD = 0x63;
+	static final int FSUB = 0x66;
+	static final int DSUB = 0x67;
+	static final int FMUL = 0x6A;
+	static final int DMUL = 0x6B;
+	static final int IINC = 0x84;
+	static final int I2F = 0x86;
+	static final int I2D = 0x87;
+	static final int F2D = 0x8D;
+	static final int D2F = 0x90;
+	static final int FCMPL = 0x95;
+	static final int FCMPG = 0x96;
+	static final int DCMPL = 0x97;
+	static final int DCMPG = 0x98;
+	static final int IFLT = 0x9B;
+	static final int IFGE = 0x9C;
+	static final int IFGT = 0x9D;
+	static final int IF_ICMPGE = 0xA2;
+	static final int IF_ICMPLE = 0xA4;
+	static final int GOTO = 0xA7;
+	static final int RETURN = 0xB1;
+	static final int GETFIELD = 0xB4;
+	static final int PUTFIELD = 0xB5;
+	static final int INVOKEVIRTUAL = 0xB6;
+	static final int INVOKESPECIAL = 0xB7;
+	static final int INVOKESTATIC = 0xB8;
+	static final int WIDE = 0xC4;
+	
+	/**
+	 * Etiqueta de una posición del código
+	 */
+	static final class Label {
+		private int position;
+		private final List<Integer> branches;
+		
+		/**
+		 * @post Crea la etiqueta sin posición
+		 */
+		Label() {
+			this.position = -1;
+			this.branches = new ArrayList<Integer>();
+		}
+	}
+	
+	private final ClassFileWriter classFileWriter;
+	
+	private byte[] code;
+	private int length;
+	
+	private final int maxStack;
+	private int maxLocals;
+	
+	/**
+	 * @pre El escritor de archivos de clase no puede ser nulo
+	 * @post Crea el escritor de código para el escritor de archivos de clase especificado,
+	 * 		 con la profundidad máxima de pila y la cantidad de variables
+	 * 		 locales iniciales (Parámetros) especificados
+	 */
+	CodeWriter(ClassFileWriter classFileWriter, int maxStack, int parametersSlots) {
+		this.classFileWriter = classFileWriter;
+		this.code = new byte[256];
+		this.length = 0;
+		this.maxStack = maxStack;
+		this.maxLocals = parametersSlots;
+	}
+	
+	/**
+	 * @post Devuelve el escritor de archivos de clase
+	 */
+	ClassFileWriter getClassFileWriter() {
+		return this.classFileWriter;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de bytes escritos
+	 */
+	int size() {
+		return this.length;
+	}
+	
+	/**
+	 * @post Devuelve la profundidad máxima de la pila
+	 */
+	int getMaxStack() {
+		return this.maxStack;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de variables locales
+	 */
+	int getMaxLocals() {
+		return this.maxLocals;
+	}
+	
+	/**
+	 * @post Reserva la cantidad de variables locales especificada,
+	 * 		 y devuelve el índice de la primera
+	 */
+	int newLocal(int slots) {
+		final int index = this.maxLocals;
+		
+		this.maxLocals += slots;
+		
+		if ( this.maxLocals > 0xFFFF ) {
+			throw new IllegalStateException("Too many local variables");
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @post Escribe el byte especificado
+	 */
+	private void writeByte(int value) {
+		if ( this.length == this.code.length ) {
+			this.code = Arrays.copyOf(this.code, this.code.length * 2);
+		}
+		
+		this.code[this.length++] = (byte) value;
+	}
+	
+	/**
+	 * @post Escribe el short especificado
+	 */
+	private void writeShort(int value) {
+		this.writeByte(value >> 8);
+		this.writeByte(value);
+	}
+	
+	/**
+	 * @post Emite la instrucción sin operandos especificada
+	 */
+	void op(int opcode) {
+		this.writeByte(opcode);
+	}
+	
+	/**
+	 * @post Emite la instrucción especificada, con el índice de pool
+	 * 		 de constantes especificado
+	 */
+	void constantOp(int opcode, int constantIndex) {
+		this.writeByte(opcode);
+		this.writeShort(constantIndex);
+	}
+	
+	/**
+	 * @post Emite la instrucción especificada sobre la variable local especificada
+	 */
+	void localOp(int opcode, int local) {
+		if ( local <= 0xFF ) {
+			this.writeByte(opcode);
+			this.writeByte(local);
+		}
+		else {
+			this.writeByte(WIDE);
+			this.writeByte(opcode);
+			this.writeShort(local);
+		}
+	}
+	
+	/**
+	 * @post Emite el incremento de la variable local entera especificada
+	 */
+	void increment(int local, int delta) {
+		if ( ( local <= 0xFF ) && ( delta >= Byte.MIN_VALUE ) && ( delta <= Byte.MAX_VALUE ) ) {
+			this.writeByte(IINC);
+			this.writeByte(local);
+			this.writeByte(delta);
+		}
+		else {
+			this.writeByte(WIDE);
+			this.writeByte(IINC);
+			this.writeShort(local);
+			this.writeShort(delta);
+		}
+	}
+	
+	/**
+	 * @post Apila el entero especificado
+	 */
+	void pushInt(int value) {
+		if ( ( value >= -1 ) && ( value <= 5 ) ) {
+			this.writeByte(ICONST_0 + value);
+		}
+		else if ( ( value >= Byte.MIN_VALUE ) && ( value <= Byte.MAX_VALUE ) ) {
+			this.writeByte(BIPUSH);
+			this.writeByte(value);
+		}
+		else if ( ( value >= Short.MIN_VALUE ) && ( value <= Short.MAX_VALUE ) ) {
+			this.writeByte(SIPUSH);
+			this.writeShort(value);
+		}
+		else {
+			this.constantOp(LDC_W, this.classFileWriter.integerConstant(value));
+		}
+	}
+	
+	/**
+	 * @post Apila el float especificado
+	 */
+	void pushFloat(float value) {
+		final int bits = Float.floatToRawIntBits(value);
+		
+		if ( bits == Float.floatToRawIntBits(0.0f) ) {
+			this.writeByte(FCONST_0);
+		}
+		else if ( bits == Float.floatToRawIntBits(1.0f) ) {
+			this.writeByte(FCONST_1);
+		}
+		else if ( bits == Float.floatToRawIntBits(2.0f) ) {
+			this.writeByte(FCONST_2);
+		}
+		else {
+			this.constantOp(LDC_W, this.classFileWriter.floatConstant(value));
+		}
+	}
+	
+	/**
+	 * @post Apila el double especificado
+	 */
+	void pushDouble(double value) {
+		this.constantOp(LDC2_W, this.classFileWriter.doubleConstant(value));
+	}
+	
+	/**
+	 * @pre La etiqueta no puede ser nula
+	 * @post Emite el salto especificado a la etiqueta especificada
+	 */
+	void branch(int opcode, Label label) {
+		final int branchPosition = this.length;
+		
+		this.writeByte(opcode);
+		
+		if ( label.position != -1 ) {
+			this.writeShort(label.position - branchPosition);
+		}
+		else {
+			label.branches.add(branchPosition);
+			this.writeShort(0);
+		}
+	}
+	
+	/**
+	 * @pre La etiqueta no puede ser nula, y no tiene que haber sido ubicada
+	 * @post Ubica la etiqueta en la posición actual, y resuelve los saltos pendientes
+	 */
+	void mark(Label label) {
+		if ( label.position == -1 ) {
+			label.position = this.length;
+			
+			for ( int eachBranch : label.branches ) {
+				final int offset = label.position - eachBranch;
+				
+				this.code[eachBranch+1] = (byte) (offset >> 8);
+				this.code[eachBranch+2] = (byte) offset;
+			}
+			
+			label.branches.clear();
+		}
+		else {
+			throw new IllegalStateException("Label has been marked");
+		}
+	}
+	
+	/**
+	 * @post Devuelve los bytes del código
+	 */
+	byte[] toByteArray() {
+		if ( this.length <= Short.MAX_VALUE ) {
+			return Arrays.copyOf(this.code, this.length);
+		}
+		else {
+			throw new IllegalStateException("Method code too large");
+		}
+	}
+}
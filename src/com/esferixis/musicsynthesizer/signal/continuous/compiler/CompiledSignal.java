@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleBufferStack;
+
+/**
+ * Señal compilada.
+ * Evalúa los bloques de muestras ejecutando el programa de la señal de origen
+ * con su núcleo, y las muestras individuales con la señal de origen.
+ * Los bloques con instantes de tiempo de precisión doble también se evalúan
+ * con el núcleo, donde las hojas usan su propia evaluación de precisión doble
+ * (Por ejemplo, las ondas periódicas usan acumuladores de fase)
+ */
+public final class CompiledSignal extends ContinuousSignal {
+	private static final int BLOCKLENGTH = 1024;
+	
+	private final ContinuousSignal sourceSignal;
+	private final SignalProgram program;
+	private final SignalKernel kernel;
+	private final SignalCompiler.Backend backend;
+	
+	/**
+	 * @pre Ninguno puede ser nulo, el programa tiene que ser el resultado de compilar
+	 * 		la señal de origen, y el núcleo tiene que ejecutar el programa
+	 * 		de la forma especificada
+	 * @post Crea la señal compilada con la señal de origen, el programa, el núcleo
+	 * 		 y la forma de ejecución especificados
+	 */
+	CompiledSignal(ContinuousSignal sourceSignal, SignalProgram program, SignalKernel kernel, SignalCompiler.Backend backend) {
+		super(sourceSignal.getTimeInterval());
+		
+		this.sourceSignal = sourceSignal;
+		this.program = program;
+		this.kernel = kernel;
+		this.backend = backend;
+	}
+	
+	/**
+	 * @post Devuelve la señal de origen
+	 */
+	public ContinuousSignal getSourceSignal() {
+		return this.sourceSignal;
+	}
+	
+	/**
+	 * @post Devuelve el programa
+	 */
+	public SignalProgram getProgram() {
+		return this.program;
+	}
+	
+	/**
+	 * @post Devuelve la forma con la que se ejecuta el programa
+	 */
+	public SignalCompiler.Backend getBackend() {
+		return this.backend;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+	 */
+	@Override
+	protected float uncheckedGetValue(float t) {
+		return this.sourceSignal.getValue(t);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final int registersQuantity = this.program.getRegistersQuantity();
+		final int firstRegister = bufferStack.push(registersQuantity, Math.min(length, BLOCKLENGTH));
+		
+		try {
+			final float[] result = bufferStack.getBuffer(firstRegister + this.program.getResultRegister());
+			
+			for ( int blockStart = 0 ; blockStart < length ; blockStart += BLOCKLENGTH ) {
+				final int blockLength = Math.min(BLOCKLENGTH, length - blockStart);
+				
+				this.kernel.execute(bufferStack, firstRegister, blockLength, startTime + (float) blockStart * timeStep, timeStep);
+				System.arraycopy(result, 0, values, offset + blockStart, blockLength);
+			}
+		}
+		finally {
+			bufferStack.pop(registersQuantity);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final int registersQuantity = this.program.getRegistersQuantity();
+		final int firstRegister = bufferStack.push(registersQuantity, Math.min(length, BLOCKLENGTH));
+		
+		try {
+			final float[] result = bufferStack.getBuffer(firstRegister + this.program.getResultRegister());
+			
+			for ( int blockStart = 0 ; blockStart < length ; blockStart += BLOCKLENGTH ) {
+				final int blockLength = Math.min(BLOCKLENGTH, length - blockStart);
+				
+				this.kernel.executePrecise(bufferStack, firstRegister, blockLength, startTime + (double) blockStart * timeStep, timeStep);
+				System.arraycopy(result, 0, values, offset + blockStart, blockLength);
+			}
+		}
+		finally {
+			bufferStack.pop(registersQuantity);
+		}
+	}
+}
@@ -0,0 +1,335 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.SignalMix;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
+
+/**
+ * Instrucción de un programa de señal.
+ * Opera sobre registros, que son buffers de muestras de la misma longitud
+ * que el bloque que se está evaluando
+ */
+public final class Instruction {
+	public enum Opcode {
+		/**
+		 * Evalúa la señal por bloques en el registro destino, aplicando
+		 * la transformación afín de tiempo (t * timeScale + timeOffset)
+		 */
+		RENDER,
+		
+		/**
+		 * Suma el registro fuente al registro destino, en las muestras cuyos
+		 * instantes de tiempo están en el intervalo [minTime, maxTime], extendido
+		 * en una muestra hacia cada lado para cubrir el redondeo.
+		 * El registro fuente es nulo fuera de ese intervalo
+		 */
+		ADD,
+		
+		/**
+		 * Multiplica el registro destino por el registro fuente
+		 */
+		MULTIPLY,
+		
+		/**
+		 * Transforma el registro destino con el transformador de valor
+		 */
+		TRANSFORM,
+		
+		/**
+		 * Anula las muestras del registro destino cuyos instantes de tiempo
+		 * están fuera del intervalo [minTime, maxTime]
+		 */
+		MASK,
+		
+		/**
+		 * Reemplaza cada muestra del registro destino por el valor de la señal
+		 * en el instante de tiempo que contiene
+		 */
+		MORPH,
+		
+		/**
+		 * Copia el registro fuente al registro destino si alguna muestra del bloque
+		 * tiene su instante de tiempo en el intervalo [minTime, maxTime], si no
+		 * anula el registro destino
+		 */
+		COPY,
+		
+		/**
+		 * Si ninguna muestra del bloque tiene su instante de tiempo en el intervalo
+		 * [minTime, maxTime], saltea las siguientes instrucciones, en la cantidad
+		 * especificada
+		 */
+		SKIP,
+		
+		/**
+		 * Anula el registro destino y ejecuta las instrucciones de los sumandos de la mezcla
+		 * que se solapan con el bloque, según su árbol de intervalos, aplicando la
+		 * transformación afín de tiempo (t * timeScale + timeOffset).
+		 * Las instrucciones de los sumandos son las siguientes, en la cantidad especificada,
+		 * cada sumando suma sus valores al registro destino, y se saltean todas
+		 */
+		MIX
+	}
+	
+	private final Opcode opcode;
+	private final int destination;
+	private final int source;
+	private final ContinuousSignal signal;
+	private final ValueTransformer valueTransformer;
+	private final double timeScale, timeOffset;
+	private final float minTime, maxTime;
+	private final int skipLength;
+	
+	/**
+	 * Comienzo de las instrucciones de cada sumando, relativo a la instrucción
+	 * siguiente, seguido del final de las del último (MIX)
+	 */
+	private final int[] voiceStarts;
+	
+	/**
+	 * @post Crea la instrucción con los parámetros especificados
+	 */
+	private Instruction(Opcode opcode, int destination, int source, ContinuousSignal signal, ValueTransformer valueTransformer, double timeScale, double timeOffset, float minTime, float maxTime, int skipLength, int[] voiceStarts) {
+		this.opcode = opcode;
+		this.destination = destination;
+		this.source = source;
+		this.signal = signal;
+		this.valueTransformer = valueTransformer;
+		this.timeScale = timeScale;
+		this.timeOffset = timeOffset;
+		this.minTime = minTime;
+		this.maxTime = maxTime;
+		this.skipLength = skipLength;
+		this.voiceStarts = voiceStarts;
+	}
+	
+	/**
+	 * @post Crea una instrucción de evaluación de señal
+	 */
+	static Instruction render(int destination, ContinuousSignal signal, double timeScale, double timeOffset) {
+		return new Instruction(Opcode.RENDER, destination, -1, signal, null, timeScale, timeOffset, 0.0f, 0.0f, 0, null);
+	}
+	
+	/**
+	 * @post Crea una instrucción de suma, donde el registro fuente es nulo
+	 * 		 fuera del intervalo de tiempo especificado
+	 */
+	static Instruction add(int destination, int source, float minTime, float maxTime) {
+		return new Instruction(Opcode.ADD, destination, source, null, null, 1.0d, 0.0d, minTime, maxTime, 0, null);
+	}
+	
+	/**
+	 * @post Crea una instrucción de multiplicación
+	 */
+	static Instruction multiply(int destination, int source) {
+		return new Instruction(Opcode.MULTIPLY, destination, source, null, null, 1.0d, 0.0d, 0.0f, 0.0f, 0, null);
+	}
+	
+	/**
+	 * @post Crea una instrucción de transformación de valor
+	 */
+	static Instruction transform(int destination, ValueTransformer valueTransformer) {
+		return new Instruction(Opcode.TRANSFORM, destination, -1, null, valueTransformer, 1.0d, 0.0d, 0.0f, 0.0f, 0, null);
+	}
+	
+	/**
+	 * @post Crea una instrucción de enmascaramiento por intervalo de tiempo
+	 */
+	static Instruction mask(int destination, float minTime, float maxTime) {
+		return new Instruction(Opcode.MASK, destination, -1, null, null, 1.0d, 0.0d, minTime, maxTime, 0, null);
+	}
+	
+	/**
+	 * @post Crea una instrucción de composición en el tiempo
+	 */
+	static Instruction morph(int destination, ContinuousSignal signal) {
+		return new Instruction(Opcode.MORPH, destination, -1, signal, null, 1.0d, 0.0d, 0.0f, 0.0f, 0, null);
+	}
+	
+	/**
+	 * @post Crea una instrucción de copia, donde el registro fuente es nulo
+	 * 		 fuera del intervalo de tiempo especificado
+	 */
+	static Instruction copy(int destination, int source, float minTime, float maxTime) {
+		return new Instruction(Opcode.COPY, destination, source, null, null, 1.0d, 0.0d, minTime, maxTime, 0, null);
+	}
+	
+	/**
+	 * @post Crea una instrucción que saltea la cantidad de instrucciones especificada
+	 * 		 si el bloque no se solapa con el intervalo de tiempo especificado
+	 */
+	static Instruction skip(float minTime, float maxTime, int skipLength) {
+		return new Instruction(Opcode.SKIP, -1, -1, null, null, 1.0d, 0.0d, minTime, maxTime, skipLength, null);
+	}
+	
+	/**
+	 * @pre Los comienzos de las instrucciones de los sumandos tienen que ser
+	 * 		uno por cada señal de la mezcla, seguidos del final de las del último
+	 * @post Crea una instrucción de mezcla con la transformación afín de tiempo
+	 * 		 y los comienzos de las instrucciones de los sumandos especificados,
+	 * 		 relativos a la instrucción siguiente
+	 */
+	static Instruction mix(int destination, SignalMix signalMix, double timeScale, double timeOffset, int[] voiceStarts) {
+		return new Instruction(Opcode.MIX, destination, -1, signalMix, null, timeScale, timeOffset, 0.0f, 0.0f, voiceStarts[voiceStarts.length-1], voiceStarts);
+	}
+	
+	/**
+	 * @post Devuelve el código de operación
+	 */
+	public Opcode getOpcode() {
+		return this.opcode;
+	}
+	
+	/**
+	 * @post Devuelve el registro destino
+	 */
+	public int getDestination() {
+		return this.destination;
+	}
+	
+	/**
+	 * @post Devuelve el registro fuente (ADD, MULTIPLY y COPY)
+	 */
+	public int getSource() {
+		return this.source;
+	}
+	
+	/**
+	 * @post Devuelve la señal (RENDER, MORPH y MIX)
+	 */
+	public ContinuousSignal getSignal() {
+		return this.signal;
+	}
+	
+	/**
+	 * @post Devuelve el transformador de valor (TRANSFORM)
+	 */
+	public ValueTransformer getValueTransformer() {
+		return this.valueTransformer;
+	}
+	
+	/**
+	 * @post Devuelve el factor de escala de tiempo (RENDER y MIX)
+	 */
+	public double getTimeScale() {
+		return this.timeScale;
+	}
+	
+	/**
+	 * @post Devuelve el desplazamiento de tiempo (RENDER y MIX)
+	 */
+	public double getTimeOffset() {
+		return this.timeOffset;
+	}
+	
+	/**
+	 * @post Devuelve el mínimo instante de tiempo (ADD, MASK, COPY y SKIP)
+	 */
+	public float getMinTime() {
+		return this.minTime;
+	}
+	
+	/**
+	 * @post Devuelve el máximo instante de tiempo (ADD, MASK, COPY y SKIP)
+	 */
+	public float getMaxTime() {
+		return this.maxTime;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de instrucciones que se saltean (SKIP y MIX)
+	 */
+	public int getSkipLength() {
+		return this.skipLength;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de sumandos (MIX)
+	 */
+	public int getVoicesQuantity() {
+		return this.voiceStarts.length - 1;
+	}
+	
+	/**
+	 * @pre El índice tiene que ser el de un sumando, o la cantidad de sumandos
+	 * @post Devuelve el comienzo de las instrucciones del sumando con el índice
+	 * 		 especificado, relativo a la instrucción siguiente.
+	 * 		 Con la cantidad de sumandos devuelve el final de las del último (MIX)
+	 */
+	public int getVoiceStart(int voiceIndex) {
+		return this.voiceStarts[voiceIndex];
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final String result;
+		
+		switch ( this.opcode ) {
+		case RENDER:
+			result = "RENDER r" + this.destination + ", " + this.signal.getClass().getName() + ", t * " + this.timeScale + " + " + this.timeOffset;
+			break;
+		case ADD:
+			result = "ADD r" + this.destination + ", r" + this.source + ", [" + this.minTime + ", " + this.maxTime + "]";
+			break;
+		case MULTIPLY:
+			result = "MULTIPLY r" + this.destination + ", r" + this.source;
+			break;
+		case TRANSFORM:
+			result = "TRANSFORM r" + this.destination + ", " + this.valueTransformer.getClass().getName();
+			break;
+		case MASK:
+			result = "MASK r" + this.destination + ", [" + this.minTime + ", " + this.maxTime + "]";
+			break;
+		case MORPH:
+			result = "MORPH r" + this.destination + ", " + this.signal.getClass().getName();
+			break;
+		case COPY:
+			result = "COPY r" + this.destination + ", r" + this.source + ", [" + this.minTime + ", " + this.maxTime + "]";
+			break;
+		case SKIP:
+			result = "SKIP " + this.skipLength + ", [" + this.minTime + ", " + this.maxTime + "]";
+			break;
+		case MIX:
+			result = "MIX r" + this.destination + ", " + this.getVoicesQuantity() + " voices, " + this.skipLength + ", t * " + this.timeScale + " + " + this.timeOffset;
+			break;
+		default:
+			throw new IllegalStateException("Unexpected opcode");
+		}
+		
+		return result;
+	}
+}
@@ -0,0 +1,1171 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.PeriodicWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SawtoothWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SineWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SquareWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.TriangleWave;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueScaleTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
+import com.esferixis.musicsynthesizer.signal.vector.VectorOperations;
+
+/**
+ * Generador de núcleos especializados.
+ * 
+ * Traduce un programa de señal a una clase oculta que lo ejecuta.
+ * Las ondas periódicas, los escaladores de valor y los clippers se evalúan
+ * en línea con sus parámetros como constantes, y la evaluación de cada onda
+ * se fusiona con la suma que la acumula. Las ondas sólo se evalúan en el rango
+ * de muestras dentro de su intervalo de tiempo, igual que su evaluación por bloques.
+ * Si las operaciones vectoriales están disponibles, las ondas senoidales y de diente
+ * de sierra las evalúa su implementación vectorial, que es más rápida que el código en línea.
+ * Las instrucciones SKIP que saltean código en línea se traducen a saltos.
+ * Las mezclas con pocos sumandos que tienen código en línea se evalúan
+ * sumando en orden, y las demás las ejecuta el intérprete con su
+ * árbol de intervalos.
+ * Las secuencias de instrucciones restantes (Señales y transformadores que
+ * no conoce, y operaciones entre registros) se delegan al intérprete, cuyos
+ * bucles son compartidos por todos los programas y el JIT los compila antes
+ * que a los bucles de una clase generada que se ejecutan una vez por bloque.
+ * El código se reparte en varios métodos para que cada uno
+ * sea lo suficientemente chico para que lo compile el JIT.
+ * 
+ * La evaluación con instantes de tiempo de precisión doble se genera aparte,
+ * con los mismos segmentos sobre instantes de tiempo de precisión doble.
+ * Ahí las ondas se evalúan en línea con acumuladores de fase de precisión doble,
+ * con las mismas operaciones que su evaluación de precisión doble
+ */
+final class KernelGenerator {
+	private static final String PACKAGE = "com/esferixis/musicsynthesizer/signal/continuous/compiler/";
+	private static final String CLASSNAME = PACKAGE + "GeneratedSignalKernel";
+	private static final String KERNEL = PACKAGE + "SignalKernel";
+	private static final String BUFFERSTACK = "com/esferixis/musicsynthesizer/signal/continuous/SampleBufferStack";
+	private static final String PROGRAM = PACKAGE + "SignalProgram";
+	private static final String MATH = "java/lang/Math";
+	private static final String ARRAYS = "java/util/Arrays";
+	private static final String SAMPLEINDEXRANGE = "com/esferixis/musicsynthesizer/signal/continuous/SampleIndexRange";
+	private static final String INDEXDESCRIPTOR = "(FFFI)I";
+	private static final String PRECISEINDEXDESCRIPTOR = "(DDDI)I";
+	
+	private static final String EXECUTEDESCRIPTOR = "(L" + BUFFERSTACK + ";IIFF)V";
+	private static final String RANGEEXECUTEDESCRIPTOR = "(IIL" + BUFFERSTACK + ";IIFF)V";
+	private static final String PRECISEEXECUTEDESCRIPTOR = "(L" + BUFFERSTACK + ";IIDD)V";
+	private static final String PRECISERANGEEXECUTEDESCRIPTOR = "(IIL" + BUFFERSTACK + ";IIDD)V";
+	
+	/**
+	 * Longitud a partir de la cual se empieza un nuevo método
+	 */
+	private static final int MAXSEGMENTLENGTH = 2000;
+	
+	/**
+	 * Máxima cantidad de instrucciones salteadas por una instrucción SKIP
+	 * que se traduce a un salto, porque el segmento no se puede cortar
+	 * dentro de las instrucciones salteadas
+	 */
+	private static final int MAXSKIPLENGTH = 32;
+	
+	/**
+	 * Máxima cantidad de sumandos de una mezcla que se evalúa en línea,
+	 * porque se recorren todos en cada bloque
+	 */
+	private static final int MAXINLINEDVOICES = 32;
+	
+	private static final int MAXSTACK = 10;
+	
+	/**
+	 * Variables locales de los parámetros
+	 */
+	private static final int THIS = 0;
+	private static final int REGISTERS = 1;
+	private static final int FIRSTREGISTER = 2;
+	private static final int LENGTH = 3;
+	private static final int STARTTIME = 4;
+	private static final int TIMESTEP = 5;
+	private static final int PARAMETERSSLOTS = 6;
+	
+	/**
+	 * Variables locales de los parámetros que cambian en la evaluación
+	 * con instantes de tiempo de precisión doble, que ocupan dos variables
+	 */
+	private static final int PRECISETIMESTEP = 6;
+	private static final int PRECISEPARAMETERSSLOTS = 8;
+	
+	private final SignalProgram program;
+	private final ClassFileWriter classFileWriter;
+	
+	/**
+	 * Indica si se están generando los segmentos de la evaluación
+	 * con instantes de tiempo de precisión doble
+	 */
+	private boolean precise;
+	private int segmentsQuantity;
+	
+	/**
+	 * Etiquetas de salto pendientes, por índice de instrucción
+	 */
+	private final Map<Integer, List<CodeWriter.Label>> pendingLabels;
+	
+	private CodeWriter code;
+	private int firstRegisterLocal;
+	private int indexLocal, timeLocal, localTimeLocal, valueLocal, localStartTimeLocal, localTimeStepLocal, rangeStartLocal, rangeEndLocal;
+	private int phaseLocal, phaseIncrementLocal, cosLocal, sinLocal, cosStepLocal, sinStepLocal;
+	private CodeWriter.Label loopStart, loopEnd;
+	
+	/**
+	 * @post Crea el generador para el programa especificado
+	 */
+	private KernelGenerator(SignalProgram program) {
+		this.program = program;
+		this.classFileWriter = new ClassFileWriter(CLASSNAME, "java/lang/Object", KERNEL);
+		this.precise = false;
+		this.segmentsQuantity = 0;
+		this.pendingLabels = new HashMap<Integer, List<CodeWriter.Label>>();
+	}
+	
+	/**
+	 * @pre El programa no puede ser nulo
+	 * @post Genera el núcleo especializado del programa especificado.
+	 * 		 Si la plataforma no permite definir clases ocultas, o no se
+	 * 		 puede generar la clase, devuelve null
+	 */
+	static SignalKernel generate(SignalProgram program) {
+		if ( program != null ) {
+			try {
+				final KernelGenerator generator = new KernelGenerator(program);
+				
+				return define(generator.generateClass(), program);
+			}
+			catch (Exception e) {
+				return null;
+			}
+			catch (LinkageError e) {
+				return null;
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Define la clase oculta con los bytes especificados en el paquete del compilador,
+	 * 		 y crea el núcleo con el programa especificado.
+	 * 		 Se accede por reflexión a la definición de clases ocultas,
+	 * 		 para no requerirla en las plataformas que no la tienen
+	 */
+	private static SignalKernel define(byte[] classBytes, SignalProgram program) throws Exception {
+		final Object classOptions = Array.newInstance(Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption"), 0);
+		final Method defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, classOptions.getClass());
+		final MethodHandles.Lookup kernelLookup = (MethodHandles.Lookup) defineHiddenClass.invoke(MethodHandles.lookup(), classBytes, true, classOptions);
+		
+		return (SignalKernel) kernelLookup.lookupClass().getConstructor(SignalProgram.class).newInstance(program);
+	}
+	
+	/**
+	 * @post Devuelve si la instrucción especificada se evalúa en línea
+	 */
+	private static boolean isSpecialized(Instruction instruction) {
+		switch ( instruction.getOpcode() ) {
+		case RENDER:
+			return isInlinedWave(instruction.getSignal());
+		case TRANSFORM:
+			return ( instruction.getValueTransformer() instanceof ValueScaleTransformer ) || ( instruction.getValueTransformer() instanceof Clipper );
+		default:
+			return false;
+		}
+	}
+	
+	/**
+	 * @post Devuelve si la señal especificada es una onda que se evalúa en línea.
+	 * 		 Si las operaciones vectoriales están disponibles, las ondas que las usan
+	 * 		 no se evalúan en línea, para que las evalúe su implementación vectorial
+	 */
+	private static boolean isInlinedWave(ContinuousSignal signal) {
+		if ( ( signal instanceof SineWave ) || ( signal instanceof SawtoothWave ) ) {
+			return ( VectorOperations.getInstance() == null );
+		}
+		else {
+			return ( signal instanceof SquareWave ) || ( signal instanceof TriangleWave );
+		}
+	}
+	
+	/**
+	 * @post Devuelve qué instrucciones del programa especificado se emiten en línea.
+	 * 		 Una instrucción SKIP se emite en línea si alguna de las instrucciones
+	 * 		 que saltea se emite en línea, si no la ejecuta el intérprete.
+	 * 		 Una instrucción MIX se emite en línea de la misma forma, si no
+	 * 		 tiene más sumandos que el máximo, si no el intérprete ejecuta
+	 * 		 la mezcla completa
+	 */
+	private static boolean[] getSpecializedInstructions(List<Instruction> instructions) {
+		final boolean[] specialized = new boolean[instructions.size()];
+		
+		for ( int i = instructions.size()-1 ; i >= 0 ; i-- ) {
+			final Instruction instruction = instructions.get(i);
+			
+			if ( instruction.getOpcode() == Instruction.Opcode.SKIP ) {
+				for ( int j = i+1 ; ( j <= i + instruction.getSkipLength() ) && ( !specialized[i] ) ; j++ ) {
+					specialized[i] = specialized[j];
+				}
+			}
+			else if ( instruction.getOpcode() == Instruction.Opcode.MIX ) {
+				if ( instruction.getVoicesQuantity() <= MAXINLINEDVOICES ) {
+					for ( int j = i+1 ; ( j <= i + instruction.getSkipLength() ) && ( !specialized[i] ) ; j++ ) {
+						specialized[i] = specialized[j];
+					}
+				}
+			}
+			else {
+				specialized[i] = isSpecialized(instruction);
+			}
+		}
+		
+		return specialized;
+	}
+	
+	/**
+	 * @post Genera los bytes de la clase
+	 */
+	private byte[] generateClass() {
+		this.generateSegments(false);
+		this.generateSegments(true);
+		this.generateConstructor();
+		
+		return this.classFileWriter.toByteArray();
+	}
+	
+	/**
+	 * @post Genera los segmentos y el método de ejecución, con instantes de tiempo
+	 * 		 de precisión doble o simple
+	 */
+	private void generateSegments(boolean precise) {
+		final List<Instruction> instructions = this.program.getInstructions();
+		final boolean[] specialized = getSpecializedInstructions(instructions);
+		int instructionIndex = 0;
+		
+		this.precise = precise;
+		this.segmentsQuantity = 0;
+		this.beginSegment();
+		
+		while ( instructionIndex < instructions.size() ) {
+			final Instruction instruction = instructions.get(instructionIndex);
+			
+			this.markLabels(instructionIndex);
+			
+			if ( ( this.code.size() > MAXSEGMENTLENGTH ) && this.pendingLabels.isEmpty() ) {
+				this.endSegment();
+				this.beginSegment();
+			}
+			
+			if ( specialized[instructionIndex] ) {
+				if ( instruction.getOpcode() == Instruction.Opcode.RENDER ) {
+					Instruction accumulation = null;
+					
+					if ( ( instructionIndex+1 < instructions.size() ) && ( !this.pendingLabels.containsKey(instructionIndex+1) ) ) {
+						final Instruction nextInstruction = instructions.get(instructionIndex+1);
+						
+						if ( ( nextInstruction.getOpcode() == Instruction.Opcode.ADD ) && ( nextInstruction.getSource() == instruction.getDestination() ) ) {
+							accumulation = nextInstruction;
+						}
+					}
+					
+					this.emitWaveRender(instruction, accumulation);
+					
+					if ( accumulation != null ) {
+						instructionIndex += 2;
+					}
+					else {
+						instructionIndex++;
+					}
+				}
+				else if ( instruction.getOpcode() == Instruction.Opcode.SKIP ) {
+					if ( instruction.getSkipLength() <= MAXSKIPLENGTH ) {
+						this.emitSkip(instruction, instructionIndex + 1 + instruction.getSkipLength());
+					}
+					instructionIndex++;
+				}
+				else if ( instruction.getOpcode() == Instruction.Opcode.MIX ) {
+					// Los sumandos siguen en línea, y cada uno suma al registro destino
+					this.code.op(CodeWriter.ICONST_0);
+					this.code.localOp(CodeWriter.ISTORE, this.indexLocal);
+					this.emitClear(instruction.getDestination(), this.indexLocal, LENGTH);
+					instructionIndex++;
+				}
+				else {
+					this.emitTransform(instruction);
+					instructionIndex++;
+				}
+			}
+			else {
+				int endIndex = getNextInstructionIndex(instructions, instructionIndex);
+				
+				while ( ( endIndex < instructions.size() ) && ( !specialized[endIndex] ) && ( !this.pendingLabels.containsKey(endIndex) ) ) {
+					endIndex = getNextInstructionIndex(instructions, endIndex);
+				}
+				
+				this.emitInterpreted(instructionIndex, endIndex);
+				instructionIndex = endIndex;
+			}
+		}
+		
+		this.markLabels(instructionIndex);
+		this.endSegment();
+		
+		this.generateExecute();
+	}
+	
+	/**
+	 * @post Devuelve el índice de la instrucción que sigue a la instrucción con el
+	 * 		 índice especificado cuando la ejecuta el intérprete.
+	 * 		 Una instrucción MIX incluye las instrucciones de sus sumandos
+	 */
+	private static int getNextInstructionIndex(List<Instruction> instructions, int instructionIndex) {
+		final Instruction instruction = instructions.get(instructionIndex);
+		
+		if ( instruction.getOpcode() == Instruction.Opcode.MIX ) {
+			return instructionIndex + 1 + instruction.getSkipLength();
+		}
+		else {
+			return instructionIndex + 1;
+		}
+	}
+	
+	/**
+	 * @post Devuelve el descriptor del método de ejecución y de los segmentos
+	 */
+	private String getExecuteDescriptor() {
+		return this.precise ? PRECISEEXECUTEDESCRIPTOR : EXECUTEDESCRIPTOR;
+	}
+	
+	/**
+	 * @post Devuelve el nombre del segmento con el índice especificado
+	 */
+	private String getSegmentName(int segmentIndex) {
+		return ( this.precise ? "preciseSegment" : "segment" ) + segmentIndex;
+	}
+	
+	/**
+	 * @post Devuelve la variable local del parámetro del paso de tiempo
+	 */
+	private int getTimeStepParameter() {
+		return this.precise ? PRECISETIMESTEP : TIMESTEP;
+	}
+	
+	/**
+	 * @post Emite la carga de la variable local de tiempo especificada,
+	 * 		 de precisión doble o simple
+	 */
+	private void loadTime(int local) {
+		this.code.localOp(this.precise ? CodeWriter.DLOAD : CodeWriter.FLOAD, local);
+	}
+	
+	/**
+	 * @post Emite la carga de los parámetros del método de ejecución
+	 * 		 a partir del registro inicial
+	 */
+	private void loadParameters() {
+		this.code.localOp(CodeWriter.ALOAD, REGISTERS);
+		this.code.localOp(CodeWriter.ILOAD, FIRSTREGISTER);
+		this.code.localOp(CodeWriter.ILOAD, LENGTH);
+		this.loadTime(STARTTIME);
+		this.loadTime(this.getTimeStepParameter());
+	}
+	
+	/**
+	 * @post Marca las etiquetas pendientes del índice de instrucción especificado
+	 */
+	private void markLabels(int instructionIndex) {
+		final List<CodeWriter.Label> labels = this.pendingLabels.remove(instructionIndex);
+		
+		if ( labels != null ) {
+			for ( CodeWriter.Label eachLabel : labels ) {
+				this.code.mark(eachLabel);
+			}
+		}
+	}
+	
+	/**
+	 * @post Genera el constructor, que recibe el programa
+	 */
+	private void generateConstructor() {
+		final CodeWriter code = new CodeWriter(this.classFileWriter, MAXSTACK, 2);
+		
+		this.classFileWriter.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "program", "L" + PROGRAM + ";");
+		
+		code.localOp(CodeWriter.ALOAD, 0);
+		code.constantOp(CodeWriter.INVOKESPECIAL, this.classFileWriter.methodConstant("java/lang/Object", "<init>", "()V"));
+		code.localOp(CodeWriter.ALOAD, 0);
+		code.localOp(CodeWriter.ALOAD, 1);
+		code.constantOp(CodeWriter.PUTFIELD, this.classFileWriter.fieldConstant(CLASSNAME, "program", "L" + PROGRAM + ";"));
+		code.op(CodeWriter.RETURN);
+		
+		this.classFileWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "(L" + PROGRAM + ";)V", code);
+	}
+	
+	/**
+	 * @post Genera el método de ejecución, que llama a cada segmento en orden
+	 */
+	private void generateExecute() {
+		this.code = new CodeWriter(this.classFileWriter, MAXSTACK, this.precise ? PRECISEPARAMETERSSLOTS : PARAMETERSSLOTS);
+		
+		for ( int i = 0 ; i < this.segmentsQuantity ; i++ ) {
+			this.code.localOp(CodeWriter.ALOAD, THIS);
+			this.loadParameters();
+			this.code.constantOp(CodeWriter.INVOKESPECIAL, this.classFileWriter.methodConstant(CLASSNAME, this.getSegmentName(i), this.getExecuteDescriptor()));
+		}
+		
+		this.code.op(CodeWriter.RETURN);
+		
+		this.classFileWriter.addMethod(ClassFileWriter.ACC_PUBLIC, this.precise ? "executePrecise" : "execute", this.getExecuteDescriptor(), this.code);
+	}
+	
+	/**
+	 * @post Empieza un segmento, cargando los registros en variables locales.
+	 * 		 Con precisión doble, las variables locales de tiempo ocupan
+	 * 		 dos variables
+	 */
+	private void beginSegment() {
+		final int registersQuantity = this.program.getRegistersQuantity();
+		final int timeSlots = this.precise ? 2 : 1;
+		
+		this.code = new CodeWriter(this.classFileWriter, MAXSTACK, this.precise ? PRECISEPARAMETERSSLOTS : PARAMETERSSLOTS);
+		
+		this.firstRegisterLocal = this.code.newLocal(registersQuantity);
+		this.indexLocal = this.code.newLocal(1);
+		this.timeLocal = this.code.newLocal(1);
+		this.localTimeLocal = this.code.newLocal(1);
+		this.valueLocal = this.code.newLocal(1);
+		this.localStartTimeLocal = this.code.newLocal(timeSlots);
+		this.localTimeStepLocal = this.code.newLocal(timeSlots);
+		this.rangeStartLocal = this.code.newLocal(1);
+		this.rangeEndLocal = this.code.newLocal(1);
+		
+		if ( this.precise ) {
+			this.phaseLocal = this.code.newLocal(2);
+			this.phaseIncrementLocal = this.code.newLocal(2);
+			this.cosLocal = this.code.newLocal(2);
+			this.sinLocal = this.code.newLocal(2);
+			this.cosStepLocal = this.code.newLocal(2);
+			this.sinStepLocal = this.code.newLocal(2);
+		}
+		
+		for ( int i = 0 ; i < registersQuantity ; i++ ) {
+			this.code.localOp(CodeWriter.ALOAD, REGISTERS);
+			this.code.localOp(CodeWriter.ILOAD, FIRSTREGISTER);
+			this.code.pushInt(i);
+			this.code.op(CodeWriter.IADD);
+			this.code.constantOp(CodeWriter.INVOKEVIRTUAL, this.classFileWriter.methodConstant(BUFFERSTACK, "getBuffer", "(I)[F"));
+			this.code.localOp(CodeWriter.ASTORE, this.firstRegisterLocal + i);
+		}
+	}
+	
+	/**
+	 * @post Termina el segmento actual
+	 */
+	private void endSegment() {
+		this.code.op(CodeWriter.RETURN);
+		this.classFileWriter.addMethod(ClassFileWriter.ACC_PRIVATE, this.getSegmentName(this.segmentsQuantity), this.getExecuteDescriptor(), this.code);
+		this.segmentsQuantity++;
+	}
+	
+	/**
+	 * @post Emite la carga del registro especificado
+	 */
+	private void loadRegister(int register) {
+		this.code.localOp(CodeWriter.ALOAD, this.firstRegisterLocal + register);
+	}
+	
+	/**
+	 * @post Emite el comienzo de un bucle sobre las muestras del bloque
+	 */
+	private void beginLoop() {
+		this.code.op(CodeWriter.ICONST_0);
+		this.code.localOp(CodeWriter.ISTORE, this.indexLocal);
+		this.beginLoop(LENGTH);
+	}
+	
+	/**
+	 * @post Emite el comienzo de un bucle sobre las muestras del rango de muestras
+	 */
+	private void beginRangeLoop() {
+		this.code.localOp(CodeWriter.ILOAD, this.rangeStartLocal);
+		this.code.localOp(CodeWriter.ISTORE, this.indexLocal);
+		this.beginLoop(this.rangeEndLocal);
+	}
+	
+	/**
+	 * @pre El índice inicial tiene que estar cargado en la variable local de índice
+	 * @post Emite el comienzo de un bucle hasta el índice final guardado en
+	 * 		 la variable local especificada (exclusive)
+	 */
+	private void beginLoop(int endIndexLocal) {
+		this.loopStart = new CodeWriter.Label();
+		this.loopEnd = new CodeWriter.Label();
+		
+		this.code.mark(this.loopStart);
+		this.code.localOp(CodeWriter.ILOAD, this.indexLocal);
+		this.code.localOp(CodeWriter.ILOAD, endIndexLocal);
+		this.code.branch(CodeWriter.IF_ICMPGE, this.loopEnd);
+	}
+	
+	/**
+	 * @post Emite el final del bucle actual
+	 */
+	private void endLoop() {
+		this.code.increment(this.indexLocal, 1);
+		this.code.branch(CodeWriter.GOTO, this.loopStart);
+		this.code.mark(this.loopEnd);
+	}
+	
+	/**
+	 * @post Emite el cálculo del instante de tiempo de la muestra actual
+	 * 		 relativo al comienzo del rango de muestras
+	 * 		 (startTime + (float) (i - rangeStart) * timeStep), con las variables locales
+	 * 		 del instante de tiempo inicial y del paso especificadas, y
+	 * 		 lo guarda en la variable local de tiempo
+	 */
+	private void emitSampleTime(int startTimeLocal, int timeStepLocal) {
+		this.code.localOp(CodeWriter.FLOAD, startTimeLocal);
+		this.code.localOp(CodeWriter.ILOAD, this.indexLocal);
+		this.code.localOp(CodeWriter.ILOAD, this.rangeStartLocal);
+		this.code.op(CodeWriter.ISUB);
+		this.code.op(CodeWriter.I2F);
+		this.code.localOp(CodeWriter.FLOAD, timeStepLocal);
+		this.code.op(CodeWriter.FMUL);
+		this.code.op(CodeWriter.FADD);
+		this.code.localOp(CodeWriter.FSTORE, this.timeLocal);
+	}
+	
+	/**
+	 * @post Emite el salto a la etiqueta especificada si el tiempo de la muestra
+	 * 		 actual no está en el intervalo [min, max]
+	 */
+	private void emitOutsideIntervalBranch(float min, float max, CodeWriter.Label label) {
+		this.code.localOp(CodeWriter.FLOAD, this.timeLocal);
+		this.code.pushFloat(min);
+		this.code.op(CodeWriter.FCMPL);
+		this.code.branch(CodeWriter.IFLT, label);
+		
+		this.code.localOp(CodeWriter.FLOAD, this.timeLocal);
+		this.code.pushFloat(max);
+		this.code.op(CodeWriter.FCMPG);
+		this.code.branch(CodeWriter.IFGT, label);
+	}
+	
+	/**
+	 * @post Emite el cálculo del rango de muestras cuyos instantes de tiempo,
+	 * 		 con las variables locales del instante de tiempo inicial y del paso
+	 * 		 especificadas, están en el intervalo [min, max], y lo guarda en
+	 * 		 las variables locales del rango de muestras.
+	 * 		 Con precisión doble compara con instantes de tiempo de precisión doble
+	 */
+	private void emitSampleRange(float min, float max, int startTimeLocal, int timeStepLocal) {
+		final String indexDescriptor = this.precise ? PRECISEINDEXDESCRIPTOR : INDEXDESCRIPTOR;
+		
+		this.pushTime(min);
+		this.loadTime(startTimeLocal);
+		this.loadTime(timeStepLocal);
+		this.code.localOp(CodeWriter.ILOAD, LENGTH);
+		this.code.constantOp(CodeWriter.INVOKESTATIC, this.classFileWriter.methodConstant(SAMPLEINDEXRANGE, "getStartIndex", indexDescriptor));
+		this.code.localOp(CodeWriter.ISTORE, this.rangeStartLocal);
+		
+		this.code.localOp(CodeWriter.ILOAD, this.rangeStartLocal);
+		this.pushTime(max);
+		this.loadTime(startTimeLocal);
+		this.loadTime(timeStepLocal);
+		this.code.localOp(CodeWriter.ILOAD, LENGTH);
+		this.code.constantOp(CodeWriter.INVOKESTATIC, this.classFileWriter.methodConstant(SAMPLEINDEXRANGE, "getEndIndex", indexDescriptor));
+		this.invokeMath("max", "(II)I");
+		this.code.localOp(CodeWriter.ISTORE, this.rangeEndLocal);
+	}
+	
+	/**
+	 * @post Apila el instante de tiempo especificado, de precisión doble o simple
+	 */
+	private void pushTime(float time) {
+		if ( this.precise ) {
+			this.code.pushDouble((double) time);
+		}
+		else {
+			this.code.pushFloat(time);
+		}
+	}
+	
+	/**
+	 * @post Emite el llenado con ceros del registro especificado, desde el índice
+	 * 		 guardado en la variable local inicial hasta el guardado en la variable
+	 * 		 local final especificadas
+	 */
+	private void emitClear(int register, int fromIndexLocal, int toIndexLocal) {
+		this.loadRegister(register);
+		this.code.localOp(CodeWriter.ILOAD, fromIndexLocal);
+		this.code.localOp(CodeWriter.ILOAD, toIndexLocal);
+		this.code.op(CodeWriter.FCONST_0);
+		this.code.constantOp(CodeWriter.INVOKESTATIC, this.classFileWriter.methodConstant(ARRAYS, "fill", "([FIIF)V"));
+	}
+	
+	/**
+	 * @pre La instrucción tiene que ser SKIP
+	 * @post Emite el salto hasta el índice de instrucción especificado si el bloque
+	 * 		 no se solapa con el intervalo de tiempo de la instrucción
+	 */
+	private void emitSkip(Instruction instruction, int targetInstructionIndex) {
+		final CodeWriter.Label target = new CodeWriter.Label();
+		
+		this.emitSampleRange(instruction.getMinTime(), instruction.getMaxTime(), STARTTIME, this.getTimeStepParameter());
+		this.code.localOp(CodeWriter.ILOAD, this.rangeEndLocal);
+		this.code.localOp(CodeWriter.ILOAD, this.rangeStartLocal);
+		this.code.branch(CodeWriter.IF_ICMPLE, target);
+		
+		List<CodeWriter.Label> labels = this.pendingLabels.get(targetInstructionIndex);
+		
+		if ( labels == null ) {
+			labels = new ArrayList<CodeWriter.Label>();
+			this.pendingLabels.put(targetInstructionIndex, labels);
+		}
+		
+		labels.add(target);
+	}
+	
+	/**
+	 * @post Emite la llamada al método estático de Math especificado
+	 */
+	private void invokeMath(String name, String descriptor) {
+		this.code.constantOp(CodeWriter.INVOKESTATIC, this.classFileWriter.methodConstant(MATH, name, descriptor));
+	}
+	
+	/**
+	 * @post Emite la ejecución con el intérprete de las instrucciones desde
+	 * 		 el índice inicial (inclusive) hasta el índice final (exclusive) especificados,
+	 * 		 con instantes de tiempo de precisión doble o simple
+	 */
+	private void emitInterpreted(int fromInstruction, int toInstruction) {
+		this.code.localOp(CodeWriter.ALOAD, THIS);
+		this.code.constantOp(CodeWriter.GETFIELD, this.classFileWriter.fieldConstant(CLASSNAME, "program", "L" + PROGRAM + ";"));
+		this.code.pushInt(fromInstruction);
+		this.code.pushInt(toInstruction);
+		this.loadParameters();
+		
+		if ( this.precise ) {
+			this.code.constantOp(CodeWriter.INVOKEVIRTUAL, this.classFileWriter.methodConstant(PROGRAM, "executePrecise", PRECISERANGEEXECUTEDESCRIPTOR));
+		}
+		else {
+			this.code.constantOp(CodeWriter.INVOKEVIRTUAL, this.classFileWriter.methodConstant(PROGRAM, "execute", RANGEEXECUTEDESCRIPTOR));
+		}
+	}
+	
+	/**
+	 * @pre La instrucción tiene que evaluar una onda que se evalúa en línea, y la acumulación,
+	 * 		si no es nula, tiene que ser una suma cuyo registro fuente es el destino
+	 * 		de la instrucción
+	 * @post Emite la evaluación de la onda de la instrucción especificada.
+	 * 		 Calcula el instante de tiempo inicial y el paso en el tiempo
+	 * 		 de la señal igual que el intérprete, y evalúa sólo el rango de
+	 * 		 muestras dentro del intervalo de tiempo de la onda, igual que
+	 * 		 su evaluación por bloques.
+	 * 		 Si la acumulación no es nula, en vez de guardar el valor en el registro destino
+	 * 		 lo suma directamente al registro destino de la acumulación, y fuera del
+	 * 		 rango de muestras no hace nada
+	 */
+	private void emitWaveRender(Instruction instruction, Instruction accumulation) {
+		if ( this.precise ) {
+			this.emitPreciseWaveRender(instruction, accumulation);
+		}
+		else {
+			this.emitSingleWaveRender(instruction, accumulation);
+		}
+	}
+	
+	/**
+	 * @pre Las mismas que para emitir la evaluación de la onda
+	 * @post Emite la evaluación de la onda con instantes de tiempo de precisión simple
+	 */
+	private void emitSingleWaveRender(Instruction instruction, Instruction accumulation) {
+		final PeriodicWave wave = (PeriodicWave) instruction.getSignal();
+		final FloatClosedInterval timeInterval = wave.getTimeInterval();
+		final CodeWriter.Label outside = new CodeWriter.Label();
+		final CodeWriter.Label store = new CodeWriter.Label();
+		
+		this.code.localOp(CodeWriter.FLOAD, STARTTIME);
+		this.code.op(CodeWriter.F2D);
+		this.code.pushDouble(instruction.getTimeScale());
+		this.code.op(CodeWriter.DMUL);
+		this.code.pushDouble(instruction.getTimeOffset());
+		this.code.op(CodeWriter.DADD);
+		this.code.op(CodeWriter.D2F);
+		this.code.localOp(CodeWriter.FSTORE, this.localStartTimeLocal);
+		
+		this.code.localOp(CodeWriter.FLOAD, TIMESTEP);
+		this.code.op(CodeWriter.F2D);
+		this.code.pushDouble(instruction.getTimeScale());
+		this.code.op(CodeWriter.DMUL);
+		this.code.op(CodeWriter.D2F);
+		this.code.localOp(CodeWriter.FSTORE, this.localTimeStepLocal);
+		
+		this.emitSampleRange(timeInterval.getMin(), timeInterval.getMax(), this.localStartTimeLocal, this.localTimeStepLocal);
+		
+		this.code.localOp(CodeWriter.FLOAD, this.localStartTimeLocal);
+		this.code.localOp(CodeWriter.ILOAD, this.rangeStartLocal);
+		this.code.op(CodeWriter.I2F);
+		this.code.localOp(CodeWriter.FLOAD, this.localTimeStepLocal);
+		this.code.op(CodeWriter.FMUL);
+		this.code.op(CodeWriter.FADD);
+		this.code.localOp(CodeWriter.FSTORE, this.localStartTimeLocal);
+		
+		if ( accumulation == null ) {
+			this.code.op(CodeWriter.ICONST_0);
+			this.code.localOp(CodeWriter.ISTORE, this.indexLocal);
+			this.emitClear(instruction.getDestination(), this.indexLocal, this.rangeStartLocal);
+			this.emitClear(instruction.getDestination(), this.rangeEndLocal, LENGTH);
+		}
+		
+		this.beginRangeLoop();
+		this.emitSampleTime(this.localStartTimeLocal, this.localTimeStepLocal);
+		this.emitOutsideIntervalBranch(timeInterval.getMin(), timeInterval.getMax(), outside);
+		
+		this.emitWaveValue(wave);
+		this.code.branch(CodeWriter.GOTO, store);
+		
+		this.code.mark(outside);
+		this.code.op(CodeWriter.FCONST_0);
+		this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+		
+		this.code.mark(store);
+		this.emitStoreValue(instruction, accumulation);
+		this.endLoop();
+	}
+	
+	/**
+	 * @post Emite el guardado del valor de la muestra actual en el registro destino
+	 * 		 de la instrucción especificada, o si la acumulación no es nula,
+	 * 		 la suma al registro destino de la acumulación
+	 */
+	private void emitStoreValue(Instruction instruction, Instruction accumulation) {
+		if ( accumulation != null ) {
+			this.loadRegister(accumulation.getDestination());
+			this.code.localOp(CodeWriter.ILOAD, this.indexLocal);
+			this.code.op(CodeWriter.DUP2);
+			this.code.op(CodeWriter.FALOAD);
+			this.code.localOp(CodeWriter.FLOAD, this.valueLocal);
+			this.code.op(CodeWriter.FADD);
+			this.code.op(CodeWriter.FASTORE);
+		}
+		else {
+			this.loadRegister(instruction.getDestination());
+			this.code.localOp(CodeWriter.ILOAD, this.indexLocal);
+			this.code.localOp(CodeWriter.FLOAD, this.valueLocal);
+			this.code.op(CodeWriter.FASTORE);
+		}
+	}
+	
+	/**
+	 * @pre Las mismas que para emitir la evaluación de la onda
+	 * @post Emite la evaluación de la onda con instantes de tiempo de precisión doble.
+	 * 		 Calcula el rango de muestras, la fase inicial y el avance de fase
+	 * 		 igual que la evaluación de precisión doble de la onda, y
+	 * 		 avanza la fase con un acumulador de precisión doble
+	 * 		 (Las ondas senoidales rotan el vector (cos, sin))
+	 */
+	private void emitPreciseWaveRender(Instruction instruction, Instruction accumulation) {
+		final PeriodicWave wave = (PeriodicWave) instruction.getSignal();
+		final FloatClosedInterval timeInterval = wave.getTimeInterval();
+		
+		this.code.localOp(CodeWriter.DLOAD, STARTTIME);
+		this.code.pushDouble(instruction.getTimeScale());
+		this.code.op(CodeWriter.DMUL);
+		this.code.pushDouble(instruction.getTimeOffset());
+		this.code.op(CodeWriter.DADD);
+		this.code.localOp(CodeWriter.DSTORE, this.localStartTimeLocal);
+		
+		this.code.localOp(CodeWriter.DLOAD, PRECISETIMESTEP);
+		this.code.pushDouble(instruction.getTimeScale());
+		this.code.op(CodeWriter.DMUL);
+		this.code.localOp(CodeWriter.DSTORE, this.localTimeStepLocal);
+		
+		this.emitSampleRange(timeInterval.getMin(), timeInterval.getMax(), this.localStartTimeLocal, this.localTimeStepLocal);
+		
+		this.code.localOp(CodeWriter.DLOAD, this.localStartTimeLocal);
+		this.code.localOp(CodeWriter.ILOAD, this.rangeStartLocal);
+		this.code.op(CodeWriter.I2D);
+		this.code.localOp(CodeWriter.DLOAD, this.localTimeStepLocal);
+		this.code.op(CodeWriter.DMUL);
+		this.code.op(CodeWriter.DADD);
+		this.code.localOp(CodeWriter.DSTORE, this.localStartTimeLocal);
+		
+		// Avance de fase (timeStep * frequency), en ciclos y en el intervalo [0, 1)
+		this.code.localOp(CodeWriter.DLOAD, this.localTimeStepLocal);
+		this.code.pushDouble((double) wave.getFrequency());
+		this.code.op(CodeWriter.DMUL);
+		this.emitFractionalPart(this.phaseIncrementLocal);
+		
+		// Fase inicial ((t - t0) * frequency), en ciclos y en el intervalo [0, 1)
+		this.code.localOp(CodeWriter.DLOAD, this.localStartTimeLocal);
+		this.code.pushDouble((double) wave.getT0());
+		this.code.op(CodeWriter.DSUB);
+		this.code.pushDouble((double) wave.getFrequency());
+		this.code.op(CodeWriter.DMUL);
+		this.emitFractionalPart(this.phaseLocal);
+		
+		if ( wave instanceof SineWave ) {
+			this.emitRotation(this.phaseIncrementLocal, this.cosStepLocal, this.sinStepLocal);
+			this.emitRotation(this.phaseLocal, this.cosLocal, this.sinLocal);
+		}
+		
+		if ( accumulation == null ) {
+			this.code.op(CodeWriter.ICONST_0);
+			this.code.localOp(CodeWriter.ISTORE, this.indexLocal);
+			this.emitClear(instruction.getDestination(), this.indexLocal, this.rangeStartLocal);
+			this.emitClear(instruction.getDestination(), this.rangeEndLocal, LENGTH);
+		}
+		
+		this.beginRangeLoop();
+		this.emitPreciseWaveValue(wave);
+		this.emitStoreValue(instruction, accumulation);
+		this.emitPhaseAdvance(wave);
+		this.endLoop();
+	}
+	
+	/**
+	 * @pre El valor tiene que estar apilado
+	 * @post Emite el cálculo de la parte fraccionaria del valor apilado
+	 * 		 (x - Math.floor(x)), y la guarda en la variable local
+	 * 		 de precisión doble especificada
+	 */
+	private void emitFractionalPart(int local) {
+		this.code.localOp(CodeWriter.DSTORE, local);
+		this.code.localOp(CodeWriter.DLOAD, local);
+		this.code.localOp(CodeWriter.DLOAD, local);
+		this.invokeMath("floor", "(D)D");
+		this.code.op(CodeWriter.DSUB);
+		this.code.localOp(CodeWriter.DSTORE, local);
+	}
+	
+	/**
+	 * @post Emite el cálculo del coseno y del seno del ángulo de la fase,
+	 * 		 en ciclos, guardada en la variable local especificada
+	 * 		 (2 * PI * phase), y los guarda en las variables locales especificadas
+	 */
+	private void emitRotation(int phaseLocal, int cosLocal, int sinLocal) {
+		this.code.pushDouble(2.0d * Math.PI);
+		this.code.localOp(CodeWriter.DLOAD, phaseLocal);
+		this.code.op(CodeWriter.DMUL);
+		this.code.op(CodeWriter.DUP2);
+		this.invokeMath("cos", "(D)D");
+		this.code.localOp(CodeWriter.DSTORE, cosLocal);
+		this.invokeMath("sin", "(D)D");
+		this.code.localOp(CodeWriter.DSTORE, sinLocal);
+	}
+	
+	/**
+	 * @post Emite el cálculo del valor de la onda especificada en la fase actual,
+	 * 		 con las mismas operaciones que su evaluación de precisión doble,
+	 * 		 y lo guarda en la variable local de valor
+	 */
+	private void emitPreciseWaveValue(PeriodicWave wave) {
+		if ( wave instanceof SineWave ) {
+			this.code.localOp(CodeWriter.DLOAD, this.sinLocal);
+			this.code.op(CodeWriter.D2F);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+		}
+		else if ( wave instanceof SawtoothWave ) {
+			this.code.localOp(CodeWriter.DLOAD, this.phaseLocal);
+			this.code.pushDouble(2.0d);
+			this.code.op(CodeWriter.DMUL);
+			this.code.pushDouble(1.0d);
+			this.code.op(CodeWriter.DSUB);
+			this.code.op(CodeWriter.D2F);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+		}
+		else {
+			final CodeWriter.Label secondHalf = new CodeWriter.Label();
+			final CodeWriter.Label end = new CodeWriter.Label();
+			
+			this.code.localOp(CodeWriter.DLOAD, this.phaseLocal);
+			this.code.pushDouble(0.5d);
+			this.code.op(CodeWriter.DCMPG);
+			this.code.branch(CodeWriter.IFGE, secondHalf);
+			
+			if ( wave instanceof SquareWave ) {
+				this.code.pushFloat(1.0f);
+			}
+			else if ( wave instanceof TriangleWave ) {
+				this.code.localOp(CodeWriter.DLOAD, this.phaseLocal);
+				this.code.pushDouble(2.0d);
+				this.code.op(CodeWriter.DMUL);
+				this.code.pushDouble(1.0d);
+				this.code.op(CodeWriter.DSUB);
+				this.code.op(CodeWriter.D2F);
+			}
+			else {
+				throw new IllegalArgumentException("Unexpected wave");
+			}
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+			this.code.branch(CodeWriter.GOTO, end);
+			
+			this.code.mark(secondHalf);
+			if ( wave instanceof SquareWave ) {
+				this.code.pushFloat(-1.0f);
+			}
+			else {
+				this.code.pushDouble(1.0d);
+				this.code.localOp(CodeWriter.DLOAD, this.phaseLocal);
+				this.code.pushDouble(0.5d);
+				this.code.op(CodeWriter.DSUB);
+				this.code.pushDouble(2.0d);
+				this.code.op(CodeWriter.DMUL);
+				this.code.op(CodeWriter.DSUB);
+				this.code.op(CodeWriter.D2F);
+			}
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+			
+			this.code.mark(end);
+		}
+	}
+	
+	/**
+	 * @post Emite el avance de la fase de la onda especificada en un paso.
+	 * 		 Las ondas senoidales rotan el vector (cos, sin) por el ángulo de un paso,
+	 * 		 las demás suman el avance de fase y restan un ciclo si la fase llega a uno
+	 */
+	private void emitPhaseAdvance(PeriodicWave wave) {
+		if ( wave instanceof SineWave ) {
+			// cos * cosStep - sin * sinStep queda apilado hasta que se actualiza el seno
+			this.code.localOp(CodeWriter.DLOAD, this.cosLocal);
+			this.code.localOp(CodeWriter.DLOAD, this.cosStepLocal);
+			this.code.op(CodeWriter.DMUL);
+			this.code.localOp(CodeWriter.DLOAD, this.sinLocal);
+			this.code.localOp(CodeWriter.DLOAD, this.sinStepLocal);
+			this.code.op(CodeWriter.DMUL);
+			this.code.op(CodeWriter.DSUB);
+			
+			this.code.localOp(CodeWriter.DLOAD, this.sinLocal);
+			this.code.localOp(CodeWriter.DLOAD, this.cosStepLocal);
+			this.code.op(CodeWriter.DMUL);
+			this.code.localOp(CodeWriter.DLOAD, this.cosLocal);
+			this.code.localOp(CodeWriter.DLOAD, this.sinStepLocal);
+			this.code.op(CodeWriter.DMUL);
+			this.code.op(CodeWriter.DADD);
+			this.code.localOp(CodeWriter.DSTORE, this.sinLocal);
+			
+			this.code.localOp(CodeWriter.DSTORE, this.cosLocal);
+		}
+		else {
+			final CodeWriter.Label end = new CodeWriter.Label();
+			
+			this.code.localOp(CodeWriter.DLOAD, this.phaseLocal);
+			this.code.localOp(CodeWriter.DLOAD, this.phaseIncrementLocal);
+			this.code.op(CodeWriter.DADD);
+			this.code.localOp(CodeWriter.DSTORE, this.phaseLocal);
+			
+			this.code.localOp(CodeWriter.DLOAD, this.phaseLocal);
+			this.code.pushDouble(1.0d);
+			this.code.op(CodeWriter.DCMPL);
+			this.code.branch(CodeWriter.IFLT, end);
+			
+			this.code.localOp(CodeWriter.DLOAD, this.phaseLocal);
+			this.code.pushDouble(1.0d);
+			this.code.op(CodeWriter.DSUB);
+			this.code.localOp(CodeWriter.DSTORE, this.phaseLocal);
+			
+			this.code.mark(end);
+		}
+	}
+	
+	/**
+	 * @post Emite el cálculo del tiempo local de la onda especificada
+	 * 		 ((t - t0) * frequency), y lo guarda en la variable local de tiempo local
+	 */
+	private void emitWaveLocalTime(PeriodicWave wave) {
+		this.code.localOp(CodeWriter.FLOAD, this.timeLocal);
+		this.code.pushFloat(wave.getT0());
+		this.code.op(CodeWriter.FSUB);
+		this.code.pushFloat(wave.getFrequency());
+		this.code.op(CodeWriter.FMUL);
+		this.code.localOp(CodeWriter.FSTORE, this.localTimeLocal);
+	}
+	
+	/**
+	 * @post Emite el cálculo del valor de la onda especificada en el tiempo
+	 * 		 de la muestra actual, con las mismas operaciones que
+	 * 		 su evaluación, y lo guarda en la variable local de valor
+	 */
+	private void emitWaveValue(PeriodicWave wave) {
+		if ( wave instanceof SineWave ) {
+			this.code.localOp(CodeWriter.FLOAD, this.timeLocal);
+			this.code.pushFloat(wave.getT0());
+			this.code.op(CodeWriter.FSUB);
+			this.code.op(CodeWriter.F2D);
+			this.code.pushDouble(Math.PI);
+			this.code.op(CodeWriter.DMUL);
+			this.code.pushDouble(2.0d);
+			this.code.op(CodeWriter.DMUL);
+			this.code.pushDouble(wave.getFrequency());
+			this.code.op(CodeWriter.DMUL);
+			this.invokeMath("sin", "(D)D");
+			this.code.op(CodeWriter.D2F);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+		}
+		else if ( wave instanceof SquareWave ) {
+			final CodeWriter.Label negative = new CodeWriter.Label();
+			final CodeWriter.Label end = new CodeWriter.Label();
+			
+			this.emitWaveLocalTime(wave);
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.op(CodeWriter.F2D);
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.op(CodeWriter.F2D);
+			this.invokeMath("floor", "(D)D");
+			this.code.op(CodeWriter.DSUB);
+			this.code.pushDouble(0.5d);
+			this.code.op(CodeWriter.DCMPG);
+			this.code.branch(CodeWriter.IFGE, negative);
+			
+			this.code.pushFloat(1.0f);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+			this.code.branch(CodeWriter.GOTO, end);
+			
+			this.code.mark(negative);
+			this.code.pushFloat(-1.0f);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+			
+			this.code.mark(end);
+		}
+		else if ( wave instanceof SawtoothWave ) {
+			this.emitWaveLocalTime(wave);
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.op(CodeWriter.F2D);
+			this.invokeMath("floor", "(D)D");
+			this.code.op(CodeWriter.D2F);
+			this.code.op(CodeWriter.FSUB);
+			this.code.pushFloat(2.0f);
+			this.code.op(CodeWriter.FMUL);
+			this.code.pushFloat(1.0f);
+			this.code.op(CodeWriter.FSUB);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+		}
+		else if ( wave instanceof TriangleWave ) {
+			final CodeWriter.Label secondHalf = new CodeWriter.Label();
+			final CodeWriter.Label end = new CodeWriter.Label();
+			
+			this.emitWaveLocalTime(wave);
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.op(CodeWriter.F2D);
+			this.invokeMath("floor", "(D)D");
+			this.code.op(CodeWriter.D2F);
+			this.code.op(CodeWriter.FSUB);
+			this.code.localOp(CodeWriter.FSTORE, this.localTimeLocal);
+			
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.pushFloat(0.5f);
+			this.code.op(CodeWriter.FCMPG);
+			this.code.branch(CodeWriter.IFGE, secondHalf);
+			
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.pushFloat(2.0f);
+			this.code.op(CodeWriter.FMUL);
+			this.code.pushFloat(1.0f);
+			this.code.op(CodeWriter.FSUB);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+			this.code.branch(CodeWriter.GOTO, end);
+			
+			this.code.mark(secondHalf);
+			this.code.pushFloat(1.0f);
+			this.code.localOp(CodeWriter.FLOAD, this.localTimeLocal);
+			this.code.pushFloat(0.5f);
+			this.code.op(CodeWriter.FSUB);
+			this.code.pushFloat(2.0f);
+			this.code.op(CodeWriter.FMUL);
+			this.code.op(CodeWriter.FSUB);
+			this.code.localOp(CodeWriter.FSTORE, this.valueLocal);
+			
+			this.code.mark(end);
+		}
+		else {
+			throw new IllegalArgumentException("Unexpected wave");
+		}
+	}
+	
+	/**
+	 * @pre El transformador de valor de la instrucción tiene que ser un escalador
+	 * 		o un clipper
+	 * @post Emite la transformación de valor de la instrucción especificada
+	 */
+	private void emitTransform(Instruction instruction) {
+		final ValueTransformer valueTransformer = instruction.getValueTransformer();
+		
+		if ( valueTransformer instanceof ValueScaleTransformer ) {
+			this.beginLoop();
+			this.loadRegister(instruction.getDestination());
+			this.code.localOp(CodeWriter.ILOAD, this.indexLocal);
+			this.code.op(CodeWriter.DUP2);
+			this.code.op(CodeWriter.FALOAD);
+			this.code.pushFloat(((ValueScaleTransformer) valueTransformer).getFactor());
+			this.code.op(CodeWriter.FMUL);
+			this.code.op(CodeWriter.FASTORE);
+			this.endLoop();
+		}
+		else if ( valueTransformer instanceof Clipper ) {
+			final float maxAbsValue = ((Clipper) valueTransformer).getMaxAbsValue();
+			
+			this.beginLoop();
+			this.loadRegister(instruction.getDestination());
+			this.code.localOp(CodeWriter.ILOAD, this.indexLocal);
+			this.code.pushFloat(-maxAbsValue);
+			this.code.pushFloat(maxAbsValue);
+			this.loadRegister(instruction.getDestination());
+			this.code.localOp(CodeWriter.ILOAD, this.indexLocal);
+			this.code.op(CodeWriter.FALOAD);
+			this.invokeMath("min", "(FF)F");
+			this.invokeMath("max", "(FF)F");
+			this.code.op(CodeWriter.FASTORE);
+			this.endLoop();
+		}
+		else {
+			throw new IllegalArgumentException("Unexpected value transformer");
+		}
+	}
+}
@@ -0,0 +1,447 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleBufferStack;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.SignalMix;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.CanonicalTransformedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.DisplacedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.InverseTimeScaledSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.MorphedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.ProductSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.SumSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.TruncatedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.transformers.ValueTransformedSignal;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
+
+/**
+ * Compilador de grafos de señales.
+ * 
+ * Simplifica la señal, y baja el árbol de operaciones (productos, sumas, mezclas,
+ * desplazamientos, escalas de tiempo, truncamientos, transformaciones canónicas,
+ * composiciones y transformaciones de valor) a un programa plano de registros.
+ * Las composiciones de transformadores de valor se separan en una instrucción
+ * por transformador.
+ * Las transformaciones afines de tiempo se pliegan en una sola transformación
+ * por hoja, y los intervalos de tiempo que hacen falta se convierten en máscaras
+ * expresadas en el tiempo de la raíz.
+ * Cada sumando de una suma o una mezcla con intervalo de tiempo acotado se saltea
+ * en los bloques que no se solapan con él, y su suma se limita a ese intervalo,
+ * así las notas no cuestan nada fuera de su duración.
+ * Las mezclas eligen los sumandos que se solapan con cada bloque con su
+ * árbol de intervalos, así que no se recorren las notas que no suenan.
+ * Los nodos compartidos (La misma instancia, con la misma transformación afín
+ * de tiempo) se evalúan una sola vez por bloque.
+ * Las señales que no reconoce se evalúan como hojas opacas con su propia
+ * evaluación por bloques.
+ * El programa se puede interpretar, o traducir a una clase especializada
+ */
+public final class SignalCompiler {
+	/**
+	 * Forma de ejecutar el programa compilado
+	 */
+	public enum Backend {
+		/**
+		 * Interpreta las instrucciones del programa
+		 */
+		INTERPRETER,
+		
+		/**
+		 * Genera una clase especializada para el programa.
+		 * Si la plataforma no lo permite, interpreta el programa
+		 */
+		BYTECODE
+	}
+	
+	/**
+	 * Nodo del grafo con la transformación afín de tiempo con la que se evalúa.
+	 * Dos nodos son iguales si son la misma señal (Por identidad) con la
+	 * misma transformación
+	 */
+	private static final class NodeKey {
+		private final ContinuousSignal signal;
+		private final double timeScale, timeOffset;
+		
+		/**
+		 * @post Crea el nodo con la señal y la transformación afín de tiempo especificados
+		 */
+		public NodeKey(ContinuousSignal signal, double timeScale, double timeOffset) {
+			this.signal = signal;
+			this.timeScale = timeScale;
+			this.timeOffset = timeOffset;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			final long timeScaleBits = Double.doubleToLongBits(this.timeScale);
+			final long timeOffsetBits = Double.doubleToLongBits(this.timeOffset);
+			
+			return ( System.identityHashCode(this.signal) * 31 + (int) ( timeScaleBits ^ ( timeScaleBits >>> 32 ) ) ) * 31 + (int) ( timeOffsetBits ^ ( timeOffsetBits >>> 32 ) );
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object other) {
+			if ( other instanceof NodeKey ) {
+				final NodeKey otherKey = (NodeKey) other;
+				
+				return ( this.signal == otherKey.signal ) && ( Double.doubleToLongBits(this.timeScale) == Double.doubleToLongBits(otherKey.timeScale) ) && ( Double.doubleToLongBits(this.timeOffset) == Double.doubleToLongBits(otherKey.timeOffset) );
+			}
+			else {
+				return false;
+			}
+		}
+	}
+	
+	private final List<Instruction> instructions;
+	private int registersQuantity;
+	
+	/**
+	 * Cantidad de apariciones de cada nodo, en el orden en el que se termina
+	 * de bajar cada uno (Sólo al contar)
+	 */
+	private final Map<NodeKey, Integer> occurrences;
+	
+	/**
+	 * Registros de los nodos compartidos, o null si se están contando las apariciones
+	 */
+	private final Map<NodeKey, Integer> sharedRegisters;
+	
+	/**
+	 * @post Crea el compilador con los registros de los nodos compartidos especificados.
+	 * 		 Si es null, el compilador cuenta las apariciones de los nodos
+	 */
+	private SignalCompiler(Map<NodeKey, Integer> sharedRegisters) {
+		this.instructions = new ArrayList<Instruction>();
+		this.registersQuantity = 0;
+		this.occurrences = new LinkedHashMap<NodeKey, Integer>();
+		this.sharedRegisters = sharedRegisters;
+	}
+	
+	/**
+	 * @pre La señal no puede ser nula
+	 * @post Compila la señal especificada en un programa, simplificándola primero.
+	 * 		 Los nodos que aparecen más de una vez (La misma instancia, con la misma
+	 * 		 transformación afín de tiempo) se evalúan una sola vez por bloque en
+	 * 		 un registro propio, antes que el resto del programa, y cada aparición
+	 * 		 copia ese registro
+	 */
+	public static SignalProgram compileProgram(ContinuousSignal signal) {
+		if ( signal != null ) {
+			final ContinuousSignal simplifiedSignal = SignalSimplifier.simplify(signal);
+			
+			final SignalCompiler counter = new SignalCompiler(null);
+			counter.lower(simplifiedSignal, 0, 1.0d, 0.0d);
+			
+			final Map<NodeKey, Integer> sharedRegisters = new LinkedHashMap<NodeKey, Integer>();
+			
+			for ( Map.Entry<NodeKey, Integer> eachEntry : counter.occurrences.entrySet() ) {
+				if ( eachEntry.getValue() > 1 ) {
+					sharedRegisters.put(eachEntry.getKey(), sharedRegisters.size());
+				}
+			}
+			
+			final SignalCompiler compiler = new SignalCompiler(sharedRegisters);
+			final int resultRegister = sharedRegisters.size();
+			
+			// Los nodos compartidos se evalúan en el orden en el que se terminaron de bajar, así cada uno se evalúa después de los nodos compartidos que contiene
+			for ( Map.Entry<NodeKey, Integer> eachEntry : sharedRegisters.entrySet() ) {
+				compiler.lowerShared(eachEntry.getKey(), eachEntry.getValue(), resultRegister);
+			}
+			
+			compiler.lower(simplifiedSignal, resultRegister, 1.0d, 0.0d);
+			
+			return new SignalProgram(compiler.instructions.toArray(new Instruction[0]), compiler.registersQuantity, resultRegister);
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre La señal no puede ser nula
+	 * @post Compila la señal especificada, devolviendo una señal equivalente
+	 * 		 que se evalúa por bloques interpretando el programa resultante
+	 */
+	public static CompiledSignal compile(ContinuousSignal signal) {
+		return compile(signal, Backend.INTERPRETER);
+	}
+	
+	/**
+	 * @pre Ni la señal ni la forma de ejecución pueden ser nulas
+	 * @post Compila la señal especificada, devolviendo una señal equivalente
+	 * 		 que se evalúa por bloques ejecutando el programa resultante
+	 * 		 de la forma especificada
+	 */
+	public static CompiledSignal compile(ContinuousSignal signal, Backend backend) {
+		if ( ( signal != null ) && ( backend != null ) ) {
+			if ( ( signal instanceof CompiledSignal ) && ( ((CompiledSignal) signal).getBackend() == backend ) ) {
+				return (CompiledSignal) signal;
+			}
+			else {
+				final SignalProgram program = compileProgram(signal);
+				SignalKernel kernel = null;
+				
+				if ( backend == Backend.BYTECODE ) {
+					kernel = KernelGenerator.generate(program);
+				}
+				
+				if ( kernel != null ) {
+					return new CompiledSignal(signal, program, kernel, Backend.BYTECODE);
+				}
+				else {
+					return new CompiledSignal(signal, program, new SignalKernel() {
+						
+						@Override
+						public void execute(SampleBufferStack registers, int firstRegister, int length, float startTime, float timeStep) {
+							program.execute(registers, firstRegister, length, startTime, timeStep);
+						}
+						
+						@Override
+						public void executePrecise(SampleBufferStack registers, int firstRegister, int length, double startTime, double timeStep) {
+							program.executePrecise(registers, firstRegister, length, startTime, timeStep);
+						}
+						
+					}, Backend.INTERPRETER);
+				}
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Emite las instrucciones que dejan en el registro especificado los valores
+	 * 		 de la señal especificada, donde el tiempo de la señal es
+	 * 		 t * timeScale + timeOffset, con t el tiempo de la raíz.
+	 * 		 Los registros mayores al especificado se usan como temporales.
+	 * 		 Si el nodo es compartido copia su registro, y si se están contando
+	 * 		 las apariciones sólo baja la primera aparición de cada nodo
+	 */
+	private void lower(ContinuousSignal signal, int register, double timeScale, double timeOffset) {
+		final NodeKey key = new NodeKey(signal, timeScale, timeOffset);
+		
+		if ( this.sharedRegisters != null ) {
+			final Integer sharedRegister = this.sharedRegisters.get(key);
+			
+			if ( sharedRegister != null ) {
+				final FloatClosedInterval timeInterval = signal.getTimeInterval();
+				
+				this.registersQuantity = Math.max(this.registersQuantity, register+1);
+				this.instructions.add(Instruction.copy(register, sharedRegister, toRootTime(timeInterval.getMin(), timeScale, timeOffset), toRootTime(timeInterval.getMax(), timeScale, timeOffset)));
+			}
+			else {
+				this.lowerNode(signal, register, timeScale, timeOffset);
+			}
+		}
+		else {
+			final Integer occurrences = this.occurrences.get(key);
+			
+			if ( occurrences != null ) {
+				this.occurrences.put(key, occurrences + 1);
+			}
+			else {
+				this.lowerNode(signal, register, timeScale, timeOffset);
+				this.occurrences.put(key, 1);
+			}
+		}
+	}
+	
+	/**
+	 * @post Emite las instrucciones que dejan en el registro compartido especificado
+	 * 		 los valores del nodo compartido especificado, usando como temporales
+	 * 		 los registros a partir del registro especificado.
+	 * 		 Si el intervalo de tiempo del nodo es acotado, las instrucciones
+	 * 		 se saltean en los bloques que no se solapan con él
+	 */
+	private void lowerShared(NodeKey key, int sharedRegister, int register) {
+		final FloatClosedInterval timeInterval = key.signal.getTimeInterval();
+		final float minTime = toRootTime(timeInterval.getMin(), key.timeScale, key.timeOffset);
+		final float maxTime = toRootTime(timeInterval.getMax(), key.timeScale, key.timeOffset);
+		final int skipIndex = this.instructions.size();
+		final boolean bounded = ( minTime != Float.NEGATIVE_INFINITY ) || ( maxTime != Float.POSITIVE_INFINITY );
+		
+		if ( bounded ) {
+			this.instructions.add(null);
+		}
+		
+		this.lowerNode(key.signal, register, key.timeScale, key.timeOffset);
+		this.instructions.add(Instruction.copy(sharedRegister, register, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY));
+		
+		if ( bounded ) {
+			this.instructions.set(skipIndex, Instruction.skip(minTime, maxTime, this.instructions.size() - skipIndex - 1));
+		}
+	}
+	
+	/**
+	 * @post Emite las instrucciones que dejan en el registro especificado los valores
+	 * 		 de la señal especificada según su tipo, igual que al bajarla
+	 */
+	private void lowerNode(ContinuousSignal signal, int register, double timeScale, double timeOffset) {
+		this.registersQuantity = Math.max(this.registersQuantity, register+1);
+		
+		if ( signal instanceof CompiledSignal ) {
+			this.lower( SignalSimplifier.simplify( ((CompiledSignal) signal).getSourceSignal() ), register, timeScale, timeOffset);
+		}
+		else if ( signal instanceof ProductSignal ) {
+			final ProductSignal productSignal = (ProductSignal) signal;
+			
+			this.lower(productSignal.getFirstSignal(), register, timeScale, timeOffset);
+			this.lower(productSignal.getSecondSignal(), register+1, timeScale, timeOffset);
+			this.instructions.add(Instruction.multiply(register, register+1));
+		}
+		else if ( signal instanceof SumSignal ) {
+			final SumSignal sumSignal = (SumSignal) signal;
+			
+			this.lower(sumSignal.getFirstSignal(), register, timeScale, timeOffset);
+			this.accumulate(sumSignal.getSecondSignal(), register, timeScale, timeOffset);
+		}
+		else if ( signal instanceof SignalMix ) {
+			final SignalMix signalMix = (SignalMix) signal;
+			final List<ContinuousSignal> signals = signalMix.getSignals();
+			final int mixIndex = this.instructions.size();
+			final int[] voiceStarts = new int[signals.size()+1];
+			
+			this.instructions.add(null);
+			
+			for ( int i = 0 ; i < signals.size() ; i++ ) {
+				voiceStarts[i] = this.instructions.size() - mixIndex - 1;
+				this.accumulate(signals.get(i), register, timeScale, timeOffset);
+			}
+			
+			voiceStarts[signals.size()] = this.instructions.size() - mixIndex - 1;
+			this.instructions.set(mixIndex, Instruction.mix(register, signalMix, timeScale, timeOffset, voiceStarts));
+		}
+		else if ( signal instanceof DisplacedSignal ) {
+			final DisplacedSignal displacedSignal = (DisplacedSignal) signal;
+			
+			this.lower(displacedSignal.getSourceSignal(), register, timeScale, timeOffset - (double) displacedSignal.getDeltaT());
+		}
+		else if ( ( signal instanceof InverseTimeScaledSignal ) && ( ((InverseTimeScaledSignal) signal).getInverseScaleFactor() > 0.0f ) ) {
+			final InverseTimeScaledSignal timeScaledSignal = (InverseTimeScaledSignal) signal;
+			final double inverseScaleFactor = timeScaledSignal.getInverseScaleFactor();
+			
+			this.lower(timeScaledSignal.getSourceSignal(), register, timeScale * inverseScaleFactor, timeOffset * inverseScaleFactor);
+		}
+		else if ( signal instanceof TruncatedSignal ) {
+			this.lower(((TruncatedSignal) signal).getSourceSignal(), register, timeScale, timeOffset);
+			this.mask(signal, register, timeScale, timeOffset);
+		}
+		else if ( ( signal instanceof CanonicalTransformedSignal ) && ( ((CanonicalTransformedSignal) signal).getFrequency() > 0.0f ) ) {
+			final CanonicalTransformedSignal canonicalTransformedSignal = (CanonicalTransformedSignal) signal;
+			final double frequency = canonicalTransformedSignal.getFrequency();
+			
+			this.lower(canonicalTransformedSignal.getCanonicalSignal(), register, timeScale * frequency, timeOffset * frequency - (double) signal.getTimeInterval().getMin());
+			this.mask(signal, register, timeScale, timeOffset);
+		}
+		else if ( signal instanceof ValueTransformedSignal ) {
+			final ValueTransformedSignal valueTransformedSignal = (ValueTransformedSignal) signal;
+			
+			final List<ValueTransformer> valueTransformers = new ArrayList<ValueTransformer>();
+			
+			SignalSimplifier.flatten(valueTransformedSignal.getValueTransformer(), valueTransformers);
+			
+			this.lower(valueTransformedSignal.getSourceSignal(), register, timeScale, timeOffset);
+			
+			for ( ValueTransformer eachValueTransformer : valueTransformers ) {
+				this.instructions.add(Instruction.transform(register, eachValueTransformer));
+			}
+			this.mask(signal, register, timeScale, timeOffset);
+		}
+		else if ( signal instanceof MorphedSignal ) {
+			final MorphedSignal morphedSignal = (MorphedSignal) signal;
+			
+			this.lower(morphedSignal.getMonotonalMorphSignal(), register, timeScale, timeOffset);
+			this.instructions.add(Instruction.morph(register, morphedSignal.getSourceSignal()));
+			this.mask(signal, register, timeScale, timeOffset);
+		}
+		else {
+			this.instructions.add(Instruction.render(register, signal, timeScale, timeOffset));
+		}
+	}
+	
+	/**
+	 * @post Emite las instrucciones que suman al registro especificado los valores
+	 * 		 de la señal especificada, usando el registro siguiente como temporal.
+	 * 		 Si el intervalo de tiempo de la señal es acotado, las instrucciones
+	 * 		 se saltean en los bloques que no se solapan con él
+	 */
+	private void accumulate(ContinuousSignal signal, int register, double timeScale, double timeOffset) {
+		final FloatClosedInterval timeInterval = signal.getTimeInterval();
+		final float minTime = toRootTime(timeInterval.getMin(), timeScale, timeOffset);
+		final float maxTime = toRootTime(timeInterval.getMax(), timeScale, timeOffset);
+		
+		if ( ( minTime != Float.NEGATIVE_INFINITY ) || ( maxTime != Float.POSITIVE_INFINITY ) ) {
+			final int skipIndex = this.instructions.size();
+			
+			this.instructions.add(null);
+			this.lower(signal, register+1, timeScale, timeOffset);
+			this.instructions.add(Instruction.add(register, register+1, minTime, maxTime));
+			this.instructions.set(skipIndex, Instruction.skip(minTime, maxTime, this.instructions.size() - skipIndex - 1));
+		}
+		else {
+			this.lower(signal, register+1, timeScale, timeOffset);
+			this.instructions.add(Instruction.add(register, register+1, minTime, maxTime));
+		}
+	}
+	
+	/**
+	 * @post Emite la máscara del intervalo de tiempo de la señal especificada,
+	 * 		 convertido al tiempo de la raíz
+	 */
+	private void mask(ContinuousSignal signal, int register, double timeScale, double timeOffset) {
+		final FloatClosedInterval timeInterval = signal.getTimeInterval();
+		
+		this.instructions.add(Instruction.mask(register, toRootTime(timeInterval.getMin(), timeScale, timeOffset), toRootTime(timeInterval.getMax(), timeScale, timeOffset) ) );
+	}
+	
+	/**
+	 * @post Convierte el instante de tiempo especificado, con la transformación
+	 * 		 afín de tiempo especificada, al tiempo de la raíz
+	 */
+	private static float toRootTime(float time, double timeScale, double timeOffset) {
+		return (float) ( ( (double) time - timeOffset ) / timeScale );
+	}
+}
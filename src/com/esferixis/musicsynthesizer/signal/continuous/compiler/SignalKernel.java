@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import com.esferixis.musicsynthesizer.signal.continuous.SampleBufferStack;
+
+/**
+ * Núcleo de evaluación por bloques de un programa de señal
+ */
+interface SignalKernel {
+	/**
+	 * @pre Los registros son los buffers de la pila especificada a partir del índice especificado,
+	 * 		tienen que ser por lo menos la cantidad de registros del programa, y cada uno
+	 * 		tener por lo menos la longitud especificada
+	 * @post Evalúa el bloque con la longitud, el instante de tiempo inicial
+	 * 		 y el paso de tiempo especificados, dejando el resultado en el registro de resultado
+	 */
+	public void execute(SampleBufferStack registers, int firstRegister, int length, float startTime, float timeStep);
+	
+	/**
+	 * @pre Los registros tienen que cumplir las mismas condiciones que para evaluar un bloque
+	 * @post Evalúa el bloque con la longitud, el instante de tiempo inicial
+	 * 		 y el paso de tiempo de precisión doble especificados, dejando el resultado
+	 * 		 en el registro de resultado
+	 */
+	public void executePrecise(SampleBufferStack registers, int firstRegister, int length, double startTime, double timeStep);
+}
@@ -0,0 +1,325 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleBufferStack;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleIndexRange;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.SignalMix;
+
+/**
+ * Representación intermedia plana de un grafo de señales.
+ * Es una secuencia de instrucciones sobre registros, donde el resultado
+ * queda en el registro de resultado.
+ * Los nodos compartidos se evalúan una vez por bloque en sus propios registros,
+ * que preceden al registro de resultado.
+ * Las instrucciones MIX sólo ejecutan los sumandos que se solapan con el bloque
+ */
+public final class SignalProgram {
+	private final Instruction[] instructions;
+	private final int registersQuantity;
+	private final int resultRegister;
+	
+	/**
+	 * Índices de los sumandos que se solapan con el bloque de cada instrucción MIX,
+	 * por hilo e índice de instrucción
+	 */
+	private final ThreadLocal<int[][]> voiceIndices = new ThreadLocal<int[][]>() {
+		@Override
+		protected int[][] initialValue() {
+			final int[][] voiceIndices = new int[SignalProgram.this.instructions.length][];
+			
+			for ( int i = 0 ; i < voiceIndices.length ; i++ ) {
+				if ( SignalProgram.this.instructions[i].getOpcode() == Instruction.Opcode.MIX ) {
+					voiceIndices[i] = new int[SignalProgram.this.instructions[i].getVoicesQuantity()];
+				}
+			}
+			
+			return voiceIndices;
+		}
+	};
+	
+	/**
+	 * @pre Las instrucciones no pueden ser nulas, sólo pueden usar
+	 * 		registros menores a la cantidad de registros especificada,
+	 * 		y el registro de resultado tiene que ser uno de ellos
+	 * @post Crea el programa con las instrucciones, la cantidad de registros
+	 * 		 y el registro de resultado especificados
+	 */
+	SignalProgram(Instruction[] instructions, int registersQuantity, int resultRegister) {
+		this.instructions = instructions;
+		this.registersQuantity = registersQuantity;
+		this.resultRegister = resultRegister;
+	}
+	
+	/**
+	 * @post Devuelve las instrucciones
+	 */
+	public List<Instruction> getInstructions() {
+		return Collections.unmodifiableList(Arrays.asList(this.instructions));
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de registros
+	 */
+	public int getRegistersQuantity() {
+		return this.registersQuantity;
+	}
+	
+	/**
+	 * @post Devuelve el registro donde queda el resultado
+	 */
+	public int getResultRegister() {
+		return this.resultRegister;
+	}
+	
+	/**
+	 * @pre Los registros son los buffers de la pila especificada a partir del índice especificado,
+	 * 		tienen que ser por lo menos la cantidad de registros del programa, y cada uno
+	 * 		tener por lo menos la longitud especificada
+	 * @post Ejecuta el programa para el bloque con la longitud, el instante de tiempo inicial
+	 * 		 y el paso de tiempo especificados, dejando el resultado en el registro de resultado
+	 */
+	void execute(SampleBufferStack registers, int firstRegister, int length, float startTime, float timeStep) {
+		this.execute(0, this.instructions.length, registers, firstRegister, length, startTime, timeStep);
+	}
+	
+	/**
+	 * @pre El rango de instrucciones tiene que ser válido, no puede cortar las instrucciones
+	 * 		que saltea una instrucción SKIP, y los registros tienen que cumplir las mismas
+	 * 		condiciones que para ejecutar el programa
+	 * @post Ejecuta las instrucciones desde el índice inicial (inclusive) hasta
+	 * 		 el índice final (exclusive) especificados
+	 */
+	void execute(int fromInstruction, int toInstruction, SampleBufferStack registers, int firstRegister, int length, float startTime, float timeStep) {
+		this.execute(fromInstruction, toInstruction, registers, firstRegister, length, (double) startTime, (double) timeStep, false);
+	}
+	
+	/**
+	 * @pre Los registros tienen que cumplir las mismas condiciones que para ejecutar el programa
+	 * @post Ejecuta el programa para el bloque con la longitud, el instante de tiempo inicial
+	 * 		 y el paso de tiempo de precisión doble especificados, dejando el resultado
+	 * 		 en el registro de resultado.
+	 * 		 Las hojas se evalúan con instantes de tiempo de precisión doble
+	 */
+	void executePrecise(SampleBufferStack registers, int firstRegister, int length, double startTime, double timeStep) {
+		this.execute(0, this.instructions.length, registers, firstRegister, length, startTime, timeStep, true);
+	}
+	
+	/**
+	 * @pre El rango de instrucciones tiene que ser válido, no puede cortar las instrucciones
+	 * 		que saltea una instrucción SKIP, y los registros tienen que cumplir las mismas
+	 * 		condiciones que para ejecutar el programa
+	 * @post Ejecuta las instrucciones desde el índice inicial (inclusive) hasta
+	 * 		 el índice final (exclusive) especificados, con instantes de tiempo
+	 * 		 de precisión doble
+	 */
+	void executePrecise(int fromInstruction, int toInstruction, SampleBufferStack registers, int firstRegister, int length, double startTime, double timeStep) {
+		this.execute(fromInstruction, toInstruction, registers, firstRegister, length, startTime, timeStep, true);
+	}
+	
+	/**
+	 * @post Devuelve el índice de la primera muestra del bloque cuyo instante de tiempo
+	 * 		 es mayor o igual que el instante de tiempo mínimo especificado, con
+	 * 		 instantes de tiempo de precisión doble o simple
+	 */
+	private static int getStartIndex(float minTime, double startTime, double timeStep, int length, boolean precise) {
+		if ( precise ) {
+			return SampleIndexRange.getStartIndex((double) minTime, startTime, timeStep, length);
+		}
+		else {
+			return SampleIndexRange.getStartIndex(minTime, (float) startTime, (float) timeStep, length);
+		}
+	}
+	
+	/**
+	 * @post Devuelve el índice de la primera muestra del bloque cuyo instante de tiempo
+	 * 		 es mayor que el instante de tiempo máximo especificado, con
+	 * 		 instantes de tiempo de precisión doble o simple
+	 */
+	private static int getEndIndex(float maxTime, double startTime, double timeStep, int length, boolean precise) {
+		if ( precise ) {
+			return SampleIndexRange.getEndIndex((double) maxTime, startTime, timeStep, length);
+		}
+		else {
+			return SampleIndexRange.getEndIndex(maxTime, (float) startTime, (float) timeStep, length);
+		}
+	}
+	
+	/**
+	 * @pre El rango de instrucciones tiene que ser válido, no puede cortar las instrucciones
+	 * 		que saltea una instrucción SKIP, y los registros tienen que cumplir las mismas
+	 * 		condiciones que para ejecutar el programa.
+	 * 		Si no es con precisión doble, el instante de tiempo inicial y el paso
+	 * 		tienen que ser de precisión simple
+	 * @post Ejecuta las instrucciones desde el índice inicial (inclusive) hasta
+	 * 		 el índice final (exclusive) especificados, con instantes de tiempo
+	 * 		 de precisión doble o simple
+	 */
+	private void execute(int fromInstruction, int toInstruction, SampleBufferStack registers, int firstRegister, int length, double startTime, double timeStep, boolean precise) {
+		for ( int instructionIndex = fromInstruction ; instructionIndex < toInstruction ; instructionIndex++ ) {
+			final Instruction eachInstruction = this.instructions[instructionIndex];
+			final float[] destination = ( eachInstruction.getDestination() >= 0 ) ? registers.getBuffer(firstRegister + eachInstruction.getDestination()) : null;
+			
+			switch ( eachInstruction.getOpcode() ) {
+			case RENDER:
+				{
+					final double localStartTime = startTime * eachInstruction.getTimeScale() + eachInstruction.getTimeOffset();
+					final double localTimeStep = timeStep * eachInstruction.getTimeScale();
+					
+					if ( precise ) {
+						eachInstruction.getSignal().getPreciseValues(destination, 0, length, localStartTime, localTimeStep);
+					}
+					else {
+						eachInstruction.getSignal().getValues(destination, 0, length, (float) localStartTime, (float) localTimeStep);
+					}
+				}
+				break;
+			case ADD:
+				{
+					final float[] source = registers.getBuffer(firstRegister + eachInstruction.getSource());
+					final int startIndex = getStartIndex(eachInstruction.getMinTime(), startTime, timeStep, length, precise);
+					final int endIndex = getEndIndex(eachInstruction.getMaxTime(), startTime, timeStep, length, precise);
+					
+					if ( startIndex < endIndex ) {
+						final int addEndIndex = Math.min(length, endIndex + 1);
+						
+						for ( int i = Math.max(0, startIndex - 1) ; i < addEndIndex ; i++ ) {
+							destination[i] += source[i];
+						}
+					}
+				}
+				break;
+			case MULTIPLY:
+				{
+					final float[] source = registers.getBuffer(firstRegister + eachInstruction.getSource());
+					
+					for ( int i = 0 ; i < length ; i++ ) {
+						destination[i] *= source[i];
+					}
+				}
+				break;
+			case TRANSFORM:
+				eachInstruction.getValueTransformer().transform(destination, 0, length);
+				break;
+			case MASK:
+				{
+					final int startIndex = getStartIndex(eachInstruction.getMinTime(), startTime, timeStep, length, precise);
+					final int endIndex = Math.max(startIndex, getEndIndex(eachInstruction.getMaxTime(), startTime, timeStep, length, precise));
+					
+					Arrays.fill(destination, 0, startIndex, 0.0f);
+					Arrays.fill(destination, endIndex, length, 0.0f);
+				}
+				break;
+			case MORPH:
+				{
+					final ContinuousSignal signal = eachInstruction.getSignal();
+					
+					for ( int i = 0 ; i < length ; i++ ) {
+						destination[i] = signal.getValue(destination[i]);
+					}
+				}
+				break;
+			case COPY:
+				if ( getStartIndex(eachInstruction.getMinTime(), startTime, timeStep, length, precise) < getEndIndex(eachInstruction.getMaxTime(), startTime, timeStep, length, precise) ) {
+					System.arraycopy(registers.getBuffer(firstRegister + eachInstruction.getSource()), 0, destination, 0, length);
+				}
+				else {
+					Arrays.fill(destination, 0, length, 0.0f);
+				}
+				break;
+			case SKIP:
+				if ( getStartIndex(eachInstruction.getMinTime(), startTime, timeStep, length, precise) >= getEndIndex(eachInstruction.getMaxTime(), startTime, timeStep, length, precise) ) {
+					instructionIndex += eachInstruction.getSkipLength();
+				}
+				break;
+			case MIX:
+				this.executeMix(instructionIndex, registers, firstRegister, length, startTime, timeStep, precise);
+				instructionIndex += eachInstruction.getSkipLength();
+				break;
+			default:
+				throw new IllegalStateException("Unexpected opcode");
+			}
+		}
+	}
+	
+	/**
+	 * @pre La instrucción con el índice especificado tiene que ser MIX, y los registros
+	 * 		y los instantes de tiempo tienen que cumplir las mismas condiciones que
+	 * 		para ejecutar las instrucciones
+	 * @post Anula el registro destino de la instrucción MIX con el índice especificado,
+	 * 		 y ejecuta las instrucciones de los sumandos que se solapan con el bloque,
+	 * 		 en orden.
+	 * 		 El árbol de intervalos de la mezcla se consulta con el intervalo del bloque
+	 * 		 extendido en un paso y unos ulps hacia cada lado, para cubrir el redondeo
+	 * 		 de los instantes de tiempo de precisión simple, y las instrucciones SKIP de
+	 * 		 cada sumando deciden exactamente si se evalúa
+	 */
+	private void executeMix(int mixIndex, SampleBufferStack registers, int firstRegister, int length, double startTime, double timeStep, boolean precise) {
+		final Instruction mixInstruction = this.instructions[mixIndex];
+		final SignalMix signalMix = (SignalMix) mixInstruction.getSignal();
+		final int[] voiceIndices = this.voiceIndices.get()[mixIndex];
+		final double endTime = startTime + (double) ( length - 1 ) * timeStep;
+		final double margin = timeStep + 4.0d * (double) Math.ulp( (float) Math.max(Math.abs(startTime), Math.abs(endTime)) );
+		final double timeScale = mixInstruction.getTimeScale();
+		final double timeOffset = mixInstruction.getTimeOffset();
+		
+		final int voicesQuantity = signalMix.getOverlappingSignalIndices( ( startTime - margin ) * timeScale + timeOffset, ( endTime + margin ) * timeScale + timeOffset, voiceIndices);
+		final int voicesStart = mixIndex + 1;
+		
+		Arrays.fill(registers.getBuffer(firstRegister + mixInstruction.getDestination()), 0, length, 0.0f);
+		
+		for ( int i = 0 ; i < voicesQuantity ; i++ ) {
+			final int voiceIndex = voiceIndices[i];
+			
+			this.execute(voicesStart + mixInstruction.getVoiceStart(voiceIndex), voicesStart + mixInstruction.getVoiceStart(voiceIndex+1), registers, firstRegister, length, startTime, timeStep, precise);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder stringBuilder = new StringBuilder();
+		
+		for ( Instruction eachInstruction : this.instructions ) {
+			stringBuilder.append(eachInstruction).append('\n');
+		}
+		
+		return stringBuilder.toString();
+	}
+}
@@ -0,0 +1,369 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousLinearAttackDecaySignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.SignalMix;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.CanonicalTransformedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.DisplacedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.InverseTimeScaledSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.MorphedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.ProductSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.SumSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.operations.TruncatedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.transformers.ValueTransformedSignal;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ComposedValueTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueScaleTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
+
+/**
+ * Simplificador algebraico de señales y transformadores de valor.
+ * 
+ * Reescribe el árbol de operaciones a una forma canónica con menos nodos:
+ * 
+ * Desplazamientos anidados se suman en uno solo, y los desplazamientos nulos se eliminan.
+ * Escalas de tiempo positivas anidadas se multiplican en una sola, y las escalas unitarias
+ * se eliminan.
+ * Truncamientos anidados se reemplazan por uno solo con la intersección de los intervalos,
+ * y los truncamientos que contienen al intervalo de la señal se eliminan.
+ * Los productos por una envolvente de ataque y desvanecimiento lineal, cuya meseta
+ * (Con valor uno) cubre el intervalo del producto, se reemplazan por truncamientos.
+ * Transformaciones de valor anidadas se componen en una sola, las composiciones se aplanan,
+ * los escaladores consecutivos se multiplican, los clippers consecutivos se reducen al más
+ * restrictivo, y los escaladores unitarios se eliminan.
+ * 
+ * El resultado es equivalente, salvo por el redondeo de los desplazamientos, las escalas
+ * de tiempo y los factores de escala que se combinan.
+ * Los subárboles que no cambian se conservan
+ */
+public final class SignalSimplifier {
+	private SignalSimplifier() {}
+	
+	/**
+	 * @pre La señal no puede ser nula
+	 * @post Devuelve la señal simplificada
+	 */
+	public static ContinuousSignal simplify(ContinuousSignal signal) {
+		if ( signal != null ) {
+			if ( signal instanceof ProductSignal ) {
+				return simplifyProduct((ProductSignal) signal);
+			}
+			else if ( signal instanceof SumSignal ) {
+				final SumSignal sumSignal = (SumSignal) signal;
+				final ContinuousSignal firstSignal = simplify(sumSignal.getFirstSignal());
+				final ContinuousSignal secondSignal = simplify(sumSignal.getSecondSignal());
+				
+				if ( ( firstSignal != sumSignal.getFirstSignal() ) || ( secondSignal != sumSignal.getSecondSignal() ) ) {
+					return new SumSignal(firstSignal, secondSignal);
+				}
+				else {
+					return signal;
+				}
+			}
+			else if ( signal instanceof SignalMix ) {
+				final List<ContinuousSignal> signals = ((SignalMix) signal).getSignals();
+				final List<ContinuousSignal> simplifiedSignals = new ArrayList<ContinuousSignal>(signals.size());
+				boolean changed = false;
+				
+				for ( ContinuousSignal eachSignal : signals ) {
+					final ContinuousSignal simplifiedSignal = simplify(eachSignal);
+					
+					simplifiedSignals.add(simplifiedSignal);
+					changed |= ( simplifiedSignal != eachSignal );
+				}
+				
+				if ( changed ) {
+					return SignalMix.create(simplifiedSignals);
+				}
+				else {
+					return signal;
+				}
+			}
+			else if ( signal instanceof DisplacedSignal ) {
+				return simplifyDisplacement((DisplacedSignal) signal);
+			}
+			else if ( signal instanceof InverseTimeScaledSignal ) {
+				return simplifyTimeScale((InverseTimeScaledSignal) signal);
+			}
+			else if ( signal instanceof TruncatedSignal ) {
+				final TruncatedSignal truncatedSignal = (TruncatedSignal) signal;
+				final ContinuousSignal sourceSignal = simplify(truncatedSignal.getSourceSignal());
+				
+				if ( ( sourceSignal != truncatedSignal.getSourceSignal() ) || ( sourceSignal instanceof TruncatedSignal ) || isContained(sourceSignal.getTimeInterval(), signal.getTimeInterval()) ) {
+					return truncate(sourceSignal, signal.getTimeInterval());
+				}
+				else {
+					return signal;
+				}
+			}
+			else if ( signal instanceof ValueTransformedSignal ) {
+				return simplifyValueTransformation((ValueTransformedSignal) signal);
+			}
+			else if ( signal instanceof CanonicalTransformedSignal ) {
+				final CanonicalTransformedSignal canonicalTransformedSignal = (CanonicalTransformedSignal) signal;
+				final ContinuousSignal canonicalSignal = simplify(canonicalTransformedSignal.getCanonicalSignal());
+				
+				if ( canonicalSignal != canonicalTransformedSignal.getCanonicalSignal() ) {
+					return new CanonicalTransformedSignal(canonicalSignal, signal.getTimeInterval(), canonicalTransformedSignal.getFrequency());
+				}
+				else {
+					return signal;
+				}
+			}
+			else if ( signal instanceof MorphedSignal ) {
+				final MorphedSignal morphedSignal = (MorphedSignal) signal;
+				final ContinuousSignal sourceSignal = simplify(morphedSignal.getSourceSignal());
+				final ContinuousSignal monotonalMorphSignal = simplify(morphedSignal.getMonotonalMorphSignal());
+				
+				if ( ( sourceSignal != morphedSignal.getSourceSignal() ) || ( monotonalMorphSignal != morphedSignal.getMonotonalMorphSignal() ) ) {
+					return new MorphedSignal(sourceSignal, monotonalMorphSignal);
+				}
+				else {
+					return signal;
+				}
+			}
+			else {
+				return signal;
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre El transformador no puede ser nulo
+	 * @post Devuelve el transformador simplificado.
+	 * 		 Si es la identidad devuelve un escalador unitario
+	 */
+	public static ValueTransformer simplify(ValueTransformer valueTransformer) {
+		if ( valueTransformer != null ) {
+			final List<ValueTransformer> transformers = new ArrayList<ValueTransformer>();
+			final List<ValueTransformer> simplifiedTransformers = new ArrayList<ValueTransformer>();
+			
+			flatten(valueTransformer, transformers);
+			
+			for ( ValueTransformer eachTransformer : transformers ) {
+				final ValueTransformer lastTransformer = simplifiedTransformers.isEmpty() ? null : simplifiedTransformers.get(simplifiedTransformers.size()-1);
+				
+				if ( ( lastTransformer instanceof ValueScaleTransformer ) && ( eachTransformer instanceof ValueScaleTransformer ) ) {
+					simplifiedTransformers.set(simplifiedTransformers.size()-1, new ValueScaleTransformer( ((ValueScaleTransformer) lastTransformer).getFactor() * ((ValueScaleTransformer) eachTransformer).getFactor() ) );
+				}
+				else if ( ( lastTransformer instanceof Clipper ) && ( eachTransformer instanceof Clipper ) ) {
+					simplifiedTransformers.set(simplifiedTransformers.size()-1, new Clipper( Math.min( ((Clipper) lastTransformer).getMaxAbsValue(), ((Clipper) eachTransformer).getMaxAbsValue() ) ) );
+				}
+				else {
+					simplifiedTransformers.add(eachTransformer);
+				}
+				
+				if ( isIdentity(simplifiedTransformers.get(simplifiedTransformers.size()-1)) ) {
+					simplifiedTransformers.remove(simplifiedTransformers.size()-1);
+				}
+			}
+			
+			if ( simplifiedTransformers.equals(transformers) ) {
+				return valueTransformer;
+			}
+			else if ( simplifiedTransformers.isEmpty() ) {
+				return new ValueScaleTransformer(1.0f);
+			}
+			else {
+				ValueTransformer simplifiedTransformer = simplifiedTransformers.get(0);
+				
+				for ( int i = 1 ; i < simplifiedTransformers.size() ; i++ ) {
+					simplifiedTransformer = simplifiedTransformers.get(i).compose(simplifiedTransformer);
+				}
+				
+				return simplifiedTransformer;
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Agrega a la lista especificada los transformadores que componen
+	 * 		 al transformador especificado, en el orden en el que se aplican
+	 */
+	static void flatten(ValueTransformer valueTransformer, List<ValueTransformer> transformers) {
+		if ( valueTransformer instanceof ComposedValueTransformer ) {
+			final ComposedValueTransformer composedTransformer = (ComposedValueTransformer) valueTransformer;
+			
+			flatten(composedTransformer.getFirstTransformer(), transformers);
+			flatten(composedTransformer.getSecondTransformer(), transformers);
+		}
+		else {
+			transformers.add(valueTransformer);
+		}
+	}
+	
+	/**
+	 * @post Devuelve si el transformador especificado es la identidad
+	 */
+	private static boolean isIdentity(ValueTransformer valueTransformer) {
+		return ( valueTransformer instanceof ValueScaleTransformer ) && ( ((ValueScaleTransformer) valueTransformer).getFactor() == 1.0f );
+	}
+	
+	/**
+	 * @post Devuelve si el primer intervalo está contenido en el segundo
+	 */
+	private static boolean isContained(FloatClosedInterval interval, FloatClosedInterval container) {
+		return ( interval.getMin() >= container.getMin() ) && ( interval.getMax() <= container.getMax() );
+	}
+	
+	/**
+	 * @pre La señal tiene que estar simplificada
+	 * @post Devuelve la señal especificada truncada en el intervalo especificado, simplificada
+	 */
+	private static ContinuousSignal truncate(ContinuousSignal signal, FloatClosedInterval timeInterval) {
+		if ( signal instanceof TruncatedSignal ) {
+			timeInterval = signal.getTimeInterval().intersection(timeInterval);
+			signal = ((TruncatedSignal) signal).getSourceSignal();
+		}
+		
+		if ( isContained(signal.getTimeInterval(), timeInterval) ) {
+			return signal;
+		}
+		else {
+			return new TruncatedSignal(signal, timeInterval);
+		}
+	}
+	
+	/**
+	 * @post Simplifica el producto especificado
+	 */
+	private static ContinuousSignal simplifyProduct(ProductSignal productSignal) {
+		final ContinuousSignal firstSignal = simplify(productSignal.getFirstSignal());
+		final ContinuousSignal secondSignal = simplify(productSignal.getSecondSignal());
+		
+		if ( ( secondSignal instanceof ContinuousLinearAttackDecaySignal ) && isPlateauCovering((ContinuousLinearAttackDecaySignal) secondSignal, productSignal.getTimeInterval()) ) {
+			return truncate(firstSignal, secondSignal.getTimeInterval());
+		}
+		else if ( ( firstSignal instanceof ContinuousLinearAttackDecaySignal ) && isPlateauCovering((ContinuousLinearAttackDecaySignal) firstSignal, productSignal.getTimeInterval()) ) {
+			return truncate(secondSignal, firstSignal.getTimeInterval());
+		}
+		else if ( ( firstSignal != productSignal.getFirstSignal() ) || ( secondSignal != productSignal.getSecondSignal() ) ) {
+			return new ProductSignal(firstSignal, secondSignal);
+		}
+		else {
+			return productSignal;
+		}
+	}
+	
+	/**
+	 * @post Devuelve si la envolvente especificada vale uno en todo el intervalo especificado.
+	 * 		 Hace las mismas comparaciones que la envolvente
+	 */
+	private static boolean isPlateauCovering(ContinuousLinearAttackDecaySignal envelope, FloatClosedInterval timeInterval) {
+		final FloatClosedInterval envelopeInterval = envelope.getTimeInterval();
+		
+		return !( timeInterval.getMin() < envelopeInterval.getMin() + envelope.getAttackTime() ) && !( timeInterval.getMax() > envelopeInterval.getMax() - envelope.getDecayTime() );
+	}
+	
+	/**
+	 * @post Simplifica el desplazamiento especificado
+	 */
+	private static ContinuousSignal simplifyDisplacement(DisplacedSignal displacedSignal) {
+		ContinuousSignal sourceSignal = simplify(displacedSignal.getSourceSignal());
+		float deltaT = displacedSignal.getDeltaT();
+		
+		if ( sourceSignal instanceof DisplacedSignal ) {
+			deltaT += ((DisplacedSignal) sourceSignal).getDeltaT();
+			sourceSignal = ((DisplacedSignal) sourceSignal).getSourceSignal();
+		}
+		
+		if ( deltaT == 0.0f ) {
+			return sourceSignal;
+		}
+		else if ( ( sourceSignal != displacedSignal.getSourceSignal() ) || ( deltaT != displacedSignal.getDeltaT() ) ) {
+			return new DisplacedSignal(sourceSignal, deltaT);
+		}
+		else {
+			return displacedSignal;
+		}
+	}
+	
+	/**
+	 * @post Simplifica la escala de tiempo especificada
+	 */
+	private static ContinuousSignal simplifyTimeScale(InverseTimeScaledSignal timeScaledSignal) {
+		ContinuousSignal sourceSignal = simplify(timeScaledSignal.getSourceSignal());
+		float inverseScaleFactor = timeScaledSignal.getInverseScaleFactor();
+		
+		if ( ( inverseScaleFactor > 0.0f ) && ( sourceSignal instanceof InverseTimeScaledSignal ) && ( ((InverseTimeScaledSignal) sourceSignal).getInverseScaleFactor() > 0.0f ) ) {
+			inverseScaleFactor *= ((InverseTimeScaledSignal) sourceSignal).getInverseScaleFactor();
+			sourceSignal = ((InverseTimeScaledSignal) sourceSignal).getSourceSignal();
+		}
+		
+		if ( inverseScaleFactor == 1.0f ) {
+			return sourceSignal;
+		}
+		else if ( ( sourceSignal != timeScaledSignal.getSourceSignal() ) || ( inverseScaleFactor != timeScaledSignal.getInverseScaleFactor() ) ) {
+			return new InverseTimeScaledSignal(sourceSignal, inverseScaleFactor);
+		}
+		else {
+			return timeScaledSignal;
+		}
+	}
+	
+	/**
+	 * @post Simplifica la transformación de valor especificada
+	 */
+	private static ContinuousSignal simplifyValueTransformation(ValueTransformedSignal valueTransformedSignal) {
+		ContinuousSignal sourceSignal = simplify(valueTransformedSignal.getSourceSignal());
+		ValueTransformer valueTransformer = valueTransformedSignal.getValueTransformer();
+		
+		if ( sourceSignal instanceof ValueTransformedSignal ) {
+			valueTransformer = valueTransformer.compose( ((ValueTransformedSignal) sourceSignal).getValueTransformer() );
+			sourceSignal = ((ValueTransformedSignal) sourceSignal).getSourceSignal();
+		}
+		
+		valueTransformer = simplify(valueTransformer);
+		
+		if ( isIdentity(valueTransformer) ) {
+			return sourceSignal;
+		}
+		else if ( ( sourceSignal != valueTransformedSignal.getSourceSignal() ) || ( valueTransformer != valueTransformedSignal.getValueTransformer() ) ) {
+			return new ValueTransformedSignal(sourceSignal, valueTransformer);
+		}
+		else {
+			return valueTransformedSignal;
+		}
+	}
+}
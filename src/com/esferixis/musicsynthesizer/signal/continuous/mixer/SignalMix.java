@@ -42,12 +42,137 @@ package com.esferixis.musicsynthesizer.signal.continuous.mixer;/**
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleBufferStack;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleIndexRange;
 
+/**
+ * Mezcla de señales.
+ * Ordena las señales por instante de comienzo y construye un árbol de intervalos
+ * implícito sobre ese orden, así que el costo de evaluación es proporcional a la
+ * cantidad de señales que suenan a la vez, y no a la cantidad total.
+ * Cada hilo mantiene un barrido con las señales activas que avanza con las
+ * evaluaciones en orden de tiempo creciente, y se reubica con el árbol cuando
+ * el tiempo retrocede.
+ * Las señales activas se suman en el orden en el que se especificaron
+ */
 public final class SignalMix extends ContinuousSignal {
-	private final Collection<ContinuousSignal> signals;
+	private final ContinuousSignal[] signals;
+	
+	/**
+	 * Instantes de comienzo y de fin de cada señal
+	 */
+	private final float[] minTimes, maxTimes;
+	
+	/**
+	 * Índices de las señales ordenados por instante de comienzo
+	 */
+	private final int[] startOrder;
+	
+	/**
+	 * Instantes de comienzo en el orden de comienzo
+	 */
+	private final float[] sortedMinTimes;
+	
+	/**
+	 * Árbol de intervalos implícito: el nodo de cada posición del orden de comienzo
+	 * tiene el subárbol del rango [lo, hi) que lo tiene en su posición media, y
+	 * guarda el instante de fin máximo del subárbol
+	 */
+	private final float[] subtreeMaxTimes;
+	
+	private final ThreadLocal<Sweep> sweeps = new ThreadLocal<Sweep>() {
+		@Override
+		protected Sweep initialValue() {
+			return new Sweep();
+		}
+	};
+	
+	/**
+	 * Barrido de las señales activas de un hilo
+	 */
+	private final class Sweep {
+		/**
+		 * Índices de las señales activas, en orden creciente
+		 */
+		private final int[] active;
+		private int activeQuantity;
+		
+		/**
+		 * Posición en el orden de comienzo de la próxima señal a activar
+		 */
+		private int nextPosition;
+		
+		/**
+		 * Instante mínimo de la última consulta.
+		 * Las señales activas son las anteriores a la próxima posición
+		 * que terminan después de él
+		 */
+		private double minTime;
+		
+		/**
+		 * @post Crea el barrido antes de todas las señales
+		 */
+		public Sweep() {
+			this.active = new int[SignalMix.this.signals.length];
+			this.activeQuantity = 0;
+			this.nextPosition = 0;
+			this.minTime = Double.NEGATIVE_INFINITY;
+		}
+		
+		/**
+		 * @pre El instante mínimo no puede ser mayor que el máximo
+		 * @post Actualiza las señales activas para el rango de tiempo especificado.
+		 * 		 Quedan activas todas las señales que se solapan con él, y puede
+		 * 		 haber otras que no
+		 */
+		public void update(double minTime, double maxTime) {
+			if ( minTime >= this.minTime ) {
+				final float[] maxTimes = SignalMix.this.maxTimes;
+				final float[] sortedMinTimes = SignalMix.this.sortedMinTimes;
+				final int[] startOrder = SignalMix.this.startOrder;
+				final int[] active = this.active;
+				
+				int activeQuantity = 0;
+				for ( int i = 0 ; i < this.activeQuantity ; i++ ) {
+					if ( (double) maxTimes[active[i]] >= minTime ) {
+						active[activeQuantity++] = active[i];
+					}
+				}
+				
+				int nextPosition = this.nextPosition;
+				while ( ( nextPosition < startOrder.length ) && ( (double) sortedMinTimes[nextPosition] <= maxTime ) ) {
+					final int signalIndex = startOrder[nextPosition++];
+					
+					if ( (double) maxTimes[signalIndex] >= minTime ) {
+						int insertionIndex = activeQuantity;
+						while ( ( insertionIndex > 0 ) && ( active[insertionIndex-1] > signalIndex ) ) {
+							active[insertionIndex] = active[insertionIndex-1];
+							insertionIndex--;
+						}
+						
+						active[insertionIndex] = signalIndex;
+						activeQuantity++;
+					}
+				}
+				
+				this.activeQuantity = activeQuantity;
+				this.nextPosition = nextPosition;
+			}
+			else {
+				this.activeQuantity = SignalMix.this.getOverlappingSignalIndices(minTime, maxTime, this.active);
+				
+				this.nextPosition = SignalMix.this.getStartPositionAfter(maxTime);
+			}
+			
+			this.minTime = minTime;
+		}
+	}
 	
 	/**
 	 * @post Crea la mezcla de las señales especificadas
@@ -61,7 +186,7 @@ public final class SignalMix extends ContinuousSignal {
 			max = Math.max(max, eachSignal.getTimeInterval().getMax());
 		}
 		
-		return new SignalMix(new FloatClosedInterval(min, max), signals);
+		return new SignalMix(new FloatClosedInterval(min, max), signals.toArray(new ContinuousSignal[0]));
 	}
 	
 	/**
@@ -71,15 +196,144 @@ public final class SignalMix extends ContinuousSignal {
 		return create(Arrays.asList(signals));
 	}
 	
-	private SignalMix(FloatClosedInterval timeInterval, Collection<ContinuousSignal> signals) {
+	private SignalMix(FloatClosedInterval timeInterval, ContinuousSignal[] signals) {
 		super(timeInterval);
 		this.signals = signals;
+		
+		this.minTimes = new float[signals.length];
+		this.maxTimes = new float[signals.length];
+		
+		final Integer[] startOrder = new Integer[signals.length];
+		
+		for ( int i = 0 ; i < signals.length ; i++ ) {
+			this.minTimes[i] = signals[i].getTimeInterval().getMin();
+			this.maxTimes[i] = signals[i].getTimeInterval().getMax();
+			startOrder[i] = i;
+		}
+		
+		// El ordenamiento es estable, así que las señales con el mismo comienzo quedan en el orden especificado
+		Arrays.sort(startOrder, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer first, Integer second) {
+				return Float.compare(SignalMix.this.minTimes[first], SignalMix.this.minTimes[second]);
+			}
+			
+		});
+		
+		this.startOrder = new int[signals.length];
+		this.sortedMinTimes = new float[signals.length];
+		
+		for ( int i = 0 ; i < signals.length ; i++ ) {
+			this.startOrder[i] = startOrder[i];
+			this.sortedMinTimes[i] = this.minTimes[startOrder[i]];
+		}
+		
+		this.subtreeMaxTimes = new float[signals.length];
+		this.buildSubtree(0, signals.length);
+	}
+	
+	/**
+	 * @post Calcula los instantes de fin máximos del subárbol del rango especificado
+	 * 		 del orden de comienzo, y devuelve el del rango
+	 */
+	private float buildSubtree(int lo, int hi) {
+		if ( lo < hi ) {
+			final int mid = ( lo + hi ) >>> 1;
+			
+			final float maxTime = Math.max(this.maxTimes[this.startOrder[mid]], Math.max(this.buildSubtree(lo, mid), this.buildSubtree(mid+1, hi)));
+			this.subtreeMaxTimes[mid] = maxTime;
+			
+			return maxTime;
+		}
+		else {
+			return Float.NEGATIVE_INFINITY;
+		}
+	}
+	
+	/**
+	 * @post Agrega al array especificado, desde la posición especificada, los índices
+	 * 		 de las señales del subárbol del rango especificado del orden de comienzo
+	 * 		 que se solapan con el rango de tiempo especificado, y devuelve la
+	 * 		 posición siguiente a la última agregada
+	 */
+	private int query(int lo, int hi, double minTime, double maxTime, int[] result, int resultQuantity) {
+		if ( lo < hi ) {
+			final int mid = ( lo + hi ) >>> 1;
+			
+			if ( (double) this.subtreeMaxTimes[mid] >= minTime ) {
+				resultQuantity = this.query(lo, mid, minTime, maxTime, result, resultQuantity);
+				
+				// Las señales de la derecha empiezan después que la del medio
+				if ( (double) this.sortedMinTimes[mid] <= maxTime ) {
+					final int signalIndex = this.startOrder[mid];
+					
+					if ( (double) this.maxTimes[signalIndex] >= minTime ) {
+						result[resultQuantity++] = signalIndex;
+					}
+					
+					resultQuantity = this.query(mid+1, hi, minTime, maxTime, result, resultQuantity);
+				}
+			}
+		}
+		
+		return resultQuantity;
+	}
+	
+	/**
+	 * @pre El array tiene que tener lugar para todas las señales
+	 * @post Escribe en el array especificado los índices de las señales que se
+	 * 		 solapan con el rango de tiempo especificado, en orden creciente,
+	 * 		 y devuelve la cantidad.
+	 * 		 Consulta el árbol de intervalos, así que no depende del barrido
+	 * 		 de ningún hilo
+	 */
+	public int getOverlappingSignalIndices(double minTime, double maxTime, int[] result) {
+		final int quantity = this.query(0, this.startOrder.length, minTime, maxTime, result, 0);
+		Arrays.sort(result, 0, quantity);
+		
+		return quantity;
+	}
+	
+	/**
+	 * @post Devuelve la primera posición del orden de comienzo cuya señal
+	 * 		 empieza después del instante especificado
+	 */
+	private int getStartPositionAfter(double time) {
+		int lo = 0, hi = this.sortedMinTimes.length;
+		
+		while ( lo < hi ) {
+			final int mid = ( lo + hi ) >>> 1;
+			
+			if ( (double) this.sortedMinTimes[mid] <= time ) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+		
+		return lo;
+	}
+	
+	/**
+	 * @post Devuelve las señales que componen la mezcla
+	 */
+	public List<ContinuousSignal> getSignals() {
+		return Collections.unmodifiableList(Arrays.asList(this.signals));
 	}
 
 	@Override
 	public float uncheckedGetValue(float t) {
+		final Sweep sweep = this.sweeps.get();
+		sweep.update(t, t);
+		
+		final int[] active = sweep.active;
+		
 		float value = 0.0f;
-		for ( ContinuousSignal eachSignal : signals ) {
+		for ( int i = 0 ; i < sweep.activeQuantity ; i++ ) {
+			final ContinuousSignal eachSignal = this.signals[active[i]];
+			
 			if ( eachSignal.getTimeInterval().contains(t) ) {
 				value += eachSignal.getValue(t);
 			}
@@ -87,4 +341,82 @@ public final class SignalMix extends ContinuousSignal {
 		
 		return value;
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final float[] signalValues = bufferStack.push(length);
+		
+		Arrays.fill(values, offset, offset+length, 0.0f);
+		
+		final Sweep sweep = this.sweeps.get();
+		// Mismos instantes de tiempo que se usan al evaluar el bloque
+		sweep.update((double) startTime, (double) ( startTime + (float) ( length - 1 ) * timeStep ));
+		
+		final int[] active = sweep.active;
+		
+		try {
+			for ( int activeIndex = 0 ; activeIndex < sweep.activeQuantity ; activeIndex++ ) {
+				final ContinuousSignal eachSignal = this.signals[active[activeIndex]];
+				final FloatClosedInterval signalTimeInterval = eachSignal.getTimeInterval();
+				final int startIndex = SampleIndexRange.getStartIndex(signalTimeInterval.getMin(), startTime, timeStep, length);
+				final int endIndex = SampleIndexRange.getEndIndex(signalTimeInterval.getMax(), startTime, timeStep, length);
+				
+				// Las señales que no se solapan con el bloque no se evalúan
+				if ( startIndex < endIndex ) {
+					final int signalLength = endIndex - startIndex;
+					eachSignal.getValues(signalValues, 0, signalLength, startTime + (float) startIndex * timeStep, timeStep);
+					
+					final int signalOffset = offset + startIndex;
+					for ( int i = 0 ; i < signalLength ; i++ ) {
+						values[signalOffset+i] += signalValues[i];
+					}
+				}
+			}
+		}
+		finally {
+			bufferStack.pop();
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final float[] signalValues = bufferStack.push(length);
+		
+		Arrays.fill(values, offset, offset+length, 0.0f);
+		
+		final Sweep sweep = this.sweeps.get();
+		sweep.update(startTime, startTime + (double) ( length - 1 ) * timeStep);
+		
+		final int[] active = sweep.active;
+		
+		try {
+			for ( int activeIndex = 0 ; activeIndex < sweep.activeQuantity ; activeIndex++ ) {
+				final ContinuousSignal eachSignal = this.signals[active[activeIndex]];
+				final FloatClosedInterval signalTimeInterval = eachSignal.getTimeInterval();
+				final int startIndex = SampleIndexRange.getStartIndex((double) signalTimeInterval.getMin(), startTime, timeStep, length);
+				final int endIndex = SampleIndexRange.getEndIndex((double) signalTimeInterval.getMax(), startTime, timeStep, length);
+				
+				if ( startIndex < endIndex ) {
+					final int signalLength = endIndex - startIndex;
+					eachSignal.getPreciseValues(signalValues, 0, signalLength, startTime + (double) startIndex * timeStep, timeStep);
+					
+					final int signalOffset = offset + startIndex;
+					for ( int i = 0 ; i < signalLength ; i++ ) {
+						values[signalOffset+i] += signalValues[i];
+					}
+				}
+			}
+		}
+		finally {
+			bufferStack.pop();
+		}
+	}
 }
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.mixer;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+
+/**
+ * Renderizador que divide el rango de muestras en tramos de longitud fija
+ * y los evalúa en paralelo con un ForkJoinPool, escribiendo cada uno en su
+ * parte del array de salida.
+ * Cada bloque de un tramo sólo evalúa las señales de las mezclas que se solapan
+ * con él: las mezclas lo hacen con el barrido de cada hilo, y las señales compiladas
+ * (Como las que devuelve SignalGetter) con el árbol de intervalos de cada mezcla
+ * y un buffer de índices por hilo, así que no hace falta un caso especial.
+ * Las señales se evalúan desde varios hilos a la vez, así que tienen que poder
+ * evaluarse concurrentemente, como las que son funciones del tiempo sin estado
+ */
+public final class TiledSignalRenderer {
+	/**
+	 * Cantidad de muestras por bloque con la que se evalúa la señal
+	 */
+	public static final int BLOCKLENGTH = 1024;
+	
+	/**
+	 * Longitud por defecto de los tramos
+	 */
+	public static final int DEFAULTTILELENGTH = 16 * BLOCKLENGTH;
+	
+	private final ForkJoinPool pool;
+	private final int tileLength;
+	
+	/**
+	 * Renderización de un rango de tramos
+	 */
+	private final class TilesTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final ContinuousSignal signal;
+		private final float[] values;
+		private final int offset, length;
+		private final long startSample;
+		private final double sampleRate;
+		
+		private final int fromTile, toTile;
+		
+		/**
+		 * @post Crea la tarea que renderiza los tramos del rango especificado
+		 */
+		public TilesTask(ContinuousSignal signal, float[] values, int offset, int length, long startSample, double sampleRate, int fromTile, int toTile) {
+			this.signal = signal;
+			this.values = values;
+			this.offset = offset;
+			this.length = length;
+			this.startSample = startSample;
+			this.sampleRate = sampleRate;
+			this.fromTile = fromTile;
+			this.toTile = toTile;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			if ( this.toTile - this.fromTile == 1 ) {
+				final int tileStart = this.fromTile * TiledSignalRenderer.this.tileLength;
+				final int tileEnd = (int) Math.min( (long) this.length, (long) tileStart + (long) TiledSignalRenderer.this.tileLength );
+				
+				TiledSignalRenderer.this.renderTile(this.signal, this.values, this.offset, tileStart, tileEnd, this.startSample, this.sampleRate);
+			}
+			else {
+				final int midTile = ( this.fromTile + this.toTile ) >>> 1;
+				
+				invokeAll(
+					new TilesTask(this.signal, this.values, this.offset, this.length, this.startSample, this.sampleRate, this.fromTile, midTile),
+					new TilesTask(this.signal, this.values, this.offset, this.length, this.startSample, this.sampleRate, midTile, this.toTile)
+				);
+			}
+		}
+	}
+	
+	/**
+	 * @pre El pool no puede ser nulo
+	 * @post Crea el renderizador con el pool especificado, y la longitud
+	 * 		 de tramo por defecto
+	 */
+	public TiledSignalRenderer(ForkJoinPool pool) {
+		this(pool, DEFAULTTILELENGTH);
+	}
+	
+	/**
+	 * @pre El pool no puede ser nulo, y la longitud de los tramos tiene que ser
+	 * 		un múltiplo positivo de BLOCKLENGTH
+	 * @post Crea el renderizador con el pool y la longitud de los tramos especificados.
+	 * 		 Como los tramos empiezan en bloques, la señal se evalúa con los mismos bloques
+	 * 		 que al recorrer el rango secuencialmente
+	 */
+	public TiledSignalRenderer(ForkJoinPool pool, int tileLength) {
+		if ( pool != null ) {
+			if ( ( tileLength > 0 ) && ( tileLength % BLOCKLENGTH == 0 ) ) {
+				this.pool = pool;
+				this.tileLength = tileLength;
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive multiple of block length");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve el pool
+	 */
+	public ForkJoinPool getPool() {
+		return this.pool;
+	}
+	
+	/**
+	 * @post Devuelve la longitud de los tramos
+	 */
+	public int getTileLength() {
+		return this.tileLength;
+	}
+	
+	/**
+	 * @pre La señal y el array no pueden ser nulos, el rango especificado tiene que
+	 * 		estar contenido en el array, y la frecuencia de muestreo tiene que ser positiva
+	 * @post Escribe en el array de valores, a partir del offset especificado, la cantidad
+	 * 		 de muestras especificada de la señal, empezando por la muestra con el índice
+	 * 		 especificado, como getSampledValues.
+	 * 		 Evalúa la señal por bloques de BLOCKLENGTH muestras desde el comienzo del
+	 * 		 rango, y los tramos en paralelo
+	 */
+	public void render(ContinuousSignal signal, float[] values, int offset, int length, long startSample, double sampleRate) {
+		if ( ( signal != null ) && ( values != null ) ) {
+			if ( ( offset >= 0 ) && ( length >= 0 ) && ( length <= values.length - offset ) ) {
+				if ( sampleRate > 0.0d ) {
+					final int tilesQuantity = (int) ( ( (long) length + (long) this.tileLength - 1L ) / (long) this.tileLength );
+					
+					if ( tilesQuantity > 0 ) {
+						this.pool.invoke(new TilesTask(signal, values, offset, length, startSample, sampleRate, 0, tilesQuantity));
+					}
+				}
+				else {
+					throw new IllegalArgumentException("Expected positive sample rate");
+				}
+			}
+			else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Renderiza el tramo con el rango especificado, relativo al offset
+	 */
+	private void renderTile(ContinuousSignal signal, float[] values, int offset, int tileStart, int tileEnd, long startSample, double sampleRate) {
+		for ( int blockStart = tileStart ; blockStart < tileEnd ; blockStart += BLOCKLENGTH ) {
+			signal.getSampledValues(values, offset + blockStart, Math.min(BLOCKLENGTH, tileEnd - blockStart), startSample + blockStart, sampleRate);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.operations;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+
+/**
+ * Señal canónica transformada a un intervalo de tiempo y una frecuencia
+ */
+public final class CanonicalTransformedSignal extends ContinuousSignal {
+	private final ContinuousSignal canonicalSignal;
+	private final float frequency;
+	
+	/**
+	 * @pre Ninguno de los dos puede ser nulo
+	 * @post Crea la transformación de la señal canónica especificada con el
+	 * 		 intervalo de tiempo y la frecuencia especificados
+	 */
+	public CanonicalTransformedSignal(ContinuousSignal canonicalSignal, FloatClosedInterval timeInterval, float frequency) {
+		super(timeInterval);
+		
+		if ( canonicalSignal != null ) {
+			this.canonicalSignal = canonicalSignal;
+			this.frequency = frequency;
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la señal canónica
+	 */
+	public ContinuousSignal getCanonicalSignal() {
+		return this.canonicalSignal;
+	}
+	
+	/**
+	 * @post Devuelve la frecuencia
+	 */
+	public float getFrequency() {
+		return this.frequency;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+	 */
+	@Override
+	protected float uncheckedGetValue(float t) {
+		return this.canonicalSignal.getValue(t*this.frequency-this.getTimeInterval().getMin());
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		if ( this.frequency > 0.0f ) {
+			this.canonicalSignal.getValues(values, offset, length, startTime*this.frequency-this.getTimeInterval().getMin(), timeStep*this.frequency);
+			this.clearOutsideTimeInterval(values, offset, length, startTime, timeStep);
+		}
+		else {
+			super.uncheckedGetValues(values, offset, length, startTime, timeStep);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		if ( this.frequency > 0.0f ) {
+			this.canonicalSignal.getPreciseValues(values, offset, length, startTime*(double) this.frequency-(double) this.getTimeInterval().getMin(), timeStep*(double) this.frequency);
+		}
+		else {
+			super.uncheckedGetPreciseValues(values, offset, length, startTime, timeStep);
+		}
+	}
+}
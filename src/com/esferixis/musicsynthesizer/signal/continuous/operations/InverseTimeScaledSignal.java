@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.operations;
+
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+
+/**
+ * Señal escalada en el tiempo, con la inversa del factor de escala
+ */
+public final class InverseTimeScaledSignal extends ContinuousSignal {
+	private final ContinuousSignal sourceSignal;
+	private final float inverseScaleFactor;
+	
+	/**
+	 * @pre La señal de origen no puede ser nula
+	 * @post Crea la señal de origen especificada escalada en el tiempo con
+	 * 		 la inversa del factor de escala especificado
+	 */
+	public InverseTimeScaledSignal(ContinuousSignal sourceSignal, float inverseScaleFactor) {
+		super(sourceSignal.getTimeInterval().mul(1.0f / inverseScaleFactor));
+		
+		this.sourceSignal = sourceSignal;
+		this.inverseScaleFactor = inverseScaleFactor;
+	}
+	
+	/**
+	 * @post Devuelve la señal de origen
+	 */
+	public ContinuousSignal getSourceSignal() {
+		return this.sourceSignal;
+	}
+	
+	/**
+	 * @post Devuelve la inversa del factor de escala
+	 */
+	public float getInverseScaleFactor() {
+		return this.inverseScaleFactor;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+	 */
+	@Override
+	protected float uncheckedGetValue(float t) {
+		return this.sourceSignal.getValue(t*this.inverseScaleFactor);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		if ( this.inverseScaleFactor > 0.0f ) {
+			this.sourceSignal.getValues(values, offset, length, startTime*this.inverseScaleFactor, timeStep*this.inverseScaleFactor);
+		}
+		else {
+			super.uncheckedGetValues(values, offset, length, startTime, timeStep);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		if ( this.inverseScaleFactor > 0.0f ) {
+			this.sourceSignal.getPreciseValues(values, offset, length, startTime*(double) this.inverseScaleFactor, timeStep*(double) this.inverseScaleFactor);
+		}
+		else {
+			super.uncheckedGetPreciseValues(values, offset, length, startTime, timeStep);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.operations;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+
+/**
+ * Señal compuesta en el tiempo con una señal monótona
+ */
+public final class MorphedSignal extends ContinuousSignal {
+	private final ContinuousSignal sourceSignal, monotonalMorphSignal;
+	
+	/**
+	 * @pre Ninguna de las dos señales puede ser nula
+	 * @post Crea la señal de origen especificada, compuesta en el tiempo con
+	 * 		 la señal monótona especificada
+	 */
+	public MorphedSignal(ContinuousSignal sourceSignal, ContinuousSignal monotonalMorphSignal) {
+		super(morphedTimeInterval(sourceSignal, monotonalMorphSignal));
+		
+		this.sourceSignal = sourceSignal;
+		this.monotonalMorphSignal = monotonalMorphSignal;
+	}
+	
+	/**
+	 * @post Devuelve el intervalo de tiempo de la señal compuesta
+	 */
+	private static FloatClosedInterval morphedTimeInterval(ContinuousSignal sourceSignal, ContinuousSignal monotonalMorphSignal) {
+		final float t1 = monotonalMorphSignal.getValue( sourceSignal.getTimeInterval().getMin() );
+		final float t2 = monotonalMorphSignal.getValue( sourceSignal.getTimeInterval().getMax() );
+		
+		return new FloatClosedInterval( (float) Math.min(t1, t2), (float) Math.max(t1, t2));
+	}
+	
+	/**
+	 * @post Devuelve la señal de origen
+	 */
+	public ContinuousSignal getSourceSignal() {
+		return this.sourceSignal;
+	}
+	
+	/**
+	 * @post Devuelve la señal monótona de composición
+	 */
+	public ContinuousSignal getMonotonalMorphSignal() {
+		return this.monotonalMorphSignal;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+	 */
+	@Override
+	protected float uncheckedGetValue(float t) {
+		return this.sourceSignal.getValue( this.monotonalMorphSignal.getValue(t) );
+	}
+}
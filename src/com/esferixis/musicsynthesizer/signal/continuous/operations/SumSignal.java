@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.continuous.operations;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleBufferStack;
+import com.esferixis.musicsynthesizer.signal.continuous.SampleIndexRange;
+
+/**
+ * Suma de dos señales
+ */
+public final class SumSignal extends ContinuousSignal {
+	private final ContinuousSignal firstSignal, secondSignal;
+	
+	/**
+	 * @pre Ninguna de las dos señales puede ser nula
+	 * @post Crea la suma de las señales especificadas
+	 */
+	public SumSignal(ContinuousSignal firstSignal, ContinuousSignal secondSignal) {
+		super(firstSignal.getTimeInterval().unionBound(secondSignal.getTimeInterval()));
+		
+		this.firstSignal = firstSignal;
+		this.secondSignal = secondSignal;
+	}
+	
+	/**
+	 * @post Devuelve la primer señal
+	 */
+	public ContinuousSignal getFirstSignal() {
+		return this.firstSignal;
+	}
+	
+	/**
+	 * @post Devuelve la segunda señal
+	 */
+	public ContinuousSignal getSecondSignal() {
+		return this.secondSignal;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+	 */
+	@Override
+	protected float uncheckedGetValue(float t) {
+		return this.firstSignal.getValue(t) + this.secondSignal.getValue(t);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final float[] secondValues = bufferStack.push(length);
+		
+		try {
+			this.firstSignal.getValues(values, offset, length, startTime, timeStep);
+			
+			final FloatClosedInterval secondTimeInterval = this.secondSignal.getTimeInterval();
+			final int startIndex = SampleIndexRange.getStartIndex(secondTimeInterval.getMin(), startTime, timeStep, length);
+			final int endIndex = SampleIndexRange.getEndIndex(secondTimeInterval.getMax(), startTime, timeStep, length);
+			
+			if ( startIndex < endIndex ) {
+				final int secondLength = endIndex - startIndex;
+				this.secondSignal.getValues(secondValues, 0, secondLength, startTime + (float) startIndex * timeStep, timeStep);
+				
+				final int secondOffset = offset + startIndex;
+				for ( int i = 0 ; i < secondLength ; i++ ) {
+					values[secondOffset+i] += secondValues[i];
+				}
+			}
+		}
+		finally {
+			bufferStack.pop();
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final SampleBufferStack bufferStack = SampleBufferStack.get();
+		final float[] secondValues = bufferStack.push(length);
+		
+		try {
+			this.firstSignal.getPreciseValues(values, offset, length, startTime, timeStep);
+			
+			final FloatClosedInterval secondTimeInterval = this.secondSignal.getTimeInterval();
+			final int startIndex = SampleIndexRange.getStartIndex((double) secondTimeInterval.getMin(), startTime, timeStep, length);
+			final int endIndex = SampleIndexRange.getEndIndex((double) secondTimeInterval.getMax(), startTime, timeStep, length);
+			
+			if ( startIndex < endIndex ) {
+				final int secondLength = endIndex - startIndex;
+				this.secondSignal.getPreciseValues(secondValues, 0, secondLength, startTime + (double) startIndex * timeStep, timeStep);
+				
+				final int secondOffset = offset + startIndex;
+				for ( int i = 0 ; i < secondLength ; i++ ) {
+					values[secondOffset+i] += secondValues[i];
+				}
+			}
+		}
+		finally {
+			bufferStack.pop();
+		}
+	}
+}
@@ -34,6 +34,12 @@ package com.esferixis.musicsynthesizer.signal.continuous.periodic;
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
 
+/**
+ * Onda periódica.
+ * En la evaluación con instantes de tiempo de precisión doble, la fase se calcula
+ * una vez por bloque y se avanza incrementalmente en cada muestra, con un acumulador
+ * de precisión doble, así que no hay deriva de la altura en las señales largas
+ */
 public abstract class PeriodicWave extends ContinuousSignal {
 	protected final float t0, frequency;
 	
@@ -56,4 +62,38 @@ public abstract class PeriodicWave extends ContinuousSignal {
 	public PeriodicWave(FloatClosedInterval timeInterval, float frequency) {
 		this(timeInterval, timeInterval.getMin(), frequency);
 	}
+	
+	/**
+	 * @post Devuelve el tiempo de comienzo
+	 */
+	public final float getT0() {
+		return this.t0;
+	}
+	
+	/**
+	 * @post Devuelve la frecuencia
+	 */
+	public final float getFrequency() {
+		return this.frequency;
+	}
+	
+	/**
+	 * @post Devuelve la fase, en ciclos y en el intervalo [0, 1), en el instante
+	 * 		 de tiempo de precisión doble especificado
+	 */
+	protected final double getPhase(double t) {
+		final double phase = ( t - (double) this.t0 ) * (double) this.frequency;
+		
+		return phase - Math.floor(phase);
+	}
+	
+	/**
+	 * @post Devuelve el avance de fase, en ciclos y en el intervalo [0, 1),
+	 * 		 correspondiente al paso de tiempo de precisión doble especificado
+	 */
+	protected final double getPhaseIncrement(double timeStep) {
+		final double phaseIncrement = timeStep * (double) this.frequency;
+		
+		return phaseIncrement - Math.floor(phaseIncrement);
+	}
 }
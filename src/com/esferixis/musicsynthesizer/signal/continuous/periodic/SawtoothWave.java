@@ -32,6 +32,7 @@
 package com.esferixis.musicsynthesizer.signal.continuous.periodic;
 
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.vector.VectorOperations;
 
 public final class SawtoothWave extends PeriodicWave {
 	public static SawtoothWave UNBOUNDEDCANONICAL = new SawtoothWave(0.0f, 1.0f);
@@ -70,4 +71,56 @@ public final class SawtoothWave extends PeriodicWave {
 		
 		return (localT - (float) Math.floor(localT)) * 2.0f - 1.0f;
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final FloatClosedInterval timeInterval = this.getTimeInterval();
+		final VectorOperations vectorOperations = VectorOperations.getInstance();
+		
+		if ( vectorOperations != null ) {
+			vectorOperations.sawtooth(values, offset, length, startTime, timeStep, timeInterval.getMin(), timeInterval.getMax(), this.t0, this.frequency);
+		}
+		else {
+			for ( int i = 0 ; i < length ; i++ ) {
+				final float t = startTime + (float) i * timeStep;
+				
+				if ( timeInterval.contains(t) ) {
+					final float localT = (t - t0) * frequency;
+					
+					values[offset+i] = (localT - (float) Math.floor(localT)) * 2.0f - 1.0f;
+				}
+				else {
+					values[offset+i] = 0.0f;
+				}
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final double phaseIncrement = this.getPhaseIncrement(timeStep);
+		final VectorOperations vectorOperations = VectorOperations.getInstance();
+		
+		if ( vectorOperations != null ) {
+			vectorOperations.preciseSawtooth(values, offset, length, this.getPhase(startTime), phaseIncrement);
+		}
+		else {
+			double phase = this.getPhase(startTime);
+			
+			for ( int i = 0 ; i < length ; i++ ) {
+				values[offset+i] = (float) ( phase * 2.0d - 1.0d );
+				
+				phase += phaseIncrement;
+				if ( phase >= 1.0d ) {
+					phase -= 1.0d;
+				}
+			}
+		}
+	}
 }
@@ -32,6 +32,7 @@
 package com.esferixis.musicsynthesizer.signal.continuous.periodic;
 
 import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.vector.VectorOperations;
 
 public final class SineWave extends PeriodicWave {
 	public static SineWave UNBOUNDEDCANONICAL = new SineWave(0.0f, 1.0f);
@@ -68,4 +69,59 @@ public final class SineWave extends PeriodicWave {
 	protected float uncheckedGetValue(float t) {
 		return (float) Math.sin( (double) (t - t0 ) * Math.PI * 2.0f * frequency );
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final FloatClosedInterval timeInterval = this.getTimeInterval();
+		final VectorOperations vectorOperations = VectorOperations.getInstance();
+		
+		if ( vectorOperations != null ) {
+			vectorOperations.sine(values, offset, length, startTime, timeStep, timeInterval.getMin(), timeInterval.getMax(), this.t0, this.frequency);
+		}
+		else {
+			for ( int i = 0 ; i < length ; i++ ) {
+				final float t = startTime + (float) i * timeStep;
+				
+				if ( timeInterval.contains(t) ) {
+					values[offset+i] = (float) Math.sin( (double) (t - t0 ) * Math.PI * 2.0f * frequency );
+				}
+				else {
+					values[offset+i] = 0.0f;
+				}
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final double angle = 2.0d * Math.PI * this.getPhase(startTime);
+		final double angleStep = 2.0d * Math.PI * this.getPhaseIncrement(timeStep);
+		final VectorOperations vectorOperations = VectorOperations.getInstance();
+		
+		if ( vectorOperations != null ) {
+			vectorOperations.preciseSine(values, offset, length, angle, angleStep);
+		}
+		else {
+			// Oscilador de rotación: cada muestra rota el vector (cos, sin) por el ángulo de un paso
+			final double cosStep = Math.cos(angleStep);
+			final double sinStep = Math.sin(angleStep);
+			
+			double cos = Math.cos(angle);
+			double sin = Math.sin(angle);
+			
+			for ( int i = 0 ; i < length ; i++ ) {
+				values[offset+i] = (float) sin;
+				
+				final double nextCos = cos * cosStep - sin * sinStep;
+				sin = sin * cosStep + cos * sinStep;
+				cos = nextCos;
+			}
+		}
+	}
 }
@@ -80,4 +80,54 @@ public final class TriangleWave extends PeriodicWave {
 		
 		return value;
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValues(float[], int, int, float, float)
+	 */
+	@Override
+	protected void uncheckedGetValues(float[] values, int offset, int length, float startTime, float timeStep) {
+		final FloatClosedInterval timeInterval = this.getTimeInterval();
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			final float t = startTime + (float) i * timeStep;
+			
+			if ( timeInterval.contains(t) ) {
+				float localT = (t - t0) * frequency;
+				localT = localT - (float) Math.floor(localT);
+				
+				if ( localT < 0.5f ) {
+					values[offset+i] = localT * 2.0f - 1.0f;
+				}
+				else {
+					values[offset+i] = 1.0f - (localT - 0.5f) * 2.0f;
+				}
+			}
+			else {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+	 */
+	@Override
+	protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+		final double phaseIncrement = this.getPhaseIncrement(timeStep);
+		double phase = this.getPhase(startTime);
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			if ( phase < 0.5d ) {
+				values[offset+i] = (float) ( phase * 2.0d - 1.0d );
+			}
+			else {
+				values[offset+i] = (float) ( 1.0d - ( phase - 0.5d ) * 2.0d );
+			}
+			
+			phase += phaseIncrement;
+			if ( phase >= 1.0d ) {
+				phase -= 1.0d;
+			}
+		}
+	}
 }
@@ -31,25 +31,41 @@
  */
 package com.esferixis.musicsynthesizer.signal.continuous.transformers;
 
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSampledSignal;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockPool;
 
 public final class DiscreteInputOutputBlockSignalTransformer extends SignalTransformer {
+	/**
+	 * Cantidad de muestras por bloque con la que se evalúa la señal de origen
+	 */
+	private static final int BLOCKLENGTH = 1024;
+	
 	private final float frequencyRate;
-	private final DiscreteInputOutputBlock.Factory discreteBlockFactory;
+	
+	/**
+	 * Pool de bloques, para reutilizarlos entre las señales transformadas
+	 */
+	private final DiscreteInputOutputBlockPool discreteBlockPool;
 
 	/**
 	 * @pre El bloque discreto de entrada/salida y la frecuencia de muestreo
 	 * 		no pueden ser nulas
 	 * @post Crea el transformador con la fábrica de bloque discreto de entrada/salida, y la frecuencia
-	 * 		 de muestreo especificada
+	 * 		 de muestreo especificada.
+	 * 		 Los bloques se reutilizan entre las señales transformadas, con un pool
 	 */
 	public DiscreteInputOutputBlockSignalTransformer(DiscreteInputOutputBlock.Factory discreteBlockFactory, float frequencyRate) {
 		if ( discreteBlockFactory != null ) {
 			if ( frequencyRate > 0.0f ) {
-				this.discreteBlockFactory = discreteBlockFactory;
+				if ( discreteBlockFactory instanceof DiscreteInputOutputBlockPool ) {
+					this.discreteBlockPool = (DiscreteInputOutputBlockPool) discreteBlockFactory;
+				}
+				else {
+					this.discreteBlockPool = new DiscreteInputOutputBlockPool(discreteBlockFactory);
+				}
 				this.frequencyRate = frequencyRate;
 			}
 			else {
@@ -68,20 +84,25 @@ public final class DiscreteInputOutputBlockSignalTransformer extends SignalTrans
 	protected ContinuousSignal uncheckedTransform(final ContinuousSignal sourceSignal) {
 		sourceSignal.displace(-sourceSignal.getTimeInterval().getMin());
 		
-		int samplesQuantity = (int) Math.ceil( sourceSignal.getTimeInterval().length() * (float) this.frequencyRate );
+		final int samplesQuantity = (int) Math.ceil( sourceSignal.getTimeInterval().length() * (float) this.frequencyRate );
 		
-		return ContinuousSampledSignal.create(new DiscreteOutput() {
-			final DiscreteOutput originalOutput = sourceSignal.discreteOutput(DiscreteInputOutputBlockSignalTransformer.this.frequencyRate);
-			final DiscreteInputOutputBlock transformerDiscreteBlock = DiscreteInputOutputBlockSignalTransformer.this.discreteBlockFactory.create();
+		if ( samplesQuantity > 0 ) {
+			final float[] samples = new float[samplesQuantity];
+			final double timeStep = 1.0d / (double) this.frequencyRate;
 			
-			@Override
-			public float read() {
-				this.transformerDiscreteBlock.getInput().write(this.originalOutput.read());
-				
-				return this.transformerDiscreteBlock.getOutput().read();
+			for ( int i = 0 ; i < samplesQuantity ; i += BLOCKLENGTH ) {
+				sourceSignal.getPreciseValues(samples, i, Math.min(BLOCKLENGTH, samplesQuantity - i), (double) i / (double) this.frequencyRate + (double) sourceSignal.getTimeInterval().getMin(), timeStep);
 			}
 			
-		}, samplesQuantity, frequencyRate);
+			final DiscreteInputOutputBlock discreteBlock = this.discreteBlockPool.create();
+			discreteBlock.process(samples, samples, 0, samplesQuantity);
+			this.discreteBlockPool.release(discreteBlock);
+			
+			return new ContinuousSampledSignal(new FloatClosedInterval(0.0f, (float) samplesQuantity / this.frequencyRate), samples);
+		}
+		else {
+			throw new IllegalArgumentException("Expected positive samples quantity");
+		}
 	}
 	
 }
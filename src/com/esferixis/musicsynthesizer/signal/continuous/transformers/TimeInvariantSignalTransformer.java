@@ -31,6 +31,7 @@
  */
 package com.esferixis.musicsynthesizer.signal.continuous.transformers;
 
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
 import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
 
@@ -49,19 +50,41 @@ public final class TimeInvariantSignalTransformer extends SignalTransformer {
 		}
 	}
 	
+	/**
+	 * @pre El transformador y el rango no pueden ser nulos, el rango tiene que ser
+	 * 		finito y de longitud positiva, y la resolución tiene que ser positiva
+	 * @post Crea el transformador con la tabulación del transformador de valor
+	 * 		 especificado en el rango de entrada y con la resolución especificados
+	 */
+	public TimeInvariantSignalTransformer(ValueTransformer valueTransformer, FloatClosedInterval inputRange, int resolution) {
+		this( tabulate(valueTransformer, inputRange, resolution) );
+	}
+	
+	/**
+	 * @post Devuelve la tabulación del transformador especificado
+	 */
+	private static ValueTransformer tabulate(ValueTransformer valueTransformer, FloatClosedInterval inputRange, int resolution) {
+		if ( valueTransformer != null ) {
+			return valueTransformer.tabulate(inputRange, resolution);
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve el transformador de valor
+	 */
+	public ValueTransformer getValueTransformer() {
+		return this.valueTransformer;
+	}
+	
 	/* (non-Javadoc)
 	 * @see com.esferixis.musicsynthesizer.signal.transformers.SignalTransformer#uncheckedTransform(com.esferixis.musicsynthesizer.signal.FloatSignal)
 	 */
 	@Override
 	protected final ContinuousSignal uncheckedTransform(final ContinuousSignal sourceSignal) {
-		return new ContinuousSignal(sourceSignal.getTimeInterval()) {
-
-			@Override
-			protected float uncheckedGetValue(float t) {
-				return TimeInvariantSignalTransformer.this.valueTransformer.transform(sourceSignal.getValue(t));
-			}
-			
-		};
+		return new ValueTransformedSignal(sourceSignal, this.valueTransformer);
 	}
 	
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete;
+
+/**
+ * Vista de sólo lectura de un historial de muestras, sin boxing.
+ * Las muestras están en un array circular: la muestra con índice i está en la
+ * posición (startIndex + i) módulo la longitud del array.
+ * Para recorrerlas sin calcular el módulo se pueden usar los dos tramos
+ * contiguos del array: las muestras con índices [0, getFirstSegmentLength())
+ * empiezan en la posición getFirstSegmentOffset(), y las siguientes empiezan
+ * en la posición cero.
+ * Quien la provee puede reutilizar la misma instancia entre muestras,
+ * por lo que no tiene que ser retenida fuera de la llamada que la recibe
+ */
+public final class SampleHistory {
+	private float[] samples;
+	private int startIndex;
+	
+	/**
+	 * @post Crea el historial vacío
+	 */
+	public SampleHistory() {
+		this.samples = new float[0];
+		this.startIndex = 0;
+	}
+	
+	/**
+	 * @pre El array no puede ser nulo, y el índice de comienzo tiene que estar
+	 * 		entre cero y la longitud del array
+	 * @post Especifica el array circular de muestras y la posición de la
+	 * 		 muestra con índice cero.
+	 * 		 El array no se copia
+	 */
+	public void set(float[] samples, int startIndex) {
+		if ( samples != null ) {
+			if ( ( startIndex >= 0 ) && ( ( startIndex < samples.length ) || ( startIndex == 0 ) ) ) {
+				this.samples = samples;
+				this.startIndex = startIndex;
+			}
+			else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de muestras
+	 */
+	public int size() {
+		return this.samples.length;
+	}
+	
+	/**
+	 * @pre El índice tiene que estar entre cero y la cantidad de muestras
+	 * @post Devuelve la muestra con el índice especificado
+	 */
+	public float get(int index) {
+		if ( ( index >= 0 ) && ( index < this.samples.length ) ) {
+			int position = this.startIndex + index;
+			
+			if ( position >= this.samples.length ) {
+				position -= this.samples.length;
+			}
+			
+			return this.samples[position];
+		}
+		else {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve el array circular de muestras.
+	 * 		 Es de sólo lectura
+	 */
+	public float[] getSamples() {
+		return this.samples;
+	}
+	
+	/**
+	 * @post Devuelve la posición en el array del primer tramo, que
+	 * 		 empieza con la muestra con índice cero
+	 */
+	public int getFirstSegmentOffset() {
+		return this.startIndex;
+	}
+	
+	/**
+	 * @post Devuelve la longitud del primer tramo
+	 */
+	public int getFirstSegmentLength() {
+		return this.samples.length - this.startIndex;
+	}
+	
+	/**
+	 * @post Devuelve la longitud del segundo tramo, que empieza en la posición
+	 * 		 cero del array
+	 */
+	public int getSecondSegmentLength() {
+		return this.startIndex;
+	}
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks;
+
+import com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer;
+
+/**
+ * Bloque que aplica un transformador de valor no lineal reduciendo el aliasing
+ * con sus primitivas (ADAA), sin sobremuestrear.
+ * En vez de transformar cada muestra, calcula el promedio de la transformación
+ * sobre el segmento entre muestras consecutivas, con una diferencia dividida
+ * de la primitiva (Primer orden), o de la primitiva segunda (Segundo orden).
+ * Cuando las muestras están tan cerca que la diferencia dividida pierde precisión
+ * aplica la transformación en el punto medio.
+ * En el segundo orden la primera diferencia dividida se reemplaza por la primitiva
+ * integrada con la regla de Simpson, para que su error no se amplifique al dividir
+ * por la diferencia entre muestras en la segunda.
+ * La salida tiene una latencia de getLatency() muestras
+ */
+public final class AntiderivativeAntialiasedInputOutputBlock extends DiscreteInputOutputBlock {
+	public enum Order {
+		/**
+		 * Primer orden, con latencia de media muestra
+		 */
+		FIRST,
+		
+		/**
+		 * Segundo orden, con latencia de una muestra.
+		 * Atenúa más el aliasing y las frecuencias altas
+		 */
+		SECOND
+	}
+	
+	/**
+	 * Diferencia mínima entre valores para usar las diferencias divididas
+	 * de primer orden
+	 */
+	private static final double FIRSTORDERTOLERANCE = 1e-6;
+	
+	/**
+	 * Diferencia mínima entre valores para usar las diferencias divididas
+	 * de segundo orden, que pierden precisión más rápido
+	 */
+	private static final double SECONDORDERTOLERANCE = 1e-4;
+	
+	private final IntegrableValueTransformer valueTransformer;
+	private final Order order;
+	
+	/**
+	 * Muestra de entrada anterior, y la que está dos muestras atrás
+	 */
+	private double previousValue, secondPreviousValue;
+	
+	/**
+	 * Primitiva (Primer orden) o primitiva segunda (Segundo orden)
+	 * de la muestra de entrada anterior
+	 */
+	private double previousAntiderivative;
+	
+	/**
+	 * Diferencia dividida de la primitiva segunda entre las dos muestras
+	 * de entrada anteriores (Segundo orden)
+	 */
+	private double previousDividedDifference;
+	
+	/**
+	 * @pre Ninguno de los parámetros puede ser nulo
+	 * @post Crea la fábrica con el transformador de valor y el orden especificados
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(final IntegrableValueTransformer valueTransformer, final Order order) {
+		if ( ( valueTransformer != null ) && ( order != null ) ) {
+			return new DiscreteInputOutputBlock.Factory() {
+				
+				@Override
+				public DiscreteInputOutputBlock create() {
+					return new AntiderivativeAntialiasedInputOutputBlock(valueTransformer, order);
+				}
+			};
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre Ninguno de los parámetros puede ser nulo
+	 * @post Crea el bloque con el transformador de valor y el orden especificados
+	 */
+	public AntiderivativeAntialiasedInputOutputBlock(IntegrableValueTransformer valueTransformer, Order order) {
+		if ( ( valueTransformer != null ) && ( order != null ) ) {
+			this.valueTransformer = valueTransformer;
+			this.order = order;
+			
+			this.resetState();
+			this.setProcessInputOutput();
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve el transformador de valor
+	 */
+	public IntegrableValueTransformer getValueTransformer() {
+		return this.valueTransformer;
+	}
+	
+	/**
+	 * @post Devuelve el orden
+	 */
+	public Order getOrder() {
+		return this.order;
+	}
+	
+	/**
+	 * @post Devuelve la latencia de la salida, en muestras
+	 */
+	public float getLatency() {
+		return ( this.order == Order.FIRST ) ? 0.5f : 1.0f;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		if ( this.order == Order.FIRST ) {
+			this.processFirstOrder(in, out, offset, length);
+		}
+		else {
+			this.processSecondOrder(in, out, offset, length);
+		}
+	}
+	
+	/**
+	 * @post Procesa con primer orden
+	 */
+	private void processFirstOrder(float[] in, float[] out, int offset, int length) {
+		final IntegrableValueTransformer valueTransformer = this.valueTransformer;
+		
+		double previousValue = this.previousValue;
+		double previousAntiderivative = this.previousAntiderivative;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			final double value = in[i];
+			final double antiderivative = valueTransformer.antiderivative(value);
+			final double difference = value - previousValue;
+			
+			if ( Math.abs(difference) > FIRSTORDERTOLERANCE ) {
+				out[i] = (float) ( ( antiderivative - previousAntiderivative ) / difference );
+			}
+			else {
+				out[i] = valueTransformer.transform( (float) ( ( value + previousValue ) / 2.0 ) );
+			}
+			
+			previousValue = value;
+			previousAntiderivative = antiderivative;
+		}
+		
+		this.previousValue = previousValue;
+		this.previousAntiderivative = previousAntiderivative;
+	}
+	
+	/**
+	 * @post Procesa con segundo orden
+	 */
+	private void processSecondOrder(float[] in, float[] out, int offset, int length) {
+		final IntegrableValueTransformer valueTransformer = this.valueTransformer;
+		
+		double previousValue = this.previousValue;
+		double secondPreviousValue = this.secondPreviousValue;
+		double previousAntiderivative = this.previousAntiderivative;
+		double previousDividedDifference = this.previousDividedDifference;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			final double value = in[i];
+			final double antiderivative = valueTransformer.secondAntiderivative(value);
+			
+			final double dividedDifference;
+			{
+				final double difference = value - previousValue;
+				
+				if ( Math.abs(difference) > SECONDORDERTOLERANCE ) {
+					dividedDifference = ( antiderivative - previousAntiderivative ) / difference;
+				}
+				else {
+					dividedDifference = ( valueTransformer.antiderivative(value) + 4.0 * valueTransformer.antiderivative( ( value + previousValue ) / 2.0 ) + valueTransformer.antiderivative(previousValue) ) / 6.0;
+				}
+			}
+			
+			final double difference = value - secondPreviousValue;
+			
+			if ( Math.abs(difference) > SECONDORDERTOLERANCE ) {
+				out[i] = (float) ( 2.0 * ( dividedDifference - previousDividedDifference ) / difference );
+			}
+			else {
+				final double meanValue = ( value + secondPreviousValue ) / 2.0;
+				final double meanDifference = meanValue - previousValue;
+				
+				if ( Math.abs(meanDifference) > SECONDORDERTOLERANCE ) {
+					out[i] = (float) ( 2.0 / meanDifference * ( valueTransformer.antiderivative(meanValue) + ( previousAntiderivative - valueTransformer.secondAntiderivative(meanValue) ) / meanDifference ) );
+				}
+				else {
+					out[i] = valueTransformer.transform( (float) ( ( meanValue + previousValue ) / 2.0 ) );
+				}
+			}
+			
+			secondPreviousValue = previousValue;
+			previousValue = value;
+			previousAntiderivative = antiderivative;
+			previousDividedDifference = dividedDifference;
+		}
+		
+		this.previousValue = previousValue;
+		this.secondPreviousValue = secondPreviousValue;
+		this.previousAntiderivative = previousAntiderivative;
+		this.previousDividedDifference = previousDividedDifference;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		this.previousValue = 0.0;
+		this.secondPreviousValue = 0.0;
+		
+		if ( this.order == Order.FIRST ) {
+			this.previousAntiderivative = this.valueTransformer.antiderivative(0.0);
+		}
+		else {
+			this.previousAntiderivative = this.valueTransformer.secondAntiderivative(0.0);
+		}
+		
+		this.previousDividedDifference = this.valueTransformer.antiderivative(0.0);
+	}
+}
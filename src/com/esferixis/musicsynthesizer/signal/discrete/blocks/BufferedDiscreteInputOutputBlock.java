@@ -31,56 +31,43 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 
-import java.util.AbstractList;
-import java.util.List;
+import java.util.Arrays;
 
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
+import com.esferixis.musicsynthesizer.signal.discrete.SampleHistory;
 
+/**
+ * Bloque discreto de entrada/salida que calcula cada valor a partir
+ * de las últimas muestras de entrada.
+ * Las muestras se guardan en un array circular en orden inverso, de forma
+ * que en el historial la muestra con índice cero es la más reciente
+ */
 public abstract class BufferedDiscreteInputOutputBlock extends DiscreteInputOutputBlock {
 	private final float[] samples;
-	private int inputIndex, outputIndex;
 	
 	/**
-	 * @pre La cantidad de muestras tiene que ser positiva, y
-	 * 		la entrada de excitación no puede ser nula
-	 * @post Crea un retardadador con la cantidad de muestras especificada
-	 * @param samples
+	 * Posición de la muestra más reciente
+	 */
+	private int newestIndex;
+	
+	private final SampleHistory oldValues = new SampleHistory();
+	
+	/**
+	 * @pre La cantidad de muestras tiene que ser positiva
+	 * @post Crea el bloque con la cantidad de muestras especificada
 	 */
 	public BufferedDiscreteInputOutputBlock(int samples) {
 		if ( samples > 0 ) {
 			this.samples = new float[samples];
-			this.inputIndex = 0;
-			this.outputIndex = 0;
+			this.newestIndex = 0;
+			this.oldValues.set(this.samples, this.newestIndex);
 			
 			this.setOutput( new DiscreteOutput() {
 
 				@Override
 				public float read() {
-					float value = BufferedDiscreteInputOutputBlock.this.calculateValue(new AbstractList<Float>() {
-
-						@Override
-						public Float get(int index) {
-							if ( ( index >= 0 ) && ( index < this.size() ) ) {
-								float value = BufferedDiscreteInputOutputBlock.this.samples[ ( BufferedDiscreteInputOutputBlock.this.inputIndex+BufferedDiscreteInputOutputBlock.this.samples.length-index ) % BufferedDiscreteInputOutputBlock.this.samples.length ];
-								
-								return value;
-							}
-							else {
-								throw new IndexOutOfBoundsException();
-							}
-						}
-
-						@Override
-						public int size() {
-							return BufferedDiscreteInputOutputBlock.this.samples.length;
-						}
-						
-					});
-					
-					BufferedDiscreteInputOutputBlock.this.inputIndex = (BufferedDiscreteInputOutputBlock.this.inputIndex+1) % BufferedDiscreteInputOutputBlock.this.samples.length;
-					
-					return value;
+					return BufferedDiscreteInputOutputBlock.this.calculateValue(BufferedDiscreteInputOutputBlock.this.oldValues);
 				}
 				
 			});
@@ -89,8 +76,7 @@ public abstract class BufferedDiscreteInputOutputBlock extends DiscreteInputOutp
 
 				@Override
 				public void write(float value) {
-					BufferedDiscreteInputOutputBlock.this.samples[BufferedDiscreteInputOutputBlock.this.outputIndex] = value;
-					BufferedDiscreteInputOutputBlock.this.outputIndex = (BufferedDiscreteInputOutputBlock.this.outputIndex+1) % BufferedDiscreteInputOutputBlock.this.samples.length;
+					BufferedDiscreteInputOutputBlock.this.push(value);
 				}
 				
 			});
@@ -101,9 +87,46 @@ public abstract class BufferedDiscreteInputOutputBlock extends DiscreteInputOutp
 	}
 	
 	/**
-	 * @pre La lista de valores anteriores no puede ser nula, y es de sólo
-	 * 		lectura
+	 * @post Agrega la muestra especificada como la más reciente
+	 */
+	private void push(float value) {
+		if ( this.newestIndex == 0 ) {
+			this.newestIndex = this.samples.length;
+		}
+		this.newestIndex--;
+		
+		this.samples[this.newestIndex] = value;
+		this.oldValues.set(this.samples, this.newestIndex);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			this.push(in[i]);
+			out[i] = this.calculateValue(this.oldValues);
+		}
+	}
+	
+	/**
+	 * @post Descarta las muestras anteriores.
+	 * 		 Las subclases con estado adicional tienen que redefinirlo,
+	 * 		 llamando a esta implementación
+	 */
+	@Override
+	protected void resetState() {
+		Arrays.fill(this.samples, 0.0f);
+		this.newestIndex = 0;
+		this.oldValues.set(this.samples, this.newestIndex);
+	}
+	
+	/**
+	 * @pre El historial de valores anteriores no puede ser nulo, es de sólo
+	 * 		lectura y sólo es válido durante la llamada.
+	 * 		La muestra con índice cero es la más reciente
 	 * @post Devuelve el valor con los valores anteriores especificados
 	 */
-	protected abstract float calculateValue(List<Float> oldValues);
+	protected abstract float calculateValue(SampleHistory oldValues);
 }
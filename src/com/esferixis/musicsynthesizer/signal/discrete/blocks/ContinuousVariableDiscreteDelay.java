@@ -31,6 +31,334 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 
-public final class ContinuousVariableDiscreteDelay {
+import java.util.Arrays;
+
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+
+/**
+ * Retardador con tiempo de retardo variable, controlado por una señal contínua.
+ * 
+ * La señal de control devuelve el retardo, en segundos, en función del tiempo,
+ * donde el instante cero es la primera muestra procesada. Se muestrea por bloques
+ * de CHUNKLENGTH muestras, con instantes de tiempo de precisión doble, así que el
+ * resultado no depende de cómo se divide la entrada al procesarla. El retardo se
+ * limita al rango admitido por el tipo de interpolación y el retardo máximo.
+ * Las muestras se guardan en un buffer circular cuyo tamaño es potencia de dos,
+ * para indexarlo con una máscara.
+ * 
+ * Es la base para efectos como chorus, vibrato y flanger modulado
+ */
+public final class ContinuousVariableDiscreteDelay extends DiscreteInputOutputBlock {
+	private static final int CHUNKLENGTH = 256;
+	
+	public enum Interpolation {
+		/**
+		 * Interpolación lineal entre las dos muestras más cercanas.
+		 * Retardo mínimo de cero muestras
+		 */
+		LINEAR,
+		
+		/**
+		 * Interpolación de Lagrange cúbica con las cuatro muestras más cercanas.
+		 * Retardo mínimo de una muestra
+		 */
+		LAGRANGE,
+		
+		/**
+		 * Filtro pasatodo de primer orden, que no atenúa las frecuencias altas
+		 * pero introduce transitorios cuando el retardo cambia rápidamente.
+		 * Retardo mínimo de media muestra
+		 */
+		ALLPASS
+	}
+	
+	private final ContinuousSignal delaySignal;
+	private final double sampleRate;
+	private final Interpolation interpolation;
+	
+	private final float[] samples;
+	private final int mask;
+	
+	/**
+	 * Retardos mínimo y máximo, en muestras
+	 */
+	private final float minDelaySamples;
+	private final float maxDelaySamples;
+	
+	/**
+	 * Retardos en muestras del bloque actual
+	 */
+	private final float[] delays = new float[CHUNKLENGTH];
+	
+	/**
+	 * Posición donde se va a escribir la próxima muestra
+	 */
+	private int writeIndex;
+	
+	/**
+	 * Índice de la próxima muestra a procesar
+	 */
+	private long sampleIndex;
+	
+	/**
+	 * Última muestra de entrada del pasatodo, y último valor devuelto por él
+	 */
+	private float allpassInput;
+	private float allpassOutput;
+	
+	/**
+	 * @pre La señal de retardo y el tipo de interpolación no pueden ser nulos,
+	 * 		y el retardo máximo y la frecuencia de muestreo tienen que ser positivos
+	 * @post Crea el retardador con la señal de retardo (En segundos), el retardo
+	 * 		 máximo (En segundos), la frecuencia de muestreo y el tipo de interpolación
+	 * 		 especificados
+	 */
+	public ContinuousVariableDiscreteDelay(ContinuousSignal delaySignal, float maxDelay, float sampleRate, Interpolation interpolation) {
+		if ( ( delaySignal != null ) && ( interpolation != null ) ) {
+			if ( maxDelay > 0.0f ) {
+				if ( sampleRate > 0.0f ) {
+					this.delaySignal = delaySignal;
+					this.sampleRate = sampleRate;
+					this.interpolation = interpolation;
+					
+					this.maxDelaySamples = (float) Math.ceil( (double) maxDelay * (double) sampleRate );
+					
+					switch ( interpolation ) {
+					case LINEAR:
+						this.minDelaySamples = 0.0f;
+						break;
+					case LAGRANGE:
+						this.minDelaySamples = 1.0f;
+						break;
+					case ALLPASS:
+						this.minDelaySamples = 0.5f;
+						break;
+					default:
+						throw new IllegalStateException("Unexpected interpolation");
+					}
+					
+					if ( this.maxDelaySamples < (float) ( ( 1 << 30 ) - 4 ) ) {
+						this.samples = new float[Integer.highestOneBit( (int) this.maxDelaySamples + 3 ) << 1];
+					}
+					else {
+						throw new IllegalArgumentException("Expected max delay smaller than 2^30 samples");
+					}
+					
+					this.mask = this.samples.length - 1;
+					
+					this.writeIndex = 0;
+					this.sampleIndex = 0;
+					this.allpassInput = 0.0f;
+					this.allpassOutput = 0.0f;
+					
+					this.setProcessInputOutput();
+				}
+				else {
+					throw new IllegalArgumentException("Expected positive sample rate");
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive max delay");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre La señal de retardo y el tipo de interpolación no pueden ser nulos,
+	 * 		y el retardo máximo y la frecuencia de muestreo tienen que ser positivos
+	 * @post Crea la fábrica con la señal de retardo (En segundos), el retardo
+	 * 		 máximo (En segundos), la frecuencia de muestreo y el tipo de interpolación
+	 * 		 especificados
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(final ContinuousSignal delaySignal, final float maxDelay, final float sampleRate, final Interpolation interpolation) {
+		if ( ( delaySignal != null ) && ( interpolation != null ) ) {
+			if ( maxDelay > 0.0f ) {
+				if ( sampleRate > 0.0f ) {
+					return new DiscreteInputOutputBlock.Factory() {
+						
+						@Override
+						public DiscreteInputOutputBlock create() {
+							return new ContinuousVariableDiscreteDelay(delaySignal, maxDelay, sampleRate, interpolation);
+						}
+					};
+				}
+				else {
+					throw new IllegalArgumentException("Expected positive sample rate");
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive max delay");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la señal de retardo
+	 */
+	public ContinuousSignal getDelaySignal() {
+		return this.delaySignal;
+	}
+	
+	/**
+	 * @post Devuelve el tipo de interpolación
+	 */
+	public Interpolation getInterpolation() {
+		return this.interpolation;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final float[] delays = this.delays;
+		final float sampleRate = (float) this.sampleRate;
+		final float minDelaySamples = this.minDelaySamples;
+		final float maxDelaySamples = this.maxDelaySamples;
+		
+		for ( int chunkOffset = offset ; chunkOffset < offset + length ; chunkOffset += CHUNKLENGTH ) {
+			final int chunkLength = Math.min(CHUNKLENGTH, offset + length - chunkOffset);
+			
+			this.delaySignal.getSampledValues(delays, 0, chunkLength, this.sampleIndex, this.sampleRate);
+			this.sampleIndex += chunkLength;
+			
+			for ( int i = 0 ; i < chunkLength ; i++ ) {
+				delays[i] = Math.min(Math.max(delays[i] * sampleRate, minDelaySamples), maxDelaySamples);
+			}
+			
+			switch ( this.interpolation ) {
+			case LINEAR:
+				this.processLinear(in, out, chunkOffset, chunkLength);
+				break;
+			case LAGRANGE:
+				this.processLagrange(in, out, chunkOffset, chunkLength);
+				break;
+			case ALLPASS:
+				this.processAllpass(in, out, chunkOffset, chunkLength);
+				break;
+			default:
+				throw new IllegalStateException("Unexpected interpolation");
+			}
+		}
+	}
+	
+	/**
+	 * @post Procesa el rango especificado con interpolación lineal
+	 */
+	private void processLinear(float[] in, float[] out, int offset, int length) {
+		final float[] samples = this.samples;
+		final float[] delays = this.delays;
+		final int mask = this.mask;
+		int writeIndex = this.writeIndex;
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			samples[writeIndex] = in[offset + i];
+			
+			final float delay = delays[i];
+			final int integerDelay = (int) delay;
+			final float fraction = delay - (float) integerDelay;
+			
+			final int readIndex = writeIndex - integerDelay;
+			final float x0 = samples[readIndex & mask];
+			final float x1 = samples[(readIndex - 1) & mask];
+			
+			out[offset + i] = x0 + ( x1 - x0 ) * fraction;
+			
+			writeIndex = (writeIndex + 1) & mask;
+		}
+		
+		this.writeIndex = writeIndex;
+	}
+	
+	/**
+	 * @post Procesa el rango especificado con interpolación de Lagrange cúbica
+	 */
+	private void processLagrange(float[] in, float[] out, int offset, int length) {
+		final float[] samples = this.samples;
+		final float[] delays = this.delays;
+		final int mask = this.mask;
+		int writeIndex = this.writeIndex;
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			samples[writeIndex] = in[offset + i];
+			
+			final float delay = delays[i];
+			final int integerDelay = (int) delay;
+			final float d = delay - (float) integerDelay;
+			
+			final int readIndex = writeIndex - integerDelay;
+			final float xm1 = samples[(readIndex + 1) & mask];
+			final float x0 = samples[readIndex & mask];
+			final float x1 = samples[(readIndex - 1) & mask];
+			final float x2 = samples[(readIndex - 2) & mask];
+			
+			final float dp1 = d + 1.0f;
+			final float dm1 = d - 1.0f;
+			final float dm2 = d - 2.0f;
+			
+			out[offset + i] =
+					- xm1 * d * dm1 * dm2 * ( 1.0f / 6.0f ) +
+					x0 * dp1 * dm1 * dm2 * 0.5f -
+					x1 * dp1 * d * dm2 * 0.5f +
+					x2 * dp1 * d * dm1 * ( 1.0f / 6.0f );
+			
+			writeIndex = (writeIndex + 1) & mask;
+		}
+		
+		this.writeIndex = writeIndex;
+	}
+	
+	/**
+	 * @post Procesa el rango especificado con interpolación pasatodo.
+	 * 		 La parte fraccionaria se toma entre 0.5 y 1.5 muestras,
+	 * 		 donde el coeficiente del filtro está bien condicionado
+	 */
+	private void processAllpass(float[] in, float[] out, int offset, int length) {
+		final float[] samples = this.samples;
+		final float[] delays = this.delays;
+		final int mask = this.mask;
+		int writeIndex = this.writeIndex;
+		float allpassInput = this.allpassInput;
+		float allpassOutput = this.allpassOutput;
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			samples[writeIndex] = in[offset + i];
+			
+			final float delay = delays[i];
+			final int integerDelay = (int) ( delay - 0.5f );
+			final float fraction = delay - (float) integerDelay;
+			final float eta = ( 1.0f - fraction ) / ( 1.0f + fraction );
+			
+			final float value = samples[(writeIndex - integerDelay) & mask];
+			
+			allpassOutput = eta * ( value - allpassOutput ) + allpassInput;
+			allpassInput = value;
+			
+			out[offset + i] = allpassOutput;
+			
+			writeIndex = (writeIndex + 1) & mask;
+		}
+		
+		this.writeIndex = writeIndex;
+		this.allpassInput = allpassInput;
+		this.allpassOutput = allpassOutput;
+	}
 	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		Arrays.fill(this.samples, 0.0f);
+		this.writeIndex = 0;
+		this.sampleIndex = 0;
+		this.allpassInput = 0.0f;
+		this.allpassOutput = 0.0f;
+	}
 }
@@ -31,10 +31,9 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 
-import java.util.List;
-
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
+import com.esferixis.musicsynthesizer.signal.discrete.SampleHistory;
 
 public final class DiscreteDelay extends BufferedDiscreteInputOutputBlock {
 	/**
@@ -48,10 +47,10 @@ public final class DiscreteDelay extends BufferedDiscreteInputOutputBlock {
 	}
 
 	/* (non-Javadoc)
-	 * @see com.arielcarrizo.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock#calculateValue(java.util.List)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock#calculateValue(com.esferixis.musicsynthesizer.signal.discrete.SampleHistory)
 	 */
 	@Override
-	protected float calculateValue(List<Float> oldValues) {
+	protected float calculateValue(SampleHistory oldValues) {
 		return oldValues.get(oldValues.size()-1);
 	}
 }
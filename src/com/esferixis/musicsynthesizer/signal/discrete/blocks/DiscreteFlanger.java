@@ -31,7 +31,7 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 
-import java.util.List;
+import com.esferixis.musicsynthesizer.signal.discrete.SampleHistory;
 
 public class DiscreteFlanger extends BufferedDiscreteInputOutputBlock {
 	/**
@@ -63,10 +63,10 @@ public class DiscreteFlanger extends BufferedDiscreteInputOutputBlock {
 	}
 
 	/* (non-Javadoc)
-	 * @see com.arielcarrizo.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock#calculateValue(java.util.List)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock#calculateValue(com.esferixis.musicsynthesizer.signal.discrete.SampleHistory)
 	 */
 	@Override
-	protected float calculateValue(List<Float> oldValues) {
+	protected float calculateValue(SampleHistory oldValues) {
 		return ( oldValues.get(0) + oldValues.get(oldValues.size()-1) ) / 2.0f;
 	}
 
@@ -31,13 +31,93 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * Bifurcador mezclador, que procesa la entrada con cada uno de los bloques
+ * y suma los resultados.
+ * 
+ * Opcionalmente puede procesar los bloques en paralelo con un ForkJoinPool,
+ * cuando el costo de la llamada (La cantidad de muestras multiplicada por
+ * la cantidad de bloques) no es menor que el umbral especificado.
+ * Los resultados se suman siempre en el mismo orden, y cada bloque recibe
+ * las muestras en los mismos tramos, así que el resultado es idéntico
+ * al del procesamiento secuencial
+ */
 public class DiscreteForkerMixerBlock extends DiscreteInputOutputBlock {
-	private float storedValue;
+	/**
+	 * Longitud de los tramos en los que se procesan los bloques de muestras
+	 */
+	private static final int CHUNKLENGTH = 256;
+	
+	/**
+	 * Longitud de los tramos que se procesan en paralelo
+	 */
+	private static final int PARALLELCHUNKLENGTH = 4096;
+	
+	/**
+	 * Umbral de costo por defecto para el procesamiento en paralelo,
+	 * en muestras por bloque
+	 */
+	public static final int DEFAULTPARALLELTHRESHOLD = 16384;
+	
 	private DiscreteInputOutputBlock[] blocks;
 	
+	private final float[] blockValues = new float[CHUNKLENGTH];
+	private final float[] mixedValues = new float[CHUNKLENGTH];
+	
+	/**
+	 * Pool para el procesamiento en paralelo, nulo si es secuencial
+	 */
+	private ForkJoinPool pool;
+	private int parallelThreshold;
+	
+	/**
+	 * Tareas de procesamiento en paralelo, una por bloque, y la tarea
+	 * que las ejecuta.
+	 * Se crean la primera vez que se usan, y se reutilizan
+	 */
+	private BranchTask[] branchTasks;
+	private RecursiveAction rootTask;
+	
+	/**
+	 * Tarea que procesa un tramo con uno de los bloques
+	 */
+	private static final class BranchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final DiscreteInputOutputBlock block;
+		private final float[] values = new float[PARALLELCHUNKLENGTH];
+		
+		private float[] in;
+		private int offset;
+		private int length;
+		
+		/**
+		 * @post Crea la tarea con el bloque especificado
+		 */
+		public BranchTask(DiscreteInputOutputBlock block) {
+			this.block = block;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			System.arraycopy(this.in, this.offset, this.values, 0, this.length);
+			
+			for ( int chunkOffset = 0 ; chunkOffset < this.length ; chunkOffset += CHUNKLENGTH ) {
+				this.block.uncheckedProcess(this.values, this.values, chunkOffset, Math.min(CHUNKLENGTH, this.length - chunkOffset));
+			}
+			
+			this.in = null;
+		}
+	}
+	
 	/**
 	 * @pre El array de fábricas no puede ser nulo, ni tampoco ninguno de sus elementos
 	 * @post Crea la fábrica con las fábricas especificadas
@@ -71,6 +151,36 @@ public class DiscreteForkerMixerBlock extends DiscreteInputOutputBlock {
 		}
 	}
 	
+	/**
+	 * @pre El pool y el array de fábricas no pueden ser nulos, ni tampoco ninguno
+	 * 		de sus elementos, y el umbral tiene que ser positivo
+	 * @post Crea la fábrica con las fábricas especificadas, cuyos bifurcadores
+	 * 		 mezcladores procesan en paralelo con el pool y el umbral de costo especificados
+	 */
+	public static DiscreteInputOutputBlock.Factory createParallelFactory(final ForkJoinPool pool, final int parallelThreshold, DiscreteInputOutputBlock.Factory... factories) {
+		if ( pool != null ) {
+			if ( parallelThreshold > 0 ) {
+				final DiscreteInputOutputBlock.Factory factory = createFactory(factories);
+				
+				return new DiscreteInputOutputBlock.Factory() {
+					
+					@Override
+					public DiscreteInputOutputBlock create() {
+						final DiscreteForkerMixerBlock block = (DiscreteForkerMixerBlock) factory.create();
+						block.setParallelProcessing(pool, parallelThreshold);
+						return block;
+					}
+				};
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive parallel threshold");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
 	/**
 	 * @pre El array de bloques no puede ser nulo ni tampoco ninguno
 	 * 		de ellos
@@ -89,33 +199,143 @@ public class DiscreteForkerMixerBlock extends DiscreteInputOutputBlock {
 			
 			this.blocks = blocks;
 			
-			this.setInput(new DiscreteInput() {
+			this.setProcessInputOutput();
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre El pool no puede ser nulo, y el umbral tiene que ser positivo
+	 * @post Procesa los bloques en paralelo con el pool especificado, en las
+	 * 		 llamadas cuyo costo (La cantidad de muestras multiplicada por la
+	 * 		 cantidad de bloques) no sea menor que el umbral especificado
+	 */
+	public void setParallelProcessing(ForkJoinPool pool, int parallelThreshold) {
+		if ( pool != null ) {
+			if ( parallelThreshold > 0 ) {
+				this.pool = pool;
+				this.parallelThreshold = parallelThreshold;
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive parallel threshold");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Procesa los bloques secuencialmente
+	 */
+	public void setSerialProcessing() {
+		this.pool = null;
+	}
+	
+	/**
+	 * @post Devuelve si procesa los bloques en paralelo
+	 */
+	public boolean isParallel() {
+		return this.pool != null;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		if ( ( this.pool != null ) && ( this.blocks.length > 1 ) && ( (long) length * (long) this.blocks.length >= (long) this.parallelThreshold ) ) {
+			this.parallelProcess(in, out, offset, length);
+		}
+		else {
+			this.serialProcess(in, out, offset, length);
+		}
+	}
+	
+	/**
+	 * @post Procesa el rango especificado con los bloques en paralelo
+	 */
+	private void parallelProcess(float[] in, float[] out, int offset, int length) {
+		if ( this.branchTasks == null ) {
+			final BranchTask[] branchTasks = new BranchTask[this.blocks.length];
+			
+			for ( int i = 0 ; i < branchTasks.length ; i++ ) {
+				branchTasks[i] = new BranchTask(this.blocks[i]);
+			}
+			
+			this.branchTasks = branchTasks;
+			this.rootTask = new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
 
 				@Override
-				public void write(float value) {
-					float resultValue = 0.0f;
-					
-					for ( DiscreteInputOutputBlock eachBlock : DiscreteForkerMixerBlock.this.blocks ) {
-						eachBlock.getInput().write(value);
-						resultValue += eachBlock.getOutput().read();
-					}
-					
-					DiscreteForkerMixerBlock.this.storedValue = resultValue;
+				protected void compute() {
+					ForkJoinTask.invokeAll(branchTasks);
 				}
 				
-			});
+			};
+		}
+		
+		final BranchTask[] branchTasks = this.branchTasks;
+		
+		for ( int chunkOffset = offset ; chunkOffset < offset + length ; chunkOffset += PARALLELCHUNKLENGTH ) {
+			final int chunkLength = Math.min(PARALLELCHUNKLENGTH, offset + length - chunkOffset);
 			
-			this.setOutput(new DiscreteOutput() {
-
-				@Override
-				public float read() {
-					return DiscreteForkerMixerBlock.this.storedValue;
+			for ( BranchTask eachTask : branchTasks ) {
+				eachTask.reinitialize();
+				eachTask.in = in;
+				eachTask.offset = chunkOffset;
+				eachTask.length = chunkLength;
+			}
+			
+			this.rootTask.reinitialize();
+			this.pool.invoke(this.rootTask);
+			
+			Arrays.fill(out, chunkOffset, chunkOffset + chunkLength, 0.0f);
+			
+			for ( BranchTask eachTask : branchTasks ) {
+				final float[] values = eachTask.values;
+				
+				for ( int i = 0 ; i < chunkLength ; i++ ) {
+					out[chunkOffset + i] += values[i];
 				}
+			}
+		}
+	}
+	
+	/**
+	 * @post Procesa el rango especificado con los bloques secuencialmente
+	 */
+	private void serialProcess(float[] in, float[] out, int offset, int length) {
+		final float[] blockValues = this.blockValues;
+		final float[] mixedValues = this.mixedValues;
+		
+		for ( int chunkOffset = offset ; chunkOffset < offset + length ; chunkOffset += CHUNKLENGTH ) {
+			final int chunkLength = Math.min(CHUNKLENGTH, offset + length - chunkOffset);
+			
+			Arrays.fill(mixedValues, 0, chunkLength, 0.0f);
+			
+			for ( DiscreteInputOutputBlock eachBlock : this.blocks ) {
+				System.arraycopy(in, chunkOffset, blockValues, 0, chunkLength);
+				eachBlock.uncheckedProcess(blockValues, blockValues, 0, chunkLength);
 				
-			});
+				for ( int i = 0 ; i < chunkLength ; i++ ) {
+					mixedValues[i] += blockValues[i];
+				}
+			}
+			
+			System.arraycopy(mixedValues, 0, out, chunkOffset, chunkLength);
 		}
-		else {
-			throw new NullPointerException();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		for ( DiscreteInputOutputBlock eachBlock : this.blocks ) {
+			eachBlock.reset();
 		}
 	}
 }
@@ -34,10 +34,28 @@ package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
 
+/**
+ * Bloque discreto de entrada/salida.
+ * 
+ * Se puede usar muestra por muestra, escribiendo en la entrada y leyendo
+ * de la salida, o por bloques de muestras con process().
+ * Los bloques que sólo definen la entrada y la salida se procesan por bloques
+ * muestra por muestra, y los que redefinen uncheckedProcess() pueden usar
+ * setProcessInputOutput() para obtener la entrada y la salida a partir de él.
+ * 
+ * Con reset() el bloque vuelve al estado en el que estaba al crearlo,
+ * así que se puede reutilizar en lugar de crear otro con la misma fábrica
+ */
 public abstract class DiscreteInputOutputBlock {
 	private DiscreteOutput output;
 	private DiscreteInput input;
 	
+	/**
+	 * Última muestra procesada por la entrada y la salida de setProcessInputOutput(),
+	 * nulo si no se usa
+	 */
+	private float[] processSample;
+	
 	public interface Factory {
 		public DiscreteInputOutputBlock create();
 	}
@@ -75,6 +93,92 @@ public abstract class DiscreteInputOutputBlock {
 		}
 	}
 	
+	/**
+	 * @post Inicializa la entrada y la salida de forma que cada valor escrito
+	 * 		 se procesa con uncheckedProcess(), y la salida devuelve el último valor
+	 * 		 procesado.
+	 * 		 Es para los bloques que redefinen uncheckedProcess()
+	 */
+	protected final void setProcessInputOutput() {
+		final float[] sample = new float[1];
+		this.processSample = sample;
+		
+		this.setInput(new DiscreteInput() {
+
+			@Override
+			public void write(float value) {
+				sample[0] = value;
+				DiscreteInputOutputBlock.this.uncheckedProcess(sample, sample, 0, 1);
+			}
+			
+		});
+		
+		this.setOutput(new DiscreteOutput() {
+
+			@Override
+			public float read() {
+				return sample[0];
+			}
+			
+		});
+	}
+	
+	/**
+	 * @pre Los arrays no pueden ser nulos, y el rango especificado tiene que estar
+	 * 		contenido en ambos. Pueden ser el mismo array
+	 * @post Procesa los valores del rango especificado del array de entrada,
+	 * 		 y escribe los resultados en el mismo rango del array de salida.
+	 * 		 Es equivalente a escribir cada valor en la entrada y leer el
+	 * 		 resultado de la salida
+	 */
+	public final void process(float[] in, float[] out, int offset, int length) {
+		if ( ( in != null ) && ( out != null ) ) {
+			if ( ( offset >= 0 ) && ( length >= 0 ) && ( length <= in.length - offset ) && ( length <= out.length - offset ) ) {
+				this.uncheckedProcess(in, out, offset, length);
+			}
+			else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Procesa los valores del rango especificado (Implementación interna).
+	 * 		 Por defecto escribe cada valor en la entrada y lee el resultado
+	 * 		 de la salida, las subclases pueden redefinirlo con una implementación
+	 * 		 más eficiente
+	 */
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final DiscreteInput input = this.input;
+		final DiscreteOutput output = this.output;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			input.write(in[i]);
+			out[i] = output.read();
+		}
+	}
+	
+	/**
+	 * @post Vuelve el bloque al estado en el que estaba al crearlo, descartando
+	 * 		 las muestras procesadas y conservando su configuración
+	 */
+	public final void reset() {
+		if ( this.processSample != null ) {
+			this.processSample[0] = 0.0f;
+		}
+		
+		this.resetState();
+	}
+	
+	/**
+	 * @post Vuelve el estado interno del bloque al que tenía al crearlo
+	 * 		 (Implementación interna)
+	 */
+	protected abstract void resetState();
+	
 	/**
 	 * @post Devuelve la entrada
 	 */
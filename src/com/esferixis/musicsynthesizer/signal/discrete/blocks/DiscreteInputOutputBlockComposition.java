@@ -34,8 +34,22 @@ package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
 import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
 
+/**
+ * Cadena de bloques, donde la salida de cada bloque es la entrada del siguiente.
+ * 
+ * Los bloques se guardan en un array plano, así que escribir una muestra
+ * no recorre una recursión de composiciones anidadas.
+ * Por bloques, procesa cada tramo de CHUNKLENGTH muestras con todas las etapas
+ * en orden, sobre el mismo array de salida, para que el tramo siga en caché
+ * entre una etapa y la siguiente
+ */
 public final class DiscreteInputOutputBlockComposition extends DiscreteInputOutputBlock {
-	private final DiscreteInputOutputBlock inBlock, outBlock;
+	/**
+	 * Longitud de los tramos en los que se procesan los bloques de muestras
+	 */
+	private static final int CHUNKLENGTH = 256;
+	
+	private final DiscreteInputOutputBlock[] blocks;
 	
 	/**
 	 * @pre Ninguna de las fábricas puede ser nula
@@ -64,21 +78,34 @@ public final class DiscreteInputOutputBlockComposition extends DiscreteInputOutp
 	 */
 	public static DiscreteInputOutputBlock.Factory createFactory(DiscreteInputOutputBlock.Factory... blocksFactory) {
 		if ( blocksFactory != null ) {
-			blocksFactory = blocksFactory.clone();
+			final DiscreteInputOutputBlock.Factory[] blocksFactory_new = blocksFactory.clone();
 			
-			DiscreteInputOutputBlock.Factory result;
+			for ( DiscreteInputOutputBlock.Factory eachFactory : blocksFactory_new ) {
+				if ( eachFactory == null ) {
+					throw new NullPointerException();
+				}
+			}
 			
-			if ( blocksFactory.length == 0 ) {
+			if ( blocksFactory_new.length == 0 ) {
 				throw new IllegalArgumentException("Expected one factory");
 			}
+			else if ( blocksFactory_new.length == 1 ) {
+				return blocksFactory_new[0];
+			}
 			else {
-				result = blocksFactory[blocksFactory.length-1];
-				
-				for ( int i = blocksFactory.length-2 ; i >= 0; i-- ) {
-					result = createFactory(blocksFactory[i], result);
-				}
-				
-				return result;
+				return new DiscreteInputOutputBlock.Factory() {
+					
+					@Override
+					public DiscreteInputOutputBlock create() {
+						final DiscreteInputOutputBlock[] blocks = new DiscreteInputOutputBlock[blocksFactory_new.length];
+						
+						for ( int i = 0 ; i < blocksFactory_new.length ; i++ ) {
+							blocks[i] = blocksFactory_new[i].create();
+						}
+						
+						return new DiscreteInputOutputBlockComposition(blocks);
+					}
+				};
 			}
 		}
 		else {
@@ -91,31 +118,93 @@ public final class DiscreteInputOutputBlockComposition extends DiscreteInputOutp
 	 * @post Crea la composición con el bloque de entrada y el de salida especificados
 	 */
 	public DiscreteInputOutputBlockComposition(DiscreteInputOutputBlock inBlock, DiscreteInputOutputBlock outBlock) {
-		if ( ( inBlock != null ) && ( outBlock != null ) ) {
-			this.inBlock = inBlock;
-			this.outBlock = outBlock;
+		this(new DiscreteInputOutputBlock[]{ inBlock, outBlock });
+	}
+	
+	/**
+	 * @pre El array de bloques no puede ser nulo, ni tampoco ninguno de sus elementos,
+	 * 		y tiene que tener por lo menos un elemento
+	 * @post Crea la cadena con los bloques especificados, en orden
+	 */
+	public DiscreteInputOutputBlockComposition(DiscreteInputOutputBlock... blocks) {
+		if ( blocks != null ) {
+			blocks = blocks.clone();
 			
-			this.setInput(new DiscreteInput() {
-
-				@Override
-				public void write(float value) {
-					DiscreteInputOutputBlockComposition.this.inBlock.getInput().write(value);
-					DiscreteInputOutputBlockComposition.this.outBlock.getInput().write(DiscreteInputOutputBlockComposition.this.inBlock.getOutput().read());
+			for ( DiscreteInputOutputBlock eachBlock : blocks ) {
+				if ( eachBlock == null ) {
+					throw new NullPointerException();
 				}
-				
-			});
+			}
 			
-			this.setOutput(new DiscreteOutput() {
-
-				@Override
-				public float read() {
-					return DiscreteInputOutputBlockComposition.this.outBlock.getOutput().read();
-				}
+			if ( blocks.length != 0 ) {
+				this.blocks = blocks;
 				
-			});
+				final DiscreteInputOutputBlock[] blocks_final = blocks;
+				final DiscreteOutput lastOutput = blocks[blocks.length-1].getOutput();
+				
+				this.setInput(new DiscreteInput() {
+	
+					@Override
+					public void write(float value) {
+						blocks_final[0].getInput().write(value);
+						
+						for ( int i = 1 ; i < blocks_final.length ; i++ ) {
+							blocks_final[i].getInput().write(blocks_final[i-1].getOutput().read());
+						}
+					}
+					
+				});
+				
+				this.setOutput(new DiscreteOutput() {
+	
+					@Override
+					public float read() {
+						return lastOutput.read();
+					}
+					
+				});
+			}
+			else {
+				throw new IllegalArgumentException("Expected one block");
+			}
 		}
 		else {
 			throw new NullPointerException();
 		}
 	}
+	
+	/**
+	 * @post Devuelve la cantidad de bloques
+	 */
+	public int getBlocksQuantity() {
+		return this.blocks.length;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final DiscreteInputOutputBlock[] blocks = this.blocks;
+		
+		for ( int chunkOffset = offset ; chunkOffset < offset + length ; chunkOffset += CHUNKLENGTH ) {
+			final int chunkLength = Math.min(CHUNKLENGTH, offset + length - chunkOffset);
+			
+			blocks[0].uncheckedProcess(in, out, chunkOffset, chunkLength);
+			
+			for ( int i = 1 ; i < blocks.length ; i++ ) {
+				blocks[i].uncheckedProcess(out, out, chunkOffset, chunkLength);
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		for ( DiscreteInputOutputBlock eachBlock : this.blocks ) {
+			eachBlock.reset();
+		}
+	}
 }
@@ -0,0 +1,583 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grafo acíclico de bloques, con nodos con nombre.
+ * 
+ * La entrada de cada nodo es la suma de las salidas de los nodos especificados
+ * (O de la entrada del grafo, con el nombre INPUT), y la salida de un nodo
+ * puede ser la entrada de varios nodos, así que se pueden expresar sumas y
+ * bifurcaciones arbitrarias, como compresión en paralelo o divisiones en
+ * bandas de frecuencia.
+ * 
+ * El grafo se compila una sóla vez, en un programa ordenado topológicamente
+ * que se ejecuta por tramos de CHUNKLENGTH muestras sin recorrer el grafo.
+ * Cada resultado intermedio ocupa un buffer sólo mientras algún nodo posterior
+ * lo necesite, y después se reutiliza, así que la cantidad de buffers es la
+ * cantidad máxima de resultados vivos a la vez
+ */
+public final class DiscreteInputOutputBlockGraph extends DiscreteInputOutputBlock {
+	/**
+	 * Nombre de la entrada del grafo
+	 */
+	public static final String INPUT = "input";
+	
+	/**
+	 * Longitud de los tramos en los que se procesan los bloques de muestras
+	 */
+	private static final int CHUNKLENGTH = 256;
+	
+	/**
+	 * Índice de buffer que representa la entrada del grafo
+	 */
+	private static final int INPUTBUFFER = -1;
+	
+	/**
+	 * Constructor de grafos
+	 */
+	public static final class Builder {
+		private final Map<String, Integer> nodeIndexByName;
+		private final List<String> nodeNames;
+		private final List<DiscreteInputOutputBlock.Factory> nodeFactories;
+		private final List<String[]> nodeInputNames;
+		
+		private String[] outputNames;
+		
+		/**
+		 * @post Crea el constructor de grafos, sin nodos
+		 */
+		public Builder() {
+			this.nodeIndexByName = new HashMap<String, Integer>();
+			this.nodeNames = new ArrayList<String>();
+			this.nodeFactories = new ArrayList<DiscreteInputOutputBlock.Factory>();
+			this.nodeInputNames = new ArrayList<String[]>();
+			this.outputNames = null;
+		}
+		
+		/**
+		 * @pre El nombre, la fábrica y los nombres de las entradas no pueden ser nulos,
+		 * 		tiene que haber por lo menos una entrada, y no puede haber otro nodo
+		 * 		con el mismo nombre
+		 * @post Agrega un nodo con el nombre especificado, cuya entrada es la suma
+		 * 		 de las salidas de los nodos especificados, y la procesa con un bloque
+		 * 		 creado con la fábrica especificada.
+		 * 		 Los nodos de entrada pueden agregarse después
+		 */
+		public Builder addBlock(String name, DiscreteInputOutputBlock.Factory blockFactory, String... inputNames) {
+			if ( blockFactory != null ) {
+				this.addNode(name, blockFactory, inputNames);
+			}
+			else {
+				throw new NullPointerException();
+			}
+			
+			return this;
+		}
+		
+		/**
+		 * @pre El nombre y los nombres de las entradas no pueden ser nulos,
+		 * 		tiene que haber por lo menos una entrada, y no puede haber otro nodo
+		 * 		con el mismo nombre
+		 * @post Agrega un nodo con el nombre especificado, cuya salida es la suma
+		 * 		 de las salidas de los nodos especificados.
+		 * 		 Los nodos de entrada pueden agregarse después
+		 */
+		public Builder addSum(String name, String... inputNames) {
+			this.addNode(name, null, inputNames);
+			
+			return this;
+		}
+		
+		/**
+		 * @pre Los nombres no pueden ser nulos, y tiene que haber por lo menos uno
+		 * @post Especifica que la salida del grafo es la suma de las salidas
+		 * 		 de los nodos especificados
+		 */
+		public Builder setOutput(String... outputNames) {
+			this.outputNames = checkNames(outputNames);
+			
+			return this;
+		}
+		
+		/**
+		 * @post Agrega el nodo especificado
+		 */
+		private void addNode(String name, DiscreteInputOutputBlock.Factory blockFactory, String[] inputNames) {
+			if ( name != null ) {
+				inputNames = checkNames(inputNames);
+				
+				if ( name.equals(INPUT) ) {
+					throw new IllegalArgumentException("Node name '" + INPUT + "' is reserved for the graph input");
+				}
+				else if ( this.nodeIndexByName.containsKey(name) ) {
+					throw new IllegalArgumentException("Duplicated node name '" + name + "'");
+				}
+				else {
+					this.nodeIndexByName.put(name, this.nodeNames.size());
+					this.nodeNames.add(name);
+					this.nodeFactories.add(blockFactory);
+					this.nodeInputNames.add(inputNames);
+				}
+			}
+			else {
+				throw new NullPointerException();
+			}
+		}
+		
+		/**
+		 * @post Verifica y devuelve una copia de los nombres especificados
+		 */
+		private static String[] checkNames(String[] names) {
+			if ( names != null ) {
+				names = names.clone();
+				
+				for ( String eachName : names ) {
+					if ( eachName == null ) {
+						throw new NullPointerException();
+					}
+				}
+				
+				if ( names.length != 0 ) {
+					return names;
+				}
+				else {
+					throw new IllegalArgumentException("Expected at least one name");
+				}
+			}
+			else {
+				throw new NullPointerException();
+			}
+		}
+		
+		/**
+		 * @post Devuelve el índice del nodo con el nombre especificado,
+		 * 		 o INPUTBUFFER si es la entrada del grafo
+		 */
+		private int getNodeIndex(String name) {
+			if ( name.equals(INPUT) ) {
+				return INPUTBUFFER;
+			}
+			else {
+				final Integer index = this.nodeIndexByName.get(name);
+				
+				if ( index != null ) {
+					return index;
+				}
+				else {
+					throw new IllegalArgumentException("Unknown node '" + name + "'");
+				}
+			}
+		}
+		
+		/**
+		 * @pre Tiene que haberse especificado la salida, todos los nombres
+		 * 		tienen que corresponder a nodos existentes, y el grafo no puede
+		 * 		tener ciclos
+		 * @post Compila el grafo y crea una fábrica de grafos.
+		 * 		 Los nodos que no influyen en la salida se descartan.
+		 * 		 Los cambios posteriores en el constructor no afectan a la fábrica
+		 */
+		public DiscreteInputOutputBlock.Factory createFactory() {
+			if ( this.outputNames != null ) {
+				final Program program = this.compile();
+				
+				return new DiscreteInputOutputBlock.Factory() {
+					
+					@Override
+					public DiscreteInputOutputBlock create() {
+						return new DiscreteInputOutputBlockGraph(program);
+					}
+				};
+			}
+			else {
+				throw new IllegalStateException("Expected graph output");
+			}
+		}
+		
+		/**
+		 * @post Compila el grafo
+		 */
+		private Program compile() {
+			final int nodesQuantity = this.nodeNames.size();
+			
+			final int[][] nodeInputs = new int[nodesQuantity][];
+			for ( int i = 0 ; i < nodesQuantity ; i++ ) {
+				final String[] inputNames = this.nodeInputNames.get(i);
+				nodeInputs[i] = new int[inputNames.length];
+				
+				for ( int j = 0 ; j < inputNames.length ; j++ ) {
+					nodeInputs[i][j] = this.getNodeIndex(inputNames[j]);
+				}
+			}
+			
+			final int[] outputNodes = new int[this.outputNames.length];
+			for ( int i = 0 ; i < outputNodes.length ; i++ ) {
+				outputNodes[i] = this.getNodeIndex(this.outputNames[i]);
+			}
+			
+			// Marca los nodos que influyen en la salida
+			final boolean[] live = new boolean[nodesQuantity];
+			{
+				final int[] pending = new int[nodesQuantity];
+				int pendingQuantity = 0;
+				
+				for ( int eachNode : outputNodes ) {
+					if ( ( eachNode != INPUTBUFFER ) && !live[eachNode] ) {
+						live[eachNode] = true;
+						pending[pendingQuantity++] = eachNode;
+					}
+				}
+				
+				while ( pendingQuantity != 0 ) {
+					final int node = pending[--pendingQuantity];
+					
+					for ( int eachInput : nodeInputs[node] ) {
+						if ( ( eachInput != INPUTBUFFER ) && !live[eachInput] ) {
+							live[eachInput] = true;
+							pending[pendingQuantity++] = eachInput;
+						}
+					}
+				}
+			}
+			
+			// Ordena topológicamente los nodos vivos, respetando el orden de inserción
+			final int[] order;
+			{
+				final int[] unresolvedInputs = new int[nodesQuantity];
+				final List<List<Integer>> consumers = new ArrayList<List<Integer>>(nodesQuantity);
+				int liveQuantity = 0;
+				
+				for ( int i = 0 ; i < nodesQuantity ; i++ ) {
+					consumers.add(new ArrayList<Integer>());
+				}
+				
+				for ( int i = 0 ; i < nodesQuantity ; i++ ) {
+					if ( live[i] ) {
+						liveQuantity++;
+						
+						for ( int eachInput : nodeInputs[i] ) {
+							if ( eachInput != INPUTBUFFER ) {
+								unresolvedInputs[i]++;
+								consumers.get(eachInput).add(i);
+							}
+						}
+					}
+				}
+				
+				order = new int[liveQuantity];
+				final boolean[] scheduled = new boolean[nodesQuantity];
+				int orderQuantity = 0;
+				boolean progress = true;
+				
+				while ( progress ) {
+					progress = false;
+					
+					for ( int i = 0 ; i < nodesQuantity ; i++ ) {
+						if ( live[i] && !scheduled[i] && ( unresolvedInputs[i] == 0 ) ) {
+							scheduled[i] = true;
+							order[orderQuantity++] = i;
+							progress = true;
+							
+							for ( int eachConsumer : consumers.get(i) ) {
+								unresolvedInputs[eachConsumer]--;
+							}
+						}
+					}
+				}
+				
+				if ( orderQuantity != liveQuantity ) {
+					throw new IllegalArgumentException("Expected acyclic graph");
+				}
+			}
+			
+			// Calcula el último paso que usa cada nodo
+			final int[] lastUse = new int[nodesQuantity];
+			
+			for ( int step = 0 ; step < order.length ; step++ ) {
+				for ( int eachInput : nodeInputs[order[step]] ) {
+					if ( eachInput != INPUTBUFFER ) {
+						lastUse[eachInput] = step;
+					}
+				}
+			}
+			
+			for ( int eachNode : outputNodes ) {
+				if ( eachNode != INPUTBUFFER ) {
+					lastUse[eachNode] = order.length;
+				}
+			}
+			
+			// Asigna los buffers
+			final int[] bufferByNode = new int[nodesQuantity];
+			final int[] freeBuffers = new int[order.length];
+			int freeBuffersQuantity = 0;
+			int buffersQuantity = 0;
+			
+			final DiscreteInputOutputBlock.Factory[] stepFactories = new DiscreteInputOutputBlock.Factory[order.length];
+			final int[][] stepInputBuffers = new int[order.length][];
+			final int[] stepOutputBuffers = new int[order.length];
+			
+			for ( int step = 0 ; step < order.length ; step++ ) {
+				final int node = order[step];
+				final int[] inputs = nodeInputs[node];
+				
+				final int firstInput = inputs[0];
+				boolean reuseFirstInput = ( firstInput != INPUTBUFFER ) && ( lastUse[firstInput] == step );
+				for ( int j = 1 ; j < inputs.length ; j++ ) {
+					reuseFirstInput = reuseFirstInput && ( inputs[j] != firstInput );
+				}
+				
+				final int outputBuffer;
+				if ( reuseFirstInput ) {
+					outputBuffer = bufferByNode[firstInput];
+				}
+				else if ( freeBuffersQuantity != 0 ) {
+					outputBuffer = freeBuffers[--freeBuffersQuantity];
+				}
+				else {
+					outputBuffer = buffersQuantity++;
+				}
+				
+				stepFactories[step] = this.nodeFactories.get(node);
+				stepInputBuffers[step] = new int[inputs.length];
+				for ( int j = 0 ; j < inputs.length ; j++ ) {
+					stepInputBuffers[step][j] = ( inputs[j] != INPUTBUFFER ) ? bufferByNode[inputs[j]] : INPUTBUFFER;
+				}
+				stepOutputBuffers[step] = outputBuffer;
+				bufferByNode[node] = outputBuffer;
+				
+				// Libera los buffers de las entradas que no se vuelven a usar
+				for ( int j = 0 ; j < inputs.length ; j++ ) {
+					final int eachInput = inputs[j];
+					
+					if ( ( eachInput != INPUTBUFFER ) && ( lastUse[eachInput] == step ) && !( reuseFirstInput && ( eachInput == firstInput ) ) ) {
+						boolean repeated = false;
+						for ( int k = 0 ; k < j ; k++ ) {
+							repeated = repeated || ( inputs[k] == eachInput );
+						}
+						
+						if ( !repeated ) {
+							freeBuffers[freeBuffersQuantity++] = bufferByNode[eachInput];
+						}
+					}
+				}
+			}
+			
+			final int[] outputBuffers = new int[outputNodes.length];
+			for ( int i = 0 ; i < outputNodes.length ; i++ ) {
+				outputBuffers[i] = ( outputNodes[i] != INPUTBUFFER ) ? bufferByNode[outputNodes[i]] : INPUTBUFFER;
+			}
+			
+			return new Program(stepFactories, stepInputBuffers, stepOutputBuffers, outputBuffers, buffersQuantity);
+		}
+	}
+	
+	/**
+	 * Programa compilado, compartido entre los grafos creados por la misma fábrica
+	 */
+	private static final class Program {
+		/**
+		 * Fábrica del bloque de cada paso, o nulo si el paso sólo suma
+		 */
+		private final DiscreteInputOutputBlock.Factory[] stepFactories;
+		
+		/**
+		 * Buffers de entrada y de salida de cada paso
+		 */
+		private final int[][] stepInputBuffers;
+		private final int[] stepOutputBuffers;
+		
+		/**
+		 * Buffers que se suman en la salida
+		 */
+		private final int[] outputBuffers;
+		
+		private final int buffersQuantity;
+		
+		/**
+		 * @post Crea el programa con los parámetros especificados
+		 */
+		public Program(DiscreteInputOutputBlock.Factory[] stepFactories, int[][] stepInputBuffers, int[] stepOutputBuffers, int[] outputBuffers, int buffersQuantity) {
+			this.stepFactories = stepFactories;
+			this.stepInputBuffers = stepInputBuffers;
+			this.stepOutputBuffers = stepOutputBuffers;
+			this.outputBuffers = outputBuffers;
+			this.buffersQuantity = buffersQuantity;
+		}
+	}
+	
+	private final Program program;
+	
+	/**
+	 * Bloque de cada paso, o nulo si el paso sólo suma
+	 */
+	private final DiscreteInputOutputBlock[] stepBlocks;
+	
+	private final float[][] buffers;
+	
+	/**
+	 * Suma de las salidas, se calcula aparte porque la salida puede ser
+	 * el mismo array que la entrada
+	 */
+	private final float[] mixedValues = new float[CHUNKLENGTH];
+	
+	/**
+	 * @post Crea el grafo con el programa especificado
+	 */
+	private DiscreteInputOutputBlockGraph(Program program) {
+		this.program = program;
+		
+		this.stepBlocks = new DiscreteInputOutputBlock[program.stepFactories.length];
+		for ( int i = 0 ; i < this.stepBlocks.length ; i++ ) {
+			if ( program.stepFactories[i] != null ) {
+				this.stepBlocks[i] = program.stepFactories[i].create();
+			}
+		}
+		
+		this.buffers = new float[program.buffersQuantity][CHUNKLENGTH];
+		
+		this.setProcessInputOutput();
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de buffers intermedios
+	 */
+	public int getBuffersQuantity() {
+		return this.buffers.length;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de pasos del programa
+	 */
+	public int getStepsQuantity() {
+		return this.stepBlocks.length;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final Program program = this.program;
+		final float[][] buffers = this.buffers;
+		
+		for ( int chunkOffset = offset ; chunkOffset < offset + length ; chunkOffset += CHUNKLENGTH ) {
+			final int chunkLength = Math.min(CHUNKLENGTH, offset + length - chunkOffset);
+			
+			for ( int step = 0 ; step < this.stepBlocks.length ; step++ ) {
+				final int[] inputBuffers = program.stepInputBuffers[step];
+				final int outputBuffer = program.stepOutputBuffers[step];
+				final float[] values = buffers[outputBuffer];
+				
+				if ( inputBuffers[0] == INPUTBUFFER ) {
+					System.arraycopy(in, chunkOffset, values, 0, chunkLength);
+				}
+				else if ( inputBuffers[0] != outputBuffer ) {
+					System.arraycopy(buffers[inputBuffers[0]], 0, values, 0, chunkLength);
+				}
+				
+				for ( int j = 1 ; j < inputBuffers.length ; j++ ) {
+					if ( inputBuffers[j] == INPUTBUFFER ) {
+						for ( int i = 0 ; i < chunkLength ; i++ ) {
+							values[i] += in[chunkOffset + i];
+						}
+					}
+					else {
+						final float[] inputValues = buffers[inputBuffers[j]];
+						
+						for ( int i = 0 ; i < chunkLength ; i++ ) {
+							values[i] += inputValues[i];
+						}
+					}
+				}
+				
+				final DiscreteInputOutputBlock block = this.stepBlocks[step];
+				if ( block != null ) {
+					block.uncheckedProcess(values, values, 0, chunkLength);
+				}
+			}
+			
+			this.mixOutput(in, out, chunkOffset, chunkLength);
+		}
+	}
+	
+	/**
+	 * @post Escribe la suma de las salidas en el tramo especificado
+	 */
+	private void mixOutput(float[] in, float[] out, int chunkOffset, int chunkLength) {
+		final int[] outputBuffers = this.program.outputBuffers;
+		final float[] mixedValues = this.mixedValues;
+		
+		for ( int j = 0 ; j < outputBuffers.length ; j++ ) {
+			final float[] values;
+			final int valuesOffset;
+			
+			if ( outputBuffers[j] == INPUTBUFFER ) {
+				values = in;
+				valuesOffset = chunkOffset;
+			}
+			else {
+				values = this.buffers[outputBuffers[j]];
+				valuesOffset = 0;
+			}
+			
+			if ( j == 0 ) {
+				System.arraycopy(values, valuesOffset, mixedValues, 0, chunkLength);
+			}
+			else {
+				for ( int i = 0 ; i < chunkLength ; i++ ) {
+					mixedValues[i] += values[valuesOffset + i];
+				}
+			}
+		}
+		
+		System.arraycopy(mixedValues, 0, out, chunkOffset, chunkLength);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		for ( DiscreteInputOutputBlock eachBlock : this.stepBlocks ) {
+			if ( eachBlock != null ) {
+				eachBlock.reset();
+			}
+		}
+	}
+}
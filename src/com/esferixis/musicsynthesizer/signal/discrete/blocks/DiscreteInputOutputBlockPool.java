@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fábrica de bloques que reutiliza los bloques liberados, en lugar de crear
+ * otros con la misma configuración.
+ * 
+ * Los bloques liberados se reinician con reset(), y se guardan hasta la
+ * cantidad máxima especificada. Se puede usar desde varios hilos a la vez
+ */
+public final class DiscreteInputOutputBlockPool implements DiscreteInputOutputBlock.Factory {
+	/**
+	 * Cantidad máxima de bloques guardados por defecto
+	 */
+	public static final int DEFAULTMAXPOOLEDBLOCKS = 16;
+	
+	private final DiscreteInputOutputBlock.Factory factory;
+	private final int maxPooledBlocks;
+	
+	private final List<DiscreteInputOutputBlock> pooledBlocks;
+	
+	/**
+	 * @pre La fábrica no puede ser nula, y la cantidad máxima de bloques guardados
+	 * 		tiene que ser positiva
+	 * @post Crea el pool con la fábrica y la cantidad máxima de bloques guardados
+	 * 		 especificados
+	 */
+	public DiscreteInputOutputBlockPool(DiscreteInputOutputBlock.Factory factory, int maxPooledBlocks) {
+		if ( factory != null ) {
+			if ( maxPooledBlocks > 0 ) {
+				this.factory = factory;
+				this.maxPooledBlocks = maxPooledBlocks;
+				this.pooledBlocks = new ArrayList<DiscreteInputOutputBlock>();
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive max pooled blocks");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre La fábrica no puede ser nula
+	 * @post Crea el pool con la fábrica especificada, y la cantidad máxima
+	 * 		 de bloques guardados por defecto
+	 */
+	public DiscreteInputOutputBlockPool(DiscreteInputOutputBlock.Factory factory) {
+		this(factory, DEFAULTMAXPOOLEDBLOCKS);
+	}
+	
+	/**
+	 * @post Devuelve un bloque guardado, o si no hay ninguno crea uno con la fábrica
+	 */
+	@Override
+	public DiscreteInputOutputBlock create() {
+		synchronized ( this.pooledBlocks ) {
+			if ( !this.pooledBlocks.isEmpty() ) {
+				return this.pooledBlocks.remove(this.pooledBlocks.size()-1);
+			}
+		}
+		
+		return this.factory.create();
+	}
+	
+	/**
+	 * @pre El bloque no puede ser nulo, tiene que haber sido creado por el pool,
+	 * 		y no puede usarse después de liberarlo
+	 * @post Reinicia el bloque y lo guarda para reutilizarlo, si no se llegó
+	 * 		 a la cantidad máxima de bloques guardados
+	 */
+	public void release(DiscreteInputOutputBlock block) {
+		if ( block != null ) {
+			block.reset();
+			
+			synchronized ( this.pooledBlocks ) {
+				if ( this.pooledBlocks.size() < this.maxPooledBlocks ) {
+					this.pooledBlocks.add(block);
+				}
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la fábrica de los bloques
+	 */
+	public DiscreteInputOutputBlock.Factory getFactory() {
+		return this.factory;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de bloques guardados
+	 */
+	public int getPooledBlocksQuantity() {
+		synchronized ( this.pooledBlocks ) {
+			return this.pooledBlocks.size();
+		}
+	}
+}
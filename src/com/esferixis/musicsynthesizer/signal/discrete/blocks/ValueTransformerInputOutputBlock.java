@@ -31,12 +31,11 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks;
 
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
 import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
 
 public final class ValueTransformerInputOutputBlock extends DiscreteInputOutputBlock {
-	private float storedValue;
+	private final ValueTransformer valueTransformer;
 	
 	/**
 	 * @pre El transformador de valor no puede ser nulo
@@ -58,27 +57,52 @@ public final class ValueTransformerInputOutputBlock extends DiscreteInputOutputB
 	}
 	
 	/**
+	 * @pre El transformador de valor y el rango no pueden ser nulos, el rango
+	 * 		tiene que ser finito y de longitud positiva, y la resolución tiene
+	 * 		que ser positiva
+	 * @post Crea la fábrica con la tabulación del transformador de valor especificado
+	 * 		 en el rango de entrada y con la resolución especificados.
+	 * 		 Todos los bloques comparten la misma tabla
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(final ValueTransformer valueTransformer, FloatClosedInterval inputRange, int resolution) {
+		if ( valueTransformer != null ) {
+			return createFactory( valueTransformer.tabulate(inputRange, resolution) );
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre El transformador de valor no puede ser nulo
 	 * @post Crea un bloque con el transformador de valor especificado
 	 */
 	public ValueTransformerInputOutputBlock(final ValueTransformer valueTransformer) {
 		if ( valueTransformer != null ) {
-			this.setInput(new DiscreteInput() {
-	
-				@Override
-				public void write(float value) {
-					ValueTransformerInputOutputBlock.this.storedValue = valueTransformer.transform(value);
-				}
-				
-			});
-			
-			this.setOutput(new DiscreteOutput() {
+			this.valueTransformer = valueTransformer;
+			this.setProcessInputOutput();
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
 	
-				@Override
-				public float read() {
-					return ValueTransformerInputOutputBlock.this.storedValue;
-				}
-				
-			});
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		if ( in != out ) {
+			System.arraycopy(in, offset, out, offset, length);
 		}
+		
+		this.valueTransformer.transform(out, offset, length);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
 	}
 }
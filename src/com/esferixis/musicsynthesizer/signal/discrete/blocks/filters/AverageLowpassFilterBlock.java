@@ -31,18 +31,23 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
 
-import java.util.List;
-
-import com.esferixis.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
 
-public final class AverageLowpassFilterBlock extends BufferedDiscreteInputOutputBlock {
-
+/**
+ * Filtro pasabajos que devuelve el promedio de las últimas muestras.
+ * Usa una suma acumulada, así que el costo por muestra es constante
+ */
+public final class AverageLowpassFilterBlock extends DiscreteInputOutputBlock {
+	private final RunningAverage average;
+	
 	/**
-	 * @param samples
+	 * @pre La cantidad de muestras tiene que ser positiva
+	 * @post Crea el filtro con la cantidad de muestras especificada
 	 */
 	public AverageLowpassFilterBlock(int samples) {
-		super(samples);
+		this.average = new RunningAverage(samples);
+		
+		this.setProcessInputOutput();
 	}
 	
 	/**
@@ -63,19 +68,27 @@ public final class AverageLowpassFilterBlock extends BufferedDiscreteInputOutput
 			throw new IllegalArgumentException();
 		}
 	}
+	
+	/**
+	 * @post Devuelve la cantidad de muestras
+	 */
+	public int getSamples() {
+		return this.average.size();
+	}
 
 	/* (non-Javadoc)
-	 * @see com.arielcarrizo.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock#calculateValue(java.util.List)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
 	 */
 	@Override
-	protected float calculateValue(List<Float> oldValues) {
-		float result = 0.0f;
-		
-		for ( int i = 0 ; i<oldValues.size() ; i++ ) {
-			result += oldValues.get(i) / (float) oldValues.size();
-		}
-		
-		return result;
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		this.average.process(in, out, offset, length);
 	}
 	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		this.average.reset();
+	}
 }
@@ -0,0 +1,431 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+
+/**
+ * Filtro IIR de segundo orden (Biquad), con los coeficientes de
+ * "Cookbook formulae for audio EQ biquad filter coefficients" (Robert Bristow-Johnson).
+ * 
+ * Los coeficientes sólo se recalculan cuando cambian los parámetros.
+ * Los cambios de frecuencia de corte no se aplican de golpe, sino con una
+ * rampa lineal de RAMPLENGTH muestras, recalculando los coeficientes cada
+ * RAMPCHUNKLENGTH muestras, para evitar discontinuidades audibles.
+ * Fuera de las rampas el costo por muestra es de cinco multiplicaciones y
+ * cuatro sumas (Forma directa II transpuesta)
+ */
+public final class BiquadFilterBlock extends FrequencyFilterBlock {
+	/**
+	 * Duración de la rampa de frecuencia de corte, en muestras
+	 */
+	public static final int RAMPLENGTH = 256;
+	
+	/**
+	 * Cantidad de muestras que se procesan con los mismos coeficientes
+	 * durante una rampa
+	 */
+	private static final int RAMPCHUNKLENGTH = 32;
+	
+	public enum Type {
+		LOWPASS,
+		HIGHPASS,
+		/**
+		 * Pasabanda con ganancia unitaria en el pico
+		 */
+		BANDPASS,
+		NOTCH,
+		/**
+		 * Pico de la ganancia especificada alrededor de la frecuencia de corte
+		 */
+		PEAKING,
+		/**
+		 * Estante de la ganancia especificada debajo de la frecuencia de corte
+		 */
+		LOWSHELF,
+		/**
+		 * Estante de la ganancia especificada arriba de la frecuencia de corte
+		 */
+		HIGHSHELF
+	}
+	
+	private final Type type;
+	private float q;
+	private float gainDecibels;
+	
+	private float b0, b1, b2, a1, a2;
+	private float z1, z2;
+	
+	/**
+	 * Frecuencia con la que se calcularon los coeficientes
+	 */
+	private float currentFrequency;
+	
+	/**
+	 * Frecuencia destino de la rampa
+	 */
+	private float targetFrequency;
+	
+	/**
+	 * Muestras que faltan para terminar la rampa
+	 */
+	private int rampRemainingSamples;
+	
+	/**
+	 * Muestras que faltan para el próximo paso de la rampa
+	 */
+	private int chunkRemainingSamples;
+	
+	private boolean coefficientsOutdated;
+	
+	/**
+	 * @pre El tipo no puede ser nulo, la frecuencia relativa tiene que estar
+	 * 		entre 0 y 0.5 (Excluyendo ambos), y el factor de calidad tiene que ser positivo
+	 * @post Crea el filtro con el tipo, la frecuencia relativa, el factor de calidad,
+	 * 		 y la ganancia en decibeles especificados.
+	 * 		 Donde 1.0 representa la frecuencia de muestreo.
+	 * 		 La ganancia sólo se usa en los tipos PEAKING, LOWSHELF y HIGHSHELF
+	 */
+	public BiquadFilterBlock(Type type, float relativeCutoffFrequency, float q, float gainDecibels) {
+		super(checkFrequency(relativeCutoffFrequency));
+		
+		if ( type != null ) {
+			if ( q > 0.0f ) {
+				this.type = type;
+				this.q = q;
+				this.gainDecibels = gainDecibels;
+				
+				this.currentFrequency = relativeCutoffFrequency;
+				this.targetFrequency = relativeCutoffFrequency;
+				this.rampRemainingSamples = 0;
+				this.chunkRemainingSamples = 0;
+				this.updateCoefficients();
+				
+				this.z1 = 0.0f;
+				this.z2 = 0.0f;
+				
+				this.setProcessInputOutput();
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive q");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre El tipo no puede ser nulo, la frecuencia relativa tiene que estar
+	 * 		entre 0 y 0.5 (Excluyendo ambos), y el factor de calidad tiene que ser positivo
+	 * @post Crea el filtro con el tipo, la frecuencia relativa y el factor de calidad
+	 * 		 especificados, y ganancia nula
+	 */
+	public BiquadFilterBlock(Type type, float relativeCutoffFrequency, float q) {
+		this(type, relativeCutoffFrequency, q, 0.0f);
+	}
+	
+	/**
+	 * @pre El tipo no puede ser nulo, la frecuencia relativa tiene que estar
+	 * 		entre 0 y 0.5 (Excluyendo ambos), y el factor de calidad tiene que ser positivo
+	 * @post Crea la fábrica con el tipo, la frecuencia relativa, el factor de calidad,
+	 * 		 y la ganancia en decibeles especificados
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(final Type type, final float relativeCutoffFrequency, final float q, final float gainDecibels) {
+		if ( type != null ) {
+			checkFrequency(relativeCutoffFrequency);
+			
+			if ( q > 0.0f ) {
+				return new DiscreteInputOutputBlock.Factory() {
+					
+					@Override
+					public DiscreteInputOutputBlock create() {
+						return new BiquadFilterBlock(type, relativeCutoffFrequency, q, gainDecibels);
+					}
+				};
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive q");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre El tipo no puede ser nulo, la frecuencia relativa tiene que estar
+	 * 		entre 0 y 0.5 (Excluyendo ambos), y el factor de calidad tiene que ser positivo
+	 * @post Crea la fábrica con el tipo, la frecuencia relativa y el factor de calidad
+	 * 		 especificados, y ganancia nula
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(Type type, float relativeCutoffFrequency, float q) {
+		return createFactory(type, relativeCutoffFrequency, q, 0.0f);
+	}
+	
+	/**
+	 * @post Verifica y devuelve la frecuencia relativa especificada
+	 */
+	private static float checkFrequency(float relativeCutoffFrequency) {
+		if ( ( relativeCutoffFrequency > 0.0f ) && ( relativeCutoffFrequency < 0.5f ) ) {
+			return relativeCutoffFrequency;
+		}
+		else {
+			throw new IllegalArgumentException("Expected relative cutoff frequency between 0 and 0.5");
+		}
+	}
+	
+	/**
+	 * @pre La frecuencia relativa tiene que estar entre 0 y 0.5 (Excluyendo ambos)
+	 * @post Especifica la frecuencia de corte relativa.
+	 * 		 El filtro llega a la nueva frecuencia con una rampa de RAMPLENGTH muestras
+	 */
+	@Override
+	public void setRelativeCutoffFrequency(float relativeCutoffFrequency) {
+		super.setRelativeCutoffFrequency(checkFrequency(relativeCutoffFrequency));
+	}
+	
+	/**
+	 * @post Devuelve el tipo
+	 */
+	public Type getType() {
+		return this.type;
+	}
+	
+	/**
+	 * @post Devuelve el factor de calidad
+	 */
+	public float getQ() {
+		return this.q;
+	}
+	
+	/**
+	 * @pre El factor de calidad tiene que ser positivo
+	 * @post Especifica el factor de calidad, se aplica de inmediato
+	 */
+	public void setQ(float q) {
+		if ( q > 0.0f ) {
+			this.q = q;
+			this.coefficientsOutdated = true;
+		}
+		else {
+			throw new IllegalArgumentException("Expected positive q");
+		}
+	}
+	
+	/**
+	 * @post Devuelve la ganancia en decibeles
+	 */
+	public float getGainDecibels() {
+		return this.gainDecibels;
+	}
+	
+	/**
+	 * @post Especifica la ganancia en decibeles, se aplica de inmediato
+	 */
+	public void setGainDecibels(float gainDecibels) {
+		this.gainDecibels = gainDecibels;
+		this.coefficientsOutdated = true;
+	}
+	
+	/**
+	 * @post Calcula los coeficientes con la frecuencia actual
+	 */
+	private void updateCoefficients() {
+		final double w0 = 2.0 * Math.PI * (double) this.currentFrequency;
+		final double cosW0 = Math.cos(w0);
+		final double alpha = Math.sin(w0) / ( 2.0 * (double) this.q );
+		final double a = Math.pow(10.0, (double) this.gainDecibels / 40.0);
+		
+		final double b0, b1, b2, a0, a1, a2;
+		
+		switch ( this.type ) {
+		case LOWPASS:
+			b0 = ( 1.0 - cosW0 ) / 2.0;
+			b1 = 1.0 - cosW0;
+			b2 = ( 1.0 - cosW0 ) / 2.0;
+			a0 = 1.0 + alpha;
+			a1 = -2.0 * cosW0;
+			a2 = 1.0 - alpha;
+			break;
+		case HIGHPASS:
+			b0 = ( 1.0 + cosW0 ) / 2.0;
+			b1 = -( 1.0 + cosW0 );
+			b2 = ( 1.0 + cosW0 ) / 2.0;
+			a0 = 1.0 + alpha;
+			a1 = -2.0 * cosW0;
+			a2 = 1.0 - alpha;
+			break;
+		case BANDPASS:
+			b0 = alpha;
+			b1 = 0.0;
+			b2 = -alpha;
+			a0 = 1.0 + alpha;
+			a1 = -2.0 * cosW0;
+			a2 = 1.0 - alpha;
+			break;
+		case NOTCH:
+			b0 = 1.0;
+			b1 = -2.0 * cosW0;
+			b2 = 1.0;
+			a0 = 1.0 + alpha;
+			a1 = -2.0 * cosW0;
+			a2 = 1.0 - alpha;
+			break;
+		case PEAKING:
+			b0 = 1.0 + alpha * a;
+			b1 = -2.0 * cosW0;
+			b2 = 1.0 - alpha * a;
+			a0 = 1.0 + alpha / a;
+			a1 = -2.0 * cosW0;
+			a2 = 1.0 - alpha / a;
+			break;
+		case LOWSHELF:
+		{
+			final double sqrtAAlpha = 2.0 * Math.sqrt(a) * alpha;
+			b0 = a * ( ( a + 1.0 ) - ( a - 1.0 ) * cosW0 + sqrtAAlpha );
+			b1 = 2.0 * a * ( ( a - 1.0 ) - ( a + 1.0 ) * cosW0 );
+			b2 = a * ( ( a + 1.0 ) - ( a - 1.0 ) * cosW0 - sqrtAAlpha );
+			a0 = ( a + 1.0 ) + ( a - 1.0 ) * cosW0 + sqrtAAlpha;
+			a1 = -2.0 * ( ( a - 1.0 ) + ( a + 1.0 ) * cosW0 );
+			a2 = ( a + 1.0 ) + ( a - 1.0 ) * cosW0 - sqrtAAlpha;
+		}
+			break;
+		case HIGHSHELF:
+		{
+			final double sqrtAAlpha = 2.0 * Math.sqrt(a) * alpha;
+			b0 = a * ( ( a + 1.0 ) + ( a - 1.0 ) * cosW0 + sqrtAAlpha );
+			b1 = -2.0 * a * ( ( a - 1.0 ) + ( a + 1.0 ) * cosW0 );
+			b2 = a * ( ( a + 1.0 ) + ( a - 1.0 ) * cosW0 - sqrtAAlpha );
+			a0 = ( a + 1.0 ) - ( a - 1.0 ) * cosW0 + sqrtAAlpha;
+			a1 = 2.0 * ( ( a - 1.0 ) - ( a + 1.0 ) * cosW0 );
+			a2 = ( a + 1.0 ) - ( a - 1.0 ) * cosW0 - sqrtAAlpha;
+		}
+			break;
+		default:
+			throw new IllegalStateException("Unexpected filter type");
+		}
+		
+		this.b0 = (float) ( b0 / a0 );
+		this.b1 = (float) ( b1 / a0 );
+		this.b2 = (float) ( b2 / a0 );
+		this.a1 = (float) ( a1 / a0 );
+		this.a2 = (float) ( a2 / a0 );
+		
+		this.coefficientsOutdated = false;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final float frequency = this.getRelativeCutoffFrequency();
+		
+		if ( frequency != this.targetFrequency ) {
+			this.targetFrequency = frequency;
+			this.rampRemainingSamples = RAMPLENGTH;
+			this.chunkRemainingSamples = 0;
+		}
+		
+		if ( this.coefficientsOutdated ) {
+			this.updateCoefficients();
+		}
+		
+		int i = offset;
+		final int end = offset + length;
+		
+		while ( i < end ) {
+			final int chunkEnd;
+			
+			if ( this.rampRemainingSamples != 0 ) {
+				if ( this.chunkRemainingSamples == 0 ) {
+					final int chunkLength = Math.min(RAMPCHUNKLENGTH, this.rampRemainingSamples);
+					
+					this.currentFrequency += ( this.targetFrequency - this.currentFrequency ) * (float) chunkLength / (float) this.rampRemainingSamples;
+					this.rampRemainingSamples -= chunkLength;
+					
+					if ( this.rampRemainingSamples == 0 ) {
+						this.currentFrequency = this.targetFrequency;
+					}
+					
+					this.updateCoefficients();
+					this.chunkRemainingSamples = chunkLength;
+				}
+				
+				chunkEnd = Math.min(end, i + this.chunkRemainingSamples);
+				this.chunkRemainingSamples -= chunkEnd - i;
+			}
+			else {
+				chunkEnd = end;
+			}
+			
+			this.filter(in, out, i, chunkEnd);
+			i = chunkEnd;
+		}
+	}
+	
+	/**
+	 * @post Filtra las muestras del rango especificado con los coeficientes actuales
+	 */
+	private void filter(float[] in, float[] out, int start, int end) {
+		final float b0 = this.b0, b1 = this.b1, b2 = this.b2, a1 = this.a1, a2 = this.a2;
+		float z1 = this.z1, z2 = this.z2;
+		
+		for ( int i = start ; i < end ; i++ ) {
+			final float value = in[i];
+			final float result = b0 * value + z1;
+			
+			z1 = b1 * value - a1 * result + z2;
+			z2 = b2 * value - a2 * result;
+			out[i] = result;
+		}
+		
+		this.z1 = z1;
+		this.z2 = z2;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		this.currentFrequency = this.getRelativeCutoffFrequency();
+		this.targetFrequency = this.currentFrequency;
+		this.rampRemainingSamples = 0;
+		this.chunkRemainingSamples = 0;
+		this.updateCoefficients();
+		
+		this.z1 = 0.0f;
+		this.z2 = 0.0f;
+	}
+}
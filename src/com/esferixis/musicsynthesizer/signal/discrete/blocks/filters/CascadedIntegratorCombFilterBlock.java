@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+
+/**
+ * Filtro pasabajos CIC (Cascaded integrator-comb), formado por etapas
+ * en cascada que promedian las últimas muestras.
+ * Cada etapa adicional aumenta la atenuación fuera de la banda de paso,
+ * su respuesta al impulso es un boxcar convolucionado consigo mismo tantas
+ * veces como etapas haya.
+ * Las etapas se implementan con sumas acumuladas que se recalculan
+ * periódicamente, para que el error de redondeo no se acumule, y el costo
+ * por muestra es constante sin importar la cantidad de muestras
+ */
+public final class CascadedIntegratorCombFilterBlock extends DiscreteInputOutputBlock {
+	private final RunningAverage[] stages;
+	
+	/**
+	 * @pre La cantidad de muestras y la cantidad de etapas tienen que ser positivas
+	 * @post Crea el filtro con la cantidad de muestras por etapa y la cantidad
+	 * 		 de etapas especificadas
+	 */
+	public CascadedIntegratorCombFilterBlock(int samples, int stagesQuantity) {
+		if ( samples > 0 ) {
+			if ( stagesQuantity > 0 ) {
+				this.stages = new RunningAverage[stagesQuantity];
+				
+				for ( int i = 0 ; i < stagesQuantity ; i++ ) {
+					this.stages[i] = new RunningAverage(samples);
+				}
+				
+				this.setProcessInputOutput();
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive stages quantity");
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Expected positive samples quantity");
+		}
+	}
+	
+	/**
+	 * @pre La cantidad de muestras y la cantidad de etapas tienen que ser positivas
+	 * @post Crea la fábrica con la cantidad de muestras por etapa y la cantidad
+	 * 		 de etapas especificadas
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(final int samples, final int stagesQuantity) {
+		if ( samples > 0 ) {
+			if ( stagesQuantity > 0 ) {
+				return new DiscreteInputOutputBlock.Factory() {
+					
+					@Override
+					public DiscreteInputOutputBlock create() {
+						return new CascadedIntegratorCombFilterBlock(samples, stagesQuantity);
+					}
+				};
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive stages quantity");
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Expected positive samples quantity");
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de muestras por etapa
+	 */
+	public int getSamples() {
+		return this.stages[0].size();
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de etapas
+	 */
+	public int getStagesQuantity() {
+		return this.stages.length;
+	}
+	
+	/**
+	 * @post Devuelve la latencia, en muestras, del centro de la respuesta al impulso
+	 */
+	public float getGroupDelay() {
+		return (float) this.stages.length * (float) ( this.stages[0].size() - 1 ) / 2.0f;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		this.stages[0].process(in, out, offset, length);
+		
+		for ( int i = 1 ; i < this.stages.length ; i++ ) {
+			this.stages[i].process(out, out, offset, length);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		for ( RunningAverage eachStage : this.stages ) {
+			eachStage.reset();
+		}
+	}
+}
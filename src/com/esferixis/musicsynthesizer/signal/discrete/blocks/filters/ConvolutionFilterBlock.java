@@ -31,29 +31,57 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
 
-import java.util.List;
-
-import com.esferixis.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
 
-public final class ConvolutionFilterBlock extends BufferedDiscreteInputOutputBlock {
-	private float[] factors;
+/**
+ * Filtro de convolución con los factores especificados, donde el factor con
+ * índice cero multiplica a la muestra más reciente.
+ * 
+ * Con pocos factores la convolución se calcula de forma directa, y a partir de
+ * PARTITIONEDMINLENGTH factores (Contando la latencia) se calcula por particiones
+ * en el dominio de la frecuencia, con una FFT.
+ * Opcionalmente se puede especificar una latencia, que retrasa la salida esa cantidad
+ * de muestras y permite usar particiones más grandes
+ */
+public final class ConvolutionFilterBlock extends DiscreteInputOutputBlock {
+	/**
+	 * Cantidad mínima de factores, contando la latencia, para calcular
+	 * la convolución por particiones
+	 */
+	public static final int PARTITIONEDMINLENGTH = 256;
+	
+	private final float[] factors;
+	private final int latency;
+	private final PartitionedConvolver convolver;
 	
 	/**
 	 * @pre Los factores no pueden ser nulos
 	 * @post Crea una fábrica con los factores especificados
 	 */
 	public static DiscreteInputOutputBlock.Factory createFactory(final float[] factors) {
+		return createFactory(factors, 0);
+	}
+	
+	/**
+	 * @pre Los factores no pueden ser nulos, y la latencia no puede ser negativa
+	 * @post Crea una fábrica con los factores y la latencia especificados
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(final float[] factors, final int latency) {
 		if ( factors != null ) {
-			final float[] factorsCopy = factors.clone();
-			
-			return new DiscreteInputOutputBlock.Factory() {
+			if ( latency >= 0 ) {
+				final float[] factorsCopy = factors.clone();
 				
-				@Override
-				public DiscreteInputOutputBlock create() {
-					return new ConvolutionFilterBlock(factorsCopy);
-				}
-			};
+				return new DiscreteInputOutputBlock.Factory() {
+					
+					@Override
+					public DiscreteInputOutputBlock create() {
+						return new ConvolutionFilterBlock(factorsCopy, latency);
+					}
+				};
+			}
+			else {
+				throw new IllegalArgumentException("Expected non-negative latency");
+			}
 		}
 		else {
 			throw new NullPointerException();
@@ -65,23 +93,59 @@ public final class ConvolutionFilterBlock extends BufferedDiscreteInputOutputBlo
 	 * @post Crea el filtro de convolución con los factores especificados
 	 */
 	public ConvolutionFilterBlock(float[] factors) {
-		super(factors.length);
-		this.factors = factors.clone();
+		this(factors, 0);
 	}
-
-	/* (non-Javadoc)
-	 * @see com.arielcarrizo.musicsynthesizer.signal.discrete.blocks.BufferedDiscreteInputOutputBlock#calculateValue(java.util.List)
+	
+	/**
+	 * @pre Los factores no pueden ser nulos, y la latencia no puede ser negativa
+	 * @post Crea el filtro de convolución con los factores y la latencia, en muestras,
+	 * 		 especificados
 	 */
-	@Override
-	protected float calculateValue(List<Float> oldValues) {
-		float result = 0.0f;
-		
-		for ( int i = 0 ; i < oldValues.size() ; i++ ) {
-			result += oldValues.get(i) * this.factors[i];
+	public ConvolutionFilterBlock(float[] factors, int latency) {
+		if ( factors != null ) {
+			if ( latency >= 0 ) {
+				this.factors = factors.clone();
+				this.latency = latency;
+				this.convolver = new PartitionedConvolver(this.factors, latency, PARTITIONEDMINLENGTH - 1);
+				
+				this.setProcessInputOutput();
+			}
+			else {
+				throw new IllegalArgumentException("Expected non-negative latency");
+			}
+		}
+		else {
+			throw new NullPointerException();
 		}
-		
-		return result;
 	}
 	
+	/**
+	 * @post Devuelve los factores
+	 */
+	public float[] getFactors() {
+		return this.factors.clone();
+	}
+	
+	/**
+	 * @post Devuelve la latencia, en muestras
+	 */
+	public int getLatency() {
+		return this.latency;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		this.convolver.process(in, out, offset, length);
+	}
 	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		this.convolver.reset();
+	}
 }
@@ -31,13 +31,18 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
 
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
 
 public final class HighpassRCFilterBlock extends FrequencyFilterBlock {
 	private float storedTransformedValue;
 	private float storedOriginalValue;
+	
+	private float alpha;
+	
+	/**
+	 * Frecuencia de corte con la que se calculó alfa
+	 */
+	private float alphaFrequency;
 
 	/**
 	 * @post Crea la fábrica con la frecuencia relativa especificada.
@@ -60,26 +65,46 @@ public final class HighpassRCFilterBlock extends FrequencyFilterBlock {
 		super(relativeCutoffFrequency);
 		this.storedTransformedValue = 0.0f;
 		this.storedOriginalValue = 0.0f;
+		this.alphaFrequency = Float.NaN;
 		
-		this.setInput(new DiscreteInput() {
-
-			@Override
-			public void write(float value) {
-				final float alpha = 1.0f / ( (float) (Math.PI * 2.0f) * HighpassRCFilterBlock.this.getRelativeCutoffFrequency() + 1.0f);
-				
-				HighpassRCFilterBlock.this.storedTransformedValue = alpha * ( HighpassRCFilterBlock.this.storedTransformedValue + value - HighpassRCFilterBlock.this.storedOriginalValue );
-				HighpassRCFilterBlock.this.storedOriginalValue = value;
-			}
-			
-		});
+		this.setProcessInputOutput();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final float relativeCutoffFrequency = this.getRelativeCutoffFrequency();
 		
-		this.setOutput(new DiscreteOutput() {
-
-			@Override
-			public float read() {
-				return HighpassRCFilterBlock.this.storedTransformedValue;
-			}
+		if ( relativeCutoffFrequency != this.alphaFrequency ) {
+			this.alpha = 1.0f / ( (float) (Math.PI * 2.0f) * relativeCutoffFrequency + 1.0f);
+			this.alphaFrequency = relativeCutoffFrequency;
+		}
+		
+		final float alpha = this.alpha;
+		
+		float storedTransformedValue = this.storedTransformedValue;
+		float storedOriginalValue = this.storedOriginalValue;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			final float value = in[i];
 			
-		});
-	}	
+			storedTransformedValue = alpha * ( storedTransformedValue + value - storedOriginalValue );
+			storedOriginalValue = value;
+			out[i] = storedTransformedValue;
+		}
+		
+		this.storedTransformedValue = storedTransformedValue;
+		this.storedOriginalValue = storedOriginalValue;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		this.storedTransformedValue = 0.0f;
+		this.storedOriginalValue = 0.0f;
+	}
 }
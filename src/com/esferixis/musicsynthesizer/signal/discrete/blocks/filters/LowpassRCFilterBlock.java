@@ -31,12 +31,17 @@
  */
 package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
 
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteInput;
-import com.esferixis.musicsynthesizer.signal.discrete.DiscreteOutput;
 import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
 
 public final class LowpassRCFilterBlock extends FrequencyFilterBlock {
 	private float storedValue;
+	
+	private float alpha;
+	
+	/**
+	 * Frecuencia de corte con la que se calculó alfa
+	 */
+	private float alphaFrequency;
 
 	/**
 	 * @post Crea la fábrica con el alfa especificado
@@ -57,26 +62,41 @@ public final class LowpassRCFilterBlock extends FrequencyFilterBlock {
 	public LowpassRCFilterBlock(float relativeCutoffFrequency) {
 		super(relativeCutoffFrequency);
 		this.storedValue = 0.0f;
+		this.alphaFrequency = Float.NaN;
 		
-		this.setInput(new DiscreteInput() {
-
-			@Override
-			public void write(float value) {
-				final float temp = (float) (Math.PI * 2.0f) * LowpassRCFilterBlock.this.getRelativeCutoffFrequency();
-				final float alpha = temp / (temp + 1);
-				
-				LowpassRCFilterBlock.this.storedValue = alpha * value + (1.0f - alpha) * LowpassRCFilterBlock.this.storedValue;
-			}
-			
-		});
+		this.setProcessInputOutput();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final float relativeCutoffFrequency = this.getRelativeCutoffFrequency();
 		
-		this.setOutput(new DiscreteOutput() {
-
-			@Override
-			public float read() {
-				return LowpassRCFilterBlock.this.storedValue;
-			}
-			
-		});
+		if ( relativeCutoffFrequency != this.alphaFrequency ) {
+			final float temp = (float) (Math.PI * 2.0f) * relativeCutoffFrequency;
+			this.alpha = temp / (temp + 1);
+			this.alphaFrequency = relativeCutoffFrequency;
+		}
+		
+		final float alpha = this.alpha;
+		
+		float storedValue = this.storedValue;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			storedValue = alpha * in[i] + (1.0f - alpha) * storedValue;
+			out[i] = storedValue;
+		}
+		
+		this.storedValue = storedValue;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		this.storedValue = 0.0f;
 	}
 }
@@ -0,0 +1,409 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Convolución de una secuencia de muestras con una respuesta al impulso,
+ * por bloques de muestras.
+ * 
+ * Los primeros coeficientes se aplican de forma directa, muestra por muestra,
+ * y el resto con etapas de convolución por particiones uniformes con superposición
+ * y descarte (overlap-save) en el dominio de la frecuencia.
+ * Cada etapa trabaja con particiones del doble de longitud que la anterior, de forma
+ * que las colas largas usan pocas particiones grandes.
+ * Una etapa con particiones de longitud P sólo usa coeficientes con índice mayor o
+ * igual a P, así que sus bloques de salida se calculan con muestras de entrada
+ * ya recibidas y no agregan latencia.
+ * 
+ * Si se especifica una latencia, la salida se retrasa esa cantidad de muestras,
+ * y si es mayor o igual a la longitud mínima de partición, no hay parte directa.
+ * Las particiones cuyos coeficientes son todos cero (Por ejemplo las que cubren
+ * la latencia) no se guardan ni se multiplican, y las etapas sin particiones
+ * distintas de cero se omiten
+ */
+final class PartitionedConvolver {
+	private static final int MINPARTITIONLENGTH = 64;
+	private static final int MAXPARTITIONLENGTH = 8192;
+	
+	/**
+	 * Cantidad de particiones de cada etapa antes de duplicar su longitud.
+	 * Tiene que ser par
+	 */
+	private static final int STAGEPARTITIONS = 4;
+	
+	/**
+	 * Etapa de convolución por particiones uniformes
+	 */
+	private static final class Stage {
+		private final int partitionLength;
+		private final RealFFT fft;
+		
+		/**
+		 * Índice, en particiones, de la primera partición de la etapa
+		 */
+		private final int firstPartitionIndex;
+		
+		/**
+		 * Espectros de las particiones distintas de cero de la respuesta al impulso,
+		 * y sus índices dentro de la etapa
+		 */
+		private final float[][] partitionSpectra;
+		private final int[] partitionIndices;
+		
+		/**
+		 * Espectros de los últimos tramos de entrada, en un array circular,
+		 * tantos como necesita la última partición distinta de cero
+		 */
+		private final float[][] inputSpectra;
+		private int newestInputSpectrumIndex;
+		
+		private float[] previousInput, input;
+		private float[] frame;
+		private final float[] accumulator;
+		private final float[] output;
+		private int position;
+		
+		/**
+		 * @pre Los índices de partición tienen que ser crecientes, y tiene que haber al menos uno
+		 * @post Crea la etapa con la longitud de partición, la respuesta al impulso,
+		 * 		 el índice del primer coeficiente y los índices de las particiones
+		 * 		 distintas de cero especificados
+		 */
+		public Stage(int partitionLength, float[] impulseResponse, int firstTap, int[] partitionIndices) {
+			this.partitionLength = partitionLength;
+			this.fft = new RealFFT(partitionLength * 2);
+			this.firstPartitionIndex = firstTap / partitionLength;
+			this.partitionIndices = partitionIndices;
+			
+			this.partitionSpectra = new float[partitionIndices.length][];
+			for ( int i = 0 ; i < partitionIndices.length ; i++ ) {
+				final float[] spectrum = new float[partitionLength * 2];
+				final int partitionStart = firstTap + partitionIndices[i] * partitionLength;
+				
+				for ( int j = 0 ; j < partitionLength ; j++ ) {
+					spectrum[j] = getTap(impulseResponse, partitionStart + j);
+				}
+				
+				this.fft.forward(spectrum);
+				this.partitionSpectra[i] = spectrum;
+			}
+			
+			this.inputSpectra = new float[this.firstPartitionIndex + partitionIndices[partitionIndices.length-1]][partitionLength * 2];
+			this.newestInputSpectrumIndex = 0;
+			
+			this.previousInput = new float[partitionLength];
+			this.input = new float[partitionLength];
+			this.frame = new float[partitionLength * 2];
+			this.accumulator = new float[partitionLength * 2];
+			this.output = new float[partitionLength];
+			this.position = 0;
+		}
+		
+		/**
+		 * @post Descarta las muestras de entrada y los resultados pendientes
+		 */
+		public void reset() {
+			for ( float[] eachSpectrum : this.inputSpectra ) {
+				Arrays.fill(eachSpectrum, 0.0f);
+			}
+			this.newestInputSpectrumIndex = 0;
+			
+			Arrays.fill(this.previousInput, 0.0f);
+			Arrays.fill(this.input, 0.0f);
+			Arrays.fill(this.output, 0.0f);
+			this.position = 0;
+		}
+		
+		/**
+		 * @post Procesa el tramo de entrada completo y calcula el siguiente bloque de salida
+		 */
+		public void advance() {
+			final int partitionLength = this.partitionLength;
+			final int spectrumLength = partitionLength * 2;
+			
+			System.arraycopy(this.previousInput, 0, this.frame, 0, partitionLength);
+			System.arraycopy(this.input, 0, this.frame, partitionLength, partitionLength);
+			this.fft.forward(this.frame);
+			
+			this.newestInputSpectrumIndex++;
+			if ( this.newestInputSpectrumIndex == this.inputSpectra.length ) {
+				this.newestInputSpectrumIndex = 0;
+			}
+			
+			final float[] oldSpectrum = this.inputSpectra[this.newestInputSpectrumIndex];
+			this.inputSpectra[this.newestInputSpectrumIndex] = this.frame;
+			this.frame = oldSpectrum;
+			
+			// La partición p contribuye al siguiente bloque de salida con el tramo de entrada de hace p bloques
+			Arrays.fill(this.accumulator, 0.0f);
+			for ( int i = 0 ; i < this.partitionSpectra.length ; i++ ) {
+				int spectrumIndex = this.newestInputSpectrumIndex - ( this.firstPartitionIndex + this.partitionIndices[i] - 1 );
+				if ( spectrumIndex < 0 ) {
+					spectrumIndex += this.inputSpectra.length;
+				}
+				
+				RealFFT.multiplyAccumulate(this.inputSpectra[spectrumIndex], this.partitionSpectra[i], this.accumulator, spectrumLength);
+			}
+			
+			this.fft.inverse(this.accumulator);
+			System.arraycopy(this.accumulator, partitionLength, this.output, 0, partitionLength);
+			
+			final float[] oldInput = this.previousInput;
+			this.previousInput = this.input;
+			this.input = oldInput;
+			this.position = 0;
+		}
+	}
+	
+	/**
+	 * Coeficientes de aplicación directa, y las últimas muestras de entrada
+	 * en orden inverso en un array circular
+	 */
+	private final float[] headFactors;
+	private final float[] headSamples;
+	private int newestHeadSampleIndex;
+	
+	private final Stage[] stages;
+	
+	/**
+	 * @pre Los factores no pueden ser nulos y la latencia no puede ser negativa
+	 * @post Crea el convolucionador con los factores y la latencia especificados.
+	 * 		 Si la cantidad de factores, más la latencia, no supera la longitud
+	 * 		 máxima de aplicación directa, se aplican todos de forma directa
+	 */
+	public PartitionedConvolver(float[] factors, int latency, int maxDirectLength) {
+		final float[] impulseResponse = new float[latency + factors.length];
+		System.arraycopy(factors, 0, impulseResponse, latency, factors.length);
+		
+		final int firstPartitionLength;
+		if ( latency >= MINPARTITIONLENGTH ) {
+			firstPartitionLength = Math.min(Integer.highestOneBit(latency), MAXPARTITIONLENGTH);
+		}
+		else {
+			firstPartitionLength = MINPARTITIONLENGTH;
+		}
+		
+		final int headLength;
+		if ( impulseResponse.length <= maxDirectLength ) {
+			headLength = impulseResponse.length;
+		}
+		else if ( latency >= firstPartitionLength ) {
+			headLength = 0;
+		}
+		else {
+			headLength = firstPartitionLength;
+		}
+		
+		this.headFactors = Arrays.copyOf(impulseResponse, headLength);
+		this.headSamples = new float[headLength];
+		this.newestHeadSampleIndex = 0;
+		
+		final List<Stage> stages = new ArrayList<Stage>();
+		
+		if ( impulseResponse.length > maxDirectLength ) {
+			int firstTap = firstPartitionLength;
+			int partitionLength = firstPartitionLength;
+			
+			while ( firstTap < impulseResponse.length ) {
+				final int remainingTaps = impulseResponse.length - firstTap;
+				final int partitionsQuantity;
+				
+				if ( ( partitionLength < MAXPARTITIONLENGTH ) && ( remainingTaps > STAGEPARTITIONS * partitionLength ) ) {
+					// La siguiente etapa tiene que empezar en un múltiplo de su longitud de partición
+					if ( ( firstTap / partitionLength ) % 2 == 0 ) {
+						partitionsQuantity = STAGEPARTITIONS;
+					}
+					else {
+						partitionsQuantity = STAGEPARTITIONS - 1;
+					}
+				}
+				else {
+					partitionsQuantity = ( remainingTaps + partitionLength - 1 ) / partitionLength;
+				}
+				
+				final int[] partitionIndices = getNonZeroPartitions(impulseResponse, firstTap, partitionLength, partitionsQuantity);
+				if ( partitionIndices.length != 0 ) {
+					stages.add(new Stage(partitionLength, impulseResponse, firstTap, partitionIndices));
+				}
+				
+				firstTap += partitionsQuantity * partitionLength;
+				partitionLength = Math.min(partitionLength * 2, MAXPARTITIONLENGTH);
+			}
+		}
+		
+		this.stages = stages.toArray(new Stage[0]);
+	}
+	
+	/**
+	 * @post Devuelve los índices de las particiones con algún coeficiente distinto de cero,
+	 * 		 entre las particiones con la longitud y la cantidad especificadas que empiezan
+	 * 		 en el coeficiente especificado
+	 */
+	private static int[] getNonZeroPartitions(float[] impulseResponse, int firstTap, int partitionLength, int partitionsQuantity) {
+		int nonZeroPartitionsQuantity = 0;
+		final int[] partitionIndices = new int[partitionsQuantity];
+		
+		for ( int i = 0 ; i < partitionsQuantity ; i++ ) {
+			final int partitionStart = firstTap + i * partitionLength;
+			final int partitionEnd = Math.min(partitionStart + partitionLength, impulseResponse.length);
+			
+			boolean nonZero = false;
+			for ( int j = partitionStart ; ( j < partitionEnd ) && ( !nonZero ) ; j++ ) {
+				nonZero = ( impulseResponse[j] != 0.0f );
+			}
+			
+			if ( nonZero ) {
+				partitionIndices[nonZeroPartitionsQuantity++] = i;
+			}
+		}
+		
+		return Arrays.copyOf(partitionIndices, nonZeroPartitionsQuantity);
+	}
+	
+	/**
+	 * @post Devuelve el coeficiente con el índice especificado, o cero si está
+	 * 		 fuera de la respuesta al impulso
+	 */
+	private static float getTap(float[] impulseResponse, int index) {
+		if ( index < impulseResponse.length ) {
+			return impulseResponse[index];
+		}
+		else {
+			return 0.0f;
+		}
+	}
+	
+	/**
+	 * @post Vuelve el convolucionador al estado en el que estaba al crearlo
+	 */
+	public void reset() {
+		Arrays.fill(this.headSamples, 0.0f);
+		this.newestHeadSampleIndex = 0;
+		
+		for ( Stage eachStage : this.stages ) {
+			eachStage.reset();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de etapas en el dominio de la frecuencia
+	 */
+	public int getStagesQuantity() {
+		return this.stages.length;
+	}
+	
+	/**
+	 * @post Procesa los valores del rango especificado del array de entrada,
+	 * 		 y escribe los resultados en el mismo rango del array de salida.
+	 * 		 Pueden ser el mismo array
+	 */
+	public void process(float[] in, float[] out, int offset, int length) {
+		final Stage[] stages = this.stages;
+		final int end = offset + length;
+		
+		int chunkOffset = offset;
+		while ( chunkOffset < end ) {
+			int chunkLength = end - chunkOffset;
+			
+			for ( Stage eachStage : stages ) {
+				chunkLength = Math.min(chunkLength, eachStage.partitionLength - eachStage.position);
+			}
+			
+			for ( Stage eachStage : stages ) {
+				System.arraycopy(in, chunkOffset, eachStage.input, eachStage.position, chunkLength);
+			}
+			
+			this.processHead(in, out, chunkOffset, chunkLength);
+			
+			for ( Stage eachStage : stages ) {
+				final float[] stageOutput = eachStage.output;
+				final int stageOffset = eachStage.position - chunkOffset;
+				
+				for ( int i = chunkOffset ; i < chunkOffset + chunkLength ; i++ ) {
+					out[i] += stageOutput[stageOffset + i];
+				}
+				
+				eachStage.position += chunkLength;
+				if ( eachStage.position == eachStage.partitionLength ) {
+					eachStage.advance();
+				}
+			}
+			
+			chunkOffset += chunkLength;
+		}
+	}
+	
+	/**
+	 * @post Aplica los coeficientes directos a los valores del rango especificado
+	 * 		 del array de entrada, y escribe los resultados en el mismo rango del
+	 * 		 array de salida
+	 */
+	private void processHead(float[] in, float[] out, int offset, int length) {
+		final float[] samples = this.headSamples;
+		final float[] factors = this.headFactors;
+		final int samplesQuantity = samples.length;
+		
+		if ( samplesQuantity != 0 ) {
+			int newestIndex = this.newestHeadSampleIndex;
+			
+			for ( int i = offset ; i < offset + length ; i++ ) {
+				if ( newestIndex == 0 ) {
+					newestIndex = samplesQuantity;
+				}
+				newestIndex--;
+				samples[newestIndex] = in[i];
+				
+				final int firstSegmentLength = samplesQuantity - newestIndex;
+				float result = 0.0f;
+				
+				for ( int j = 0 ; j < firstSegmentLength ; j++ ) {
+					result += samples[newestIndex + j] * factors[j];
+				}
+				
+				for ( int j = 0 ; j < newestIndex ; j++ ) {
+					result += samples[j] * factors[firstSegmentLength + j];
+				}
+				
+				out[i] = result;
+			}
+			
+			this.newestHeadSampleIndex = newestIndex;
+		}
+		else {
+			Arrays.fill(out, offset, offset + length, 0.0f);
+		}
+	}
+}
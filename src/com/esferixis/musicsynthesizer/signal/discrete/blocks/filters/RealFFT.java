@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
+
+/**
+ * Transformada rápida de Fourier de valores reales, de tamaño potencia de dos.
+ * 
+ * Calcula la transformada de N valores reales con una transformada compleja
+ * de N/2 puntos.
+ * El espectro se guarda empaquetado en N valores: las posiciones 0 y 1 tienen
+ * las partes reales de las frecuencias 0 y N/2 (Que no tienen parte imaginaria),
+ * y las posiciones 2k y 2k+1 tienen la parte real e imaginaria de la frecuencia k,
+ * para 0 < k < N/2.
+ * La transformada directa no está normalizada, y la inversa divide por N
+ */
+public final class RealFFT {
+	private final int size;
+	private final int halfSize;
+	
+	private final int[] bitReversal;
+	
+	/**
+	 * Factores de la transformada compleja: cos(2 pi k / (N/2)) y sin(2 pi k / (N/2))
+	 */
+	private final float[] complexCos, complexSin;
+	
+	/**
+	 * Factores de la separación del espectro real: cos(2 pi k / N) y sin(2 pi k / N)
+	 */
+	private final float[] realCos, realSin;
+	
+	/**
+	 * @pre El tamaño tiene que ser una potencia de dos mayor o igual a cuatro
+	 * @post Crea la transformada con el tamaño especificado
+	 */
+	public RealFFT(int size) {
+		if ( ( size >= 4 ) && ( ( size & (size - 1) ) == 0 ) ) {
+			this.size = size;
+			this.halfSize = size / 2;
+			
+			this.bitReversal = new int[this.halfSize];
+			final int bits = Integer.numberOfTrailingZeros(this.halfSize);
+			for ( int i = 0 ; i < this.halfSize ; i++ ) {
+				this.bitReversal[i] = Integer.reverse(i) >>> (32 - bits);
+			}
+			
+			this.complexCos = new float[this.halfSize / 2];
+			this.complexSin = new float[this.halfSize / 2];
+			for ( int i = 0 ; i < this.halfSize / 2 ; i++ ) {
+				final double angle = 2.0d * Math.PI * (double) i / (double) this.halfSize;
+				this.complexCos[i] = (float) Math.cos(angle);
+				this.complexSin[i] = (float) Math.sin(angle);
+			}
+			
+			this.realCos = new float[this.halfSize / 2 + 1];
+			this.realSin = new float[this.halfSize / 2 + 1];
+			for ( int i = 0 ; i <= this.halfSize / 2 ; i++ ) {
+				final double angle = 2.0d * Math.PI * (double) i / (double) this.size;
+				this.realCos[i] = (float) Math.cos(angle);
+				this.realSin[i] = (float) Math.sin(angle);
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Expected power of two size greater than or equal to four");
+		}
+	}
+	
+	/**
+	 * @post Devuelve el tamaño
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	/**
+	 * @pre El array no puede ser nulo y tiene que tener por lo menos el tamaño
+	 * 		de la transformada
+	 * @post Reemplaza los valores reales del comienzo del array por su espectro empaquetado
+	 */
+	public void forward(float[] data) {
+		this.checkData(data);
+		
+		final int halfSize = this.halfSize;
+		
+		this.complexTransform(data, false);
+		
+		final float z0r = data[0];
+		final float z0i = data[1];
+		data[0] = z0r + z0i;
+		data[1] = z0r - z0i;
+		
+		for ( int k = 1 ; k <= halfSize / 2 ; k++ ) {
+			final int j = halfSize - k;
+			
+			final float zkr = data[2*k], zki = data[2*k+1];
+			final float zjr = data[2*j], zji = data[2*j+1];
+			
+			final float evenReal = ( zkr + zjr ) * 0.5f;
+			final float evenImaginary = ( zki - zji ) * 0.5f;
+			final float oddReal = ( zki + zji ) * 0.5f;
+			final float oddImaginary = ( zjr - zkr ) * 0.5f;
+			
+			final float c = this.realCos[k];
+			final float s = this.realSin[k];
+			final float rotatedReal = c * oddReal + s * oddImaginary;
+			final float rotatedImaginary = c * oddImaginary - s * oddReal;
+			
+			data[2*k] = evenReal + rotatedReal;
+			data[2*k+1] = evenImaginary + rotatedImaginary;
+			data[2*j] = evenReal - rotatedReal;
+			data[2*j+1] = rotatedImaginary - evenImaginary;
+		}
+	}
+	
+	/**
+	 * @pre El array no puede ser nulo y tiene que tener por lo menos el tamaño
+	 * 		de la transformada
+	 * @post Reemplaza el espectro empaquetado del comienzo del array por los valores
+	 * 		 reales correspondientes
+	 */
+	public void inverse(float[] data) {
+		this.checkData(data);
+		
+		final int halfSize = this.halfSize;
+		
+		final float x0 = data[0];
+		final float xm = data[1];
+		data[0] = ( x0 + xm ) * 0.5f;
+		data[1] = ( x0 - xm ) * 0.5f;
+		
+		for ( int k = 1 ; k <= halfSize / 2 ; k++ ) {
+			final int j = halfSize - k;
+			
+			final float xkr = data[2*k], xki = data[2*k+1];
+			final float xjr = data[2*j], xji = data[2*j+1];
+			
+			final float evenReal = ( xkr + xjr ) * 0.5f;
+			final float evenImaginary = ( xki - xji ) * 0.5f;
+			final float differenceReal = ( xkr - xjr ) * 0.5f;
+			final float differenceImaginary = ( xki + xji ) * 0.5f;
+			
+			final float c = this.realCos[k];
+			final float s = this.realSin[k];
+			final float oddReal = differenceReal * c - differenceImaginary * s;
+			final float oddImaginary = differenceReal * s + differenceImaginary * c;
+			
+			data[2*k] = evenReal - oddImaginary;
+			data[2*k+1] = evenImaginary + oddReal;
+			data[2*j] = evenReal + oddImaginary;
+			data[2*j+1] = oddReal - evenImaginary;
+		}
+		
+		this.complexTransform(data, true);
+		
+		final float scale = 1.0f / (float) halfSize;
+		for ( int i = 0 ; i < this.size ; i++ ) {
+			data[i] *= scale;
+		}
+	}
+	
+	/**
+	 * @pre Los arrays no pueden ser nulos y tienen que tener por lo menos
+	 * 		el tamaño especificado, que tiene que ser par
+	 * @post Multiplica los espectros empaquetados especificados y suma el resultado
+	 * 		 al espectro empaquetado de resultado
+	 */
+	public static void multiplyAccumulate(float[] a, float[] b, float[] result, int size) {
+		if ( ( a != null ) && ( b != null ) && ( result != null ) ) {
+			if ( ( size >= 2 ) && ( size % 2 == 0 ) && ( size <= a.length ) && ( size <= b.length ) && ( size <= result.length ) ) {
+				result[0] += a[0] * b[0];
+				result[1] += a[1] * b[1];
+				
+				for ( int i = 2 ; i < size ; i += 2 ) {
+					final float ar = a[i], ai = a[i+1];
+					final float br = b[i], bi = b[i+1];
+					
+					result[i] += ar * br - ai * bi;
+					result[i+1] += ar * bi + ai * br;
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Expected even size contained in the arrays");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Verifica el array de datos
+	 */
+	private void checkData(float[] data) {
+		if ( data != null ) {
+			if ( data.length < this.size ) {
+				throw new IllegalArgumentException("Expected data with at least the transform size");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Calcula la transformada compleja, directa o inversa sin normalizar,
+	 * 		 de N/2 valores complejos intercalados
+	 */
+	private void complexTransform(float[] data, boolean inverse) {
+		final int halfSize = this.halfSize;
+		
+		for ( int i = 0 ; i < halfSize ; i++ ) {
+			final int j = this.bitReversal[i];
+			
+			if ( j > i ) {
+				final float real = data[2*i], imaginary = data[2*i+1];
+				data[2*i] = data[2*j];
+				data[2*i+1] = data[2*j+1];
+				data[2*j] = real;
+				data[2*j+1] = imaginary;
+			}
+		}
+		
+		final float sign = inverse ? 1.0f : -1.0f;
+		
+		for ( int length = 2 ; length <= halfSize ; length <<= 1 ) {
+			final int halfLength = length >> 1;
+			final int tableStep = halfSize / length;
+			
+			for ( int start = 0 ; start < halfSize ; start += length ) {
+				for ( int k = 0 ; k < halfLength ; k++ ) {
+					final float wr = this.complexCos[k * tableStep];
+					final float wi = sign * this.complexSin[k * tableStep];
+					
+					final int a = 2 * (start + k);
+					final int b = 2 * (start + k + halfLength);
+					
+					final float tr = data[b] * wr - data[b+1] * wi;
+					final float ti = data[b] * wi + data[b+1] * wr;
+					
+					data[b] = data[a] - tr;
+					data[b+1] = data[a+1] - ti;
+					data[a] += tr;
+					data[a+1] += ti;
+				}
+			}
+		}
+	}
+}
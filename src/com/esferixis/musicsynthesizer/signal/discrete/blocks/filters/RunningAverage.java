@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.filters;
+
+import java.util.Arrays;
+
+/**
+ * Promedio de las últimas muestras, calculado con una suma acumulada.
+ * Cada muestra suma el valor nuevo y resta el que sale de la ventana, y
+ * en cada vuelta del buffer circular la suma se recalcula por completo,
+ * para que el error de redondeo no se acumule.
+ * El costo por muestra es constante, sin importar la cantidad de muestras
+ */
+final class RunningAverage {
+	private final float[] samples;
+	private final float reciprocalSize;
+	
+	/**
+	 * Posición de la muestra más antigua
+	 */
+	private int oldestIndex;
+	
+	private float sum;
+	
+	/**
+	 * @pre La cantidad de muestras tiene que ser positiva
+	 * @post Crea el promedio con la cantidad de muestras especificada,
+	 * 		 inicialmente en cero
+	 */
+	public RunningAverage(int samples) {
+		if ( samples > 0 ) {
+			this.samples = new float[samples];
+			this.reciprocalSize = 1.0f / (float) samples;
+			this.oldestIndex = 0;
+			this.sum = 0.0f;
+		}
+		else {
+			throw new IllegalArgumentException("Expected positive samples quantity");
+		}
+	}
+	
+	/**
+	 * @post Procesa los valores del rango especificado del array de entrada,
+	 * 		 y escribe los promedios en el mismo rango del array de salida
+	 */
+	public void process(float[] in, float[] out, int offset, int length) {
+		final float[] samples = this.samples;
+		final float reciprocalSize = this.reciprocalSize;
+		
+		int oldestIndex = this.oldestIndex;
+		float sum = this.sum;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			final float value = in[i];
+			
+			sum += value - samples[oldestIndex];
+			samples[oldestIndex] = value;
+			
+			if ( ++oldestIndex == samples.length ) {
+				oldestIndex = 0;
+				
+				sum = 0.0f;
+				for ( int j = 0 ; j < samples.length ; j++ ) {
+					sum += samples[j];
+				}
+			}
+			
+			out[i] = sum * reciprocalSize;
+		}
+		
+		this.oldestIndex = oldestIndex;
+		this.sum = sum;
+	}
+	
+	/**
+	 * @post Vuelve el promedio a su estado inicial, en cero
+	 */
+	public void reset() {
+		Arrays.fill(this.samples, 0.0f);
+		this.oldestIndex = 0;
+		this.sum = 0.0f;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de muestras
+	 */
+	public int size() {
+		return this.samples.length;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.oversampling;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+
+/**
+ * Bloque que procesa la entrada con otro bloque a una frecuencia de muestreo
+ * más alta.
+ * Sobremuestrea la entrada, la procesa con el bloque interno, y diezma el resultado.
+ * Sirve para aplicar etapas no lineales (Distorsionadores, recortadores)
+ * sin aliasing, sin tener que sintetizar todo el instrumento a la frecuencia alta.
+ * La salida tiene una latencia de getLatency() muestras
+ */
+public final class OversampledInputOutputBlock extends DiscreteInputOutputBlock {
+	/**
+	 * Longitud de los tramos en los que se procesan los bloques de muestras,
+	 * a la frecuencia base
+	 */
+	private static final int CHUNKLENGTH = 256;
+	
+	private final DiscreteInputOutputBlock block;
+	private final PolyphaseUpsampler upsampler;
+	private final PolyphaseDecimator decimator;
+	
+	private final float[] oversampledValues;
+	
+	/**
+	 * @pre El bloque no puede ser nulo, y el factor tiene que ser 2, 4 u 8
+	 * @post Crea el bloque con el bloque interno y el factor de sobremuestreo
+	 * 		 especificados.
+	 * 		 El bloque interno recibe las muestras a la frecuencia base multiplicada
+	 * 		 por el factor
+	 */
+	public OversampledInputOutputBlock(DiscreteInputOutputBlock block, int factor) {
+		if ( block != null ) {
+			this.block = block;
+			this.upsampler = new PolyphaseUpsampler(factor);
+			this.decimator = new PolyphaseDecimator(factor);
+			this.oversampledValues = new float[CHUNKLENGTH * factor];
+			
+			this.setProcessInputOutput();
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @pre La fábrica no puede ser nula, y el factor tiene que ser 2, 4 u 8
+	 * @post Crea la fábrica con la fábrica de bloques internos y el factor
+	 * 		 de sobremuestreo especificados
+	 */
+	public static DiscreteInputOutputBlock.Factory createFactory(final DiscreteInputOutputBlock.Factory blockFactory, final int factor) {
+		if ( blockFactory != null ) {
+			OversamplingFilter.checkFactor(factor);
+			
+			return new DiscreteInputOutputBlock.Factory() {
+				
+				@Override
+				public DiscreteInputOutputBlock create() {
+					return new OversampledInputOutputBlock(blockFactory.create(), factor);
+				}
+			};
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve el factor de sobremuestreo
+	 */
+	public int getFactor() {
+		return this.upsampler.getFactor();
+	}
+	
+	/**
+	 * @post Devuelve la latencia de la salida, en muestras de la frecuencia base
+	 */
+	public float getLatency() {
+		return ( this.upsampler.getLatency() + this.decimator.getLatency() ) / (float) this.getFactor();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+	 */
+	@Override
+	protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+		final float[] oversampledValues = this.oversampledValues;
+		final int factor = this.getFactor();
+		
+		for ( int chunkOffset = offset ; chunkOffset < offset + length ; chunkOffset += CHUNKLENGTH ) {
+			final int chunkLength = Math.min(CHUNKLENGTH, offset + length - chunkOffset);
+			final int oversampledLength = chunkLength * factor;
+			
+			this.upsampler.uncheckedProcess(in, chunkOffset, chunkLength, oversampledValues, 0);
+			this.block.process(oversampledValues, oversampledValues, 0, oversampledLength);
+			this.decimator.uncheckedProcess(oversampledValues, 0, out, chunkOffset, chunkLength);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+	 */
+	@Override
+	protected void resetState() {
+		this.upsampler.reset();
+		this.block.reset();
+		this.decimator.reset();
+	}
+}
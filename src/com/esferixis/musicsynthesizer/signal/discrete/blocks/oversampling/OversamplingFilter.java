@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.oversampling;
+
+/**
+ * Diseño del filtro pasabajos antialias que comparten el sobremuestreador
+ * y el diezmador.
+ * Es un sinc con ventana de Kaiser, con la frecuencia de corte en la mitad de
+ * la frecuencia de Nyquist de la frecuencia de muestreo base
+ */
+final class OversamplingFilter {
+	/**
+	 * Cantidad de coeficientes por fase
+	 */
+	public static final int TAPSPERPHASE = 32;
+	
+	/**
+	 * Parámetro beta de la ventana de Kaiser, para aproximadamente 80 dB
+	 * de atenuación en la banda de rechazo
+	 */
+	private static final double KAISERBETA = 7.86;
+	
+	private OversamplingFilter() {}
+	
+	/**
+	 * @pre El factor tiene que ser 2, 4 u 8
+	 * @post Verifica el factor de sobremuestreo especificado
+	 */
+	public static int checkFactor(int factor) {
+		if ( ( factor == 2 ) || ( factor == 4 ) || ( factor == 8 ) ) {
+			return factor;
+		}
+		else {
+			throw new IllegalArgumentException("Expected oversampling factor 2, 4 or 8");
+		}
+	}
+	
+	/**
+	 * @pre El factor tiene que ser 2, 4 u 8
+	 * @post Devuelve los coeficientes del filtro para el factor especificado,
+	 * 		 en la frecuencia de muestreo alta, con ganancia unitaria en continua.
+	 * 		 La longitud es TAPSPERPHASE multiplicado por el factor
+	 */
+	public static float[] createLowpass(int factor) {
+		final int length = TAPSPERPHASE * factor;
+		final double center = (double) ( length - 1 ) / 2.0;
+		final double cutoff = 0.5 / (double) factor;
+		
+		final double[] taps = new double[length];
+		double sum = 0.0;
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			final double t = (double) i - center;
+			final double sinc = ( t == 0.0 ) ? 1.0 : Math.sin(2.0 * Math.PI * cutoff * t) / ( 2.0 * Math.PI * cutoff * t );
+			final double windowPosition = t / center;
+			final double window = besselI0(KAISERBETA * Math.sqrt(Math.max(0.0, 1.0 - windowPosition * windowPosition))) / besselI0(KAISERBETA);
+			
+			taps[i] = sinc * window;
+			sum += taps[i];
+		}
+		
+		final float[] result = new float[length];
+		for ( int i = 0 ; i < length ; i++ ) {
+			result[i] = (float) ( taps[i] / sum );
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @post Devuelve la función de Bessel modificada de primera especie y orden cero
+	 */
+	private static double besselI0(double x) {
+		final double quarterSquare = x * x / 4.0;
+		double term = 1.0;
+		double result = 1.0;
+		
+		for ( int k = 1 ; term > result * 1e-17 ; k++ ) {
+			term *= quarterSquare / ( (double) k * (double) k );
+			result += term;
+		}
+		
+		return result;
+	}
+}
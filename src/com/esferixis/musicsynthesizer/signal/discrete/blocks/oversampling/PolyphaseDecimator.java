@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.oversampling;
+
+import java.util.Arrays;
+
+/**
+ * Diezmador polifásico.
+ * Filtra la entrada con el filtro antialias y sólo calcula una de cada
+ * tantas muestras como el factor, las que se conservan.
+ * Separa la entrada en tantas fases como el factor, y aplica cada coeficiente
+ * a todo el tramo de una fase, para que el compilador JIT pueda vectorizar
+ * el bucle interno
+ */
+public final class PolyphaseDecimator {
+	/**
+	 * Longitud de los tramos, en muestras de salida
+	 */
+	private static final int CHUNKLENGTH = 256;
+	
+	private final int factor;
+	private final float[] lowpass;
+	
+	/**
+	 * Muestras de entrada separadas por fase: la fase q tiene las muestras
+	 * con índice i * factor + q.
+	 * Cada una tiene las últimas TAPSPERPHASE-1 muestras, seguidas del tramo actual
+	 */
+	private final float[][] phaseSamples;
+	
+	private final float[] values;
+	
+	/**
+	 * @pre El factor tiene que ser 2, 4 u 8
+	 * @post Crea el diezmador con el factor especificado
+	 */
+	public PolyphaseDecimator(int factor) {
+		this.factor = OversamplingFilter.checkFactor(factor);
+		this.lowpass = OversamplingFilter.createLowpass(factor);
+		this.phaseSamples = new float[factor][OversamplingFilter.TAPSPERPHASE - 1 + CHUNKLENGTH];
+		this.values = new float[CHUNKLENGTH];
+	}
+	
+	/**
+	 * @post Devuelve el factor
+	 */
+	public int getFactor() {
+		return this.factor;
+	}
+	
+	/**
+	 * @post Devuelve la latencia, en muestras de la frecuencia alta.
+	 * 		 Cada muestra de salida se toma en la última muestra de entrada
+	 * 		 de su grupo, por eso es menor que la del filtro
+	 */
+	public float getLatency() {
+		return (float) ( this.lowpass.length - 1 ) / 2.0f - (float) ( this.factor - 1 );
+	}
+	
+	/**
+	 * @post Vuelve el diezmador al estado en el que estaba al crearlo
+	 */
+	public void reset() {
+		for ( float[] eachPhaseSamples : this.phaseSamples ) {
+			Arrays.fill(eachPhaseSamples, 0.0f);
+		}
+	}
+	
+	/**
+	 * @pre Los arrays no pueden ser nulos, el rango de entrada, de la longitud
+	 * 		especificada multiplicada por el factor, tiene que estar contenido en el
+	 * 		array de entrada, y el rango de salida especificado en el de salida.
+	 * 		Pueden ser el mismo array si la salida no está después de la entrada
+	 * @post Diezma las muestras del rango de entrada, y escribe el resultado en el
+	 * 		 rango de salida especificado
+	 */
+	public void process(float[] in, int inOffset, float[] out, int outOffset, int length) {
+		if ( ( in != null ) && ( out != null ) ) {
+			if ( ( inOffset >= 0 ) && ( outOffset >= 0 ) && ( length >= 0 ) && ( (long) length * (long) this.factor <= (long) ( in.length - inOffset ) ) && ( length <= out.length - outOffset ) ) {
+				if ( ( in != out ) || ( outOffset <= inOffset ) ) {
+					this.uncheckedProcess(in, inOffset, out, outOffset, length);
+				}
+				else {
+					throw new IllegalArgumentException("Expected output range not after input range");
+				}
+			}
+			else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Diezma sin verificar los parámetros
+	 */
+	void uncheckedProcess(float[] in, int inOffset, float[] out, int outOffset, int length) {
+		final float[][] phaseSamples = this.phaseSamples;
+		final float[] lowpass = this.lowpass;
+		final float[] values = this.values;
+		final int factor = this.factor;
+		final int tapsPerPhase = OversamplingFilter.TAPSPERPHASE;
+		final int historyLength = tapsPerPhase - 1;
+		
+		for ( int chunkOffset = 0 ; chunkOffset < length ; chunkOffset += CHUNKLENGTH ) {
+			final int chunkLength = Math.min(CHUNKLENGTH, length - chunkOffset);
+			
+			for ( int phase = 0 ; phase < factor ; phase++ ) {
+				final float[] samples = phaseSamples[phase];
+				int inIndex = inOffset + chunkOffset * factor + phase;
+				
+				for ( int i = 0 ; i < chunkLength ; i++ ) {
+					samples[historyLength + i] = in[inIndex];
+					inIndex += factor;
+				}
+			}
+			
+			Arrays.fill(values, 0, chunkLength, 0.0f);
+			
+			// El coeficiente p + k * factor multiplica a la fase factor - 1 - p, k muestras atrás
+			for ( int p = 0 ; p < factor ; p++ ) {
+				final float[] samples = phaseSamples[factor - 1 - p];
+				
+				for ( int k = 0 ; k < tapsPerPhase ; k++ ) {
+					final float tap = lowpass[p + k * factor];
+					final int samplesOffset = historyLength - k;
+					
+					for ( int i = 0 ; i < chunkLength ; i++ ) {
+						values[i] += tap * samples[samplesOffset + i];
+					}
+				}
+			}
+			
+			System.arraycopy(values, 0, out, outOffset + chunkOffset, chunkLength);
+			
+			for ( float[] eachPhaseSamples : phaseSamples ) {
+				System.arraycopy(eachPhaseSamples, chunkLength, eachPhaseSamples, 0, historyLength);
+			}
+		}
+	}
+}
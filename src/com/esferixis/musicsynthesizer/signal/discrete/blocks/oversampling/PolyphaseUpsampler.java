@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.discrete.blocks.oversampling;
+
+import java.util.Arrays;
+
+/**
+ * Sobremuestreador polifásico.
+ * Por cada muestra de entrada produce tantas muestras como el factor,
+ * interpolando con un filtro antialias descompuesto en fases, así que no
+ * multiplica por los ceros que se insertarían entre las muestras.
+ * Procesa por tramos, aplicando cada coeficiente a todo el tramo de una fase,
+ * para que el compilador JIT pueda vectorizar el bucle interno
+ */
+public final class PolyphaseUpsampler {
+	/**
+	 * Longitud de los tramos, en muestras de entrada
+	 */
+	private static final int CHUNKLENGTH = 256;
+	
+	private final int factor;
+	
+	/**
+	 * Coeficientes de cada fase, multiplicados por el factor
+	 */
+	private final float[][] phases;
+	
+	/**
+	 * Últimas TAPSPERPHASE-1 muestras de entrada, seguidas del tramo actual
+	 */
+	private final float[] samples;
+	
+	private final float[] phaseValues;
+	
+	/**
+	 * @pre El factor tiene que ser 2, 4 u 8
+	 * @post Crea el sobremuestreador con el factor especificado
+	 */
+	public PolyphaseUpsampler(int factor) {
+		this.factor = OversamplingFilter.checkFactor(factor);
+		
+		final float[] lowpass = OversamplingFilter.createLowpass(factor);
+		final int tapsPerPhase = OversamplingFilter.TAPSPERPHASE;
+		
+		this.phases = new float[factor][tapsPerPhase];
+		for ( int phase = 0 ; phase < factor ; phase++ ) {
+			for ( int k = 0 ; k < tapsPerPhase ; k++ ) {
+				this.phases[phase][k] = lowpass[phase + k * factor] * (float) factor;
+			}
+		}
+		
+		this.samples = new float[tapsPerPhase - 1 + CHUNKLENGTH];
+		this.phaseValues = new float[CHUNKLENGTH];
+	}
+	
+	/**
+	 * @post Devuelve el factor
+	 */
+	public int getFactor() {
+		return this.factor;
+	}
+	
+	/**
+	 * @post Devuelve la latencia, en muestras de la frecuencia alta
+	 */
+	public float getLatency() {
+		return (float) ( OversamplingFilter.TAPSPERPHASE * this.factor - 1 ) / 2.0f;
+	}
+	
+	/**
+	 * @post Vuelve el sobremuestreador al estado en el que estaba al crearlo
+	 */
+	public void reset() {
+		Arrays.fill(this.samples, 0.0f);
+	}
+	
+	/**
+	 * @pre Los arrays no pueden ser nulos, el rango de entrada especificado tiene
+	 * 		que estar contenido en el array de entrada, y el rango de salida,
+	 * 		de la longitud especificada multiplicada por el factor, en el de salida.
+	 * 		No pueden ser el mismo array
+	 * @post Sobremuestrea las muestras del rango de entrada especificado, y escribe
+	 * 		 el resultado en el array de salida desde la posición especificada
+	 */
+	public void process(float[] in, int inOffset, int length, float[] out, int outOffset) {
+		if ( ( in != null ) && ( out != null ) ) {
+			if ( in != out ) {
+				if ( ( inOffset >= 0 ) && ( outOffset >= 0 ) && ( length >= 0 ) && ( length <= in.length - inOffset ) && ( (long) length * (long) this.factor <= (long) ( out.length - outOffset ) ) ) {
+					this.uncheckedProcess(in, inOffset, length, out, outOffset);
+				}
+				else {
+					throw new IndexOutOfBoundsException();
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Expected different input and output arrays");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Sobremuestrea sin verificar los parámetros
+	 */
+	void uncheckedProcess(float[] in, int inOffset, int length, float[] out, int outOffset) {
+		final float[] samples = this.samples;
+		final float[] phaseValues = this.phaseValues;
+		final int factor = this.factor;
+		final int historyLength = OversamplingFilter.TAPSPERPHASE - 1;
+		
+		for ( int chunkOffset = 0 ; chunkOffset < length ; chunkOffset += CHUNKLENGTH ) {
+			final int chunkLength = Math.min(CHUNKLENGTH, length - chunkOffset);
+			
+			System.arraycopy(in, inOffset + chunkOffset, samples, historyLength, chunkLength);
+			
+			for ( int phase = 0 ; phase < factor ; phase++ ) {
+				final float[] taps = this.phases[phase];
+				
+				Arrays.fill(phaseValues, 0, chunkLength, 0.0f);
+				
+				for ( int k = 0 ; k < taps.length ; k++ ) {
+					final float tap = taps[k];
+					final int samplesOffset = historyLength - k;
+					
+					for ( int i = 0 ; i < chunkLength ; i++ ) {
+						phaseValues[i] += tap * samples[samplesOffset + i];
+					}
+				}
+				
+				int outIndex = outOffset + chunkOffset * factor + phase;
+				for ( int i = 0 ; i < chunkLength ; i++ ) {
+					out[outIndex] = phaseValues[i];
+					outIndex += factor;
+				}
+			}
+			
+			System.arraycopy(samples, chunkLength, samples, 0, historyLength);
+		}
+	}
+}
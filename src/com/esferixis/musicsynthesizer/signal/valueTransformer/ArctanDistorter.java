@@ -34,7 +34,7 @@ package com.esferixis.musicsynthesizer.signal.valueTransformer;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
 import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
 
-public final class ArctanDistorter extends ValueTransformer {
+public final class ArctanDistorter extends IntegrableValueTransformer {
 	/* (non-Javadoc)
 	 * @see com.arielcarrizo.musicsynthesizer.signal.valueTransformer.ValueTransformer#transform(float)
 	 */
@@ -43,4 +43,19 @@ public final class ArctanDistorter extends ValueTransformer {
 		return (float) Math.atan(value) * 2.0f / (float) Math.PI;
 	}
 	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#antiderivative(double)
+	 */
+	@Override
+	public double antiderivative(double value) {
+		return ( value * Math.atan(value) - Math.log1p(value * value) / 2.0 ) * 2.0 / Math.PI;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#secondAntiderivative(double)
+	 */
+	@Override
+	public double secondAntiderivative(double value) {
+		return ( ( value * value - 1.0 ) * Math.atan(value) + value * ( 1.0 - Math.log1p(value * value) ) ) / Math.PI;
+	}
 }
@@ -31,7 +31,7 @@
  */
 package com.esferixis.musicsynthesizer.signal.valueTransformer;
 
-public final class Clipper extends ValueTransformer {
+public final class Clipper extends IntegrableValueTransformer {
 	public static final Clipper CANONICAL = new Clipper(1.0f);
 	
 	private final float maxAbsValue;
@@ -48,6 +48,13 @@ public final class Clipper extends ValueTransformer {
 			throw new IllegalArgumentException("Invalid max value");
 		}
 	}
+	
+	/**
+	 * @post Devuelve el valor máximo absoluto
+	 */
+	public float getMaxAbsValue() {
+		return this.maxAbsValue;
+	}
 
 	/* (non-Javadoc)
 	 * @see com.arielcarrizo.musicsynthesizer.signal.valueTransformer.ValueTransformer#transform(float)
@@ -63,4 +70,51 @@ public final class Clipper extends ValueTransformer {
 		
 		return value;
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer#uncheckedTransform(float[], int, int)
+	 */
+	@Override
+	protected void uncheckedTransform(float[] values, int offset, int length) {
+		final float maxAbsValue = this.maxAbsValue;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			values[i] = Math.max(-maxAbsValue, Math.min(maxAbsValue, values[i]));
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#antiderivative(double)
+	 */
+	@Override
+	public double antiderivative(double value) {
+		final double maxAbsValue = this.maxAbsValue;
+		final double absValue = Math.abs(value);
+		
+		if ( absValue <= maxAbsValue ) {
+			return value * value / 2.0;
+		}
+		else {
+			return maxAbsValue * ( absValue - maxAbsValue / 2.0 );
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#secondAntiderivative(double)
+	 */
+	@Override
+	public double secondAntiderivative(double value) {
+		final double maxAbsValue = this.maxAbsValue;
+		final double absValue = Math.abs(value);
+		
+		final double result;
+		if ( absValue <= maxAbsValue ) {
+			result = absValue * absValue * absValue / 6.0;
+		}
+		else {
+			result = maxAbsValue * ( absValue * absValue / 2.0 - maxAbsValue * absValue / 2.0 + maxAbsValue * maxAbsValue / 6.0 );
+		}
+		
+		return Math.copySign(result, value);
+	}
 }
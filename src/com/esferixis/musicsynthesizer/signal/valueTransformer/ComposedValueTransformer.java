@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.valueTransformer;
+
+/**
+ * Composición de dos transformadores de valor
+ */
+public final class ComposedValueTransformer extends ValueTransformer {
+	private final ValueTransformer firstTransformer, secondTransformer;
+	
+	/**
+	 * @pre Ninguno de los dos puede ser nulo
+	 * @post Crea la composición de los transformadores especificados.
+	 * 		 Se aplica el primer transformador, y después el segundo
+	 */
+	public ComposedValueTransformer(ValueTransformer firstTransformer, ValueTransformer secondTransformer) {
+		if ( ( firstTransformer != null ) && ( secondTransformer != null ) ) {
+			this.firstTransformer = firstTransformer;
+			this.secondTransformer = secondTransformer;
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve el transformador que se aplica primero
+	 */
+	public ValueTransformer getFirstTransformer() {
+		return this.firstTransformer;
+	}
+	
+	/**
+	 * @post Devuelve el transformador que se aplica después
+	 */
+	public ValueTransformer getSecondTransformer() {
+		return this.secondTransformer;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer#transform(float)
+	 */
+	@Override
+	public float transform(float value) {
+		return this.secondTransformer.transform( this.firstTransformer.transform(value) );
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer#uncheckedTransform(float[], int, int)
+	 */
+	@Override
+	protected void uncheckedTransform(float[] values, int offset, int length) {
+		this.firstTransformer.uncheckedTransform(values, offset, length);
+		this.secondTransformer.uncheckedTransform(values, offset, length);
+	}
+}
@@ -33,6 +33,7 @@
 package com.esferixis.musicsynthesizer.signal.valueTransformer;
 
 import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
+import com.esferixis.musicsynthesizer.signal.vector.VectorOperations;
 
 public final class PowerDistorter extends ValueTransformer {
 	private final float exponent;
@@ -51,4 +52,19 @@ public final class PowerDistorter extends ValueTransformer {
 	public float transform(float value) {
 		return (float) Math.pow(Math.abs(value), PowerDistorter.this.exponent) * Math.signum(value);
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer#uncheckedTransform(float[], int, int)
+	 */
+	@Override
+	protected void uncheckedTransform(float[] values, int offset, int length) {
+		final VectorOperations vectorOperations = VectorOperations.getInstance();
+		
+		if ( vectorOperations != null ) {
+			vectorOperations.power(values, offset, length, this.exponent);
+		}
+		else {
+			super.uncheckedTransform(values, offset, length);
+		}
+	}
 }
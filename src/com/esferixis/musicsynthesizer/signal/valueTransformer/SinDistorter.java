@@ -34,7 +34,7 @@ package com.esferixis.musicsynthesizer.signal.valueTransformer;
 import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
 import com.esferixis.musicsynthesizer.signal.continuous.transformers.SignalTransformer;
 
-public class SinDistorter extends ValueTransformer {
+public class SinDistorter extends IntegrableValueTransformer {
 	/* (non-Javadoc)
 	 * @see com.arielcarrizo.musicsynthesizer.signal.valueTransformer.ValueTransformer#transform(float)
 	 */
@@ -42,5 +42,20 @@ public class SinDistorter extends ValueTransformer {
 	public float transform(float value) {
 		return (float) Math.sin(value * (float) Math.PI);
 	}
-
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#antiderivative(double)
+	 */
+	@Override
+	public double antiderivative(double value) {
+		return -Math.cos(value * Math.PI) / Math.PI;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#secondAntiderivative(double)
+	 */
+	@Override
+	public double secondAntiderivative(double value) {
+		return -Math.sin(value * Math.PI) / ( Math.PI * Math.PI );
+	}
 }
@@ -33,7 +33,7 @@ package com.esferixis.musicsynthesizer.signal.valueTransformer;
 
 import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
 
-public final class SquareWaveDistorter extends ValueTransformer {
+public final class SquareWaveDistorter extends IntegrableValueTransformer {
 	/* (non-Javadoc)
 	 * @see com.arielcarrizo.musicsynthesizer.signal.valueTransformer.ValueTransformer#transform(float)
 	 */
@@ -41,5 +41,20 @@ public final class SquareWaveDistorter extends ValueTransformer {
 	public float transform(float value) {
 		return (( value > 0.0f) ? 1.0f : -1.0f);
 	}
-
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#antiderivative(double)
+	 */
+	@Override
+	public double antiderivative(double value) {
+		return Math.abs(value);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer#secondAntiderivative(double)
+	 */
+	@Override
+	public double secondAntiderivative(double value) {
+		return value * Math.abs(value) / 2.0;
+	}
 }
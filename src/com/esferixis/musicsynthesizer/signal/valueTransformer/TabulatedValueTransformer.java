@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.valueTransformer;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+
+/**
+ * Transformador de valor que aproxima a otro con una tabla de valores
+ * equiespaciados en un rango de entrada, interpolando linealmente.
+ * Sirve para reemplazar cadenas de transformadores costosos (Funciones
+ * trascendentes, composiciones) por una sola lectura de la tabla por valor.
+ * Fuera del rango aplica el transformador original
+ */
+public final class TabulatedValueTransformer extends ValueTransformer {
+	/**
+	 * Cantidad de puntos por intervalo de la tabla en los que se mide el error
+	 */
+	private static final int ERRORSAMPLESPERSTEP = 8;
+	
+	/**
+	 * Cantidad de ulps de los valores que se agregan a la cota del error
+	 * por el redondeo de la interpolación y del transformador original
+	 */
+	private static final int ROUNDINGULPS = 4;
+	
+	private final ValueTransformer source;
+	private final FloatClosedInterval range;
+	
+	private final float min, max;
+	
+	/**
+	 * Cantidad de intervalos de la tabla por unidad de entrada
+	 */
+	private final float scale;
+	
+	/**
+	 * Valores del transformador original en los extremos de cada intervalo
+	 */
+	private final float[] values;
+	
+	private final float maxError;
+	
+	/**
+	 * @pre El transformador y el rango no pueden ser nulos, el rango tiene que ser
+	 * 		finito y de longitud positiva, y la resolución tiene que ser positiva
+	 * @post Crea la tabulación del transformador especificado en el rango especificado,
+	 * 		 con la cantidad de intervalos especificada, y calcula la cota del error
+	 */
+	public TabulatedValueTransformer(ValueTransformer source, FloatClosedInterval range, int resolution) {
+		if ( ( source != null ) && ( range != null ) ) {
+			if ( resolution > 0 ) {
+				if ( ( range.length() > 0.0f ) && !Float.isInfinite(range.length()) ) {
+					this.source = source;
+					this.range = range;
+					this.min = range.getMin();
+					this.max = range.getMax();
+					this.scale = (float) resolution / range.length();
+					
+					this.values = new float[resolution + 1];
+					
+					final double step = (double) range.length() / (double) resolution;
+					
+					for ( int i = 0 ; i <= resolution ; i++ ) {
+						this.values[i] = source.transform( this.inputValue(step, (double) i) );
+					}
+					
+					final int samplesQuantity = resolution * ERRORSAMPLESPERSTEP;
+					final float[] sourceValues = new float[samplesQuantity + 1];
+					final double[] errors = new double[samplesQuantity + 1];
+					
+					for ( int i = 0 ; i <= samplesQuantity ; i++ ) {
+						final float value = this.inputValue(step, (double) i / (double) ERRORSAMPLESPERSTEP);
+						
+						sourceValues[i] = source.transform(value);
+						errors[i] = Math.abs( (double) this.interpolate(value) - (double) sourceValues[i] );
+					}
+					
+					final double inputRounding = Math.ulp( Math.max( Math.abs(this.min), Math.abs(this.max) ) ) / ( step / (double) ERRORSAMPLESPERSTEP );
+					
+					double maxError = 0.0;
+					for ( int i = 0 ; i < samplesQuantity ; i++ ) {
+						final double curvature = Math.max( secondDifference(sourceValues, i), secondDifference(sourceValues, i + 1) );
+						final double rounding = ROUNDINGULPS * Math.ulp( Math.max( Math.abs(sourceValues[i]), Math.abs(sourceValues[i + 1]) ) ) + Math.abs( (double) sourceValues[i + 1] - (double) sourceValues[i] ) * inputRounding;
+						
+						maxError = Math.max(maxError, Math.max(errors[i], errors[i + 1]) + curvature / 2.0 + rounding);
+					}
+					this.maxError = Math.nextUp( (float) maxError );
+				}
+				else {
+					throw new IllegalArgumentException("Expected finite range with positive length");
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Expected positive resolution");
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve el valor absoluto de la diferencia segunda de los valores
+	 * 		 especificados, centrada en el índice especificado, o en el más cercano
+	 * 		 que tenga vecinos a ambos lados
+	 */
+	private static double secondDifference(float[] values, int index) {
+		final int center = Math.max(1, Math.min(index, values.length - 2));
+		
+		return Math.abs( (double) values[center - 1] - 2.0 * (double) values[center] + (double) values[center + 1] );
+	}
+	
+	/**
+	 * @post Devuelve el valor de entrada en la posición especificada de la tabla,
+	 * 		 con el paso especificado
+	 */
+	private float inputValue(double step, double position) {
+		return (float) Math.min( (double) this.min + step * position, (double) this.max );
+	}
+	
+	/**
+	 * @post Devuelve el transformador original
+	 */
+	public ValueTransformer getSource() {
+		return this.source;
+	}
+	
+	/**
+	 * @post Devuelve el rango de entrada tabulado
+	 */
+	public FloatClosedInterval getRange() {
+		return this.range;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de intervalos de la tabla
+	 */
+	public int getResolution() {
+		return this.values.length - 1;
+	}
+	
+	/**
+	 * @post Devuelve una cota del error absoluto en el rango tabulado.
+	 * 		 Se mide el error en ERRORSAMPLESPERSTEP puntos por intervalo de la tabla,
+	 * 		 y entre cada par de puntos se agrega la mitad de la diferencia segunda
+	 * 		 del transformador original en sus extremos, que acota lo que puede crecer
+	 * 		 el error entre ellos si el transformador es derivable dos veces o tiene
+	 * 		 quiebres o saltos aislados.
+	 * 		 También se agrega el redondeo, de ROUNDINGULPS ulps de los valores más
+	 * 		 el de la posición en la tabla, que es de un ulp del extremo del rango
+	 * 		 de mayor valor absoluto multiplicado por la pendiente
+	 */
+	public float getMaxError() {
+		return this.maxError;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer#transform(float)
+	 */
+	@Override
+	public float transform(float value) {
+		if ( ( value >= this.min ) && ( value <= this.max ) ) {
+			return this.interpolate(value);
+		}
+		else {
+			return this.source.transform(value);
+		}
+	}
+	
+	/**
+	 * @pre El valor tiene que estar en el rango
+	 * @post Devuelve el valor interpolado de la tabla
+	 */
+	private float interpolate(float value) {
+		final float[] values = this.values;
+		
+		final float position = ( value - this.min ) * this.scale;
+		final int index = Math.min( (int) position, values.length - 2 );
+		final float fraction = position - (float) index;
+		
+		return values[index] + ( values[index + 1] - values[index] ) * fraction;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer#uncheckedTransform(float[], int, int)
+	 */
+	@Override
+	protected void uncheckedTransform(float[] values, int offset, int length) {
+		final float min = this.min;
+		final float max = this.max;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			final float value = values[i];
+			
+			if ( ( value >= min ) && ( value <= max ) ) {
+				values[i] = this.interpolate(value);
+			}
+			else {
+				values[i] = this.source.transform(value);
+			}
+		}
+	}
+}
@@ -42,6 +42,13 @@ public final class ValueScaleTransformer extends ValueTransformer {
 	public ValueScaleTransformer(float factor) {
 		this.factor = factor;
 	}
+	
+	/**
+	 * @post Devuelve el factor de escala
+	 */
+	public float getFactor() {
+		return this.factor;
+	}
 
 	/* (non-Javadoc)
 	 * @see com.arielcarrizo.musicsynthesizer.signal.valueTransformer.ValueTransformer#transform(float)
@@ -50,4 +57,16 @@ public final class ValueScaleTransformer extends ValueTransformer {
 	public float transform(float value) {
 		return value * this.factor;
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer#uncheckedTransform(float[], int, int)
+	 */
+	@Override
+	protected void uncheckedTransform(float[] values, int offset, int length) {
+		final float factor = this.factor;
+		
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			values[i] *= factor;
+		}
+	}
 }
@@ -31,29 +31,67 @@
  */
 package com.esferixis.musicsynthesizer.signal.valueTransformer;
 
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+
 public abstract class ValueTransformer {
 	/**
 	 * @post Transforma el valor especificado
 	 */
 	public abstract float transform(float value);
 	
+	/**
+	 * @pre El array de valores no puede ser nulo, y el rango especificado
+	 * 		tiene que estar contenido en el array
+	 * @post Transforma los valores del rango especificado, reemplazándolos
+	 * 		 en el mismo array
+	 */
+	public final void transform(float[] values, int offset, int length) {
+		if ( values != null ) {
+			if ( ( offset >= 0 ) && ( length >= 0 ) && ( length <= values.length - offset ) ) {
+				this.uncheckedTransform(values, offset, length);
+			}
+			else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Transforma los valores del rango especificado (Implementación interna).
+	 * 		 Por defecto transforma valor por valor, las subclases pueden redefinirlo
+	 * 		 con una implementación más eficiente
+	 */
+	protected void uncheckedTransform(float[] values, int offset, int length) {
+		for ( int i = offset ; i < offset + length ; i++ ) {
+			values[i] = this.transform(values[i]);
+		}
+	}
+	
 	/**
 	 * @post Crea una transformación componiéndolo con la transformación especificada.
 	 * 		 Se aplica la transformación especificada, primero
 	 */
 	public final ValueTransformer compose(final ValueTransformer other) {
 		if ( other != null ) {
-			return new ValueTransformer() {
-
-				@Override
-				public float transform(float value) {
-					return ValueTransformer.this.transform( other.transform(value) );
-				}
-				
-			};
+			return new ComposedValueTransformer(other, this);
 		}
 		else {
 			throw new NullPointerException();
 		}
 	}
+	
+	/**
+	 * @pre El rango no puede ser nulo, tiene que ser finito y de longitud positiva,
+	 * 		y la resolución tiene que ser positiva
+	 * @post Devuelve una aproximación con una tabla interpolada linealmente
+	 * 		 de la cantidad de intervalos especificada en el rango de entrada
+	 * 		 especificado, incluyendo las transformaciones compuestas.
+	 * 		 Fuera del rango aplica esta transformación
+	 */
+	public final TabulatedValueTransformer tabulate(FloatClosedInterval range, int resolution) {
+		return new TabulatedValueTransformer(this, range, resolution);
+	}
 }
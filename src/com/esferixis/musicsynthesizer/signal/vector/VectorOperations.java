@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.vector;
+
+/**
+ * Operaciones vectoriales (SIMD) sobre bloques de muestras.
+ * 
+ * La implementación usa el módulo 'jdk.incubator.vector', está en el proyecto
+ * opcional 'vector' (carpeta 'vector/src'), y se carga por reflexión, así que
+ * el proyecto base compila en un JDK sin ese módulo.
+ * Para usarla hay que compilar 'vector/src' contra la salida del proyecto base con
+ * 'javac --add-modules jdk.incubator.vector', agregar su salida al classpath, y
+ * lanzar la JVM con '--add-modules jdk.incubator.vector'.
+ * Si el módulo no está disponible, o si la propiedad del sistema
+ * 'com.esferixis.musicsynthesizer.vector' es 'false', no hay instancia
+ * y las señales y transformaciones usan su implementación escalar.
+ * 
+ * No incluye las operaciones que el compilador JIT ya vectoriza solo, como
+ * el escalado y el recorte de valores.
+ * 
+ * Las operaciones que sólo usan aritmética, comparaciones y redondeo
+ * dan exactamente el mismo resultado que la implementación escalar.
+ * Las que usan funciones trascendentes (Seno y potencia) pueden diferir
+ * de la implementación escalar en a lo sumo MAXTRANSCENDENTALULPS ulps
+ * del resultado en precisión simple.
+ * Las ondas con tiempo de precisión doble, que son las que usa la renderización
+ * por muestras, difieren de la implementación escalar en a lo sumo MAXPRECISEWAVEERROR.
+ * Los índices de muestra de un bloque tienen que ser menores que 2^24
+ */
+public abstract class VectorOperations {
+	/**
+	 * Máxima diferencia, en ulps del resultado en precisión simple, entre
+	 * las operaciones que usan funciones trascendentes y la implementación escalar
+	 */
+	public static final int MAXTRANSCENDENTALULPS = 2;
+	
+	/**
+	 * Máxima diferencia absoluta entre las ondas con tiempo de precisión doble
+	 * y la implementación escalar.
+	 * En la onda de diente de sierra se mide módulo la discontinuidad, porque
+	 * una muestra que cae justo en el salto puede quedar de cualquiera de los dos lados
+	 */
+	public static final float MAXPRECISEWAVEERROR = 1.0e-6f;
+	
+	private static final String IMPLEMENTATIONCLASSNAME = "com.esferixis.musicsynthesizer.signal.vector.IncubatorVectorOperations";
+	private static final String ENABLEPROPERTY = "com.esferixis.musicsynthesizer.vector";
+	
+	private static final VectorOperations INSTANCE = load();
+	
+	/**
+	 * @post Carga la implementación, o devuelve null si no está disponible
+	 */
+	private static VectorOperations load() {
+		if ( !"false".equals(System.getProperty(ENABLEPROPERTY)) ) {
+			try {
+				return (VectorOperations) Class.forName(IMPLEMENTATIONCLASSNAME).getDeclaredConstructor().newInstance();
+			}
+			catch (ReflectiveOperationException e) {
+				return null;
+			}
+			catch (LinkageError e) {
+				return null;
+			}
+		}
+		else {
+			return null;
+		}
+	}
+	
+	/**
+	 * @post Devuelve la instancia, o null si las operaciones vectoriales no están disponibles
+	 */
+	public static VectorOperations getInstance() {
+		return INSTANCE;
+	}
+	
+	/**
+	 * @post Crea las operaciones vectoriales
+	 */
+	VectorOperations() {
+		
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de valores en precisión simple que se procesan a la vez
+	 */
+	public abstract int getLanesQuantity();
+	
+	/**
+	 * @post Evalúa la onda senoidal con el tiempo de comienzo y la frecuencia especificados,
+	 * 		 en los instantes de tiempo startTime + i * timeStep, y la escribe en el rango
+	 * 		 especificado.
+	 * 		 Los instantes de tiempo fuera del intervalo [minTime, maxTime] dan cero
+	 */
+	public abstract void sine(float[] values, int offset, int length, float startTime, float timeStep, float minTime, float maxTime, float t0, float frequency);
+	
+	/**
+	 * @post Evalúa la onda de diente de sierra con el tiempo de comienzo y la frecuencia especificados,
+	 * 		 en los instantes de tiempo startTime + i * timeStep, y la escribe en el rango
+	 * 		 especificado.
+	 * 		 Los instantes de tiempo fuera del intervalo [minTime, maxTime] dan cero
+	 */
+	public abstract void sawtooth(float[] values, int offset, int length, float startTime, float timeStep, float minTime, float maxTime, float t0, float frequency);
+	
+	/**
+	 * @post Evalúa la onda senoidal con el ángulo inicial y el avance de ángulo por muestra
+	 * 		 especificados, en radianes, y la escribe en el rango especificado.
+	 * 		 Es la evaluación con tiempo de precisión doble de SineWave
+	 */
+	public abstract void preciseSine(float[] values, int offset, int length, double angle, double angleStep);
+	
+	/**
+	 * @pre La fase y el avance de fase tienen que estar en el intervalo [0, 1)
+	 * @post Evalúa la onda de diente de sierra con la fase inicial y el avance de fase por muestra
+	 * 		 especificados, en ciclos, y la escribe en el rango especificado.
+	 * 		 Es la evaluación con tiempo de precisión doble de SawtoothWave
+	 */
+	public abstract void preciseSawtooth(float[] values, int offset, int length, double phase, double phaseIncrement);
+	
+	/**
+	 * @post Evalúa la envolvente lineal de ataque y desvanecimiento en el intervalo [minTime, maxTime],
+	 * 		 con los tiempos de ataque y desvanecimiento especificados,
+	 * 		 en los instantes de tiempo startTime + i * timeStep, y la escribe en el rango
+	 * 		 especificado
+	 */
+	public abstract void linearAttackDecay(float[] values, int offset, int length, float startTime, float timeStep, float minTime, float maxTime, float attackTime, float decayTime);
+	
+	/**
+	 * @post Reemplaza los valores del rango especificado por |v|^exponent * signum(v)
+	 */
+	public abstract void power(float[] values, int offset, int length, float exponent);
+}
@@ -0,0 +1,366 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.composition.Event;
+import com.esferixis.musicsynthesizer.composition.note.Note;
+import com.esferixis.musicsynthesizer.instrument.BellOrgan;
+import com.esferixis.musicsynthesizer.instrument.ChurchOrgan;
+import com.esferixis.musicsynthesizer.instrument.Drum;
+import com.esferixis.musicsynthesizer.instrument.Instrument;
+import com.esferixis.musicsynthesizer.instrument.NiceOrgan;
+import com.esferixis.musicsynthesizer.instrument.SawtoothOrgan;
+import com.esferixis.musicsynthesizer.instrument.SineOrgan;
+import com.esferixis.musicsynthesizer.instrument.SquareOrgan;
+import com.esferixis.musicsynthesizer.instrument.guitar.AnalyticGuitar;
+import com.esferixis.musicsynthesizer.instrument.guitar.KarplusStrongStringGuitar;
+import com.esferixis.musicsynthesizer.instrument.organ.OrganEventData;
+import com.esferixis.musicsynthesizer.instrument.signalSynthesizer.SignalSynthesizer;
+import com.esferixis.musicsynthesizer.instrument.string.StringEventData;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousInterpolatedSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousLinearAttackDecaySignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSampledSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSineWaveAddition;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.SignalCompiler;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.SignalMix;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SawtoothWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SineWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SquareWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.TriangleWave;
+import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
+import com.esferixis.musicsynthesizer.signal.discrete.NoiseDiscreteSignal;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.AntiderivativeAntialiasedInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.ContinuousVariableDiscreteDelay;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteDelay;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteFlanger;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteForkerMixerBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockComposition;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockGraph;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.ValueTransformerInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.AverageLowpassFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.BiquadFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.CascadedIntegratorCombFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.ConvolutionFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.HighpassRCFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.LowpassRCFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.oversampling.OversampledInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ArctanDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.PowerDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.SinDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.SquareWaveDistorter;
+
+/**
+ * Verifica que la evaluación en régimen estacionario de las señales,
+ * los instrumentos y los bloques discretos incorporados no reserve memoria.
+ * 
+ * Mide los bytes reservados por el hilo actual (ThreadMXBean) después de
+ * una fase de calentamiento, tomando la menor de varias mediciones, y termina con código de salida distinto de cero
+ * si algún caso reservó memoria
+ */
+public final class TestAllocation {
+	private static final float FREQUENCYRATE = 44100.0f;
+	private static final int BLOCKLENGTH = 1024;
+	private static final int WARMUPBLOCKS = 2000;
+	private static final int MEASUREDBLOCKS = 200;
+	
+	/**
+	 * Cantidad máxima de mediciones por caso. Se toma la menor, para no contar
+	 * reservas aisladas de memoria mientras el compilador JIT termina de optimizar
+	 */
+	private static final int MEASUREMENTS = 3;
+	
+	private static final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
+	private TestAllocation() {}
+	
+	/**
+	 * @post Devuelve los bytes reservados por el hilo actual
+	 */
+	private static long allocatedBytes() {
+		return threadMXBean.getCurrentThreadAllocatedBytes();
+	}
+	
+	/**
+	 * @post Sintetiza una nota del órgano especificado
+	 */
+	private static ContinuousSignal organNote(Instrument<OrganEventData> organ) {
+		final SignalSynthesizer<OrganEventData> signalSynthesizer = organ.createSignalSynthesizer();
+		signalSynthesizer.getNoteEmmiter().emit(new Note<Void, OrganEventData>(null, 2.0f, new Event<OrganEventData>(0.0f, new OrganEventData(49.0f)), new Event<OrganEventData>(1.0f, new OrganEventData(52.0f, 0.5f))));
+		return signalSynthesizer.synthesize();
+	}
+	
+	/**
+	 * @post Sintetiza una nota del instrumento de cuerda especificado
+	 */
+	private static ContinuousSignal stringNote(Instrument<StringEventData> instrument) {
+		final SignalSynthesizer<StringEventData> signalSynthesizer = instrument.createSignalSynthesizer();
+		signalSynthesizer.getNoteEmmiter().emit(new Note<Void, StringEventData>(null, 1.0f, new Event<StringEventData>(0.0f, new StringEventData(21.0f, 0.2f))));
+		return signalSynthesizer.synthesize();
+	}
+	
+	/**
+	 * @post Crea las señales a verificar
+	 */
+	private static Map<String, ContinuousSignal> createSignals() {
+		final Map<String, ContinuousSignal> signals = new LinkedHashMap<String, ContinuousSignal>();
+		final FloatClosedInterval interval = new FloatClosedInterval(0.0f, 4.0f);
+		
+		signals.put("SineWave", new SineWave(interval, 440.0f));
+		signals.put("SquareWave", new SquareWave(interval, 440.0f));
+		signals.put("SawtoothWave", new SawtoothWave(interval, 440.0f));
+		signals.put("TriangleWave", new TriangleWave(interval, 440.0f));
+		signals.put("ContinuousLinearAttackDecaySignal", new ContinuousLinearAttackDecaySignal(interval, 0.5f));
+		signals.put("ContinuousSampledSignal", new SineWave(interval, 440.0f).convertToSampled(FREQUENCYRATE));
+		signals.put("CachedSampledSignal", new SineWave(interval, 440.0f).cached(FREQUENCYRATE));
+		signals.put("ContinuousInterpolatedSignal", new ContinuousInterpolatedSignal(new SineWave(interval, 2.0f), new SquareWave(interval, 440.0f), new SawtoothWave(interval, 220.0f)));
+		signals.put("ContinuousSineWaveAddition", new ContinuousSineWaveAddition(interval, Arrays.asList(new ContinuousSineWaveAddition.Wave(440.0f, 0.0f), new ContinuousSineWaveAddition.Wave(880.0f, 0.5f)), new ContinuousSineWaveAddition.FrequencyAmplitudesFunction() {
+			
+			@Override
+			public float getAmplitude(float f, float t) {
+				return 1.0f / f;
+			}
+			
+		}, 100.0f));
+		signals.put("NoiseDiscreteSignal", new NoiseDiscreteSignal().continuousInterpolatedSignal(interval));
+		signals.put("SignalMix", SignalMix.create(new SineWave(interval, 440.0f), new SquareWave(interval.add(1.0f), 220.0f), new TriangleWave(interval.add(-1.0f), 110.0f)));
+		signals.put("multiplicate", new SineWave(interval, 440.0f).multiplicate(new ContinuousLinearAttackDecaySignal(interval, 0.5f)));
+		signals.put("add", new SineWave(interval, 440.0f).add(new SquareWave(interval, 220.0f)));
+		signals.put("displace", new SineWave(interval, 440.0f).displace(0.5f));
+		signals.put("valueScale", new SineWave(interval, 440.0f).valueScale(0.5f));
+		signals.put("inverseTimeScale", new SineWave(interval, 440.0f).inverseTimeScale(2.0f));
+		signals.put("truncate", new SineWave(interval, 440.0f).truncate(new FloatClosedInterval(1.0f, 3.0f)));
+		signals.put("transformCanonical", SineWave.UNBOUNDEDCANONICAL.transformCanonical(interval, 440.0f));
+		signals.put("morph", new SineWave(interval, 440.0f).morph(new SawtoothWave(interval, 0.25f)));
+		signals.put("convertToPeriodic", new SineWave(new FloatClosedInterval(0.0f, 1.0f), 440.0f).convertToPeriodic().truncate(interval));
+		signals.put("Clipper", new TimeInvariantSignalTransformer(new Clipper(0.5f)).transform(new SineWave(interval, 440.0f)));
+		signals.put("ArctanDistorter", new TimeInvariantSignalTransformer(new ArctanDistorter()).transform(new SineWave(interval, 440.0f)));
+		signals.put("PowerDistorter", new TimeInvariantSignalTransformer(new PowerDistorter(0.5f)).transform(new SineWave(interval, 440.0f)));
+		signals.put("SinDistorter", new TimeInvariantSignalTransformer(new SinDistorter()).transform(new SineWave(interval, 440.0f)));
+		signals.put("SquareWaveDistorter", new TimeInvariantSignalTransformer(new SquareWaveDistorter().compose(new Clipper(0.9f))).transform(new SineWave(interval, 440.0f)));
+		signals.put("TabulatedValueTransformer", new TimeInvariantSignalTransformer(new ArctanDistorter().compose(new PowerDistorter(0.5f)), new FloatClosedInterval(-1.0f, 1.0f), 1024).transform(new SineWave(interval, 440.0f)));
+		{
+			final ContinuousSignal compilableSignal = SignalMix.create(new SineWave(interval, 440.0f).multiplicate(new ContinuousLinearAttackDecaySignal(interval, 0.5f)).displace(0.5f), new TimeInvariantSignalTransformer(new Clipper(0.5f)).transform(SineWave.UNBOUNDEDCANONICAL.transformCanonical(interval, 220.0f)).inverseTimeScale(2.0f));
+			
+			signals.put("CompiledSignal", SignalCompiler.compile(compilableSignal));
+			signals.put("BytecodeCompiledSignal", SignalCompiler.compile(compilableSignal, SignalCompiler.Backend.BYTECODE));
+		}
+		{
+			final List<ContinuousSignal> notes = new ArrayList<ContinuousSignal>();
+			
+			for ( int i = 0 ; i < 100 ; i++ ) {
+				final FloatClosedInterval noteInterval = new FloatClosedInterval(0.04f * (float) i, 0.04f * (float) i + 0.5f);
+				
+				notes.add(new SineWave(noteInterval, 220.0f + (float) i).multiplicate(new ContinuousLinearAttackDecaySignal(noteInterval, 0.1f)));
+			}
+			
+			signals.put("IndexedCompiledSignalMix", SignalCompiler.compile(SignalMix.create(notes), SignalCompiler.Backend.BYTECODE));
+		}
+		
+		signals.put("SineOrgan", organNote(new SineOrgan()));
+		signals.put("SquareOrgan", organNote(new SquareOrgan()));
+		signals.put("SawtoothOrgan", organNote(new SawtoothOrgan()));
+		signals.put("ChurchOrgan", organNote(new ChurchOrgan()));
+		signals.put("NiceOrgan", organNote(new NiceOrgan()));
+		signals.put("BellOrgan", organNote(new BellOrgan()));
+		signals.put("Drum", organNote(new Drum(0.01f, 1000.0f, 5.0f)));
+		signals.put("AnalyticGuitar", organNote(new AnalyticGuitar(1.0f, 0.2f, 0.001f)));
+		signals.put("KarplusStrongStringGuitar", stringNote(new KarplusStrongStringGuitar()));
+		
+		return signals;
+	}
+	
+	/**
+	 * @post Crea los bloques discretos a verificar
+	 */
+	private static Map<String, DiscreteInputOutputBlock> createBlocks() {
+		final Map<String, DiscreteInputOutputBlock> blocks = new LinkedHashMap<String, DiscreteInputOutputBlock>();
+		
+		blocks.put("DiscreteDelay", new DiscreteDelay(100));
+		blocks.put("DiscreteFlanger", new DiscreteFlanger(100));
+		blocks.put("ContinuousVariableDiscreteDelay", new ContinuousVariableDiscreteDelay(new SineWave(0.0f, 0.5f), 0.01f, FREQUENCYRATE, ContinuousVariableDiscreteDelay.Interpolation.LAGRANGE));
+		blocks.put("AverageLowpassFilterBlock", new AverageLowpassFilterBlock(30));
+		blocks.put("CascadedIntegratorCombFilterBlock", new CascadedIntegratorCombFilterBlock(30, 3));
+		blocks.put("ConvolutionFilterBlock", new ConvolutionFilterBlock(new float[] { 0.25f, 0.5f, 0.25f }));
+		
+		final float[] impulseResponse = new float[20000];
+		for ( int i = 0 ; i < impulseResponse.length ; i++ ) {
+			impulseResponse[i] = (float) Math.exp( -(float) i / 2000.0f ) * ( ( i % 2 == 0 ) ? 1.0f : -1.0f );
+		}
+		blocks.put("PartitionedConvolutionFilterBlock", new ConvolutionFilterBlock(impulseResponse));
+		blocks.put("LowpassRCFilterBlock", new LowpassRCFilterBlock(0.1f));
+		blocks.put("HighpassRCFilterBlock", HighpassRCFilterBlock.createFactory(0.1f).create());
+		blocks.put("BiquadFilterBlock", new BiquadFilterBlock(BiquadFilterBlock.Type.LOWPASS, 0.05f, 0.707f));
+		blocks.put("ValueTransformerInputOutputBlock", new ValueTransformerInputOutputBlock(new ArctanDistorter()));
+		blocks.put("AntiderivativeAntialiasedInputOutputBlock", new AntiderivativeAntialiasedInputOutputBlock(new ArctanDistorter(), AntiderivativeAntialiasedInputOutputBlock.Order.FIRST));
+		blocks.put("SecondOrderAntiderivativeAntialiasedInputOutputBlock", AntiderivativeAntialiasedInputOutputBlock.createFactory(new Clipper(0.5f), AntiderivativeAntialiasedInputOutputBlock.Order.SECOND).create());
+		blocks.put("DiscreteInputOutputBlockComposition", DiscreteInputOutputBlockComposition.createFactory(AverageLowpassFilterBlock.createFactory(10), LowpassRCFilterBlock.createFactory(0.1f), ValueTransformerInputOutputBlock.createFactory(new Clipper(0.5f))).create());
+		blocks.put("DiscreteForkerMixerBlock", DiscreteForkerMixerBlock.createFactory(DiscreteFlanger.createFactory(50), HighpassRCFilterBlock.createFactory(0.1f)).create());
+		blocks.put("DiscreteInputOutputBlockGraph", new DiscreteInputOutputBlockGraph.Builder()
+				.addBlock("low", LowpassRCFilterBlock.createFactory(0.05f), DiscreteInputOutputBlockGraph.INPUT)
+				.addBlock("high", HighpassRCFilterBlock.createFactory(0.05f), DiscreteInputOutputBlockGraph.INPUT)
+				.addBlock("highClipped", ValueTransformerInputOutputBlock.createFactory(new Clipper(0.5f)), "high")
+				.setOutput("low", "highClipped", DiscreteInputOutputBlockGraph.INPUT)
+				.createFactory().create());
+		blocks.put("OversampledInputOutputBlock", OversampledInputOutputBlock.createFactory(ValueTransformerInputOutputBlock.createFactory(new Clipper(0.5f)), 4).create());
+		
+		return blocks;
+	}
+	
+	/**
+	 * @post Evalúa la señal especificada muestra por muestra, por bloques y
+	 * 		 por bloques con índice de muestra, recorriendo cíclicamente
+	 * 		 su intervalo de tiempo
+	 */
+	private static float renderSignal(ContinuousSignal signal, float[] buffer, int blocks) {
+		final float timeStep = 1.0f / FREQUENCYRATE;
+		final float minTime = signal.getTimeInterval().getMin();
+		final long firstSample = (long) Math.floor( (double) minTime * (double) FREQUENCYRATE );
+		final int samplesQuantity = Math.max(BLOCKLENGTH, (int) (signal.getTimeInterval().length() * FREQUENCYRATE));
+		float checksum = 0.0f;
+		
+		for ( int i = 0 ; i < blocks ; i++ ) {
+			final int startSample = (int) ( (long) i * BLOCKLENGTH % samplesQuantity );
+			final float startTime = minTime + (float) startSample * timeStep;
+			
+			signal.getValues(buffer, 0, BLOCKLENGTH, startTime, timeStep);
+			
+			for ( int j = 0 ; j < BLOCKLENGTH ; j++ ) {
+				checksum += buffer[j] + signal.getValue(startTime + (float) j * timeStep);
+			}
+			
+			signal.getSampledValues(buffer, 0, BLOCKLENGTH, firstSample + startSample, (double) FREQUENCYRATE);
+			
+			for ( int j = 0 ; j < BLOCKLENGTH ; j++ ) {
+				checksum += buffer[j];
+			}
+		}
+		
+		return checksum;
+	}
+	
+	/**
+	 * @post Procesa la cantidad de bloques de muestras especificada con el bloque
+	 * 		 discreto especificado, muestra por muestra y por bloques
+	 */
+	private static float processBlock(DiscreteInputOutputBlock block, float[] buffer, int blocks) {
+		float checksum = 0.0f;
+		
+		for ( int i = 0 ; i < blocks ; i++ ) {
+			for ( int j = 0 ; j < BLOCKLENGTH ; j++ ) {
+				block.getInput().write( (float) Math.sin( (float) j * 0.01f ) );
+				checksum += block.getOutput().read();
+			}
+			
+			for ( int j = 0 ; j < BLOCKLENGTH ; j++ ) {
+				buffer[j] = (float) Math.sin( (float) j * 0.01f );
+			}
+			
+			block.process(buffer, buffer, 0, BLOCKLENGTH);
+			
+			for ( int j = 0 ; j < BLOCKLENGTH ; j++ ) {
+				checksum += buffer[j];
+			}
+		}
+		
+		return checksum;
+	}
+	
+	public static void main(String[] args) {
+		if ( threadMXBean.isThreadAllocatedMemorySupported() ) {
+			threadMXBean.setThreadAllocatedMemoryEnabled(true);
+			
+			final float[] buffer = new float[BLOCKLENGTH];
+			final List<String> failedCases = new ArrayList<String>();
+			float checksum = 0.0f;
+			
+			for ( Map.Entry<String, ContinuousSignal> eachEntry : createSignals().entrySet() ) {
+				checksum += renderSignal(eachEntry.getValue(), buffer, WARMUPBLOCKS);
+				
+				long bytes = Long.MAX_VALUE;
+				for ( int i = 0 ; ( i < MEASUREMENTS ) && ( bytes != 0 ) ; i++ ) {
+					final long startBytes = allocatedBytes();
+					checksum += renderSignal(eachEntry.getValue(), buffer, MEASUREDBLOCKS);
+					bytes = Math.min(bytes, allocatedBytes() - startBytes);
+				}
+				
+				report(eachEntry.getKey(), bytes, failedCases);
+			}
+			
+			for ( Map.Entry<String, DiscreteInputOutputBlock> eachEntry : createBlocks().entrySet() ) {
+				checksum += processBlock(eachEntry.getValue(), buffer, WARMUPBLOCKS);
+				
+				long bytes = Long.MAX_VALUE;
+				for ( int i = 0 ; ( i < MEASUREMENTS ) && ( bytes != 0 ) ; i++ ) {
+					final long startBytes = allocatedBytes();
+					checksum += processBlock(eachEntry.getValue(), buffer, MEASUREDBLOCKS);
+					bytes = Math.min(bytes, allocatedBytes() - startBytes);
+				}
+				
+				report(eachEntry.getKey(), bytes, failedCases);
+			}
+			
+			System.out.println("Checksum: " + checksum);
+			
+			if ( !failedCases.isEmpty() ) {
+				System.err.println("Cases with steady state allocation: " + failedCases);
+				System.exit(1);
+			}
+		}
+		else {
+			System.err.println("Thread allocated memory measurement isn't supported");
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * @post Informa el resultado del caso especificado, agregándolo a la lista
+	 * 		 de casos fallidos si reservó memoria
+	 */
+	private static void report(String caseName, long bytes, List<String> failedCases) {
+		System.out.println(caseName + ": " + bytes + " bytes");
+		
+		if ( bytes != 0 ) {
+			failedCases.add(caseName);
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.AntiderivativeAntialiasedInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ArctanDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.IntegrableValueTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.SinDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.SquareWaveDistorter;
+
+/**
+ * Verifica las primitivas de cada IntegrableValueTransformer, derivándolas
+ * numéricamente y comparando con la transformación y con la primitiva.
+ * 
+ * También verifica que AntiderivativeAntialiasedInputOutputBlock, con ambos órdenes,
+ * dé lo mismo que el transformador sin antialias, con la latencia del bloque,
+ * cuando la entrada varía lentamente o es constante (Donde se usa la transformación
+ * en el punto medio en lugar de las diferencias divididas).
+ * Y que el segundo orden, cuando una muestra es igual a la que está dos muestras atrás,
+ * dé el promedio de la transformación sobre el segmento con peso triangular.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestAntiderivativeAntialiasing {
+	private static final double MINVALUE = -4.0;
+	private static final double MAXVALUE = 4.0;
+	
+	/**
+	 * Distancia entre los valores en los que se deriva, que son puntos medios de los
+	 * intervalos, para no caer en las discontinuidades en 0 ni en los quiebres
+	 */
+	private static final double VALUESTEP = 0.01;
+	
+	private static final double DERIVATIVESTEP = 1e-5;
+	private static final double DERIVATIVETOLERANCE = 1e-5;
+	
+	private static final int SLOWINPUTLENGTH = 100000;
+	private static final double SLOWINPUTAMPLITUDE = 2.0;
+	
+	/**
+	 * Frecuencia relativa de la entrada lenta, con diferencias entre muestras
+	 * consecutivas de hasta 1.3e-4, alrededor de las tolerancias del bloque
+	 */
+	private static final double SLOWINPUTFREQUENCY = 1e-5;
+	private static final double SLOWINPUTTOLERANCE = 1e-6;
+	
+	private static final float[] CONSTANTVALUES = new float[] { -3.0f, -0.5f, 0.0f, 0.25f, 0.75f, 2.0f };
+	
+	/**
+	 * Pares de valores alternados para el segundo orden
+	 */
+	private static final float[][] ALTERNATINGVALUES = new float[][] { { 0.3f, 0.8f }, { -0.7f, 0.2f }, { 1.5f, -1.0f } };
+	private static final int ALTERNATINGLENGTH = 16;
+	private static final int INTEGRATIONSTEPS = 100000;
+	private static final double ALTERNATINGTOLERANCE = 1e-4;
+	
+	private TestAntiderivativeAntialiasing() {}
+	
+	/**
+	 * @post Crea los transformadores a verificar
+	 */
+	private static Map<String, IntegrableValueTransformer> createValueTransformers() {
+		final Map<String, IntegrableValueTransformer> valueTransformers = new LinkedHashMap<String, IntegrableValueTransformer>();
+		
+		valueTransformers.put("SinDistorter", new SinDistorter());
+		valueTransformers.put("ArctanDistorter", new ArctanDistorter());
+		valueTransformers.put("SquareWaveDistorter", new SquareWaveDistorter());
+		valueTransformers.put("Clipper", Clipper.CANONICAL);
+		valueTransformers.put("Clipper 0.5", new Clipper(0.5f));
+		
+		return valueTransformers;
+	}
+	
+	/**
+	 * @post Devuelve si la derivada numérica de la primitiva y de la primitiva
+	 * 		 segunda coinciden con la transformación y con la primitiva, respectivamente,
+	 * 		 en todo el intervalo de valores
+	 */
+	private static boolean derivativesMatch(IntegrableValueTransformer valueTransformer, boolean second) {
+		boolean match = true;
+		
+		for ( double value = MINVALUE + VALUESTEP / 2.0 ; value < MAXVALUE ; value += VALUESTEP ) {
+			final double derivative, expectedDerivative;
+			
+			if ( second ) {
+				derivative = ( valueTransformer.secondAntiderivative(value + DERIVATIVESTEP) - valueTransformer.secondAntiderivative(value - DERIVATIVESTEP) ) / ( 2.0 * DERIVATIVESTEP );
+				expectedDerivative = valueTransformer.antiderivative(value);
+			}
+			else {
+				derivative = ( valueTransformer.antiderivative(value + DERIVATIVESTEP) - valueTransformer.antiderivative(value - DERIVATIVESTEP) ) / ( 2.0 * DERIVATIVESTEP );
+				expectedDerivative = valueTransformer.transform((float) value);
+			}
+			
+			match &= Math.abs(derivative - expectedDerivative) <= DERIVATIVETOLERANCE * Math.max(1.0, Math.abs(expectedDerivative));
+		}
+		
+		return match;
+	}
+	
+	/**
+	 * @post Devuelve los valores en los que la transformación especificada
+	 * 		 no es derivable
+	 */
+	private static float[] breakpoints(IntegrableValueTransformer valueTransformer) {
+		if ( valueTransformer instanceof Clipper ) {
+			final float maxAbsValue = ( (Clipper) valueTransformer ).getMaxAbsValue();
+			return new float[] { -maxAbsValue, maxAbsValue };
+		}
+		else if ( valueTransformer instanceof SquareWaveDistorter ) {
+			return new float[] { 0.0f };
+		}
+		else {
+			return new float[0];
+		}
+	}
+	
+	/**
+	 * @post Devuelve si el bloque antialias da lo mismo que el transformador
+	 * 		 sin antialias con una entrada que varía lentamente.
+	 * 		 Se omiten las muestras en las que hay un valor en el que la transformación
+	 * 		 no es derivable entre la muestra y la que está dos muestras atrás,
+	 * 		 porque ahí el antialias promedia el salto o el quiebre
+	 */
+	private static boolean slowInputMatches(IntegrableValueTransformer valueTransformer, AntiderivativeAntialiasedInputOutputBlock.Order order) {
+		final float[] input = new float[SLOWINPUTLENGTH];
+		for ( int i = 0 ; i < SLOWINPUTLENGTH ; i++ ) {
+			input[i] = (float) ( SLOWINPUTAMPLITUDE * Math.sin(2.0 * Math.PI * SLOWINPUTFREQUENCY * (double) i) );
+		}
+		
+		final float[] output = input.clone();
+		new AntiderivativeAntialiasedInputOutputBlock(valueTransformer, order).process(output, output, 0, output.length);
+		
+		final float[] breakpoints = breakpoints(valueTransformer);
+		
+		boolean match = true;
+		for ( int i = 2 ; i < SLOWINPUTLENGTH ; i++ ) {
+			final float minValue = Math.min(input[i], Math.min(input[i-1], input[i-2]));
+			final float maxValue = Math.max(input[i], Math.max(input[i-1], input[i-2]));
+			
+			boolean smooth = true;
+			for ( float breakpoint : breakpoints ) {
+				smooth &= ( breakpoint < minValue ) || ( breakpoint > maxValue );
+			}
+			
+			if ( smooth ) {
+				final float expectedValue;
+				if ( order == AntiderivativeAntialiasedInputOutputBlock.Order.FIRST ) {
+					expectedValue = valueTransformer.transform( (float) ( ( (double) input[i] + (double) input[i-1] ) / 2.0 ) );
+				}
+				else {
+					expectedValue = valueTransformer.transform(input[i-1]);
+				}
+				
+				match &= Math.abs(output[i] - expectedValue) <= SLOWINPUTTOLERANCE;
+			}
+		}
+		
+		return match;
+	}
+	
+	/**
+	 * @post Devuelve si el bloque antialias, con una entrada constante, da
+	 * 		 la transformación de la constante después de la latencia
+	 */
+	private static boolean constantInputMatches(IntegrableValueTransformer valueTransformer, AntiderivativeAntialiasedInputOutputBlock.Order order) {
+		boolean match = true;
+		
+		for ( float value : CONSTANTVALUES ) {
+			final AntiderivativeAntialiasedInputOutputBlock block = new AntiderivativeAntialiasedInputOutputBlock(valueTransformer, order);
+			
+			for ( int i = 0 ; i < 4 ; i++ ) {
+				block.getInput().write(value);
+			}
+			
+			match &= ( block.getOutput().read() == valueTransformer.transform(value) );
+		}
+		
+		return match;
+	}
+	
+	/**
+	 * @post Devuelve si el segundo orden, con una entrada que alterna entre dos valores,
+	 * 		 da el promedio de la transformación sobre el segmento entre la muestra
+	 * 		 y la anterior, con peso 2(1-s) en la posición s desde la muestra
+	 */
+	private static boolean alternatingInputMatches(IntegrableValueTransformer valueTransformer) {
+		boolean match = true;
+		
+		for ( float[] values : ALTERNATINGVALUES ) {
+			final float[] input = new float[ALTERNATINGLENGTH];
+			for ( int i = 0 ; i < ALTERNATINGLENGTH ; i++ ) {
+				input[i] = values[i % 2];
+			}
+			
+			final float[] output = input.clone();
+			new AntiderivativeAntialiasedInputOutputBlock(valueTransformer, AntiderivativeAntialiasedInputOutputBlock.Order.SECOND).process(output, output, 0, output.length);
+			
+			for ( int i = 2 ; i < ALTERNATINGLENGTH ; i++ ) {
+				final double value = input[i];
+				final double previousValue = input[i-1];
+				
+				double expectedValue = 0.0;
+				for ( int j = 0 ; j < INTEGRATIONSTEPS ; j++ ) {
+					final double s = ( (double) j + 0.5 ) / (double) INTEGRATIONSTEPS;
+					expectedValue += 2.0 * ( 1.0 - s ) * valueTransformer.transform( (float) ( value + s * ( previousValue - value ) ) );
+				}
+				expectedValue /= (double) INTEGRATIONSTEPS;
+				
+				match &= Math.abs(output[i] - expectedValue) <= ALTERNATINGTOLERANCE;
+			}
+		}
+		
+		return match;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final List<String> failedCases = new ArrayList<String>();
+		
+		for ( Map.Entry<String, IntegrableValueTransformer> entry : createValueTransformers().entrySet() ) {
+			final String name = entry.getKey();
+			final IntegrableValueTransformer valueTransformer = entry.getValue();
+			
+			report(name + ", antiderivative derivative", derivativesMatch(valueTransformer, false), failedCases);
+			report(name + ", second antiderivative derivative", derivativesMatch(valueTransformer, true), failedCases);
+			
+			for ( AntiderivativeAntialiasedInputOutputBlock.Order order : AntiderivativeAntialiasedInputOutputBlock.Order.values() ) {
+				report(name + ", " + order + " order, slow input", slowInputMatches(valueTransformer, order), failedCases);
+				report(name + ", " + order + " order, constant input", constantInputMatches(valueTransformer, order), failedCases);
+			}
+			
+			report(name + ", SECOND order, alternating input", alternatingInputMatches(valueTransformer), failedCases);
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.AverageLowpassFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.CascadedIntegratorCombFilterBlock;
+
+/**
+ * Verifica AverageLowpassFilterBlock comparando con un promedio de la ventana
+ * calculado de nuevo en cada muestra en doble precisión, sobre una entrada aleatoria
+ * larga con componente continua, para detectar la deriva de la suma acumulada.
+ * Se admite el error de redondeo de una vuelta de la ventana: media ulp de la mayor
+ * suma posible por cada suma y cada resta, más el de la multiplicación por la inversa
+ * de la cantidad de muestras.
+ * 
+ * También verifica que CascadedIntegratorCombFilterBlock tenga ganancia unitaria
+ * en continua, que su respuesta al impulso sea la de los promedios en cascada
+ * y que su centro coincida con getGroupDelay().
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestAverageFilters {
+	private static final int LENGTH = 1000000;
+	private static final int MAXCHUNKLENGTH = 1000;
+	private static final int[] WINDOWS = new int[] { 1, 7, 30, 257 };
+	
+	/**
+	 * Componente continua y amplitud del ruido de la entrada aleatoria
+	 */
+	private static final float OFFSET = 100.0f;
+	private static final float NOISEAMPLITUDE = 1.0f;
+	
+	
+	private static final int[][] CICCONFIGURATIONS = new int[][] { { 1, 1 }, { 30, 3 }, { 16, 5 }, { 100, 2 } };
+	private static final float[] DCVALUES = new float[] { 1.0f, -0.37f, 1000.0f };
+	private static final double CICTOLERANCE = 1e-5;
+	
+	private TestAverageFilters() {}
+	
+	/**
+	 * @post Devuelve el promedio de las últimas muestras de la cantidad especificada,
+	 * 		 con ceros antes del inicio, calculado de nuevo en cada muestra
+	 */
+	private static double[] naiveAverage(float[] input, int samples) {
+		final double[] output = new double[input.length];
+		
+		for ( int i = 0 ; i < input.length ; i++ ) {
+			double sum = 0.0;
+			for ( int j = Math.max(0, i - samples + 1) ; j <= i ; j++ ) {
+				sum += input[j];
+			}
+			output[i] = sum / (double) samples;
+		}
+		
+		return output;
+	}
+	
+	/**
+	 * @post Procesa la entrada con el bloque especificado, por bloques de tamaño aleatorio,
+	 * 		 y devuelve la salida
+	 */
+	private static float[] process(DiscreteInputOutputBlock block, float[] input, Random random) {
+		final float[] output = input.clone();
+		
+		for ( int offset = 0 ; offset < output.length ; ) {
+			final int length = Math.min(output.length - offset, 1 + random.nextInt(MAXCHUNKLENGTH));
+			block.process(output, output, offset, length);
+			offset += length;
+		}
+		
+		return output;
+	}
+	
+	/**
+	 * @post Devuelve el error máximo de los valores respecto de los valores esperados
+	 */
+	private static double maxError(float[] values, double[] expectedValues) {
+		double maxError = 0.0;
+		for ( int i = 0 ; i < values.length ; i++ ) {
+			maxError = Math.max(maxError, Math.abs( (double) values[i] - expectedValues[i] ));
+		}
+		return maxError;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final Random random = new Random(0);
+		final List<String> failedCases = new ArrayList<String>();
+		
+		final float[] input = new float[LENGTH];
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			input[i] = OFFSET + ( random.nextFloat() * 2.0f - 1.0f ) * NOISEAMPLITUDE;
+		}
+		
+		for ( int samples : WINDOWS ) {
+			final float[] output = process(new AverageLowpassFilterBlock(samples), input, random);
+			final double tolerance = Math.ulp( (float) samples * ( OFFSET + NOISEAMPLITUDE ) ) + Math.ulp(OFFSET + NOISEAMPLITUDE);
+			
+			report("Average of " + samples + " samples matches the naive average", maxError(output, naiveAverage(input, samples)) <= tolerance, failedCases);
+		}
+		
+		for ( int[] configuration : CICCONFIGURATIONS ) {
+			final int samples = configuration[0];
+			final int stagesQuantity = configuration[1];
+			final String prefix = "CIC of " + samples + " samples and " + stagesQuantity + " stages, ";
+			final int impulseResponseLength = stagesQuantity * ( samples - 1 ) + 1;
+			
+			boolean unitDCGain = true;
+			for ( float value : DCVALUES ) {
+				final float[] values = new float[impulseResponseLength + MAXCHUNKLENGTH];
+				Arrays.fill(values, value);
+				new CascadedIntegratorCombFilterBlock(samples, stagesQuantity).process(values, values, 0, values.length);
+				
+				for ( int i = impulseResponseLength - 1 ; i < values.length ; i++ ) {
+					unitDCGain &= Math.abs(values[i] - value) <= CICTOLERANCE * Math.abs(value);
+				}
+			}
+			report(prefix + "DC gain", unitDCGain, failedCases);
+			
+			final float[] impulseResponse = new float[impulseResponseLength + MAXCHUNKLENGTH];
+			impulseResponse[0] = 1.0f;
+			final CascadedIntegratorCombFilterBlock cic = new CascadedIntegratorCombFilterBlock(samples, stagesQuantity);
+			cic.process(impulseResponse, impulseResponse, 0, impulseResponse.length);
+			
+			double[] expectedImpulseResponse = new double[impulseResponse.length];
+			expectedImpulseResponse[0] = 1.0;
+			for ( int stage = 0 ; stage < stagesQuantity ; stage++ ) {
+				final float[] stageInput = new float[expectedImpulseResponse.length];
+				for ( int i = 0 ; i < stageInput.length ; i++ ) {
+					stageInput[i] = (float) expectedImpulseResponse[i];
+				}
+				expectedImpulseResponse = naiveAverage(stageInput, samples);
+			}
+			report(prefix + "impulse response", maxError(impulseResponse, expectedImpulseResponse) <= CICTOLERANCE, failedCases);
+			
+			double sum = 0.0;
+			double weightedSum = 0.0;
+			for ( int i = 0 ; i < impulseResponse.length ; i++ ) {
+				sum += impulseResponse[i];
+				weightedSum += (double) impulseResponse[i] * (double) i;
+			}
+			report(prefix + "group delay", Math.abs(weightedSum / sum - cic.getGroupDelay()) <= CICTOLERANCE * impulseResponseLength, failedCases);
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
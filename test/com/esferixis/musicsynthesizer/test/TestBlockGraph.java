@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockGraph;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.ValueTransformerInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.BiquadFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.ConvolutionFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.HighpassRCFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.LowpassRCFilterBlock;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+
+/**
+ * Verifica que un grafo de bloques con bifurcaciones, nodos de suma, la entrada del
+ * grafo usada varias veces y buffers reutilizados sea equivalente bit a bit a los
+ * mismos bloques conectados a mano.
+ * 
+ * El grafo se procesa en el mismo array, por bloques de tamaño aleatorio.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestBlockGraph {
+	private static final int LENGTH = 50000;
+	private static final int MAXCHUNKLENGTH = 1000;
+	
+	private static final DiscreteInputOutputBlock.Factory LOWPASS = LowpassRCFilterBlock.createFactory(0.05f);
+	private static final DiscreteInputOutputBlock.Factory SECONDLOWPASS = LowpassRCFilterBlock.createFactory(0.01f);
+	private static final DiscreteInputOutputBlock.Factory HIGHPASS = HighpassRCFilterBlock.createFactory(0.02f);
+	private static final DiscreteInputOutputBlock.Factory FIR = ConvolutionFilterBlock.createFactory(new float[] { 0.5f, -0.25f, 0.125f, 0.3f, -0.1f });
+	private static final DiscreteInputOutputBlock.Factory CLIPPER = ValueTransformerInputOutputBlock.createFactory(new Clipper(0.6f));
+	private static final DiscreteInputOutputBlock.Factory BIQUAD = BiquadFilterBlock.createFactory(BiquadFilterBlock.Type.LOWPASS, 0.1f, 0.707f);
+	
+	private TestBlockGraph() {}
+	
+	/**
+	 * @post Crea la fábrica del grafo de prueba
+	 */
+	private static DiscreteInputOutputBlock.Factory createGraphFactory() {
+		return new DiscreteInputOutputBlockGraph.Builder()
+			.addBlock("post", BIQUAD, "clipped", "secondLowpass")
+			.addBlock("lowpass", LOWPASS, DiscreteInputOutputBlockGraph.INPUT)
+			.addBlock("highpass", HIGHPASS, DiscreteInputOutputBlockGraph.INPUT)
+			.addBlock("secondLowpass", SECONDLOWPASS, "lowpass")
+			.addBlock("fir", FIR, "highpass")
+			.addSum("mix", "fir", "lowpass", DiscreteInputOutputBlockGraph.INPUT)
+			.addBlock("clipped", CLIPPER, "mix")
+			.addBlock("unused", LOWPASS, "mix")
+			.setOutput("post", "highpass", DiscreteInputOutputBlockGraph.INPUT)
+			.createFactory();
+	}
+	
+	/**
+	 * @post Procesa los valores con un bloque nuevo creado con la fábrica especificada,
+	 * 		 y devuelve el resultado
+	 */
+	private static float[] process(DiscreteInputOutputBlock.Factory factory, float[] values) {
+		final float[] result = values.clone();
+		factory.create().process(result, result, 0, result.length);
+		return result;
+	}
+	
+	/**
+	 * @post Devuelve la suma, en orden, de los valores especificados
+	 */
+	private static float[] sum(float[]... values) {
+		final float[] result = values[0].clone();
+		
+		for ( int j = 1 ; j < values.length ; j++ ) {
+			for ( int i = 0 ; i < result.length ; i++ ) {
+				result[i] += values[j][i];
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @post Procesa la entrada especificada con los bloques del grafo de prueba,
+	 * 		 conectados a mano
+	 */
+	private static float[] processByHand(float[] input) {
+		final float[] lowpass = process(LOWPASS, input);
+		final float[] highpass = process(HIGHPASS, input);
+		final float[] secondLowpass = process(SECONDLOWPASS, lowpass);
+		final float[] fir = process(FIR, highpass);
+		final float[] mix = sum(fir, lowpass, input);
+		final float[] clipped = process(CLIPPER, mix);
+		final float[] post = process(BIQUAD, sum(clipped, secondLowpass));
+		
+		return sum(post, highpass, input);
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final Random random = new Random(0);
+		final float[] input = new float[LENGTH];
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			input[i] = random.nextFloat() * 2.0f - 1.0f;
+		}
+		
+		final List<String> failedCases = new ArrayList<String>();
+		final DiscreteInputOutputBlockGraph graph = (DiscreteInputOutputBlockGraph) createGraphFactory().create();
+		
+		report("Unused node discarded", graph.getStepsQuantity() == 7, failedCases);
+		report("Buffers reused", graph.getBuffersQuantity() < graph.getStepsQuantity(), failedCases);
+		
+		final float[] values = input.clone();
+		for ( int offset = 0 ; offset < LENGTH ; ) {
+			final int length = Math.min(LENGTH - offset, 1 + random.nextInt(MAXCHUNKLENGTH));
+			graph.process(values, values, offset, length);
+			offset += length;
+		}
+		
+		final float[] expectedValues = processByHand(input);
+		boolean equivalent = true;
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			equivalent &= ( Float.floatToIntBits(values[i]) == Float.floatToIntBits(expectedValues[i]) );
+		}
+		report("Equivalence with blocks wired by hand", equivalent, failedCases);
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SineWave;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.AntiderivativeAntialiasedInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.ContinuousVariableDiscreteDelay;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteDelay;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteFlanger;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteForkerMixerBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockComposition;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockGraph;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlockPool;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.ValueTransformerInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.AverageLowpassFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.BiquadFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.CascadedIntegratorCombFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.ConvolutionFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.HighpassRCFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.LowpassRCFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.oversampling.OversampledInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ArctanDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+
+/**
+ * Verifica que cada tipo de bloque, después de procesar una entrada aleatoria
+ * y reiniciarlo con reset(), produzca exactamente la misma salida que un bloque
+ * nuevo creado con la misma fábrica.
+ * 
+ * También verifica que los bloques que devuelve DiscreteInputOutputBlockPool
+ * después de liberarlos estén reiniciados.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestBlockReset {
+	private static final int LENGTH = 30000;
+	private static final int PERSAMPLELENGTH = 500;
+	private static final int MAXCHUNKLENGTH = 1000;
+	private static final float SAMPLERATE = 44100.0f;
+	
+	private TestBlockReset() {}
+	
+	/**
+	 * @post Crea las fábricas de los tipos de bloque a verificar
+	 */
+	private static Map<String, DiscreteInputOutputBlock.Factory> createFactories() {
+		final Map<String, DiscreteInputOutputBlock.Factory> factories = new LinkedHashMap<String, DiscreteInputOutputBlock.Factory>();
+		
+		factories.put("DiscreteDelay", new DiscreteInputOutputBlock.Factory() {
+
+			@Override
+			public DiscreteInputOutputBlock create() {
+				return new DiscreteDelay(100);
+			}
+			
+		});
+		factories.put("DiscreteFlanger", DiscreteFlanger.createFactory(100));
+		
+		for ( ContinuousVariableDiscreteDelay.Interpolation interpolation : ContinuousVariableDiscreteDelay.Interpolation.values() ) {
+			factories.put("ContinuousVariableDiscreteDelay " + interpolation, ContinuousVariableDiscreteDelay.createFactory(new SineWave(0.0f, 0.5f), 0.01f, SAMPLERATE, interpolation));
+		}
+		
+		factories.put("AverageLowpassFilterBlock", AverageLowpassFilterBlock.createFactory(30));
+		factories.put("CascadedIntegratorCombFilterBlock", CascadedIntegratorCombFilterBlock.createFactory(30, 3));
+		factories.put("ConvolutionFilterBlock", ConvolutionFilterBlock.createFactory(new float[] { 0.25f, 0.5f, 0.25f }));
+		
+		final float[] impulseResponse = new float[3000];
+		for ( int i = 0 ; i < impulseResponse.length ; i++ ) {
+			impulseResponse[i] = (float) Math.exp( -(float) i / 300.0f ) * ( ( i % 2 == 0 ) ? 1.0f : -1.0f );
+		}
+		factories.put("PartitionedConvolutionFilterBlock", ConvolutionFilterBlock.createFactory(impulseResponse));
+		factories.put("PartitionedConvolutionFilterBlock with latency", ConvolutionFilterBlock.createFactory(impulseResponse, 64));
+		factories.put("LowpassRCFilterBlock", LowpassRCFilterBlock.createFactory(0.1f));
+		factories.put("HighpassRCFilterBlock", HighpassRCFilterBlock.createFactory(0.1f));
+		
+		for ( BiquadFilterBlock.Type type : BiquadFilterBlock.Type.values() ) {
+			factories.put("BiquadFilterBlock " + type, BiquadFilterBlock.createFactory(type, 0.05f, 0.707f, 6.0f));
+		}
+		
+		factories.put("ValueTransformerInputOutputBlock", ValueTransformerInputOutputBlock.createFactory(new ArctanDistorter()));
+		
+		for ( AntiderivativeAntialiasedInputOutputBlock.Order order : AntiderivativeAntialiasedInputOutputBlock.Order.values() ) {
+			factories.put("AntiderivativeAntialiasedInputOutputBlock " + order, AntiderivativeAntialiasedInputOutputBlock.createFactory(new Clipper(0.5f), order));
+		}
+		
+		factories.put("DiscreteInputOutputBlockComposition", DiscreteInputOutputBlockComposition.createFactory(AverageLowpassFilterBlock.createFactory(10), LowpassRCFilterBlock.createFactory(0.1f), ValueTransformerInputOutputBlock.createFactory(new Clipper(0.5f))));
+		factories.put("DiscreteForkerMixerBlock", DiscreteForkerMixerBlock.createFactory(DiscreteFlanger.createFactory(50), HighpassRCFilterBlock.createFactory(0.1f)));
+		factories.put("Parallel DiscreteForkerMixerBlock", DiscreteForkerMixerBlock.createParallelFactory(ForkJoinPool.commonPool(), 64, DiscreteFlanger.createFactory(50), HighpassRCFilterBlock.createFactory(0.1f)));
+		factories.put("DiscreteInputOutputBlockGraph", new DiscreteInputOutputBlockGraph.Builder()
+				.addBlock("low", LowpassRCFilterBlock.createFactory(0.05f), DiscreteInputOutputBlockGraph.INPUT)
+				.addBlock("high", HighpassRCFilterBlock.createFactory(0.05f), DiscreteInputOutputBlockGraph.INPUT)
+				.addBlock("highClipped", ValueTransformerInputOutputBlock.createFactory(new Clipper(0.5f)), "high")
+				.setOutput("low", "highClipped", DiscreteInputOutputBlockGraph.INPUT)
+				.createFactory());
+		factories.put("OversampledInputOutputBlock", OversampledInputOutputBlock.createFactory(ValueTransformerInputOutputBlock.createFactory(new Clipper(0.5f)), 4));
+		
+		return factories;
+	}
+	
+	/**
+	 * @post Crea una entrada aleatoria con el generador especificado
+	 */
+	private static float[] createInput(Random random) {
+		final float[] input = new float[LENGTH];
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			input[i] = random.nextFloat() * 2.0f - 1.0f;
+		}
+		return input;
+	}
+	
+	/**
+	 * @post Procesa la entrada especificada con el bloque especificado, primero
+	 * 		 muestra por muestra y después por bloques de tamaño aleatorio, y
+	 * 		 devuelve la salida.
+	 * 		 El primer valor de la salida es el que devuelve la salida del bloque
+	 * 		 antes de escribir en la entrada
+	 */
+	private static float[] run(DiscreteInputOutputBlock block, float[] input, Random random) {
+		final float[] output = new float[LENGTH+1];
+		output[0] = block.getOutput().read();
+		
+		for ( int i = 0 ; i < PERSAMPLELENGTH ; i++ ) {
+			block.getInput().write(input[i]);
+			output[i+1] = block.getOutput().read();
+		}
+		
+		System.arraycopy(input, PERSAMPLELENGTH, output, PERSAMPLELENGTH+1, LENGTH-PERSAMPLELENGTH);
+		for ( int offset = PERSAMPLELENGTH+1 ; offset < output.length ; ) {
+			final int length = Math.min(output.length - offset, 1 + random.nextInt(MAXCHUNKLENGTH));
+			block.process(output, output, offset, length);
+			offset += length;
+		}
+		
+		return output;
+	}
+	
+	/**
+	 * @post Devuelve si los arrays especificados son iguales bit a bit
+	 */
+	private static boolean bitEquals(float[] values, float[] expectedValues) {
+		boolean equal = true;
+		for ( int i = 0 ; i < values.length ; i++ ) {
+			equal &= ( Float.floatToIntBits(values[i]) == Float.floatToIntBits(expectedValues[i]) );
+		}
+		return equal;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final Random random = new Random(0);
+		final float[] firstInput = createInput(random);
+		final float[] secondInput = createInput(random);
+		
+		final List<String> failedCases = new ArrayList<String>();
+		
+		for ( Map.Entry<String, DiscreteInputOutputBlock.Factory> entry : createFactories().entrySet() ) {
+			final DiscreteInputOutputBlock.Factory factory = entry.getValue();
+			final long seed = random.nextLong();
+			
+			final float[] expectedOutput = run(factory.create(), secondInput, new Random(seed));
+			
+			final DiscreteInputOutputBlock block = factory.create();
+			run(block, firstInput, random);
+			block.reset();
+			report(entry.getKey() + " reset", bitEquals(run(block, secondInput, new Random(seed)), expectedOutput), failedCases);
+			
+			final DiscreteInputOutputBlockPool pool = new DiscreteInputOutputBlockPool(factory);
+			final DiscreteInputOutputBlock pooledBlock = pool.create();
+			run(pooledBlock, firstInput, random);
+			pool.release(pooledBlock);
+			
+			final DiscreteInputOutputBlock reusedBlock = pool.create();
+			report(entry.getKey() + " pooled", ( reusedBlock == pooledBlock ) && bitEquals(run(reusedBlock, secondInput, new Random(seed)), expectedOutput), failedCases);
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
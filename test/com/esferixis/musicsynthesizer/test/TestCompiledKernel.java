@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.CompiledSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.SignalCompiler;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.SignalMix;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SawtoothWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SineWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SquareWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.TriangleWave;
+import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+
+/**
+ * Verifica que la evaluación por muestras (La que usa el reproductor) de una señal
+ * compilada a una clase especializada la ejecute el núcleo generado, y que sea
+ * equivalente bit a bit a interpretar el programa.
+ * 
+ * Una hoja de prueba registra si se la evalúa desde un segmento de precisión doble
+ * del núcleo generado. Termina con código de salida distinto de cero si algún
+ * caso falla
+ */
+public final class TestCompiledKernel {
+	private static final double SAMPLERATE = 44100.0d;
+	private static final int LENGTH = 4099;
+	private static final long[] STARTSAMPLES = new long[] { 0, 132317, 44100L * 600 + 5, 44100L * 3600 };
+	
+	private static final String KERNELCLASSNAME = "GeneratedSignalKernel";
+	private static final String PRECISESEGMENTPREFIX = "preciseSegment";
+	
+	private TestCompiledKernel() {}
+	
+	/**
+	 * Hoja de prueba, que no se evalúa en línea, y que registra si la evaluación
+	 * con instantes de tiempo de precisión doble la hace el núcleo generado
+	 */
+	private static final class KernelProbe extends ContinuousSignal {
+		private static final StackWalker STACKWALKER = StackWalker.getInstance(StackWalker.Option.SHOW_HIDDEN_FRAMES);
+		
+		private boolean evaluatedByKernel;
+		
+		/**
+		 * @post Crea la hoja de prueba con el intervalo de tiempo especificado
+		 */
+		public KernelProbe(FloatClosedInterval timeInterval) {
+			super(timeInterval);
+			this.evaluatedByKernel = false;
+		}
+		
+		/**
+		 * @post Devuelve si se la evaluó desde un segmento de precisión doble
+		 * 		 del núcleo generado, y lo olvida
+		 */
+		public boolean pollEvaluatedByKernel() {
+			final boolean evaluatedByKernel = this.evaluatedByKernel;
+			this.evaluatedByKernel = false;
+			return evaluatedByKernel;
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+		 */
+		@Override
+		protected float uncheckedGetValue(float t) {
+			return 0.25f;
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+		 */
+		@Override
+		protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+			Arrays.fill(values, offset, offset + length, 0.25f);
+			
+			STACKWALKER.forEach(new Consumer<StackWalker.StackFrame>() {
+				
+				@Override
+				public void accept(StackWalker.StackFrame frame) {
+					if ( frame.getClassName().contains(KERNELCLASSNAME) && frame.getMethodName().startsWith(PRECISESEGMENTPREFIX) ) {
+						KernelProbe.this.evaluatedByKernel = true;
+					}
+				}
+				
+			});
+		}
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final FloatClosedInterval interval = new FloatClosedInterval(0.0f, 4000.0f);
+		final KernelProbe probe = new KernelProbe(new FloatClosedInterval(0.05f, 3700.0f));
+		final ContinuousSignal signal = SignalMix.create(
+				new SineWave(interval, 440.0f),
+				new SquareWave(interval, 0.001f, 220.0f).displace(0.5f).valueScale(0.5f),
+				new SawtoothWave(interval, 110.0f).inverseTimeScale(2.0f),
+				new TimeInvariantSignalTransformer(new Clipper(0.5f)).transform(new TriangleWave(interval, 330.0f)),
+				probe
+		);
+		final CompiledSignal bytecodeSignal = SignalCompiler.compile(signal, SignalCompiler.Backend.BYTECODE);
+		final CompiledSignal interpretedSignal = SignalCompiler.compile(signal, SignalCompiler.Backend.INTERPRETER);
+		final List<String> failedCases = new ArrayList<String>();
+		
+		report("Bytecode backend", bytecodeSignal.getBackend() == SignalCompiler.Backend.BYTECODE, failedCases);
+		
+		if ( bytecodeSignal.getBackend() == SignalCompiler.Backend.BYTECODE ) {
+			final float[] bytecodeValues = new float[LENGTH];
+			final float[] interpretedValues = new float[LENGTH];
+			
+			for ( long eachStartSample : STARTSAMPLES ) {
+				bytecodeSignal.getSampledValues(bytecodeValues, 0, LENGTH, eachStartSample, SAMPLERATE);
+				report("Kernel evaluation at sample " + eachStartSample, probe.pollEvaluatedByKernel(), failedCases);
+				
+				interpretedSignal.getSampledValues(interpretedValues, 0, LENGTH, eachStartSample, SAMPLERATE);
+				probe.pollEvaluatedByKernel();
+				
+				boolean equivalent = true;
+				for ( int i = 0 ; i < LENGTH ; i++ ) {
+					equivalent &= ( Float.floatToIntBits(bytecodeValues[i]) == Float.floatToIntBits(interpretedValues[i]) );
+				}
+				report("Equivalence at sample " + eachStartSample, equivalent, failedCases);
+			}
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.ConvolutionFilterBlock;
+
+/**
+ * Verifica el filtro de convolución contra la convolución directa en precisión doble,
+ * con respuestas al impulso alrededor del umbral de la convolución por particiones y
+ * más largas que la partición máxima (Varias etapas), sin latencia, con latencia menor
+ * a la partición mínima y con latencias mayores, también con particiones vacías.
+ * 
+ * La entrada se procesa en el mismo array, por bloques de tamaño aleatorio, y tiene
+ * que ser equivalente bit a bit a procesarla de una vez. Después de reset() el filtro
+ * tiene que dar lo mismo que uno nuevo.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestConvolution {
+	private static final int MAXCHUNKLENGTH = 3000;
+	private static final int EXTRALENGTH = 4096;
+	
+	/**
+	 * Máxima diferencia con la convolución directa, relativa a la norma
+	 * de la respuesta al impulso
+	 */
+	private static final double TOLERANCE = 1.0e-5d;
+	
+	private TestConvolution() {}
+	
+	/**
+	 * @post Crea una respuesta al impulso aleatoria, que decae exponencialmente,
+	 * 		 con la longitud especificada, y con ceros en el rango especificado
+	 */
+	private static float[] createFactors(int length, int zerosStart, int zerosEnd, Random random) {
+		final float[] factors = new float[length];
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			if ( ( i < zerosStart ) || ( i >= zerosEnd ) ) {
+				factors[i] = ( random.nextFloat() * 2.0f - 1.0f ) * (float) Math.exp( - (double) i / 4000.0d );
+			}
+		}
+		
+		return factors;
+	}
+	
+	/**
+	 * @post Devuelve una entrada aleatoria con la longitud especificada
+	 */
+	private static float[] createInput(int length, Random random) {
+		final float[] input = new float[length];
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			input[i] = random.nextFloat() * 2.0f - 1.0f;
+		}
+		
+		return input;
+	}
+	
+	/**
+	 * @post Procesa la entrada especificada en el mismo array, por bloques de tamaño
+	 * 		 aleatorio, y devuelve el resultado
+	 */
+	private static float[] processChunked(DiscreteInputOutputBlock block, float[] input, Random random) {
+		final float[] values = input.clone();
+		
+		for ( int offset = 0 ; offset < values.length ; ) {
+			final int length = Math.min(values.length - offset, 1 + random.nextInt(MAXCHUNKLENGTH));
+			block.process(values, values, offset, length);
+			offset += length;
+		}
+		
+		return values;
+	}
+	
+	/**
+	 * @post Devuelve si los valores especificados son iguales bit a bit
+	 */
+	private static boolean equalBits(float[] values, float[] otherValues) {
+		boolean equal = ( values.length == otherValues.length );
+		
+		for ( int i = 0 ; ( i < values.length ) && equal ; i++ ) {
+			equal = ( Float.floatToIntBits(values[i]) == Float.floatToIntBits(otherValues[i]) );
+		}
+		
+		return equal;
+	}
+	
+	/**
+	 * @post Devuelve la máxima diferencia entre los valores especificados y la
+	 * 		 convolución directa de la entrada, relativa a la norma de la respuesta al impulso
+	 */
+	private static double compareDirect(float[] values, float[] input, float[] factors, int latency) {
+		double norm = 0.0d;
+		for ( float eachFactor : factors ) {
+			norm += (double) eachFactor * eachFactor;
+		}
+		norm = Math.sqrt(norm);
+		
+		double maxError = 0.0d;
+		for ( int n = 0 ; n < input.length ; n++ ) {
+			double expected = 0.0d;
+			
+			for ( int k = 0 ; ( k < factors.length ) && ( n - latency - k >= 0 ) ; k++ ) {
+				expected += (double) factors[k] * input[n - latency - k];
+			}
+			
+			maxError = Math.max(maxError, Math.abs(values[n] - expected));
+		}
+		
+		return maxError / norm;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	/**
+	 * @post Verifica el filtro con la cantidad de factores, los ceros y la latencia especificados
+	 */
+	private static void testCase(int factorsQuantity, int zerosStart, int zerosEnd, int latency, List<String> failedCases) {
+		final String caseName = factorsQuantity + " taps, latency " + latency + ( zerosStart < zerosEnd ? ", zeros in [" + zerosStart + ", " + zerosEnd + ")" : "" );
+		final Random random = new Random(factorsQuantity * 31 + latency);
+		final float[] factors = createFactors(factorsQuantity, zerosStart, zerosEnd, random);
+		final float[] input = createInput(latency + factorsQuantity + EXTRALENGTH, random);
+		
+		final DiscreteInputOutputBlock block = new ConvolutionFilterBlock(factors, latency);
+		final float[] values = processChunked(block, input, random);
+		
+		final double error = compareDirect(values, input, factors, latency);
+		System.out.println(caseName + ": relative error " + error);
+		report(caseName + " direct convolution", error <= TOLERANCE, failedCases);
+		
+		final float[] wholeValues = input.clone();
+		new ConvolutionFilterBlock(factors, latency).process(wholeValues, wholeValues, 0, wholeValues.length);
+		report(caseName + " chunked equivalence", equalBits(values, wholeValues), failedCases);
+		
+		block.reset();
+		report(caseName + " reset", equalBits(processChunked(block, input, random), values), failedCases);
+	}
+	
+	public static void main(String[] args) {
+		final List<String> failedCases = new ArrayList<String>();
+		final int threshold = ConvolutionFilterBlock.PARTITIONEDMINLENGTH;
+		
+		testCase(threshold - 1, 0, 0, 0, failedCases);
+		testCase(threshold, 0, 0, 0, failedCases);
+		testCase(threshold + 1, 0, 0, 0, failedCases);
+		testCase(threshold - 20, 0, 0, 37, failedCases);
+		testCase(1000, 0, 0, 0, failedCases);
+		testCase(1000, 0, 0, 37, failedCases);
+		testCase(1000, 0, 0, 64, failedCases);
+		testCase(1000, 0, 0, 3000, failedCases);
+		testCase(20000, 0, 0, 0, failedCases);
+		testCase(20000, 0, 0, 37, failedCases);
+		testCase(20000, 0, 0, 100, failedCases);
+		testCase(30000, 100, 25000, 0, failedCases);
+		testCase(10, 0, 0, 44100, failedCases);
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
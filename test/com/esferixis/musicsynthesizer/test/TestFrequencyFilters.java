@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.BiquadFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.FrequencyFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.HighpassRCFilterBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.filters.LowpassRCFilterBlock;
+
+/**
+ * Verifica la respuesta en frecuencia de BiquadFilterBlock con cada tipo, midiendo
+ * la ganancia de la respuesta al impulso en continua, en la frecuencia de corte y
+ * en la frecuencia de Nyquist, y compara con las ganancias del libro de recetas
+ * de Robert Bristow-Johnson.
+ * 
+ * También verifica que los filtros RC, que guardan el alfa calculado, den
+ * exactamente la misma salida que la fórmula original muestra por muestra,
+ * aún cambiando la frecuencia de corte entre bloques.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestFrequencyFilters {
+	private static final int IMPULSERESPONSELENGTH = 1 << 16;
+	private static final float[] CUTOFFFREQUENCIES = new float[] { 0.01f, 0.1f, 0.3f };
+	private static final float Q = (float) Math.sqrt(0.5);
+	private static final float GAINDECIBELS = 6.0f;
+	
+	/**
+	 * Tolerancia relativa en las ganancias no nulas, y absoluta en las nulas
+	 */
+	private static final double TOLERANCE = 1e-3;
+	
+	private static final int RCLENGTH = 50000;
+	private static final int MAXCHUNKLENGTH = 1000;
+	
+	private TestFrequencyFilters() {}
+	
+	/**
+	 * @post Devuelve la ganancia de la respuesta al impulso especificada,
+	 * 		 en la frecuencia relativa especificada
+	 */
+	private static double gain(float[] impulseResponse, double relativeFrequency) {
+		double real = 0.0;
+		double imaginary = 0.0;
+		
+		for ( int i = 0 ; i < impulseResponse.length ; i++ ) {
+			final double angle = 2.0 * Math.PI * relativeFrequency * (double) i;
+			real += impulseResponse[i] * Math.cos(angle);
+			imaginary -= impulseResponse[i] * Math.sin(angle);
+		}
+		
+		return Math.hypot(real, imaginary);
+	}
+	
+	/**
+	 * @post Devuelve si la ganancia es la esperada, con tolerancia absoluta
+	 * 		 si la esperada es nula y relativa si no
+	 */
+	private static boolean gainMatches(double gain, double expectedGain) {
+		if ( expectedGain == 0.0 ) {
+			return gain <= TOLERANCE;
+		}
+		else {
+			return Math.abs(gain - expectedGain) <= TOLERANCE * expectedGain;
+		}
+	}
+	
+	/**
+	 * @post Devuelve las ganancias esperadas en continua, en la frecuencia de corte
+	 * 		 y en la frecuencia de Nyquist, para el tipo especificado con Q = 1/sqrt(2)
+	 */
+	private static double[] expectedGains(BiquadFilterBlock.Type type) {
+		final double a = Math.pow(10.0, GAINDECIBELS / 40.0);
+		
+		switch ( type ) {
+		case LOWPASS:
+			return new double[] { 1.0, Q, 0.0 };
+		case HIGHPASS:
+			return new double[] { 0.0, Q, 1.0 };
+		case BANDPASS:
+			return new double[] { 0.0, 1.0, 0.0 };
+		case NOTCH:
+			return new double[] { 1.0, 0.0, 1.0 };
+		case PEAKING:
+			return new double[] { 1.0, a * a, 1.0 };
+		case LOWSHELF:
+			return new double[] { a * a, a, 1.0 };
+		case HIGHSHELF:
+			return new double[] { 1.0, a, a * a };
+		default:
+			throw new IllegalStateException("Unexpected filter type");
+		}
+	}
+	
+	/**
+	 * @post Devuelve la salida de la fórmula original del filtro pasabajos RC,
+	 * 		 que calcula alfa en cada muestra
+	 */
+	private static float[] lowpassRCReference(float[] input, float[] frequencies) {
+		final float[] output = new float[input.length];
+		float storedValue = 0.0f;
+		
+		for ( int i = 0 ; i < input.length ; i++ ) {
+			final float temp = (float) (Math.PI * 2.0f) * frequencies[i];
+			final float alpha = temp / (temp + 1);
+			
+			storedValue = alpha * input[i] + (1.0f - alpha) * storedValue;
+			output[i] = storedValue;
+		}
+		
+		return output;
+	}
+	
+	/**
+	 * @post Devuelve la salida de la fórmula original del filtro pasaaltos RC,
+	 * 		 que calcula alfa en cada muestra
+	 */
+	private static float[] highpassRCReference(float[] input, float[] frequencies) {
+		final float[] output = new float[input.length];
+		float storedTransformedValue = 0.0f;
+		float storedOriginalValue = 0.0f;
+		
+		for ( int i = 0 ; i < input.length ; i++ ) {
+			final float alpha = 1.0f / ( (float) (Math.PI * 2.0f) * frequencies[i] + 1.0f);
+			
+			storedTransformedValue = alpha * ( storedTransformedValue + input[i] - storedOriginalValue );
+			storedOriginalValue = input[i];
+			output[i] = storedTransformedValue;
+		}
+		
+		return output;
+	}
+	
+	/**
+	 * @post Procesa la entrada con el filtro especificado, por bloques de tamaño
+	 * 		 aleatorio o muestra por muestra, cambiando la frecuencia de corte antes
+	 * 		 de cada bloque.
+	 * 		 Guarda en el array de frecuencias la frecuencia usada en cada muestra,
+	 * 		 y devuelve la salida
+	 */
+	private static float[] processRC(FrequencyFilterBlock filter, float[] input, float[] frequencies, Random random) {
+		final float[] output = input.clone();
+		
+		for ( int offset = 0 ; offset < output.length ; ) {
+			final int length = Math.min(output.length - offset, 1 + random.nextInt(MAXCHUNKLENGTH));
+			
+			if ( random.nextInt(4) != 0 ) {
+				filter.setRelativeCutoffFrequency(0.001f + random.nextFloat() * 0.2f);
+			}
+			
+			if ( random.nextBoolean() ) {
+				filter.process(output, output, offset, length);
+			}
+			else {
+				for ( int i = offset ; i < offset + length ; i++ ) {
+					filter.getInput().write(output[i]);
+					output[i] = filter.getOutput().read();
+				}
+			}
+			
+			for ( int i = offset ; i < offset + length ; i++ ) {
+				frequencies[i] = filter.getRelativeCutoffFrequency();
+			}
+			
+			offset += length;
+		}
+		
+		return output;
+	}
+	
+	/**
+	 * @post Devuelve si los arrays especificados son iguales bit a bit
+	 */
+	private static boolean bitEquals(float[] values, float[] expectedValues) {
+		boolean equal = true;
+		for ( int i = 0 ; i < values.length ; i++ ) {
+			equal &= ( Float.floatToIntBits(values[i]) == Float.floatToIntBits(expectedValues[i]) );
+		}
+		return equal;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final List<String> failedCases = new ArrayList<String>();
+		
+		for ( BiquadFilterBlock.Type type : BiquadFilterBlock.Type.values() ) {
+			final double[] expectedGains = expectedGains(type);
+			
+			for ( float cutoffFrequency : CUTOFFFREQUENCIES ) {
+				final float[] impulseResponse = new float[IMPULSERESPONSELENGTH];
+				impulseResponse[0] = 1.0f;
+				new BiquadFilterBlock(type, cutoffFrequency, Q, GAINDECIBELS).process(impulseResponse, impulseResponse, 0, impulseResponse.length);
+				
+				final String caseName = "Biquad " + type + " at " + cutoffFrequency;
+				report(caseName + ", DC gain", gainMatches(gain(impulseResponse, 0.0), expectedGains[0]), failedCases);
+				report(caseName + ", cutoff gain", gainMatches(gain(impulseResponse, cutoffFrequency), expectedGains[1]), failedCases);
+				report(caseName + ", Nyquist gain", gainMatches(gain(impulseResponse, 0.5), expectedGains[2]), failedCases);
+			}
+		}
+		
+		final Random random = new Random(0);
+		final float[] input = new float[RCLENGTH];
+		for ( int i = 0 ; i < RCLENGTH ; i++ ) {
+			input[i] = random.nextFloat() * 2.0f - 1.0f;
+		}
+		
+		final float[] frequencies = new float[RCLENGTH];
+		
+		final float[] lowpassOutput = processRC(new LowpassRCFilterBlock(0.05f), input, frequencies, random);
+		report("LowpassRCFilterBlock matches the per-sample formula", bitEquals(lowpassOutput, lowpassRCReference(input, frequencies)), failedCases);
+		
+		final DiscreteInputOutputBlock highpass = HighpassRCFilterBlock.createFactory(0.05f).create();
+		final float[] highpassOutput = processRC((FrequencyFilterBlock) highpass, input, frequencies, random);
+		report("HighpassRCFilterBlock matches the per-sample formula", bitEquals(highpassOutput, highpassRCReference(input, frequencies)), failedCases);
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
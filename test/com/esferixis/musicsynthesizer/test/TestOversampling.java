@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.oversampling.OversampledInputOutputBlock;
+
+/**
+ * Verifica OversampledInputOutputBlock con cada factor, envolviendo bloques
+ * identidad:
+ * 
+ * La latencia informada tiene que coincidir con el retardo medido de la respuesta
+ * al impulso, y la ganancia en la banda de paso tiene que ser aproximadamente 1.
+ * Las imágenes que genera el sobremuestreador, que ve el bloque interno, y las
+ * componentes arriba de la frecuencia de Nyquist base que agrega el bloque interno
+ * tienen que estar atenuadas al menos STOPBANDREJECTION decibeles.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestOversampling {
+	private static final int[] FACTORS = new int[] { 2, 4, 8 };
+	
+	private static final int IMPULSERESPONSELENGTH = 256;
+	
+	/**
+	 * Longitud de las señales cuyo espectro se mide, y de las muestras previas
+	 * que se descartan para llegar al estado estacionario
+	 */
+	private static final int SPECTRUMLENGTH = 4096;
+	private static final int WARMUPLENGTH = 1024;
+	
+	/**
+	 * Frecuencias de la banda de paso, en bins de SPECTRUMLENGTH muestras
+	 * de la frecuencia base
+	 */
+	private static final int[] PASSBANDBINS = new int[] { 0, 41, 205, 410, 819, 1229 };
+	
+	/**
+	 * Tono que se sobremuestrea para medir las imágenes, en bins de la frecuencia base
+	 */
+	private static final int TONEBIN = 410;
+	
+	/**
+	 * Tono que agrega el bloque interno arriba de la frecuencia de Nyquist base,
+	 * en bins de la frecuencia base
+	 */
+	private static final int HIGHTONEBIN = 2867;
+	
+	private static final double LATENCYTOLERANCE = 1e-3;
+	private static final double PASSBANDTOLERANCE = 1e-3;
+	private static final double STOPBANDREJECTION = 70.0;
+	
+	private TestOversampling() {}
+	
+	/**
+	 * Bloque identidad que guarda los valores que recibe
+	 */
+	private static final class RecordingBlock extends DiscreteInputOutputBlock {
+		private final float[] recordedValues;
+		private int recordedLength;
+		
+		/**
+		 * @post Crea el bloque, que guarda hasta la cantidad especificada de valores
+		 */
+		public RecordingBlock(int maxLength) {
+			this.recordedValues = new float[maxLength];
+			this.recordedLength = 0;
+			this.setProcessInputOutput();
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+		 */
+		@Override
+		protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+			for ( int i = offset ; i < offset + length ; i++ ) {
+				if ( this.recordedLength < this.recordedValues.length ) {
+					this.recordedValues[this.recordedLength++] = in[i];
+				}
+				out[i] = in[i];
+			}
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+		 */
+		@Override
+		protected void resetState() {
+			this.recordedLength = 0;
+		}
+		
+		/**
+		 * @post Devuelve los valores guardados
+		 */
+		public float[] getRecordedValues() {
+			return this.recordedValues;
+		}
+	}
+	
+	/**
+	 * Bloque que suma un tono de frecuencia relativa especificada a la entrada
+	 */
+	private static final class ToneAdderBlock extends DiscreteInputOutputBlock {
+		private final double relativeFrequency;
+		private long sampleIndex;
+		
+		/**
+		 * @post Crea el bloque con la frecuencia relativa especificada
+		 */
+		public ToneAdderBlock(double relativeFrequency) {
+			this.relativeFrequency = relativeFrequency;
+			this.sampleIndex = 0;
+			this.setProcessInputOutput();
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#uncheckedProcess(float[], float[], int, int)
+		 */
+		@Override
+		protected void uncheckedProcess(float[] in, float[] out, int offset, int length) {
+			for ( int i = offset ; i < offset + length ; i++ ) {
+				out[i] = in[i] + (float) Math.cos(2.0 * Math.PI * this.relativeFrequency * (double) this.sampleIndex++);
+			}
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock#resetState()
+		 */
+		@Override
+		protected void resetState() {
+			this.sampleIndex = 0;
+		}
+	}
+	
+	/**
+	 * @post Devuelve la amplitud de la componente del bin especificado, en el
+	 * 		 rango especificado
+	 */
+	private static double amplitude(float[] values, int offset, int length, int bin) {
+		double real = 0.0;
+		double imaginary = 0.0;
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			final double angle = 2.0 * Math.PI * (double) bin * (double) i / (double) length;
+			real += values[offset+i] * Math.cos(angle);
+			imaginary -= values[offset+i] * Math.sin(angle);
+		}
+		
+		return Math.hypot(real, imaginary) * ( ( bin == 0 ) ? 1.0 : 2.0 ) / (double) length;
+	}
+	
+	/**
+	 * @post Crea un tono del bin especificado, en bins de SPECTRUMLENGTH muestras
+	 */
+	private static float[] createTone(int bin, int length) {
+		final float[] values = new float[length];
+		for ( int i = 0 ; i < length ; i++ ) {
+			values[i] = (float) Math.cos(2.0 * Math.PI * (double) bin * (double) i / (double) SPECTRUMLENGTH);
+		}
+		return values;
+	}
+	
+	/**
+	 * @post Devuelve la atenuación en decibeles de la amplitud especificada
+	 */
+	private static double rejection(double amplitude) {
+		return -20.0 * Math.log10(amplitude);
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final List<String> failedCases = new ArrayList<String>();
+		
+		for ( int factor : FACTORS ) {
+			final String prefix = "Factor " + factor + ", ";
+			
+			final OversampledInputOutputBlock identity = new OversampledInputOutputBlock(new RecordingBlock(0), factor);
+			final float[] impulseResponse = new float[IMPULSERESPONSELENGTH];
+			impulseResponse[0] = 1.0f;
+			identity.process(impulseResponse, impulseResponse, 0, impulseResponse.length);
+			
+			double sum = 0.0;
+			double weightedSum = 0.0;
+			int peakIndex = 0;
+			for ( int i = 0 ; i < impulseResponse.length ; i++ ) {
+				sum += impulseResponse[i];
+				weightedSum += impulseResponse[i] * (double) i;
+				
+				if ( Math.abs(impulseResponse[i]) > Math.abs(impulseResponse[peakIndex]) ) {
+					peakIndex = i;
+				}
+			}
+			
+			final double latency = identity.getLatency();
+			report(prefix + "impulse delay matches latency", ( Math.abs(weightedSum / sum - latency) <= LATENCYTOLERANCE ) && ( peakIndex == Math.round(latency) ), failedCases);
+			
+			boolean passbandFlat = true;
+			for ( int bin : PASSBANDBINS ) {
+				final float[] values = createTone(bin, WARMUPLENGTH + SPECTRUMLENGTH);
+				new OversampledInputOutputBlock(new RecordingBlock(0), factor).process(values, values, 0, values.length);
+				passbandFlat &= Math.abs(amplitude(values, WARMUPLENGTH, SPECTRUMLENGTH, bin) - 1.0) <= PASSBANDTOLERANCE;
+			}
+			report(prefix + "passband gain", passbandFlat, failedCases);
+			
+			final RecordingBlock recorder = new RecordingBlock(( WARMUPLENGTH + SPECTRUMLENGTH ) * factor);
+			final float[] tone = createTone(TONEBIN, WARMUPLENGTH + SPECTRUMLENGTH);
+			new OversampledInputOutputBlock(recorder, factor).process(tone, tone, 0, tone.length);
+			
+			final float[] oversampledTone = recorder.getRecordedValues();
+			final int oversampledOffset = WARMUPLENGTH * factor;
+			final int oversampledLength = SPECTRUMLENGTH * factor;
+			
+			boolean imagesRejected = Math.abs(amplitude(oversampledTone, oversampledOffset, oversampledLength, TONEBIN) - 1.0) <= PASSBANDTOLERANCE;
+			for ( int k = 1 ; k < factor ; k++ ) {
+				imagesRejected &= rejection(amplitude(oversampledTone, oversampledOffset, oversampledLength, k * SPECTRUMLENGTH - TONEBIN)) >= STOPBANDREJECTION;
+				imagesRejected &= rejection(amplitude(oversampledTone, oversampledOffset, oversampledLength, k * SPECTRUMLENGTH + TONEBIN)) >= STOPBANDREJECTION;
+			}
+			report(prefix + "upsampler image rejection", imagesRejected, failedCases);
+			
+			final float[] silence = new float[WARMUPLENGTH + SPECTRUMLENGTH];
+			new OversampledInputOutputBlock(new ToneAdderBlock((double) HIGHTONEBIN / (double) ( SPECTRUMLENGTH * factor )), factor).process(silence, silence, 0, silence.length);
+			report(prefix + "decimator alias rejection", rejection(amplitude(silence, WARMUPLENGTH, SPECTRUMLENGTH, SPECTRUMLENGTH - HIGHTONEBIN)) >= STOPBANDREJECTION, failedCases);
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousLinearAttackDecaySignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSampledSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.SignalCompiler;
+
+/**
+ * Verifica que la evaluación por muestras de un bloque sea equivalente bit a bit
+ * a evaluar cada muestra por separado, también con índices de muestra grandes,
+ * es decir que el resultado no dependa de cómo se divide el rango en bloques.
+ * 
+ * Incluye una señal genérica, que sólo define la evaluación valor por valor,
+ * como las notas de los instrumentos. Termina con código de salida distinto de
+ * cero si algún caso falla
+ */
+public final class TestSampledValues {
+	private static final double SAMPLERATE = 44100.0d;
+	private static final int LENGTH = 1024;
+	private static final long[] STARTSAMPLES = new long[] { 0, 44100, 300000, 5000000 };
+	
+	private TestSampledValues() {}
+	
+	/**
+	 * Señal genérica de prueba, que sólo define la evaluación valor por valor
+	 */
+	private static final class GenericSignal extends ContinuousSignal {
+		private final float frequency;
+		
+		/**
+		 * @post Crea la señal con el intervalo de tiempo y la frecuencia especificados
+		 */
+		public GenericSignal(FloatClosedInterval timeInterval, float frequency) {
+			super(timeInterval);
+			this.frequency = frequency;
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+		 */
+		@Override
+		protected float uncheckedGetValue(float t) {
+			return (float) Math.sin( 2.0d * Math.PI * (double) t * (double) this.frequency );
+		}
+	}
+	
+	/**
+	 * @post Devuelve si la evaluación por bloques de la señal especificada, desde la
+	 * 		 muestra especificada, es equivalente bit a bit a evaluar cada muestra por separado
+	 */
+	private static boolean compareSignal(ContinuousSignal signal, long startSample) {
+		final float[] blockValues = new float[LENGTH];
+		final float[] sampleValue = new float[1];
+		
+		signal.getSampledValues(blockValues, 0, LENGTH, startSample, SAMPLERATE);
+		
+		boolean equivalent = true;
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			signal.getSampledValues(sampleValue, 0, 1, startSample + i, SAMPLERATE);
+			equivalent &= ( Float.floatToIntBits(blockValues[i]) == Float.floatToIntBits(sampleValue[0]) );
+		}
+		
+		return equivalent;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final FloatClosedInterval interval = new FloatClosedInterval(0.0f, 200.0f);
+		final float[] samples = new float[4096];
+		for ( int i = 0 ; i < samples.length ; i++ ) {
+			samples[i] = (float) Math.sin( (double) i * 0.37d );
+		}
+		
+		final Map<String, ContinuousSignal> signals = new LinkedHashMap<String, ContinuousSignal>();
+		signals.put("GenericSignal", new GenericSignal(interval, 440.0f));
+		signals.put("ContinuousLinearAttackDecaySignal", new ContinuousLinearAttackDecaySignal(interval, 50.0f, 50.0f));
+		signals.put("ContinuousSampledSignal", new ContinuousSampledSignal(interval, samples));
+		signals.put("Compiled product", SignalCompiler.compile(new GenericSignal(interval, 440.0f).multiplicate(new ContinuousLinearAttackDecaySignal(interval, 50.0f, 50.0f)), SignalCompiler.Backend.BYTECODE));
+		
+		final List<String> failedCases = new ArrayList<String>();
+		
+		for ( Map.Entry<String, ContinuousSignal> eachEntry : signals.entrySet() ) {
+			for ( long eachStartSample : STARTSAMPLES ) {
+				report(eachEntry.getKey() + " at sample " + eachStartSample, compareSignal(eachEntry.getValue(), eachStartSample), failedCases);
+			}
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
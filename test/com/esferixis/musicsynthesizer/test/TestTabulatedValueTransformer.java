@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ArctanDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.PowerDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.SinDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.SquareWaveDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.TabulatedValueTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueScaleTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
+
+/**
+ * Verifica que getMaxError() de TabulatedValueTransformer acote el error de la tabla
+ * respecto del transformador original, muestreando densamente el rango de entrada:
+ * con una grilla uniforme, transformando por arrays, y con todos los valores de punto
+ * flotante alrededor de cada punto de la tabla, transformando de a uno.
+ * 
+ * Se prueban transformadores derivables, con quiebres, con saltos, con pendiente
+ * infinita y compuestos, en rangos alineados y no alineados con esos puntos.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestTabulatedValueTransformer {
+	private static final FloatClosedInterval[] RANGES = new FloatClosedInterval[] { new FloatClosedInterval(-2.0f, 2.0f), new FloatClosedInterval(-1.3f, 0.7f) };
+	private static final int[] RESOLUTIONS = new int[] { 16, 100, 1024, 4096 };
+	
+	private static final int GRIDLENGTH = 1 << 20;
+	
+	/**
+	 * Cantidad de valores de punto flotante que se prueban a cada lado
+	 * de cada punto de la tabla
+	 */
+	private static final int NODENEIGHBOURS = 64;
+	
+	/**
+	 * Cota máxima, respecto del error medido, que se admite para un transformador
+	 * derivable
+	 */
+	private static final double MAXBOUNDRATIO = 1.25;
+	
+	private TestTabulatedValueTransformer() {}
+	
+	/**
+	 * @post Crea los transformadores a verificar
+	 */
+	private static Map<String, ValueTransformer> createValueTransformers() {
+		final Map<String, ValueTransformer> valueTransformers = new LinkedHashMap<String, ValueTransformer>();
+		
+		valueTransformers.put("ArctanDistorter", new ArctanDistorter());
+		valueTransformers.put("SinDistorter", new SinDistorter());
+		valueTransformers.put("Clipper", new Clipper(0.5f));
+		valueTransformers.put("SquareWaveDistorter", new SquareWaveDistorter());
+		valueTransformers.put("PowerDistorter 3", new PowerDistorter(3.0f));
+		valueTransformers.put("PowerDistorter 0.5", new PowerDistorter(0.5f));
+		valueTransformers.put("Composed", new ArctanDistorter().compose(new ValueScaleTransformer(5.0f)));
+		
+		return valueTransformers;
+	}
+	
+	/**
+	 * @post Devuelve el error máximo de la tabulación especificada respecto del
+	 * 		 transformador original, en los valores de prueba
+	 */
+	private static double measureMaxError(ValueTransformer valueTransformer, TabulatedValueTransformer tabulatedValueTransformer) {
+		final FloatClosedInterval range = tabulatedValueTransformer.getRange();
+		final float min = range.getMin();
+		final float max = range.getMax();
+		
+		final float[] values = new float[GRIDLENGTH + 1];
+		for ( int i = 0 ; i <= GRIDLENGTH ; i++ ) {
+			values[i] = (float) Math.min( (double) min + (double) range.length() * (double) i / (double) GRIDLENGTH, (double) max );
+		}
+		
+		final float[] tabulatedValues = values.clone();
+		tabulatedValueTransformer.transform(tabulatedValues, 0, tabulatedValues.length);
+		
+		double maxError = 0.0;
+		for ( int i = 0 ; i <= GRIDLENGTH ; i++ ) {
+			maxError = Math.max(maxError, Math.abs( (double) tabulatedValues[i] - (double) valueTransformer.transform(values[i]) ));
+		}
+		
+		final int resolution = tabulatedValueTransformer.getResolution();
+		for ( int i = 0 ; i <= resolution ; i++ ) {
+			float value = (float) ( (double) min + (double) range.length() * (double) i / (double) resolution );
+			for ( int j = 0 ; j < NODENEIGHBOURS ; j++ ) {
+				value = Math.nextDown(value);
+			}
+			
+			for ( int j = -NODENEIGHBOURS ; j <= NODENEIGHBOURS ; j++ ) {
+				if ( ( value >= min ) && ( value <= max ) ) {
+					maxError = Math.max(maxError, Math.abs( (double) tabulatedValueTransformer.transform(value) - (double) valueTransformer.transform(value) ));
+				}
+				value = Math.nextUp(value);
+			}
+		}
+		
+		return maxError;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final List<String> failedCases = new ArrayList<String>();
+		
+		for ( Map.Entry<String, ValueTransformer> entry : createValueTransformers().entrySet() ) {
+			final ValueTransformer valueTransformer = entry.getValue();
+			
+			for ( FloatClosedInterval range : RANGES ) {
+				for ( int resolution : RESOLUTIONS ) {
+					final TabulatedValueTransformer tabulatedValueTransformer = valueTransformer.tabulate(range, resolution);
+					final double maxError = measureMaxError(valueTransformer, tabulatedValueTransformer);
+					
+					report(entry.getKey() + " in [" + range.getMin() + ", " + range.getMax() + "] with " + resolution + " steps", maxError <= tabulatedValueTransformer.getMaxError(), failedCases);
+				}
+			}
+		}
+		
+		final TabulatedValueTransformer arctan = new ArctanDistorter().tabulate(RANGES[0], RESOLUTIONS[1]);
+		report("Bound close to the measured error", arctan.getMaxError() <= MAXBOUNDRATIO * measureMaxError(new ArctanDistorter(), arctan), failedCases);
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.player.console.SignalGetter;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.CompiledSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.compiler.Instruction;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.SignalMix;
+import com.esferixis.musicsynthesizer.signal.continuous.mixer.TiledSignalRenderer;
+import com.esferixis.musicsynthesizer.signal.continuous.transformers.TimeInvariantSignalTransformer;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.Clipper;
+
+/**
+ * Verifica la renderización por tramos de la señal que reproduce ConsolePlayer,
+ * es decir la señal compilada que devuelve SignalGetter.
+ * 
+ * La canción de prueba es una mezcla de muchas notas, que cuentan sus evaluaciones.
+ * Verifica que la mezcla compilada elija los sumandos con su árbol de intervalos,
+ * que la renderización por tramos sea equivalente bit a bit a la secuencial, y que
+ * cada nota sólo se evalúe en los bloques con los que se solapa.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestTiledRendering {
+	private static final double SAMPLERATE = 44100.0d;
+	private static final int VOICES = 2000;
+	private static final float VOICESPACING = 0.01f;
+	private static final float VOICELENGTH = 0.2f;
+	private static final int[] THREADS = new int[] { 1, 3, 8 };
+	
+	private static final List<ProbeVoice> voices = new ArrayList<ProbeVoice>();
+	
+	private TestTiledRendering() {}
+	
+	/**
+	 * Nota de prueba, que no se evalúa en línea, y que cuenta
+	 * las evaluaciones por bloques
+	 */
+	private static final class ProbeVoice extends ContinuousSignal {
+		private final double frequency;
+		private final AtomicLong evaluations;
+		
+		/**
+		 * @post Crea la nota con el intervalo de tiempo y la frecuencia especificados
+		 */
+		public ProbeVoice(FloatClosedInterval timeInterval, double frequency) {
+			super(timeInterval);
+			this.frequency = frequency;
+			this.evaluations = new AtomicLong();
+		}
+		
+		/**
+		 * @post Devuelve la cantidad de evaluaciones por bloques, y la reinicia
+		 */
+		public long pollEvaluations() {
+			return this.evaluations.getAndSet(0);
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+		 */
+		@Override
+		protected float uncheckedGetValue(float t) {
+			return (float) Math.sin( (double) t * this.frequency );
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetPreciseValues(float[], int, int, double, double)
+		 */
+		@Override
+		protected void uncheckedGetPreciseValues(float[] values, int offset, int length, double startTime, double timeStep) {
+			this.evaluations.incrementAndGet();
+			
+			for ( int i = 0 ; i < length ; i++ ) {
+				values[offset+i] = (float) Math.sin( ( startTime + (double) i * timeStep ) * this.frequency );
+			}
+		}
+	}
+	
+	/**
+	 * Canción de prueba, que se carga con SignalGetter igual que las canciones
+	 * que reproduce ConsolePlayer
+	 */
+	public static final class ProbeSong {
+		private ProbeSong() {}
+		
+		public static ContinuousSignal loadSignal() {
+			voices.clear();
+			
+			for ( int i = 0 ; i < VOICES ; i++ ) {
+				final float startTime = VOICESPACING * (float) i;
+				
+				voices.add(new ProbeVoice(new FloatClosedInterval(startTime, startTime + VOICELENGTH), 1000.0d + (double) i));
+			}
+			
+			return new TimeInvariantSignalTransformer(new Clipper(0.9f)).transform(SignalMix.create(new ArrayList<ContinuousSignal>(voices)));
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad máxima de evaluaciones por bloques de las notas
+	 * 		 al renderizar por bloques de TiledSignalRenderer.BLOCKLENGTH muestras
+	 * 		 desde la muestra inicial especificada, que es la cantidad de bloques con
+	 * 		 los que se solapa cada una, más uno por el redondeo
+	 */
+	private static long maxEvaluations(long firstSample) {
+		long evaluations = 0;
+		
+		for ( ProbeVoice eachVoice : voices ) {
+			final long firstBlock = Math.floorDiv( (long) Math.floor( (double) eachVoice.getTimeInterval().getMin() * SAMPLERATE ) - firstSample, (long) TiledSignalRenderer.BLOCKLENGTH );
+			final long lastBlock = Math.floorDiv( (long) Math.ceil( (double) eachVoice.getTimeInterval().getMax() * SAMPLERATE ) - firstSample, (long) TiledSignalRenderer.BLOCKLENGTH );
+			
+			evaluations += lastBlock - firstBlock + 2;
+		}
+		
+		return evaluations;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de evaluaciones por bloques de las notas, y las reinicia
+	 */
+	private static long pollEvaluations() {
+		long evaluations = 0;
+		
+		for ( ProbeVoice eachVoice : voices ) {
+			evaluations += eachVoice.pollEvaluations();
+		}
+		
+		return evaluations;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final ContinuousSignal signal = SignalGetter.getSignal(ProbeSong.class.getName());
+		final List<String> failedCases = new ArrayList<String>();
+		
+		boolean indexedMix = false;
+		if ( signal instanceof CompiledSignal ) {
+			for ( Instruction eachInstruction : ((CompiledSignal) signal).getProgram().getInstructions() ) {
+				indexedMix |= ( eachInstruction.getOpcode() == Instruction.Opcode.MIX );
+			}
+		}
+		report("Compiled signal with indexed mix", indexedMix, failedCases);
+		
+		// Mismo rango de muestras que ConsolePlayer
+		final int samplesQuantity = (int) ( signal.getTimeInterval().length() * (float) SAMPLERATE );
+		final long firstSample = (long) Math.floor( (double) signal.getTimeInterval().getMin() * SAMPLERATE );
+		final long maxEvaluations = maxEvaluations(firstSample);
+		
+		final float[] serialValues = new float[samplesQuantity];
+		for ( int blockStart = 0 ; blockStart < samplesQuantity ; blockStart += TiledSignalRenderer.BLOCKLENGTH ) {
+			signal.getSampledValues(serialValues, blockStart, Math.min(TiledSignalRenderer.BLOCKLENGTH, samplesQuantity - blockStart), firstSample + blockStart, SAMPLERATE);
+		}
+		report("Serial evaluations", pollEvaluations() <= maxEvaluations, failedCases);
+		
+		for ( int eachThreads : THREADS ) {
+			final ForkJoinPool pool = new ForkJoinPool(eachThreads);
+			
+			try {
+				final float[] tiledValues = new float[samplesQuantity];
+				new TiledSignalRenderer(pool).render(signal, tiledValues, 0, samplesQuantity, firstSample, SAMPLERATE);
+				
+				report(eachThreads + " threads evaluations", pollEvaluations() <= maxEvaluations, failedCases);
+				
+				boolean equivalent = true;
+				for ( int i = 0 ; i < samplesQuantity ; i++ ) {
+					equivalent &= ( Float.floatToIntBits(tiledValues[i]) == Float.floatToIntBits(serialValues[i]) );
+				}
+				report(eachThreads + " threads equivalence", equivalent, failedCases);
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.ContinuousVariableDiscreteDelay;
+import com.esferixis.musicsynthesizer.signal.discrete.blocks.DiscreteInputOutputBlock;
+
+/**
+ * Verifica el retardador con tiempo de retardo variable, para cada tipo de interpolación.
+ * 
+ * Con una señal de retardo genérica y modulada, el procesamiento por bloques de
+ * tamaño aleatorio tiene que ser equivalente bit a bit al procesamiento muestra
+ * por muestra.
+ * Con retardo constante, la respuesta al impulso tiene que tener ganancia unitaria
+ * en continua y su centro de gravedad tiene que estar en el retardo pedido, y la
+ * del pasatodo además tiene que tener energía unitaria.
+ * Termina con código de salida distinto de cero si algún caso falla
+ */
+public final class TestVariableDelay {
+	private static final float CHUNKSSAMPLERATE = 44100.0f;
+	private static final float SAMPLERATE = 1024.0f;
+	private static final float MAXDELAY = 0.1f;
+	private static final int LENGTH = 200000;
+	private static final int MAXCHUNKLENGTH = 700;
+	private static final float[] CONSTANTDELAYS = new float[] { 10.0f, 10.25f, 10.5f, 37.75f };
+	private static final int IMPULSERESPONSELENGTH = 256;
+	private static final float TOLERANCE = 1.0e-5f;
+	
+	private TestVariableDelay() {}
+	
+	/**
+	 * Señal de retardo genérica, que sólo define la evaluación valor por valor.
+	 * Es el retardo especificado, modulado con una senoide
+	 */
+	private static final class DelaySignal extends ContinuousSignal {
+		private final float delay;
+		private final float depth;
+		
+		/**
+		 * @post Crea la señal con el retardo y la profundidad de modulación
+		 * 		 especificados, en segundos
+		 */
+		public DelaySignal(float delay, float depth) {
+			super(FloatClosedInterval.ALLRANGE);
+			this.delay = delay;
+			this.depth = depth;
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal#uncheckedGetValue(float)
+		 */
+		@Override
+		protected float uncheckedGetValue(float t) {
+			return this.delay + this.depth * (float) Math.sin( 2.0d * Math.PI * 0.7d * (double) t );
+		}
+	}
+	
+	/**
+	 * @post Devuelve si procesar la entrada especificada por bloques de tamaño aleatorio
+	 * 		 es equivalente bit a bit a procesarla muestra por muestra
+	 */
+	private static boolean compareChunks(ContinuousVariableDiscreteDelay.Interpolation interpolation, float[] input) {
+		final ContinuousSignal delaySignal = new DelaySignal(0.03f, 0.02f);
+		final DiscreteInputOutputBlock chunkedBlock = new ContinuousVariableDiscreteDelay(delaySignal, MAXDELAY, CHUNKSSAMPLERATE, interpolation);
+		final DiscreteInputOutputBlock sampledBlock = new ContinuousVariableDiscreteDelay(delaySignal, MAXDELAY, CHUNKSSAMPLERATE, interpolation);
+		
+		final float[] chunkedValues = input.clone();
+		final Random random = new Random(1);
+		for ( int offset = 0 ; offset < LENGTH ; ) {
+			final int length = Math.min(LENGTH - offset, 1 + random.nextInt(MAXCHUNKLENGTH));
+			chunkedBlock.process(chunkedValues, chunkedValues, offset, length);
+			offset += length;
+		}
+		
+		boolean equivalent = true;
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			sampledBlock.getInput().write(input[i]);
+			equivalent &= ( Float.floatToIntBits(chunkedValues[i]) == Float.floatToIntBits(sampledBlock.getOutput().read()) );
+		}
+		
+		return equivalent;
+	}
+	
+	/**
+	 * @post Devuelve si la respuesta al impulso con el retardo constante especificado,
+	 * 		 en muestras, tiene ganancia unitaria en continua y el centro de gravedad
+	 * 		 en el retardo, y en el pasatodo energía unitaria
+	 */
+	private static boolean checkImpulseResponse(ContinuousVariableDiscreteDelay.Interpolation interpolation, float delay) {
+		final DiscreteInputOutputBlock block = new ContinuousVariableDiscreteDelay(new DelaySignal(delay / SAMPLERATE, 0.0f), MAXDELAY, SAMPLERATE, interpolation);
+		
+		final float[] response = new float[IMPULSERESPONSELENGTH];
+		response[0] = 1.0f;
+		block.process(response, response, 0, IMPULSERESPONSELENGTH);
+		
+		double gain = 0.0d;
+		double moment = 0.0d;
+		double energy = 0.0d;
+		for ( int i = 0 ; i < IMPULSERESPONSELENGTH ; i++ ) {
+			gain += response[i];
+			moment += (double) i * response[i];
+			energy += (double) response[i] * response[i];
+		}
+		
+		boolean passed = ( Math.abs(gain - 1.0d) <= TOLERANCE ) && ( Math.abs(moment / gain - (double) delay) <= TOLERANCE );
+		
+		if ( interpolation == ContinuousVariableDiscreteDelay.Interpolation.ALLPASS ) {
+			passed &= ( Math.abs(energy - 1.0d) <= TOLERANCE );
+		}
+		
+		return passed;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si no pasó
+	 */
+	private static void report(String caseName, boolean passed, List<String> failedCases) {
+		System.out.println(caseName + ": " + ( passed ? "OK" : "FAILED" ));
+		
+		if ( !passed ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) {
+		final Random random = new Random(0);
+		final float[] input = new float[LENGTH];
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			input[i] = random.nextFloat() * 2.0f - 1.0f;
+		}
+		
+		final List<String> failedCases = new ArrayList<String>();
+		
+		for ( ContinuousVariableDiscreteDelay.Interpolation eachInterpolation : ContinuousVariableDiscreteDelay.Interpolation.values() ) {
+			report(eachInterpolation + " chunked equivalence", compareChunks(eachInterpolation, input), failedCases);
+			
+			for ( float eachDelay : CONSTANTDELAYS ) {
+				report(eachInterpolation + " impulse response with delay " + eachDelay, checkImpulseResponse(eachInterpolation, eachDelay), failedCases);
+			}
+		}
+		
+		if ( !failedCases.isEmpty() ) {
+			System.err.println("Failed cases: " + failedCases);
+			System.exit(1);
+		}
+	}
+}
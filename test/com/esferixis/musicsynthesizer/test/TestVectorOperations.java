@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.test;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.esferixis.math.intervalarithmetic.FloatClosedInterval;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousLinearAttackDecaySignal;
+import com.esferixis.musicsynthesizer.signal.continuous.ContinuousSignal;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SawtoothWave;
+import com.esferixis.musicsynthesizer.signal.continuous.periodic.SineWave;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.PowerDistorter;
+import com.esferixis.musicsynthesizer.signal.valueTransformer.ValueTransformer;
+import com.esferixis.musicsynthesizer.signal.vector.VectorOperations;
+
+/**
+ * Verifica que la evaluación por bloques con operaciones vectoriales sea
+ * equivalente a la evaluación escalar, valor por valor.
+ * 
+ * Las operaciones aritméticas tienen que coincidir bit a bit, y las que usan
+ * funciones trascendentes (Seno y potencia) pueden diferir en a lo sumo
+ * VectorOperations.MAXTRANSCENDENTALULPS ulps.
+ * Las ondas con tiempo de precisión doble se comparan con su fase exacta y con
+ * la implementación escalar, y pueden diferir en a lo sumo
+ * VectorOperations.MAXPRECISEWAVEERROR.
+ * Hay que lanzarlo con la salida del proyecto 'vector' en el classpath y
+ * '--add-modules jdk.incubator.vector', y termina con código
+ * de salida distinto de cero si algún caso no es equivalente
+ */
+public final class TestVectorOperations {
+	private static final int LENGTH = 4099;
+	private static final float TIMESTEP = 1.0f / 44100.0f;
+	private static final float[] STARTTIMES = new float[] { -0.5f, 0.0f, 1.0f, 37.25f, 1000.0f };
+	private static final double PRECISETIMESTEP = 1.0d / 44100.0d;
+	private static final double[] PRECISESTARTTIMES = new double[] { 0.0d, 1.0d / 3.0d, 37.25d, 1000.0d, 3600.0d };
+	private static final float[] PRECISEFREQUENCIES = new float[] { 27.5f, 440.0f, 15000.0f };
+	
+	private TestVectorOperations() {}
+	
+	/**
+	 * @post Devuelve la distancia en ulps entre los valores especificados
+	 */
+	private static long ulpDistance(float a, float b) {
+		if ( Float.isNaN(a) || Float.isNaN(b) ) {
+			return ( Float.isNaN(a) && Float.isNaN(b) ) ? 0 : Long.MAX_VALUE;
+		}
+		else {
+			long aBits = Float.floatToIntBits(a);
+			long bBits = Float.floatToIntBits(b);
+			
+			if ( aBits < 0 ) aBits = Integer.MIN_VALUE - aBits;
+			if ( bBits < 0 ) bBits = Integer.MIN_VALUE - bBits;
+			
+			return Math.abs(aBits - bBits);
+		}
+	}
+	
+	/**
+	 * @post Devuelve la máxima distancia en ulps entre la evaluación por bloques
+	 * 		 y valor por valor de la señal especificada
+	 */
+	private static long compareSignal(ContinuousSignal signal) {
+		final float[] values = new float[LENGTH];
+		long maxDistance = 0;
+		
+		for ( float startTime : STARTTIMES ) {
+			signal.getValues(values, 0, LENGTH, startTime, TIMESTEP);
+			
+			for ( int i = 0 ; i < LENGTH ; i++ ) {
+				maxDistance = Math.max(maxDistance, ulpDistance(values[i], signal.getValue(startTime + (float) i * TIMESTEP)));
+			}
+		}
+		
+		return maxDistance;
+	}
+	
+	/**
+	 * @post Devuelve la máxima diferencia absoluta entre la evaluación con tiempo de precisión
+	 * 		 doble de la onda senoidal o de diente de sierra especificada y su valor exacto.
+	 * 		 En la onda de diente de sierra se mide módulo la discontinuidad
+	 */
+	private static float comparePreciseWave(boolean sawtooth, float t0, float frequency) {
+		final ContinuousSignal wave;
+		if ( sawtooth ) {
+			wave = new SawtoothWave(FloatClosedInterval.ALLRANGE, t0, frequency);
+		}
+		else {
+			wave = new SineWave(FloatClosedInterval.ALLRANGE, t0, frequency);
+		}
+		
+		final float[] values = new float[LENGTH];
+		float maxError = 0.0f;
+		
+		for ( double startTime : PRECISESTARTTIMES ) {
+			wave.getPreciseValues(values, 0, LENGTH, startTime, PRECISETIMESTEP);
+			
+			final double phase = ( startTime - (double) t0 ) * (double) frequency;
+			final double phaseIncrement = PRECISETIMESTEP * (double) frequency;
+			
+			for ( int i = 0 ; i < LENGTH ; i++ ) {
+				final double unwrappedPhase = ( phase - Math.floor(phase) ) + (double) i * ( phaseIncrement - Math.floor(phaseIncrement) );
+				final double cyclePhase = unwrappedPhase - Math.floor(unwrappedPhase);
+				float error;
+				
+				if ( sawtooth ) {
+					error = Math.abs(values[i] - (float) ( cyclePhase * 2.0d - 1.0d ));
+					error = Math.min(error, Math.abs(2.0f - error));
+				}
+				else {
+					error = Math.abs(values[i] - (float) Math.sin(2.0d * Math.PI * cyclePhase));
+				}
+				
+				maxError = Math.max(maxError, error);
+			}
+		}
+		
+		return maxError;
+	}
+	
+	/**
+	 * @post Crea un cargador de clases con el classpath actual en el que la
+	 * 		 implementación vectorial está deshabilitada
+	 */
+	private static ClassLoader createScalarClassLoader() throws Exception {
+		final String[] paths = System.getProperty("java.class.path").split(File.pathSeparator);
+		final URL[] urls = new URL[paths.length];
+		
+		for ( int i = 0 ; i < paths.length ; i++ ) {
+			urls[i] = new File(paths[i]).toURI().toURL();
+		}
+		
+		final ClassLoader classLoader = new URLClassLoader(urls, ClassLoader.getPlatformClassLoader());
+		final String previousValue = System.setProperty("com.esferixis.musicsynthesizer.vector", "false");
+		
+		try {
+			if ( Class.forName(VectorOperations.class.getName(), true, classLoader).getMethod("getInstance").invoke(null) != null ) {
+				throw new IllegalStateException("Vector operations couldn't be disabled");
+			}
+		}
+		finally {
+			if ( previousValue != null ) {
+				System.setProperty("com.esferixis.musicsynthesizer.vector", previousValue);
+			}
+			else {
+				System.clearProperty("com.esferixis.musicsynthesizer.vector");
+			}
+		}
+		
+		return classLoader;
+	}
+	
+	/**
+	 * @post Devuelve la máxima diferencia absoluta entre la evaluación con tiempo de precisión
+	 * 		 doble de la onda senoidal o de diente de sierra especificada y la de la implementación
+	 * 		 escalar, cargada con el cargador de clases escalar especificado.
+	 * 		 En la onda de diente de sierra se mide módulo la discontinuidad
+	 */
+	private static float comparePreciseWaveWithScalar(ClassLoader scalarClassLoader, boolean sawtooth, float t0, float frequency) throws Exception {
+		final Class<?> waveClass = sawtooth ? SawtoothWave.class : SineWave.class;
+		
+		final Class<?> scalarIntervalClass = Class.forName(FloatClosedInterval.class.getName(), true, scalarClassLoader);
+		final Object scalarInterval = scalarIntervalClass.getField("ALLRANGE").get(null);
+		final Constructor<?> scalarConstructor = Class.forName(waveClass.getName(), true, scalarClassLoader).getConstructor(scalarIntervalClass, float.class, float.class);
+		final Object scalarWave = scalarConstructor.newInstance(scalarInterval, t0, frequency);
+		final Method scalarGetPreciseValues = scalarWave.getClass().getMethod("getPreciseValues", float[].class, int.class, int.class, double.class, double.class);
+		
+		final ContinuousSignal wave = (ContinuousSignal) waveClass.getConstructor(FloatClosedInterval.class, float.class, float.class).newInstance(FloatClosedInterval.ALLRANGE, t0, frequency);
+		
+		final float[] values = new float[LENGTH];
+		final float[] scalarValues = new float[LENGTH];
+		float maxError = 0.0f;
+		
+		for ( double startTime : PRECISESTARTTIMES ) {
+			wave.getPreciseValues(values, 0, LENGTH, startTime, PRECISETIMESTEP);
+			scalarGetPreciseValues.invoke(scalarWave, scalarValues, 0, LENGTH, startTime, PRECISETIMESTEP);
+			
+			for ( int i = 0 ; i < LENGTH ; i++ ) {
+				float error = Math.abs(values[i] - scalarValues[i]);
+				
+				if ( sawtooth ) {
+					error = Math.min(error, Math.abs(2.0f - error));
+				}
+				
+				maxError = Math.max(maxError, error);
+			}
+		}
+		
+		return maxError;
+	}
+	
+	/**
+	 * @post Devuelve la máxima distancia en ulps entre la transformación por bloques
+	 * 		 y valor por valor de la transformación especificada
+	 */
+	private static long compareTransformer(ValueTransformer valueTransformer) {
+		final Random random = new Random(0);
+		final float[] inputValues = new float[LENGTH];
+		final float[] values = new float[LENGTH];
+		
+		for ( int i = 0 ; i < LENGTH ; i++ ) {
+			inputValues[i] = ( random.nextFloat() * 2.0f - 1.0f ) * 4.0f;
+		}
+		inputValues[0] = 0.0f;
+		inputValues[1] = -0.0f;
+		inputValues[2] = Float.NaN;
+		inputValues[3] = Float.POSITIVE_INFINITY;
+		inputValues[4] = Float.NEGATIVE_INFINITY;
+		
+		System.arraycopy(inputValues, 0, values, 0, LENGTH);
+		valueTransformer.transform(values, 1, LENGTH-1);
+		
+		long maxDistance = 0;
+		for ( int i = 1 ; i < LENGTH ; i++ ) {
+			maxDistance = Math.max(maxDistance, ulpDistance(values[i], valueTransformer.transform(inputValues[i])));
+		}
+		
+		return maxDistance;
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso, y lo agrega a los casos fallidos
+	 * 		 si excede la tolerancia especificada
+	 */
+	private static void report(String caseName, long distance, long tolerance, List<String> failedCases) {
+		System.out.println(caseName + ": " + distance + " ulps (tolerance " + tolerance + ")");
+		
+		if ( distance > tolerance ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	/**
+	 * @post Informa el resultado de un caso con error absoluto, y lo agrega a los
+	 * 		 casos fallidos si excede la tolerancia especificada
+	 */
+	private static void report(String caseName, float error, float tolerance, List<String> failedCases) {
+		System.out.println(caseName + ": " + error + " (tolerance " + tolerance + ")");
+		
+		if ( error > tolerance ) {
+			failedCases.add(caseName);
+		}
+	}
+	
+	public static void main(String[] args) throws Exception {
+		final VectorOperations vectorOperations = VectorOperations.getInstance();
+		
+		if ( vectorOperations != null ) {
+			System.out.println("Lanes: " + vectorOperations.getLanesQuantity());
+			
+			final FloatClosedInterval interval = new FloatClosedInterval(-0.25f, 1500.0f);
+			final List<String> failedCases = new ArrayList<String>();
+			
+			report("SineWave", compareSignal(new SineWave(interval, 0.1f, 440.0f)), VectorOperations.MAXTRANSCENDENTALULPS, failedCases);
+			report("SawtoothWave", compareSignal(new SawtoothWave(interval, 0.1f, 440.0f)), 0, failedCases);
+			report("ContinuousLinearAttackDecaySignal", compareSignal(new ContinuousLinearAttackDecaySignal(interval, 0.5f, 2.0f)), 0, failedCases);
+			report("PowerDistorter", compareTransformer(new PowerDistorter(0.7f)), VectorOperations.MAXTRANSCENDENTALULPS, failedCases);
+			
+			for ( float eachFrequency : PRECISEFREQUENCIES ) {
+				report("Precise SineWave " + eachFrequency + " Hz", comparePreciseWave(false, 0.1f, eachFrequency), VectorOperations.MAXPRECISEWAVEERROR, failedCases);
+				report("Precise SawtoothWave " + eachFrequency + " Hz", comparePreciseWave(true, 0.1f, eachFrequency), VectorOperations.MAXPRECISEWAVEERROR, failedCases);
+			}
+			
+			final ClassLoader scalarClassLoader = createScalarClassLoader();
+			
+			for ( float eachFrequency : PRECISEFREQUENCIES ) {
+				report("Precise SineWave " + eachFrequency + " Hz against scalar", comparePreciseWaveWithScalar(scalarClassLoader, false, 0.1f, eachFrequency), VectorOperations.MAXPRECISEWAVEERROR, failedCases);
+				report("Precise SawtoothWave " + eachFrequency + " Hz against scalar", comparePreciseWaveWithScalar(scalarClassLoader, true, 0.1f, eachFrequency), VectorOperations.MAXPRECISEWAVEERROR, failedCases);
+			}
+			
+			if ( !failedCases.isEmpty() ) {
+				System.err.println("Cases out of tolerance: " + failedCases);
+				System.exit(1);
+			}
+		}
+		else {
+			System.err.println("Vector operations aren't available");
+			System.exit(1);
+		}
+	}
+}
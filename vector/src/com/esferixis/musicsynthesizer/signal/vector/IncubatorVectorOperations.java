@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) 2017 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.musicsynthesizer.signal.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementación de las operaciones vectoriales con el módulo 'jdk.incubator.vector'.
+ * Usa la forma de vector preferida de la plataforma.
+ * Los restos que no llegan a completar un vector se procesan con la misma
+ * fórmula escalar que las señales y transformaciones
+ */
+final class IncubatorVectorOperations extends VectorOperations {
+	private static final VectorSpecies<Float> FLOATSPECIES = FloatVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Double> DOUBLESPECIES = DoubleVector.SPECIES_PREFERRED;
+	
+	/**
+	 * Especie de la mitad de tamaño, para convertir la mitad de un vector de precisión doble
+	 */
+	private static final VectorSpecies<Float> HALFFLOATSPECIES = VectorSpecies.of(float.class, VectorShape.forBitSize(FLOATSPECIES.vectorBitSize() / 2));
+	
+	/**
+	 * Índices de los carriles (0, 1, 2, ...)
+	 */
+	private static final FloatVector LANEINDICES = FloatVector.zero(FLOATSPECIES).addIndex(1);
+	
+	/**
+	 * Índices de los carriles de precisión doble (0, 1, 2, ...)
+	 */
+	private static final DoubleVector DOUBLELANEINDICES = DoubleVector.zero(DOUBLESPECIES).addIndex(1);
+	
+	/**
+	 * Valor a partir del cual todos los valores en precisión simple son enteros
+	 */
+	private static final float MININTEGRALVALUE = 8388608.0f;
+	
+	/**
+	 * Valor a partir del cual todos los valores en precisión doble son enteros
+	 */
+	private static final double MININTEGRALDOUBLEVALUE = 4503599627370496.0d;
+	
+	/**
+	 * @post Crea las operaciones vectoriales
+	 */
+	IncubatorVectorOperations() {
+		if ( DOUBLESPECIES.length() * 2 != FLOATSPECIES.length() ) {
+			throw new IllegalStateException("Unexpected vector species");
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.vector.VectorOperations#getLanesQuantity()
+	 */
+	@Override
+	public int getLanesQuantity() {
+		return FLOATSPECIES.length();
+	}
+	
+	/**
+	 * @post Devuelve los instantes de tiempo del vector que empieza en el índice especificado
+	 */
+	private static FloatVector times(int i, float startTime, float timeStep) {
+		return LANEINDICES.add((float) i).mul(timeStep).add(startTime);
+	}
+	
+	/**
+	 * @post Pone en cero los valores del vector que empieza en el índice especificado
+	 * 		 cuyos carriles no estén en la máscara especificada
+	 */
+	private static void clearOutside(float[] values, int index, VectorMask<Float> inRange) {
+		if ( !inRange.allTrue() ) {
+			for ( int j = 0 ; j < FLOATSPECIES.length() ; j++ ) {
+				if ( !inRange.laneIsSet(j) ) {
+					values[index+j] = 0.0f;
+				}
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.vector.VectorOperations#sine(float[], int, int, float, float, float, float, float, float)
+	 */
+	@Override
+	public void sine(float[] values, int offset, int length, float startTime, float timeStep, float minTime, float maxTime, float t0, float frequency) {
+		final int halfLanes = HALFFLOATSPECIES.length();
+		final int bound = FLOATSPECIES.loopBound(length);
+		
+		int i;
+		for ( i = 0 ; i < bound ; i += FLOATSPECIES.length() ) {
+			final FloatVector t = times(i, startTime, timeStep);
+			final FloatVector localT = t.sub(t0);
+			
+			for ( int part = 0 ; part < 2 ; part++ ) {
+				final DoubleVector angle = ((DoubleVector) localT.convertShape(VectorOperators.F2D, DOUBLESPECIES, part)).mul(Math.PI).mul(2.0d).mul((double) frequency);
+				
+				((FloatVector) angle.lanewise(VectorOperators.SIN).convertShape(VectorOperators.D2F, HALFFLOATSPECIES, 0)).intoArray(values, offset + i + part * halfLanes);
+			}
+			
+			clearOutside(values, offset + i, t.compare(VectorOperators.GE, minTime).and(t.compare(VectorOperators.LE, maxTime)));
+		}
+		
+		for ( ; i < length ; i++ ) {
+			final float t = startTime + (float) i * timeStep;
+			
+			if ( ( t >= minTime ) && ( t <= maxTime ) ) {
+				values[offset+i] = (float) Math.sin( (double) (t - t0 ) * Math.PI * 2.0f * frequency );
+			}
+			else {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.vector.VectorOperations#sawtooth(float[], int, int, float, float, float, float, float, float)
+	 */
+	@Override
+	public void sawtooth(float[] values, int offset, int length, float startTime, float timeStep, float minTime, float maxTime, float t0, float frequency) {
+		final int bound = FLOATSPECIES.loopBound(length);
+		
+		int i;
+		for ( i = 0 ; i < bound ; i += FLOATSPECIES.length() ) {
+			final FloatVector t = times(i, startTime, timeStep);
+			final FloatVector localT = t.sub(t0).mul(frequency);
+			
+			// Redondeo hacia abajo: Redondea el valor absoluto al entero más cercano sumando y restando 2^23,
+			// le restituye el signo, corrige los que quedaron por encima, y deja igual los valores que ya son enteros
+			final FloatVector absLocalT = localT.abs();
+			final FloatVector roundedAbs = absLocalT.add(MININTEGRALVALUE).sub(MININTEGRALVALUE);
+			final FloatVector rounded = roundedAbs.blend(roundedAbs.neg(), localT.compare(VectorOperators.LT, 0.0f));
+			final FloatVector floor = rounded.blend(rounded.sub(1.0f), rounded.compare(VectorOperators.GT, localT)).blend(localT, absLocalT.compare(VectorOperators.GE, MININTEGRALVALUE));
+			
+			localT.sub(floor).mul(2.0f).sub(1.0f).intoArray(values, offset + i);
+			
+			clearOutside(values, offset + i, t.compare(VectorOperators.GE, minTime).and(t.compare(VectorOperators.LE, maxTime)));
+		}
+		
+		for ( ; i < length ; i++ ) {
+			final float t = startTime + (float) i * timeStep;
+			
+			if ( ( t >= minTime ) && ( t <= maxTime ) ) {
+				final float localT = (t - t0) * frequency;
+				
+				values[offset+i] = (localT - (float) Math.floor(localT)) * 2.0f - 1.0f;
+			}
+			else {
+				values[offset+i] = 0.0f;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.vector.VectorOperations#preciseSine(float[], int, int, double, double)
+	 */
+	@Override
+	public void preciseSine(float[] values, int offset, int length, double angle, double angleStep) {
+		// Un oscilador de rotación por carril: cada carril empieza en su muestra,
+		// y cada vector rota el ángulo de tantas muestras como carriles hay
+		final int lanes = DOUBLESPECIES.length();
+		final int bound = DOUBLESPECIES.loopBound(length);
+		final DoubleVector laneAngles = DOUBLELANEINDICES.mul(angleStep).add(angle);
+		final double vectorAngleStep = angleStep * (double) lanes;
+		final double vectorCosStep = Math.cos(vectorAngleStep);
+		final double vectorSinStep = Math.sin(vectorAngleStep);
+		
+		DoubleVector cos = laneAngles.lanewise(VectorOperators.COS);
+		DoubleVector sin = laneAngles.lanewise(VectorOperators.SIN);
+		
+		int i;
+		for ( i = 0 ; i < bound ; i += lanes ) {
+			((FloatVector) sin.convertShape(VectorOperators.D2F, HALFFLOATSPECIES, 0)).intoArray(values, offset + i);
+			
+			final DoubleVector nextCos = cos.mul(vectorCosStep).sub(sin.mul(vectorSinStep));
+			sin = sin.mul(vectorCosStep).add(cos.mul(vectorSinStep));
+			cos = nextCos;
+		}
+		
+		if ( i < length ) {
+			// El resto usa el oscilador escalar, que empieza en el ángulo de su primera muestra
+			final double cosStep = Math.cos(angleStep);
+			final double sinStep = Math.sin(angleStep);
+			double scalarCos = Math.cos(angle + (double) i * angleStep);
+			double scalarSin = Math.sin(angle + (double) i * angleStep);
+			
+			for ( ; i < length ; i++ ) {
+				values[offset+i] = (float) scalarSin;
+				
+				final double nextCos = scalarCos * cosStep - scalarSin * sinStep;
+				scalarSin = scalarSin * cosStep + scalarCos * sinStep;
+				scalarCos = nextCos;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.vector.VectorOperations#preciseSawtooth(float[], int, int, double, double)
+	 */
+	@Override
+	public void preciseSawtooth(float[] values, int offset, int length, double phase, double phaseIncrement) {
+		final int lanes = DOUBLESPECIES.length();
+		final int bound = DOUBLESPECIES.loopBound(length);
+		
+		int i;
+		for ( i = 0 ; i < bound ; i += lanes ) {
+			final DoubleVector unwrappedPhase = DOUBLELANEINDICES.add((double) i).mul(phaseIncrement).add(phase);
+			
+			// Redondeo hacia abajo de valores no negativos: Redondea al entero más cercano
+			// sumando y restando 2^52, y corrige los que quedaron por encima
+			final DoubleVector rounded = unwrappedPhase.add(MININTEGRALDOUBLEVALUE).sub(MININTEGRALDOUBLEVALUE);
+			final DoubleVector floor = rounded.blend(rounded.sub(1.0d), rounded.compare(VectorOperators.GT, unwrappedPhase));
+			
+			((FloatVector) unwrappedPhase.sub(floor).mul(2.0d).sub(1.0d).convertShape(VectorOperators.D2F, HALFFLOATSPECIES, 0)).intoArray(values, offset + i);
+		}
+		
+		for ( ; i < length ; i++ ) {
+			final double unwrappedPhase = phase + (double) i * phaseIncrement;
+			
+			values[offset+i] = (float) ( ( unwrappedPhase - Math.floor(unwrappedPhase) ) * 2.0d - 1.0d );
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.vector.VectorOperations#linearAttackDecay(float[], int, int, float, float, float, float, float, float)
+	 */
+	@Override
+	public void linearAttackDecay(float[] values, int offset, int length, float startTime, float timeStep, float minTime, float maxTime, float attackTime, float decayTime) {
+		final float attackEnd = minTime + attackTime;
+		final float decayStart = maxTime - decayTime;
+		final FloatVector one = FloatVector.broadcast(FLOATSPECIES, 1.0f);
+		final FloatVector max = FloatVector.broadcast(FLOATSPECIES, maxTime);
+		final int bound = FLOATSPECIES.loopBound(length);
+		
+		int i;
+		for ( i = 0 ; i < bound ; i += FLOATSPECIES.length() ) {
+			final FloatVector t = times(i, startTime, timeStep);
+			
+			one.blend(max.sub(t).div(decayTime), t.compare(VectorOperators.GT, decayStart))
+				.blend(t.sub(minTime).div(attackTime), t.compare(VectorOperators.LT, attackEnd))
+				.intoArray(values, offset + i);
+		}
+		
+		for ( ; i < length ; i++ ) {
+			final float t = startTime + (float) i * timeStep;
+			
+			if ( t < attackEnd ) {
+				values[offset+i] = ( t - minTime ) / attackTime;
+			}
+			else if ( t > decayStart ) {
+				values[offset+i] = ( maxTime - t ) / decayTime;
+			}
+			else {
+				values[offset+i] = 1.0f;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.musicsynthesizer.signal.vector.VectorOperations#power(float[], int, int, float)
+	 */
+	@Override
+	public void power(float[] values, int offset, int length, float exponent) {
+		final int bound = FLOATSPECIES.loopBound(length);
+		
+		int i;
+		for ( i = 0 ; i < bound ; i += FLOATSPECIES.length() ) {
+			final FloatVector value = FloatVector.fromArray(FLOATSPECIES, values, offset + i);
+			
+			// Signo: +1 o -1, y deja igual el cero y NaN
+			final FloatVector signum = value.blend(1.0f, value.compare(VectorOperators.GT, 0.0f)).blend(-1.0f, value.compare(VectorOperators.LT, 0.0f));
+			
+			value.abs().pow(exponent).mul(signum).intoArray(values, offset + i);
+		}
+		
+		for ( ; i < length ; i++ ) {
+			final float value = values[offset+i];
+			
+			values[offset+i] = (float) Math.pow(Math.abs(value), exponent) * Math.signum(value);
+		}
+	}
+}